@@ -0,0 +1,302 @@
+package com.taskmanager.benchmark;
+
+import com.taskmanager.util.DBUtil;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 压测数据生成器：批量写入用户、分类和任务
+// 任务在用户之间按Zipf分布分配，skew为0时均匀分布，越大越集中在少数活跃用户上
+//
+// 使用方式（数据库由db.config指定，默认为db.properties中的MySQL）：
+//   java -cp target/benchmarks.jar com.taskmanager.benchmark.DataGenerator \
+//       --users=100000 --categories=5 --tasks=5000000 --skew=1.1 --seed=42
+public class DataGenerator {
+    private static final String[] VERBS = {"完成", "整理", "跟进", "准备", "检查", "更新", "提交", "讨论", "review", "fix"};
+    private static final String[] NOUNS = {"季度报告", "项目计划", "会议纪要", "需求文档", "测试用例", "周报",
+            "预算表", "客户反馈", "设计稿", "release notes", "deploy script", "invoice"};
+    private static final String[] CATEGORY_NAMES = {"工作", "学习", "生活", "健身", "购物", "旅行", "阅读", "家庭"};
+
+    // 生成参数
+    public static class Options {
+        int users = 1000;
+        int categoriesPerUser = 5;
+        int tasks = 50000;
+        double skew = 1.0;
+        long seed = 42;
+        int batchSize = 1000;
+        // 任务内容的最大长度，实际长度在0到该值之间随机
+        int maxContentLength = 400;
+
+        public static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("参数格式应为 --name=value：" + arg);
+                }
+                switch (pair[0]) {
+                    case "users":
+                        options.users = Integer.parseInt(pair[1]);
+                        break;
+                    case "categories":
+                        options.categoriesPerUser = Integer.parseInt(pair[1]);
+                        break;
+                    case "tasks":
+                        options.tasks = Integer.parseInt(pair[1]);
+                        break;
+                    case "skew":
+                        options.skew = Double.parseDouble(pair[1]);
+                        break;
+                    case "seed":
+                        options.seed = Long.parseLong(pair[1]);
+                        break;
+                    case "batch":
+                        options.batchSize = Integer.parseInt(pair[1]);
+                        break;
+                    case "contentLength":
+                        options.maxContentLength = Integer.parseInt(pair[1]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("未知参数：" + pair[0]);
+                }
+            }
+            if (options.users <= 0 || options.categoriesPerUser < 0 || options.tasks < 0
+                    || options.skew < 0 || options.batchSize <= 0 || options.maxContentLength < 0) {
+                throw new IllegalArgumentException("参数取值错误");
+            }
+            return options;
+        }
+
+        public Options users(int users) {
+            this.users = users;
+            return this;
+        }
+
+        public Options categoriesPerUser(int categoriesPerUser) {
+            this.categoriesPerUser = categoriesPerUser;
+            return this;
+        }
+
+        public Options tasks(int tasks) {
+            this.tasks = tasks;
+            return this;
+        }
+
+        public Options skew(double skew) {
+            this.skew = skew;
+            return this;
+        }
+
+        public Options seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+    }
+
+    // 生成结果：用户ID为[firstUserId, firstUserId + users)，排名越靠前（ID越小）的用户任务越多
+    public static class Result {
+        public final int firstUserId;
+        public final int users;
+        public final UserSampler sampler;
+
+        Result(int firstUserId, int users, UserSampler sampler) {
+            this.firstUserId = firstUserId;
+            this.users = users;
+            this.sampler = sampler;
+        }
+
+        public int userId(int rank) {
+            return firstUserId + rank;
+        }
+    }
+
+    // 按Zipf分布抽取用户排名，基准测试可用同一分布模拟热点用户的访问
+    public static class UserSampler {
+        private final double[] cdf;
+
+        public UserSampler(int users, double skew) {
+            cdf = new double[users];
+            double sum = 0;
+            for (int i = 0; i < users; i++) {
+                sum += 1.0 / Math.pow(i + 1, skew);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < users; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        // 返回0开始的用户排名
+        public int next(Random random) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            index = index >= 0 ? index : -index - 1;
+            return Math.min(index, cdf.length - 1);
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Options options = Options.parse(args);
+        long start = System.nanoTime();
+        Result result = generate(options);
+        System.out.printf("生成完成：用户 %d（起始ID %d），每用户分类 %d，任务 %d，skew=%.2f，耗时 %d 秒%n",
+                result.users, result.firstUserId, options.categoriesPerUser, options.tasks, options.skew,
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+
+    public static Result generate(Options options) throws SQLException {
+        Random random = new Random(options.seed);
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // 显式指定ID，便于在不回读的情况下为分类和任务设置外键；已有数据时从最大ID之后开始
+                int firstUserId = maxId(conn, "users", "user_id") + 1;
+                int firstCategoryId = maxId(conn, "categories", "category_id") + 1;
+                insertUsers(conn, options, firstUserId);
+                insertCategories(conn, options, firstUserId, firstCategoryId);
+                UserSampler sampler = new UserSampler(options.users, options.skew);
+                insertTasks(conn, options, random, sampler, firstUserId, firstCategoryId);
+                insertCounters(conn, firstUserId);
+                conn.commit();
+                if (!DBUtil.isMySQL()) {
+                    // H2不会因显式写入的ID推进自增序列，需要手动调整，否则之后的普通插入会主键冲突
+                    restartIdentity(conn, "users", "user_id", firstUserId + options.users);
+                    restartIdentity(conn, "categories", "category_id",
+                            firstCategoryId + options.users * options.categoriesPerUser);
+                }
+                return new Result(firstUserId, options.users, sampler);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static int maxId(Connection conn, String table, String column) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void restartIdentity(Connection conn, String table, String column, int next)
+            throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " RESTART WITH " + next);
+        }
+    }
+
+    private static void insertUsers(Connection conn, Options options, int firstUserId) throws SQLException {
+        String sql = "INSERT INTO users (user_id, username, password, email) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < options.users; i++) {
+                int userId = firstUserId + i;
+                pstmt.setInt(1, userId);
+                pstmt.setString(2, "gen_user_" + userId);
+                pstmt.setString(3, "password");
+                pstmt.setString(4, "gen_user_" + userId + "@example.com");
+                pstmt.addBatch();
+                flush(conn, pstmt, i + 1, options.batchSize);
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void insertCategories(Connection conn, Options options, int firstUserId, int firstCategoryId)
+            throws SQLException {
+        String sql = "INSERT INTO categories (category_id, user_id, category_name) VALUES (?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int count = 0;
+            for (int i = 0; i < options.users; i++) {
+                for (int k = 0; k < options.categoriesPerUser; k++) {
+                    pstmt.setInt(1, firstCategoryId + i * options.categoriesPerUser + k);
+                    pstmt.setInt(2, firstUserId + i);
+                    pstmt.setString(3, CATEGORY_NAMES[k % CATEGORY_NAMES.length] + (k / CATEGORY_NAMES.length + 1));
+                    pstmt.addBatch();
+                    flush(conn, pstmt, ++count, options.batchSize);
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static void insertTasks(Connection conn, Options options, Random random, UserSampler sampler,
+                                    int firstUserId, int firstCategoryId) throws SQLException {
+        String sql = "INSERT INTO tasks (user_id, category_id, title, content, priority, due_date, status, "
+                + "created_date, modified_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        long now = System.currentTimeMillis();
+        long day = TimeUnit.DAYS.toMillis(1);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < options.tasks; i++) {
+                int rank = sampler.next(random);
+                pstmt.setInt(1, firstUserId + rank);
+                // 约10%的任务不属于任何分类
+                if (options.categoriesPerUser == 0 || random.nextInt(10) == 0) {
+                    pstmt.setNull(2, Types.INTEGER);
+                } else {
+                    pstmt.setInt(2, firstCategoryId + rank * options.categoriesPerUser
+                            + random.nextInt(options.categoriesPerUser));
+                }
+                pstmt.setString(3, VERBS[random.nextInt(VERBS.length)] + NOUNS[random.nextInt(NOUNS.length)]
+                        + " #" + (i + 1));
+                pstmt.setString(4, content(random, options.maxContentLength));
+                pstmt.setInt(5, 1 + random.nextInt(4));
+                // 截止日期分布在前后半年内，约5%未设置
+                if (random.nextInt(20) == 0) {
+                    pstmt.setNull(6, Types.DATE);
+                } else {
+                    pstmt.setDate(6, new Date(now + (random.nextInt(365) - 182) * day));
+                }
+                pstmt.setInt(7, random.nextInt(3));
+                long created = now - random.nextInt(365) * day - random.nextInt((int) day);
+                pstmt.setTimestamp(8, new Timestamp(created));
+                pstmt.setTimestamp(9, new Timestamp(created + random.nextInt(30) * day));
+                pstmt.addBatch();
+                flush(conn, pstmt, i + 1, options.batchSize);
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    // 批量写入绕过了DAO，按生成的任务初始化计数表
+    private static void insertCounters(Connection conn, int firstUserId) throws SQLException {
+        String sql = "INSERT INTO task_counters (user_id, category_id, status, priority, task_count) "
+                + "SELECT user_id, COALESCE(category_id, 0), status, priority, COUNT(*) FROM tasks "
+                + "WHERE user_id>=? GROUP BY user_id, COALESCE(category_id, 0), status, priority";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, firstUserId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // 每满一批执行并提交一次，避免单个事务过大
+    private static void flush(Connection conn, PreparedStatement pstmt, int count, int batchSize)
+            throws SQLException {
+        if (count % batchSize == 0) {
+            pstmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    private static String content(Random random, int maxLength) {
+        int length = maxLength == 0 ? 0 : random.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            sb.append(NOUNS[random.nextInt(NOUNS.length)]).append(random.nextBoolean() ? "，" : " ");
+        }
+        sb.setLength(length);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,100 @@
+package com.taskmanager.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.taskmanager.util.DateUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// 请求日期参数的解析和任务日期字段的JSON序列化：原来的SimpleDateFormat/java.util.Date与现在的java.time对比
+// 共享的SimpleDateFormat不是线程安全的，这里加锁后才能作为对照组；用 -t 4 等多线程运行时可以看到锁竞争的开销
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DateHandlingBenchmark {
+    private static final String DATE = "2024-06-30";
+
+    // 与任务相同的三个日期字段
+    static class LegacyDates {
+        Date dueDate;
+        Date createdDate;
+        Date modifiedDate;
+    }
+
+    static class Dates {
+        LocalDate dueDate;
+        LocalDateTime createdDate;
+        LocalDateTime modifiedDate;
+    }
+
+    private SimpleDateFormat sharedFormat;
+    private Gson legacyGson;
+    private Gson gson;
+    private LegacyDates legacyDates;
+    private Dates dates;
+
+    @Setup
+    public void setUp() throws ParseException {
+        sharedFormat = new SimpleDateFormat("yyyy-MM-dd");
+        legacyGson = new GsonBuilder().setDateFormat("yyyy-MM-dd").create();
+        gson = DateUtil.gsonBuilder().create();
+
+        LocalDateTime created = LocalDateTime.of(2024, 6, 1, 9, 30);
+        LocalDateTime modified = LocalDateTime.of(2024, 6, 2, 18, 5);
+        legacyDates = new LegacyDates();
+        legacyDates.dueDate = sharedFormat.parse(DATE);
+        legacyDates.createdDate = java.sql.Timestamp.valueOf(created);
+        legacyDates.modifiedDate = java.sql.Timestamp.valueOf(modified);
+        dates = new Dates();
+        dates.dueDate = LocalDate.of(2024, 6, 30);
+        dates.createdDate = created;
+        dates.modifiedDate = modified;
+    }
+
+    // 原来的做法：所有请求共享一个SimpleDateFormat（加锁保证结果正确）
+    @Benchmark
+    public Date parseSharedSimpleDateFormat() throws ParseException {
+        synchronized (sharedFormat) {
+            return sharedFormat.parse(DATE);
+        }
+    }
+
+    // 不共享时每次都要创建SimpleDateFormat
+    @Benchmark
+    public Date parseNewSimpleDateFormat() throws ParseException {
+        return new SimpleDateFormat("yyyy-MM-dd").parse(DATE);
+    }
+
+    @Benchmark
+    public LocalDate parseDateTimeFormatter() {
+        return DateUtil.parseDate(DATE);
+    }
+
+    @Benchmark
+    public String serializeLegacyDates() {
+        return legacyGson.toJson(legacyDates);
+    }
+
+    @Benchmark
+    public String serializeDates() {
+        return gson.toJson(dates);
+    }
+}
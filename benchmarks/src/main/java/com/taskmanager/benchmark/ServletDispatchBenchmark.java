@@ -0,0 +1,72 @@
+package com.taskmanager.benchmark;
+
+import com.taskmanager.servlet.CategoryServlet;
+import com.taskmanager.servlet.TaskServlet;
+import com.taskmanager.servlet.UserServlet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+// 请求分发开销：从HttpServlet.service进入，经过ApiRouter路由表匹配，到写出JSON响应
+// 请求不带登录用户，路由表在调用处理方法之前即返回401，未知路径返回404
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServletDispatchBenchmark {
+
+    // 格式为“servlet:方法:路径”，分别覆盖路由表中的路径和不存在的路径
+    @Param({
+            "task:GET:/list", "task:GET:/query", "task:GET:/missing",
+            "task:POST:/create", "task:POST:/updateStatus",
+            "category:GET:/list", "category:GET:/missing",
+            "user:GET:/info", "user:GET:/missing"
+    })
+    private String route;
+
+    private HttpServlet servlet;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        String[] parts = route.split(":");
+        switch (parts[0]) {
+            case "task":
+                servlet = new TaskServlet();
+                break;
+            case "category":
+                servlet = new CategoryServlet();
+                break;
+            default:
+                servlet = new UserServlet();
+                break;
+        }
+        request = Stubs.request(parts[1], parts[2], Stubs.session(new HashMap<>()), null);
+        response = Stubs.response(new Stubs.CountingWriter());
+    }
+
+    @Benchmark
+    public HttpServletResponse dispatch() throws ServletException, IOException {
+        servlet.service(request, response);
+        return response;
+    }
+}
@@ -0,0 +1,150 @@
+package com.taskmanager.benchmark;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+// 基准测试使用的JDBC和Servlet替身，只实现被测代码实际调用到的方法
+// 替身本身的开销由各基准中的baseline方法单独测量
+public final class Stubs {
+
+    private Stubs() {
+    }
+
+    // 按列名返回固定值的单行ResultSet
+    public static ResultSet resultSet(Map<String, Object> row) {
+        return (ResultSet) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getInt":
+                            Object number = row.get(args[0]);
+                            return number == null ? 0 : number;
+                        case "getString":
+                        case "getDate":
+                        case "getTimestamp":
+                        case "getObject":
+                            return row.get(args[0]);
+                        case "wasNull":
+                            return false;
+                        case "next":
+                            return true;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    public static HttpSession session(Map<String, Object> attributes) {
+        return (HttpSession) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{HttpSession.class},
+                (proxy, method, args) -> {
+                    if ("getAttribute".equals(method.getName())) {
+                        return attributes.get(args[0]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // session为null时表示未登录
+    public static HttpServletRequest request(String method, String pathInfo, HttpSession session,
+                                             Map<String, String> parameters) {
+        Map<String, String> params = parameters == null ? Collections.<String, String>emptyMap() : parameters;
+        Map<String, Object> attributes = new HashMap<>();
+        return (HttpServletRequest) Proxy.newProxyInstance(Stubs.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class},
+                (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "getMethod":
+                            return method;
+                        case "getPathInfo":
+                            return pathInfo;
+                        case "getSession":
+                            return session;
+                        case "getParameter":
+                            return params.get(args[0]);
+                        case "getParameterValues":
+                            String value = params.get(args[0]);
+                            return value == null ? null : new String[]{value};
+                        case "getHeader":
+                        case "getAttribute":
+                            return attributes.get(args[0]);
+                        case "setAttribute":
+                            attributes.put((String) args[0], args[1]);
+                            return null;
+                        case "getDateHeader":
+                            return -1L;
+                        case "getProtocol":
+                            return "HTTP/1.1";
+                        case "isAsyncSupported":
+                            return false;
+                        default:
+                            throw new UnsupportedOperationException(m.getName());
+                    }
+                });
+    }
+
+    // 响应体写入调用方提供的Writer，其余方法忽略
+    public static HttpServletResponse response(Writer body) {
+        PrintWriter writer = new PrintWriter(body);
+        return (HttpServletResponse) Proxy.newProxyInstance(Stubs.class.getClassLoader(),
+                new Class<?>[]{HttpServletResponse.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getWriter":
+                            return writer;
+                        case "isCommitted":
+                            return false;
+                        case "getStatus":
+                            return 200;
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+
+    // 丢弃写入内容、只统计字符数的Writer，避免基准测试中缓冲区不断增长
+    public static class CountingWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
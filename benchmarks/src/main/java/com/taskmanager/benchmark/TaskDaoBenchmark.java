@@ -0,0 +1,111 @@
+package com.taskmanager.benchmark;
+
+import com.taskmanager.bean.Task;
+import com.taskmanager.bean.TaskPage;
+import com.taskmanager.bean.TaskQuery;
+import com.taskmanager.bean.TaskStats;
+import com.taskmanager.dao.TaskDao;
+import com.taskmanager.dao.impl.TaskDaoImpl;
+import com.taskmanager.service.TaskService;
+import com.taskmanager.service.impl.TaskServiceImpl;
+import com.taskmanager.util.DBUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// DAO和Service层的吞吐量：先用DataGenerator灌入数据，再按同样的Zipf分布挑选用户发起查询
+// 默认使用内嵌H2；指定 -jvmArgs -Ddb.config=db.properties 可改为压测MySQL
+// 多线程压测：java -jar target/benchmarks.jar TaskDaoBenchmark -t 8
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskDaoBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+        @Param({"1000"})
+        int users;
+
+        @Param({"100000"})
+        int tasks;
+
+        @Param({"1.1"})
+        double skew;
+
+        DataGenerator.Result data;
+        TaskDao taskDao;
+        TaskService taskService;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            // 必须在DBUtil加载之前设置
+            if (System.getProperty(DBUtil.CONFIG_PROPERTY) == null) {
+                System.setProperty(DBUtil.CONFIG_PROPERTY, "db-h2.properties");
+            }
+            data = DataGenerator.generate(new DataGenerator.Options().users(users).tasks(tasks).skew(skew));
+            taskDao = new TaskDaoImpl();
+            taskService = new TaskServiceImpl();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        final Random random = new Random();
+
+        int nextUserId(Dataset dataset) {
+            return dataset.data.userId(dataset.data.sampler.next(random));
+        }
+    }
+
+    @Benchmark
+    public List<Task> findByUserId(Dataset dataset, Caller caller) {
+        return dataset.taskDao.findByUserId(caller.nextUserId(dataset));
+    }
+
+    @Benchmark
+    public List<Task> findFirstPage(Dataset dataset, Caller caller) {
+        return dataset.taskDao.findPageByUserId(caller.nextUserId(dataset), null, TaskServiceImpl.DEFAULT_PAGE_SIZE + 1);
+    }
+
+    @Benchmark
+    public List<Task> queryByStatus(Dataset dataset, Caller caller) {
+        TaskQuery query = new TaskQuery(caller.nextUserId(dataset));
+        query.getStatuses().add(caller.random.nextInt(3));
+        query.setLimit(TaskServiceImpl.MAX_QUERY_LIMIT);
+        return dataset.taskDao.query(query);
+    }
+
+    // 按状态计数和统计接口，从计数表读取
+    @Benchmark
+    public Map<Integer, Integer> countGroupByStatus(Dataset dataset, Caller caller) {
+        return dataset.taskDao.countGroupByStatus(caller.nextUserId(dataset));
+    }
+
+    @Benchmark
+    public TaskStats stats(Dataset dataset, Caller caller) {
+        return dataset.taskDao.stats(caller.nextUserId(dataset), LocalDate.now());
+    }
+
+    // 经过Service层（含任务缓存）的首页读取
+    @Benchmark
+    public TaskPage serviceFirstPage(Dataset dataset, Caller caller) {
+        return dataset.taskService.getUserTasksPage(caller.nextUserId(dataset), null, null);
+    }
+}
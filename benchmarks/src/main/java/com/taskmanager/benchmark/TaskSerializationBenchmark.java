@@ -0,0 +1,90 @@
+package com.taskmanager.benchmark;
+
+import com.google.gson.Gson;
+import com.taskmanager.bean.Task;
+import com.taskmanager.servlet.TaskServlet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// 任务列表接口的JSON序列化开销：与TaskServlet相同的Gson配置和响应结构
+// contentLength为任务内容的字符数，summary为true时按列表查询的摘要列（预览、无内容和时间字段）构造任务
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    @Param({"60", "2000"})
+    private int contentLength;
+
+    @Param({"false", "true"})
+    private boolean summary;
+
+    private Gson gson;
+    private List<Task> tasks;
+
+    @Setup
+    public void setUp() throws Exception {
+        // 直接取TaskServlet中的Gson实例，保证配置与线上一致
+        Field field = TaskServlet.class.getDeclaredField("gson");
+        field.setAccessible(true);
+        gson = (Gson) field.get(new TaskServlet());
+
+        tasks = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.of(2024, 6, 1, 9, 30);
+        StringBuilder content = new StringBuilder();
+        while (content.length() < contentLength) {
+            content.append("任务内容，包含一段描述文字，用于模拟真实的任务数据。");
+        }
+        content.setLength(contentLength);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task();
+            task.setTaskId(i + 1);
+            task.setUserId(7);
+            task.setCategoryId(i % 5 + 1);
+            task.setTitle("任务标题 " + i);
+            task.setPriority(i % 4);
+            task.setStatus(i % 3);
+            task.setDueDate(now.toLocalDate().plusDays(i % 30));
+            if (summary) {
+                task.setDescription(content.substring(0, Math.min(contentLength, Task.PREVIEW_LENGTH)));
+            } else {
+                task.setContent(content.toString());
+                task.setDescription(task.getContent());
+                task.setCreatedDate(now.minusDays(30));
+                task.setModifiedDate(now);
+            }
+            tasks.add(task);
+        }
+    }
+
+    @Benchmark
+    public String toJson() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("tasks", tasks);
+        return gson.toJson(result);
+    }
+}
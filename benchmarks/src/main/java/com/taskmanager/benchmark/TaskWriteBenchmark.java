@@ -0,0 +1,143 @@
+package com.taskmanager.benchmark;
+
+import com.taskmanager.bean.Task;
+import com.taskmanager.dao.TaskDao;
+import com.taskmanager.dao.impl.TaskDaoImpl;
+import com.taskmanager.util.DBUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 任务写入的吞吐量：修改标题（分类、优先级、状态不变）、修改优先级和切换状态
+// 写入在随机挑选的任务上进行；默认使用内嵌H2，连接在进程内，不包含网络往返，
+// 对MySQL压测（-jvmArgs -Ddb.config=db.properties）时每多一条语句的代价更明显
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskWriteBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+        @Param({"1000"})
+        int users;
+
+        @Param({"100000"})
+        int tasks;
+
+        TaskDao taskDao;
+        Task[] rows;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            // 必须在DBUtil加载之前设置
+            if (System.getProperty(DBUtil.CONFIG_PROPERTY) == null) {
+                System.setProperty(DBUtil.CONFIG_PROPERTY, "db-h2.properties");
+            }
+            DataGenerator.Result data = DataGenerator.generate(
+                    new DataGenerator.Options().users(users).tasks(tasks).skew(1.1));
+            taskDao = new TaskDaoImpl();
+            rows = load(data.firstUserId);
+        }
+
+        // 读取生成的任务，写入时作为修改前的值
+        private static Task[] load(int firstUserId) throws Exception {
+            String sql = "SELECT task_id, user_id, category_id, title, content, priority, due_date, status " +
+                    "FROM tasks WHERE user_id>=?";
+            List<Task> tasks = new ArrayList<>();
+            try (Connection conn = DBUtil.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, firstUserId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Task task = new Task();
+                        task.setTaskId(rs.getInt(1));
+                        task.setUserId(rs.getInt(2));
+                        int categoryId = rs.getInt(3);
+                        task.setCategoryId(rs.wasNull() ? null : categoryId);
+                        task.setTitle(rs.getString(4));
+                        task.setContent(rs.getString(5));
+                        task.setPriority(rs.getInt(6));
+                        task.setDueDate(rs.getObject(7, LocalDate.class));
+                        task.setStatus(rs.getInt(8));
+                        // 截止日期为空的任务无法通过update写回
+                        if (task.getDueDate() != null) {
+                            tasks.add(task);
+                        }
+                    }
+                }
+            }
+            return tasks.toArray(new Task[0]);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        final Random random = new Random();
+        int sequence;
+
+        // 任务均匀随机挑选，多线程时很少落在同一行上
+        Task next(Dataset dataset) {
+            return dataset.rows[random.nextInt(dataset.rows.length)];
+        }
+    }
+
+    @Benchmark
+    public int updateTitle(Dataset dataset, Caller caller) {
+        Task task = caller.next(dataset);
+        Task update = copy(task);
+        update.setTitle("修改标题 #" + caller.sequence++);
+        return dataset.taskDao.update(update);
+    }
+
+    @Benchmark
+    public int updatePriority(Dataset dataset, Caller caller) {
+        Task task = caller.next(dataset);
+        Task update = copy(task);
+        update.setPriority(task.getPriority() % 4 + 1);
+        int updated = dataset.taskDao.update(update);
+        task.setPriority(update.getPriority());
+        return updated;
+    }
+
+    @Benchmark
+    public int updateStatus(Dataset dataset, Caller caller) {
+        Task task = caller.next(dataset);
+        int status = task.getStatus() == 0 ? 1 : 0;
+        int updated = dataset.taskDao.updateStatus(task.getTaskId(), task.getUserId(), status);
+        task.setStatus(status);
+        return updated;
+    }
+
+    private static Task copy(Task task) {
+        Task copy = new Task();
+        copy.setTaskId(task.getTaskId());
+        copy.setUserId(task.getUserId());
+        copy.setCategoryId(task.getCategoryId());
+        copy.setTitle(task.getTitle());
+        copy.setContent(task.getContent());
+        copy.setPriority(task.getPriority());
+        copy.setDueDate(task.getDueDate());
+        copy.setStatus(task.getStatus());
+        return copy;
+    }
+}
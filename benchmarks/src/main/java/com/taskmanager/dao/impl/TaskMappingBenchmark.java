@@ -0,0 +1,79 @@
+package com.taskmanager.dao.impl;
+
+import com.taskmanager.bean.Task;
+import com.taskmanager.benchmark.Stubs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// TaskDaoImpl.extractTaskFromResultSet 单行映射的开销
+// readColumns读取同样的列但不构造Task，两者之差即为映射本身的开销
+// mapSummary为列表视图的摘要映射，用 -prof gc 对比每行的分配量
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskMappingBenchmark {
+    private static final String[] INT_COLUMNS = {"task_id", "user_id", "category_id", "priority", "status"};
+
+    private TaskDaoImpl taskDao;
+    private ResultSet rs;
+
+    @Setup
+    public void setUp() {
+        taskDao = new TaskDaoImpl();
+        Map<String, Object> row = new HashMap<>();
+        row.put("task_id", 1024);
+        row.put("user_id", 7);
+        row.put("category_id", 3);
+        row.put("title", "完成季度报告");
+        row.put("content", "整理本季度的项目进展，汇总各小组的数据并准备周五的评审材料。");
+        row.put("preview", "整理本季度的项目进展，汇总各小组的数据并准备周五的评审材料。");
+        row.put("priority", 2);
+        row.put("due_date", LocalDate.of(2024, 6, 30));
+        row.put("status", 1);
+        row.put("created_date", LocalDateTime.of(2024, 6, 1, 9, 30));
+        row.put("modified_date", LocalDateTime.of(2024, 6, 2, 18, 5));
+        rs = Stubs.resultSet(row);
+    }
+
+    @Benchmark
+    public Task mapTask() throws SQLException {
+        return taskDao.extractTaskFromResultSet(rs);
+    }
+
+    @Benchmark
+    public Task mapSummary() throws SQLException {
+        return taskDao.extractTaskSummaryFromResultSet(rs);
+    }
+
+    @Benchmark
+    public void readColumns(Blackhole bh) throws SQLException {
+        for (String column : INT_COLUMNS) {
+            bh.consume(rs.getInt(column));
+        }
+        bh.consume(rs.getString("title"));
+        bh.consume(rs.getString("content"));
+        bh.consume(rs.getObject("due_date", LocalDate.class));
+        bh.consume(rs.getObject("created_date", LocalDateTime.class));
+        bh.consume(rs.getObject("modified_date", LocalDateTime.class));
+    }
+}
@@ -0,0 +1,79 @@
+package com.taskmanager.filter;
+
+import com.taskmanager.util.DeflaterPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// 任务列表JSON的gzip压缩：每次新建GZIPOutputStream（内部新建Deflater）与使用Deflater对象池对比
+// 用 -prof gc 可以看到两者的分配差异，本地内存的差异需另外观察进程RSS
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GzipBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private byte[] json;
+    private DeflaterPool pool;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("{\"success\":true,\"tasks\":[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"taskId\":").append(i + 1)
+                    .append(",\"userId\":7,\"categoryId\":").append(i % 5 + 1)
+                    .append(",\"title\":\"任务标题 ").append(i)
+                    .append("\",\"content\":\"任务内容，包含一段中等长度的描述文字，用于模拟真实的任务数据。编号：").append(i)
+                    .append("\",\"priority\":").append(i % 4)
+                    .append(",\"dueDate\":\"2024-06-").append(10 + i % 20)
+                    .append("\",\"status\":").append(i % 3)
+                    .append(",\"createdDate\":\"2024-05-01 09:30:00\",\"modifiedDate\":\"2024-06-01 09:30:00\"}");
+        }
+        json = builder.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        pool = new DeflaterPool(CompressionFilter.DEFAULT_LEVEL, 4);
+        out = new ByteArrayOutputStream(json.length);
+    }
+
+    @Benchmark
+    public int newGzipStream() throws IOException {
+        out.reset();
+        GZIPOutputStream gzip = new GZIPOutputStream(out, 8192, true);
+        gzip.write(json);
+        gzip.finish();
+        // 不调用close时Deflater要等到GC后才释放本地内存，这里按最好的情况计
+        gzip.close();
+        return out.size();
+    }
+
+    @Benchmark
+    public int pooledGzipStream() throws IOException {
+        out.reset();
+        PooledGzipOutputStream gzip = new PooledGzipOutputStream(out, pool);
+        gzip.write(json);
+        gzip.finish();
+        return out.size();
+    }
+}
@@ -0,0 +1,123 @@
+package com.taskmanager.servlet;
+
+import com.google.gson.Gson;
+import com.taskmanager.benchmark.Stubs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// 路由查找的开销：原来TaskServlet.doGet的if/else链与ApiRouter的路由表对比
+// 两边的处理方法都是空操作，请求带登录用户，只比较从pathInfo找到处理方法、检查登录和写出响应的部分
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouteLookupBenchmark {
+    private static final String[] GET_PATHS = {"/list", "/detail", "/category", "/status", "/priority",
+            "/dateRange", "/search", "/count", "/orderByPriority", "/query", "/changes"};
+
+    // 分别为链中的第一个、最后一个和不存在的路径
+    @Param({"/list", "/changes", "/missing"})
+    private String path;
+
+    private final Gson gson = new Gson();
+    private ApiRouter router;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        router = new ApiRouter(gson);
+        for (String getPath : GET_PATHS) {
+            router.get(getPath, RouteLookupBenchmark::handle);
+        }
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("userId", 7);
+        HttpSession session = Stubs.session(attributes);
+        request = Stubs.request("GET", path, session, null);
+        response = Stubs.response(new Stubs.CountingWriter());
+    }
+
+    private static void handle(HttpServletRequest request, HttpServletResponse response, Integer userId,
+                               Map<String, Object> result) {
+        result.put("success", true);
+    }
+
+    @Benchmark
+    public HttpServletResponse routeTable() throws IOException {
+        router.dispatchGet(request, response);
+        return response;
+    }
+
+    // 原来的分发方式：逐个比较路径，每个处理方法各自读取会话
+    @Benchmark
+    public HttpServletResponse ifElseChain() throws IOException {
+        String pathInfo = request.getPathInfo();
+        response.setContentType("application/json;charset=UTF-8");
+        PrintWriter out = response.getWriter();
+        Map<String, Object> result = new HashMap<>();
+
+        if ("/list".equals(pathInfo)) {
+            handleWithSession(result);
+        } else if ("/detail".equals(pathInfo)) {
+            handleWithSession(result);
+        } else if ("/category".equals(pathInfo)) {
+            handleWithSession(result);
+        } else if ("/status".equals(pathInfo)) {
+            handleWithSession(result);
+        } else if ("/priority".equals(pathInfo)) {
+            handleWithSession(result);
+        } else if ("/dateRange".equals(pathInfo)) {
+            handleWithSession(result);
+        } else if ("/search".equals(pathInfo)) {
+            handleWithSession(result);
+        } else if ("/count".equals(pathInfo)) {
+            handleWithSession(result);
+        } else if ("/orderByPriority".equals(pathInfo)) {
+            handleWithSession(result);
+        } else if ("/query".equals(pathInfo)) {
+            handleWithSession(result);
+        } else if ("/changes".equals(pathInfo)) {
+            handleWithSession(result);
+        } else {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            result.put("success", false);
+            result.put("message", "请求的接口不存在");
+        }
+
+        out.print(gson.toJson(result));
+        out.flush();
+        return response;
+    }
+
+    private void handleWithSession(Map<String, Object> result) {
+        HttpSession session = request.getSession();
+        Integer userId = (Integer) session.getAttribute("userId");
+        if (userId == null) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            result.put("success", false);
+            result.put("message", "未登录");
+            return;
+        }
+        result.put("success", true);
+    }
+}
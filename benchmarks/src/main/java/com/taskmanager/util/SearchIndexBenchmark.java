@@ -0,0 +1,115 @@
+package com.taskmanager.util;
+
+import com.taskmanager.bean.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// 单个用户的关键词搜索：TaskSearchIndex的倒排索引与逐条比较标题和内容（相当于LIKE '%kw%' 的全表扫描，不含数据库的开销）对比
+// buildIndex 为用户第一次搜索时建立索引的开销；suggest 以关键词为前缀查询输入提示，buildSuggestions 为建立提示词典的开销
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchIndexBenchmark {
+    private static final String[] WORDS = {"完成", "整理", "跟进", "季度报告", "项目计划", "会议纪要", "需求文档",
+            "测试用例", "周报", "预算表", "客户反馈", "release notes", "deploy script", "invoice"};
+
+    @Param({"100", "1000", "5000"})
+    private int tasks;
+
+    @Param({"周报", "deploy"})
+    private String keyword;
+
+    private List<Task> userTasks;
+    private TaskSearchIndex index;
+    private TaskSuggester.Dictionary suggestions;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        userTasks = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task();
+            task.setTaskId(i + 1);
+            task.setUserId(1);
+            task.setTitle(text(random, 2));
+            task.setContent(text(random, random.nextInt(30)));
+            task.setPriority(random.nextInt(4));
+            task.setDueDate(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)));
+            task.setStatus(random.nextInt(3));
+            userTasks.add(task);
+        }
+        index = new TaskSearchIndex(10, tasks, tasks, TimeUnit.HOURS.toMillis(1), new UserVersions(16));
+        index.search(1, keyword, 100, () -> userTasks);
+        suggestions = buildSuggestions();
+    }
+
+    // 随机的常用汉字和字母组成的词，每个词有5%的概率取自WORDS，关键词只出现在少数任务中
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (random.nextInt(20) == 0) {
+                text.append(WORDS[random.nextInt(WORDS.length)]);
+            } else if (random.nextBoolean()) {
+                for (int j = 2 + random.nextInt(3); j > 0; j--) {
+                    text.append((char) (0x4E00 + random.nextInt(3000)));
+                }
+            } else {
+                for (int j = 3 + random.nextInt(6); j > 0; j--) {
+                    text.append((char) ('a' + random.nextInt(26)));
+                }
+            }
+            text.append(i % 5 == 4 ? '。' : ' ');
+        }
+        return text.toString();
+    }
+
+    @Benchmark
+    public List<Task> indexSearch() {
+        return index.search(1, keyword, 100, () -> userTasks);
+    }
+
+    @Benchmark
+    public List<Task> scan() {
+        List<Task> result = new ArrayList<>();
+        for (Task task : userTasks) {
+            if (task.getTitle().contains(keyword) || task.getContent().contains(keyword)) {
+                result.add(TaskSearchIndex.summarize(task));
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Task> buildIndex() {
+        return new TaskSearchIndex(10, tasks, tasks, TimeUnit.HOURS.toMillis(1), new UserVersions(16))
+                .search(1, keyword, 100, () -> userTasks);
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        return suggestions.lookup(keyword, TaskSuggester.MAX_LIMIT);
+    }
+
+    @Benchmark
+    public TaskSuggester.Dictionary buildSuggestions() {
+        return TaskSuggester.build(userTasks, null, TaskSuggester.DEFAULT_MAX_CHARS_PER_USER);
+    }
+}
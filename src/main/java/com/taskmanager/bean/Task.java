@@ -1,18 +1,22 @@
 package com.taskmanager.bean;
 
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 public class Task {
+    // 列表中内容预览的最大字符数，列表查询只返回预览，完整内容按ID查询
+    public static final int PREVIEW_LENGTH = 100;
+
     private Integer taskId;
     private Integer userId;
     private Integer categoryId;
     private String title;
     private String content;
     private Integer priority;
-    private Date dueDate;
+    private LocalDate dueDate;
     private Integer status;
-    private Date createdDate;
-    private Date modifiedDate;
+    private LocalDateTime createdDate;
+    private LocalDateTime modifiedDate;
     private String description;
 
     // 构造函数
@@ -20,7 +24,7 @@ public class Task {
     }
 
     public Task(Integer userId, Integer categoryId, String title, String content,
-            Integer priority, Date dueDate) {
+            Integer priority, LocalDate dueDate) {
         this.userId = userId;
         this.categoryId = categoryId;
         this.title = title;
@@ -79,11 +83,11 @@ public class Task {
         this.priority = priority;
     }
 
-    public Date getDueDate() {
+    public LocalDate getDueDate() {
         return dueDate;
     }
 
-    public void setDueDate(Date dueDate) {
+    public void setDueDate(LocalDate dueDate) {
         this.dueDate = dueDate;
     }
 
@@ -95,19 +99,19 @@ public class Task {
         this.status = status;
     }
 
-    public Date getCreatedDate() {
+    public LocalDateTime getCreatedDate() {
         return createdDate;
     }
 
-    public void setCreatedDate(Date createdDate) {
+    public void setCreatedDate(LocalDateTime createdDate) {
         this.createdDate = createdDate;
     }
 
-    public Date getModifiedDate() {
+    public LocalDateTime getModifiedDate() {
         return modifiedDate;
     }
 
-    public void setModifiedDate(Date modifiedDate) {
+    public void setModifiedDate(LocalDateTime modifiedDate) {
         this.modifiedDate = modifiedDate;
     }
 
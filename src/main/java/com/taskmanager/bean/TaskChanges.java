@@ -0,0 +1,83 @@
+package com.taskmanager.bean;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// 某个变更序号之后用户任务的增量：新增或修改的任务，以及被删除的任务ID
+public class TaskChanges {
+    private List<Task> tasks = new ArrayList<>();
+    private List<Integer> deletedTaskIds = new ArrayList<>();
+    // 查询时该用户的变更序号和数据库时间，由DAO填写
+    private long sequence;
+    private Date checkpoint;
+    // 下次同步时传回的标记
+    private String token;
+    // 为true时增量不可用（首次同步或标记已过期），客户端需要重新加载全部任务
+    private boolean full;
+
+    // 构造函数
+    public TaskChanges() {
+    }
+
+    // Getter和Setter方法
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    public List<Integer> getDeletedTaskIds() {
+        return deletedTaskIds;
+    }
+
+    public void setDeletedTaskIds(List<Integer> deletedTaskIds) {
+        this.deletedTaskIds = deletedTaskIds;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Date getCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(Date checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public boolean isFull() {
+        return full;
+    }
+
+    public void setFull(boolean full) {
+        this.full = full;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskChanges{" +
+                "tasks=" + tasks +
+                ", deletedTaskIds=" + deletedTaskIds +
+                ", sequence=" + sequence +
+                ", checkpoint=" + checkpoint +
+                ", token='" + token + '\'' +
+                ", full=" + full +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+package com.taskmanager.bean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// 任务列表分页游标，对应排序键 (due_date, priority DESC, task_id)
+// 对外以不透明的Base64字符串传递，客户端只需原样回传
+public class TaskCursor {
+    private static final String VERSION = "v1";
+
+    private LocalDate dueDate;
+    private Integer priority;
+    private Integer taskId;
+
+    // 构造函数
+    public TaskCursor() {
+    }
+
+    public TaskCursor(LocalDate dueDate, Integer priority, Integer taskId) {
+        this.dueDate = dueDate;
+        this.priority = priority;
+        this.taskId = taskId;
+    }
+
+    // 根据一页中的最后一个任务生成游标
+    public static TaskCursor after(Task task) {
+        return new TaskCursor(task.getDueDate(), task.getPriority(), task.getTaskId());
+    }
+
+    // 编码为不透明的令牌
+    public String toToken() {
+        String dueDateStr = dueDate == null ? "" : dueDate.toString();
+        String raw = VERSION + ":" + dueDateStr + ":" + priority + ":" + taskId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 解析令牌，格式错误时抛出IllegalArgumentException
+    public static TaskCursor fromToken(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = raw.split(":", -1);
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+        LocalDate dueDate;
+        try {
+            dueDate = parts[1].isEmpty() ? null : LocalDate.parse(parts[1]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+        return new TaskCursor(dueDate, Integer.valueOf(parts[2]), Integer.valueOf(parts[3]));
+    }
+
+    // Getter和Setter方法
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    public Integer getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Integer taskId) {
+        this.taskId = taskId;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskCursor{" +
+                "dueDate=" + dueDate +
+                ", priority=" + priority +
+                ", taskId=" + taskId +
+                '}';
+    }
+}
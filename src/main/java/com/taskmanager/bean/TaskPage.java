@@ -0,0 +1,53 @@
+package com.taskmanager.bean;
+
+import java.util.List;
+
+public class TaskPage {
+    private List<Task> tasks;
+    private String nextCursor;
+    private boolean hasMore;
+
+    // 构造函数
+    public TaskPage() {
+    }
+
+    public TaskPage(List<Task> tasks, String nextCursor, boolean hasMore) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getter和Setter方法
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<Task> tasks) {
+        this.tasks = tasks;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskPage{" +
+                "tasks=" + tasks +
+                ", nextCursor='" + nextCursor + '\'' +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
@@ -0,0 +1,154 @@
+package com.taskmanager.bean;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// 任务的组合查询条件，未设置的条件不参与过滤
+public class TaskQuery {
+    // 排序字段，每种排序都以task_id兜底，保证结果顺序稳定
+    public enum SortField {
+        DUE_DATE("due_date", false),
+        PRIORITY("priority", true),
+        CREATED_DATE("created_date", true),
+        // 按关键词的相关度排序，只在有关键词且使用全文索引时生效
+        RELEVANCE("relevance", true);
+
+        private final String column;
+        private final boolean defaultDescending;
+
+        SortField(String column, boolean defaultDescending) {
+            this.column = column;
+            this.defaultDescending = defaultDescending;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public boolean isDefaultDescending() {
+            return defaultDescending;
+        }
+    }
+
+    private Integer userId;
+    private Set<Integer> statuses = new LinkedHashSet<>();
+    private Set<Integer> priorities = new LinkedHashSet<>();
+    private Set<Integer> categoryIds = new LinkedHashSet<>();
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String keyword;
+    private SortField sortField = SortField.DUE_DATE;
+    private Boolean descending;
+    private Integer limit;
+
+    // 构造函数
+    public TaskQuery() {
+    }
+
+    public TaskQuery(Integer userId) {
+        this.userId = userId;
+    }
+
+    // 是否按降序排序，未指定时使用排序字段的默认方向
+    public boolean isDescendingOrder() {
+        return descending != null ? descending : sortField.isDefaultDescending();
+    }
+
+    // Getter和Setter方法
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public Set<Integer> getStatuses() {
+        return statuses;
+    }
+
+    public void setStatuses(Set<Integer> statuses) {
+        this.statuses = statuses;
+    }
+
+    public Set<Integer> getPriorities() {
+        return priorities;
+    }
+
+    public void setPriorities(Set<Integer> priorities) {
+        this.priorities = priorities;
+    }
+
+    public Set<Integer> getCategoryIds() {
+        return categoryIds;
+    }
+
+    public void setCategoryIds(Set<Integer> categoryIds) {
+        this.categoryIds = categoryIds;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public void setKeyword(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public SortField getSortField() {
+        return sortField;
+    }
+
+    public void setSortField(SortField sortField) {
+        this.sortField = sortField;
+    }
+
+    public Boolean getDescending() {
+        return descending;
+    }
+
+    public void setDescending(Boolean descending) {
+        this.descending = descending;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskQuery{" +
+                "userId=" + userId +
+                ", statuses=" + statuses +
+                ", priorities=" + priorities +
+                ", categoryIds=" + categoryIds +
+                ", startDate=" + startDate +
+                ", endDate=" + endDate +
+                ", keyword='" + keyword + '\'' +
+                ", sortField=" + sortField +
+                ", descending=" + descending +
+                ", limit=" + limit +
+                '}';
+    }
+}
@@ -0,0 +1,115 @@
+package com.taskmanager.bean;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+// 用户任务的统计：按状态、优先级、分类的任务数，以及未完成任务按截止日期的分布
+public class TaskStats {
+    private int total;
+    private Map<Integer, Integer> byStatus = new TreeMap<>();
+    private Map<Integer, Integer> byPriority = new TreeMap<>();
+    private Map<Integer, Integer> byCategory = new TreeMap<>();
+    // 没有分类的任务数
+    private int uncategorized;
+    // 截止日期早于今天的未完成任务数
+    private int overdue;
+    // 今天截止的未完成任务数
+    private int dueToday;
+    // 今天到本周日（含）截止的未完成任务数，包含今天截止的
+    private int dueThisWeek;
+    // 统计使用的日期
+    private LocalDate today;
+
+    // 构造函数
+    public TaskStats() {
+    }
+
+    public TaskStats(LocalDate today) {
+        this.today = today;
+    }
+
+    // 计入一组状态、优先级和分类都相同的任务，categoryId为null表示没有分类；
+    // overdue、dueToday、dueThisWeek为其中按截止日期统计的未完成任务数
+    public void add(Integer status, Integer priority, Integer categoryId, int count,
+                    int overdue, int dueToday, int dueThisWeek) {
+        total += count;
+        byStatus.merge(status, count, Integer::sum);
+        byPriority.merge(priority, count, Integer::sum);
+        if (categoryId == null) {
+            uncategorized += count;
+        } else {
+            byCategory.merge(categoryId, count, Integer::sum);
+        }
+        addDue(overdue, dueToday, dueThisWeek);
+    }
+
+    // 计入一组状态、优先级和分类都相同的任务，截止日期的分布由addDue单独计入
+    public void add(Integer status, Integer priority, Integer categoryId, int count) {
+        add(status, priority, categoryId, count, 0, 0, 0);
+    }
+
+    // 计入按截止日期统计的未完成任务数
+    public void addDue(int overdue, int dueToday, int dueThisWeek) {
+        this.overdue += overdue;
+        this.dueToday += dueToday;
+        this.dueThisWeek += dueThisWeek;
+    }
+
+    // 本周日，一周从周一开始
+    public static LocalDate endOfWeek(LocalDate date) {
+        return date.plusDays(7 - date.getDayOfWeek().getValue());
+    }
+
+    // Getter和Setter方法
+    public int getTotal() {
+        return total;
+    }
+
+    public Map<Integer, Integer> getByStatus() {
+        return byStatus;
+    }
+
+    public Map<Integer, Integer> getByPriority() {
+        return byPriority;
+    }
+
+    public Map<Integer, Integer> getByCategory() {
+        return byCategory;
+    }
+
+    public int getUncategorized() {
+        return uncategorized;
+    }
+
+    public int getOverdue() {
+        return overdue;
+    }
+
+    public int getDueToday() {
+        return dueToday;
+    }
+
+    public int getDueThisWeek() {
+        return dueThisWeek;
+    }
+
+    public LocalDate getToday() {
+        return today;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskStats{" +
+                "total=" + total +
+                ", byStatus=" + byStatus +
+                ", byPriority=" + byPriority +
+                ", byCategory=" + byCategory +
+                ", uncategorized=" + uncategorized +
+                ", overdue=" + overdue +
+                ", dueToday=" + dueToday +
+                ", dueThisWeek=" + dueThisWeek +
+                ", today=" + today +
+                '}';
+    }
+}
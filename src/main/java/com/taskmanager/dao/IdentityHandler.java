@@ -0,0 +1,6 @@
+package com.taskmanager.dao;
+
+// 逐行处理用户名和邮箱的回调，用于预热布隆过滤器
+public interface IdentityHandler {
+    void handle(String username, String email);
+}
@@ -1,25 +1,48 @@
 package com.taskmanager.dao;
 
 import com.taskmanager.bean.Task;
+import com.taskmanager.bean.TaskChanges;
+import com.taskmanager.bean.TaskCursor;
+import com.taskmanager.bean.TaskQuery;
+import com.taskmanager.bean.TaskStats;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 public interface TaskDao {
     // 添加任务
     int insert(Task task);
 
-    // 更新任务
+    // 更新用户的任务，status为null时保留原状态；任务不存在或不属于该用户时返回0
     int update(Task task);
 
-    // 删除任务
-    int delete(Integer taskId);
+    // 删除用户的任务并记录删除标记，任务不存在或不属于该用户时返回0
+    int delete(Integer taskId, Integer userId);
 
-    // 根据ID查询任务
+    // 查询变更序号大于since的修改或删除的任务，并记录该用户当前的变更序号和数据库时间；
+    // since为null时只读取序号和时间，出错时返回null
+    TaskChanges findChanges(Integer userId, Long since);
+
+    // 清理早于指定时间的删除标记，返回清理的条数
+    int purgeTombstones(Date before);
+
+    // 根据ID查询任务，包含完整内容；列表查询返回的任务只有摘要列，内容预览放在description中
     Task findById(Integer taskId);
 
     // 查询用户的所有任务
     List<Task> findByUserId(Integer userId);
 
+    // 查询用户的所有任务，包含完整内容，不排序；用于建立搜索索引，出错时返回null
+    List<Task> findFullByUserId(Integer userId);
+
+    // 按游标分页查询用户的任务，cursor为null时从第一页开始
+    List<Task> findPageByUserId(Integer userId, TaskCursor cursor, int limit);
+
+    // 流式读取用户的所有任务，逐行交给handler处理，返回处理的行数，数据库出错时返回-1
+    int streamByUserId(Integer userId, TaskHandler handler) throws IOException;
+
     // 根据分类查询任务
     List<Task> findByCategoryId(Integer categoryId);
 
@@ -30,10 +53,16 @@ public interface TaskDao {
     List<Task> findByPriority(Integer userId, Integer priority);
 
     // 根据截止日期范围查询任务
-    List<Task> findByDateRange(Integer userId, Date startDate, Date endDate);
+    List<Task> findByDateRange(Integer userId, LocalDate startDate, LocalDate endDate);
+
+    // 更新用户任务的状态，任务不存在或不属于该用户时返回0
+    int updateStatus(Integer taskId, Integer userId, Integer status);
 
-    // 更新任务状态
-    int updateStatus(Integer taskId, Integer status);
+    // 批量添加任务（同一事务），成功后回填任务ID，返回添加的任务数，失败时整体回滚并返回0
+    int insertBatch(List<Task> tasks);
+
+    // 批量更新任务状态（同一事务），只更新属于该用户的任务，返回更新的任务数，失败时整体回滚并返回0
+    int updateStatusBatch(Integer userId, List<Task> tasks);
 
     // 搜索任务（标题和内容）
     List<Task> search(Integer userId, String keyword);
@@ -41,6 +70,18 @@ public interface TaskDao {
     // 获取用户的任务统计信息
     int countByStatus(Integer userId, Integer status);
 
+    // 从计数表统计用户各状态的任务数，键为状态，没有任务的状态不出现
+    Map<Integer, Integer> countGroupByStatus(Integer userId);
+
+    // 统计用户按状态、优先级、分类的任务数（读取计数表）和未完成任务的截止日期分布，today为统计使用的日期，出错时返回null
+    TaskStats stats(Integer userId, LocalDate today);
+
+    // 按任务表重新统计用户的计数并修正计数表，返回修正的计数行数，出错时返回-1
+    int reconcileCounters(Integer userId);
+
     // 查询用户的所有任务（按优先级排序）
     List<Task> findByUserIdOrderByPriority(Integer userId, boolean descending);
+
+    // 按组合条件查询用户的任务
+    List<Task> query(TaskQuery query);
 }
\ No newline at end of file
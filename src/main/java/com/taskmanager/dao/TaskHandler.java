@@ -0,0 +1,9 @@
+package com.taskmanager.dao;
+
+import com.taskmanager.bean.Task;
+import java.io.IOException;
+
+// 逐行处理查询结果的回调，用于流式输出
+public interface TaskHandler {
+    void handle(Task task) throws IOException;
+}
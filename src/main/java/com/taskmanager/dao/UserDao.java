@@ -19,9 +19,24 @@ public interface UserDao {
     // 根据用户名查询用户
     User findByUsername(String username);
 
+    // 根据邮箱查询用户
+    User findByEmail(String email);
+
+    // 检查邮箱是否已被使用（走email唯一索引，只返回是否存在）
+    boolean existsByEmail(String email);
+
+    // 统计用户总数，数据库出错时返回-1
+    int countAll();
+
     // 查询所有用户
     List<User> findAll();
 
+    // 逐行读取所有用户的用户名和邮箱，返回行数，出错时返回-1
+    int streamIdentities(IdentityHandler handler);
+
+    // 按用户ID顺序查询大于afterUserId的用户ID，最多limit个；用于分批遍历所有用户，出错时返回null
+    List<Integer> findIdsAfter(Integer afterUserId, int limit);
+
     // 更新用户最后登录时间
     int updateLastLogin(Integer userId);
 
@@ -55,12 +55,54 @@ public class CategoryDaoImpl implements CategoryDao {
 
     @Override
     public int delete(Integer categoryId) {
+        // 外键的ON DELETE SET NULL不会更新变更序号，这里先显式清空任务的分类，让增量同步能看到变化
+        // 先锁定该分类下的任务，按用户、状态、优先级把计数从该分类移到未分类（分类0）
+        // 分类的所有者不会改变，不加锁读取，之后与任务的写入一样先取得该用户的变更序号再锁定任务
+        String ownerSql = "SELECT user_id FROM categories WHERE category_id=?";
+        String lockSql = "SELECT user_id, status, priority FROM tasks WHERE category_id=? ORDER BY task_id FOR UPDATE";
+        String detachSql = "UPDATE tasks SET category_id=NULL, modified_date=CURRENT_TIMESTAMP, " +
+                "change_seq=" + ChangeSeq.CURRENT + " WHERE category_id=?";
         String sql = "DELETE FROM categories WHERE category_id=?";
-        try (Connection conn = DBUtil.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, categoryId);
-            return pstmt.executeUpdate();
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement owner = conn.prepareStatement(ownerSql);
+                    PreparedStatement lock = conn.prepareStatement(lockSql);
+                    PreparedStatement detach = conn.prepareStatement(detachSql);
+                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int userId;
+                owner.setInt(1, categoryId);
+                try (ResultSet rs = owner.executeQuery()) {
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return 0;
+                    }
+                    userId = rs.getInt(1);
+                }
+                ChangeSeq.next(conn, userId);
+
+                TaskCounters counters = new TaskCounters();
+                lock.setInt(1, categoryId);
+                try (ResultSet rs = lock.executeQuery()) {
+                    while (rs.next()) {
+                        counters.add(rs.getInt(1), categoryId, rs.getInt(2), rs.getInt(3), -1);
+                        counters.add(rs.getInt(1), null, rs.getInt(2), rs.getInt(3), 1);
+                    }
+                }
+                detach.setInt(1, userId);
+                detach.setInt(2, categoryId);
+                detach.executeUpdate();
+                counters.apply(conn);
+
+                pstmt.setInt(1, categoryId);
+                int affectedRows = pstmt.executeUpdate();
+                conn.commit();
+                return affectedRows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
             return 0;
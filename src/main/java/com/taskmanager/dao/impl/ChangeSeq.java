@@ -0,0 +1,36 @@
+package com.taskmanager.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// 增量同步的变更序号（db/migration/V4）：写入任务的事务先调用next把该用户的users.change_seq加1，
+// 用户行的锁持有到提交，同一用户的写入依次取得序号；再把CURRENT写入修改的任务行和删除标记
+// 因此读到用户的序号为n时，序号不大于n的写入都已提交，增量同步按序号读取不会漏掉变更
+// 事务先锁用户行再锁任务行，所有写入以相同顺序加锁
+class ChangeSeq {
+    // 当前事务取得的序号，作为子查询写入任务行和删除标记，参数为用户ID
+    static final String CURRENT = "(SELECT change_seq FROM users WHERE user_id=?)";
+
+    private static final String NEXT_SQL = "UPDATE users SET change_seq=change_seq+1 WHERE user_id=?";
+    private static final String CURRENT_SQL = "SELECT change_seq FROM users WHERE user_id=?";
+
+    // 在调用方的事务中为该用户取得下一个序号
+    static void next(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(NEXT_SQL)) {
+            pstmt.setInt(1, userId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // 读取当前事务取得的序号，用于不便使用子查询的批量写入
+    static long current(Connection conn, int userId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(CURRENT_SQL)) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+}
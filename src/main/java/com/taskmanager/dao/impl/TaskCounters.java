@@ -0,0 +1,115 @@
+package com.taskmanager.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+// 任务计数表task_counters（db/migration/V3）的增量：在写入任务的事务中记录每个 (用户, 分类, 状态, 优先级) 的变化量，
+// 提交前通过apply写入同一连接；按主键顺序更新，并发的事务以相同顺序加锁，不会互相死锁
+class TaskCounters {
+    // 计数行不存在时插入，存在时累加
+    static final String UPSERT_SQL = "INSERT INTO task_counters (user_id, category_id, status, priority, task_count) " +
+            "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE task_count=task_count+VALUES(task_count)";
+
+    private final Map<Key, Integer> deltas = new TreeMap<>();
+
+    // 计数表的主键，没有分类的任务计入分类0
+    static class Key implements Comparable<Key> {
+        final int userId;
+        final int categoryId;
+        final int status;
+        final int priority;
+
+        Key(int userId, Integer categoryId, int status, int priority) {
+            this.userId = userId;
+            this.categoryId = categoryId == null ? 0 : categoryId;
+            this.status = status;
+            this.priority = priority;
+        }
+
+        // 按 user_id, category_id, status, priority 的顺序绑定前4个参数
+        void bind(PreparedStatement pstmt) throws SQLException {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, categoryId);
+            pstmt.setInt(3, status);
+            pstmt.setInt(4, priority);
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = Integer.compare(userId, other.userId);
+            if (result == 0) {
+                result = Integer.compare(categoryId, other.categoryId);
+            }
+            if (result == 0) {
+                result = Integer.compare(status, other.status);
+            }
+            return result != 0 ? result : Integer.compare(priority, other.priority);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && compareTo((Key) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return ((userId * 31 + categoryId) * 31 + status) * 31 + priority;
+        }
+    }
+
+    // 记录一个任务的变化量：新增为+1，删除为-1
+    void add(Integer userId, Integer categoryId, int status, int priority, int delta) {
+        add(new Key(userId, categoryId, status, priority), delta);
+    }
+
+    void add(Key key, int delta) {
+        deltas.merge(key, delta, Integer::sum);
+    }
+
+    // 读取任务写入前的分类、状态和优先级并锁定该行，任务不存在或不属于该用户时返回null
+    static Key lock(Connection conn, Integer taskId, Integer userId) throws SQLException {
+        String sql = "SELECT category_id, status, priority FROM tasks WHERE task_id=? AND user_id=? FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, taskId);
+            pstmt.setInt(2, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return new Key(userId, rs.getInt(1), rs.getInt(2), rs.getInt(3));
+            }
+        }
+    }
+
+    // 把任务从一个计数移到另一个，两者相同时不产生变化
+    void move(Key from, Key to) {
+        if (!from.equals(to)) {
+            add(from, -1);
+            add(to, 1);
+        }
+    }
+
+    // 在调用方的事务中写入变化量，相互抵消的不再写入
+    void apply(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+            boolean empty = true;
+            for (Map.Entry<Key, Integer> delta : deltas.entrySet()) {
+                if (delta.getValue() == 0) {
+                    continue;
+                }
+                delta.getKey().bind(pstmt);
+                pstmt.setInt(5, delta.getValue());
+                pstmt.addBatch();
+                empty = false;
+            }
+            if (!empty) {
+                pstmt.executeBatch();
+            }
+        }
+        deltas.clear();
+    }
+}
@@ -1,63 +1,297 @@
 package com.taskmanager.dao.impl;
 
 import com.taskmanager.bean.Task;
+import com.taskmanager.bean.TaskChanges;
+import com.taskmanager.bean.TaskCursor;
+import com.taskmanager.bean.TaskQuery;
+import com.taskmanager.bean.TaskStats;
 import com.taskmanager.dao.TaskDao;
+import com.taskmanager.dao.TaskHandler;
 import com.taskmanager.util.DBUtil;
 
+import java.io.IOException;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TaskDaoImpl implements TaskDao {
+    // MySQL驱动只有在fetchSize为Integer.MIN_VALUE时才逐行读取结果，否则会把整个结果集缓存在内存中
+    // 其他数据库（如H2）不接受负数，按普通的fetchSize分批读取
+    private static final int STREAMING_FETCH_SIZE = DBUtil.isMySQL() ? Integer.MIN_VALUE : 500;
+    // 组合查询的SQL缓存，键为查询形状；形状数量有限，超过上限后不再缓存
+    private static final int MAX_QUERY_SHAPES = 256;
+    private static final Map<String, String> QUERY_SHAPES = new ConcurrentHashMap<>();
+    // 列表视图只读取摘要列，TEXT类型的content只截取开头作为预览，完整内容由findById读取
+    private static final String SUMMARY_SELECT = "SELECT task_id, user_id, category_id, title, " +
+            "SUBSTRING(content, 1, " + Task.PREVIEW_LENGTH + ") AS preview, priority, due_date, status FROM tasks";
+    // 关键词搜索的全文索引（db/migration/V2），只在MySQL上建立；索引不存在时关键词使用LIKE匹配
+    static final String FULL_TEXT_INDEX = "ft_tasks_title_content";
+    static final boolean FULL_TEXT = DBUtil.isMySQL() && DBUtil.hasIndex("tasks", FULL_TEXT_INDEX);
+    // 与MySQL的ngram_token_size一致，更短的关键词无法通过全文索引匹配
+    static final int NGRAM_TOKEN_SIZE = 2;
+    private static final String MATCH_EXPRESSION = "MATCH(title, content) AGAINST (? IN BOOLEAN MODE)";
+    // 搜索接口最多返回的条数
+    public static final int SEARCH_LIMIT = 100;
+    // 以下查询包级可见，供查询计划测试检查索引的使用；排序与 db/migration 中的组合索引一致
+    static final String FIND_BY_USER_SQL = SUMMARY_SELECT + " WHERE user_id=? ORDER BY due_date, priority DESC";
+    static final String FIND_FULL_BY_USER_SQL = "SELECT * FROM tasks WHERE user_id=?";
+    static final String FIND_BY_CATEGORY_SQL = SUMMARY_SELECT + " WHERE category_id=? ORDER BY due_date, priority DESC";
+    // 增量同步按变更序号读取，参数依次为：用户ID、上次同步的序号、本次读到的序号
+    static final String FIND_CHANGES_SQL = "SELECT * FROM tasks WHERE user_id=? AND change_seq>? AND change_seq<=? " +
+            "ORDER BY change_seq, task_id";
+    static final String FIND_DELETED_SQL = "SELECT task_id FROM task_tombstones WHERE user_id=? " +
+            "AND change_seq>? AND change_seq<=?";
+    // 计数和统计从task_counters读取，每个用户只有 分类数×状态数×优先级数 行，与任务数无关
+    static final String COUNT_BY_STATUS_SQL = "SELECT COALESCE(SUM(task_count), 0) FROM task_counters " +
+            "WHERE user_id=? AND status=?";
+    static final String COUNT_GROUP_BY_STATUS_SQL = "SELECT status, SUM(task_count) FROM task_counters WHERE user_id=? " +
+            "GROUP BY status HAVING SUM(task_count)>0 ORDER BY status";
+    static final String COUNTERS_SQL = "SELECT category_id, status, priority, task_count FROM task_counters " +
+            "WHERE user_id=? AND task_count>0";
+    // 截止日期的分布只读取截止日期不晚于本周日的未完成（status<>2）任务，沿 (user_id, status, due_date) 索引读取
+    // 参数依次为：今天、今天、今天、用户ID、本周日
+    static final String DUE_STATS_SQL = "SELECT " +
+            "SUM(CASE WHEN due_date<? THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN due_date=? THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN due_date>=? THEN 1 ELSE 0 END) " +
+            "FROM tasks WHERE user_id=? AND status<>2 AND due_date<=?";
+    // 对账时按任务表重新统计一个用户的计数
+    static final String RECOUNT_SQL = "SELECT category_id, status, priority, COUNT(*) FROM tasks WHERE user_id=? " +
+            "GROUP BY category_id, status, priority";
+    // 单行VALUES的INSERT，MySQL驱动开启rewriteBatchedStatements后可将批量插入合并为一条多行INSERT
+    // 第8个参数为变更序号：单条插入时是ChangeSeq.CURRENT子查询的用户ID，批量插入时直接绑定序号，不影响合并
+    private static final String INSERT_SQL = "INSERT INTO tasks (user_id, category_id, title, content, priority, due_date, status, " +
+            "change_seq) VALUES (?, ?, ?, ?, ?, ?, ?, " + ChangeSeq.CURRENT + ")";
+    private static final String INSERT_BATCH_SQL = "INSERT INTO tasks (user_id, category_id, title, content, priority, due_date, " +
+            "status, change_seq) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
     @Override
     public int insert(Task task) {
-        String sql = "INSERT INTO tasks (user_id, category_id, title, content, priority, due_date, status) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DBUtil.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                ChangeSeq.next(conn, task.getUserId());
+
+                bindInsert(pstmt, task);
+                pstmt.setInt(8, task.getUserId());
+
+                int affectedRows = pstmt.executeUpdate();
+                if (affectedRows > 0) {
+                    try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            task.setTaskId(rs.getInt(1));
+                        }
+                    }
+                    TaskCounters counters = new TaskCounters();
+                    counters.add(task.getUserId(), task.getCategoryId(), task.getStatus(), task.getPriority(), 1);
+                    counters.apply(conn);
+                }
+                conn.commit();
+                return affectedRows;
+            } catch (SQLException e) {
+                conn.rollback();
+                task.setTaskId(null);
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
 
-            pstmt.setInt(1, task.getUserId());
-            pstmt.setInt(2, task.getCategoryId());
-            pstmt.setString(3, task.getTitle());
-            pstmt.setString(4, task.getContent());
-            pstmt.setInt(5, task.getPriority());
-            pstmt.setDate(6, new java.sql.Date(task.getDueDate().getTime()));
-            pstmt.setInt(7, task.getStatus());
-
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
+    @Override
+    public int insertBatch(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(INSERT_BATCH_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                // 批量中的每个用户取一个序号，按用户ID顺序加锁
+                Map<Integer, Long> seqs = new TreeMap<>();
+                for (Task task : tasks) {
+                    seqs.put(task.getUserId(), 0L);
+                }
+                for (Map.Entry<Integer, Long> entry : seqs.entrySet()) {
+                    ChangeSeq.next(conn, entry.getKey());
+                    entry.setValue(ChangeSeq.current(conn, entry.getKey()));
+                }
+                for (Task task : tasks) {
+                    bindInsert(pstmt, task);
+                    pstmt.setLong(8, seqs.get(task.getUserId()));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+
+                // 生成的主键与批量中的任务顺序一致
                 try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                    if (rs.next()) {
+                    for (Task task : tasks) {
+                        if (!rs.next()) {
+                            break;
+                        }
                         task.setTaskId(rs.getInt(1));
                     }
                 }
+                TaskCounters counters = new TaskCounters();
+                for (Task task : tasks) {
+                    counters.add(task.getUserId(), task.getCategoryId(), task.getStatus(), task.getPriority(), 1);
+                }
+                counters.apply(conn);
+                conn.commit();
+                return tasks.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                for (Task task : tasks) {
+                    task.setTaskId(null);
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-            return affectedRows;
         } catch (SQLException e) {
             e.printStackTrace();
             return 0;
         }
     }
 
+    private void bindInsert(PreparedStatement pstmt, Task task) throws SQLException {
+        pstmt.setInt(1, task.getUserId());
+        if (task.getCategoryId() != null) {
+            pstmt.setInt(2, task.getCategoryId());
+        } else {
+            pstmt.setNull(2, Types.INTEGER);
+        }
+        pstmt.setString(3, task.getTitle());
+        pstmt.setString(4, task.getContent());
+        pstmt.setInt(5, task.getPriority());
+        pstmt.setDate(6, java.sql.Date.valueOf(task.getDueDate()));
+        pstmt.setInt(7, task.getStatus());
+    }
+
     @Override
     public int update(Task task) {
-        String sql = "UPDATE tasks SET category_id=?, title=?, content=?, priority=?, due_date=?, status=? " +
-                "WHERE task_id=? AND user_id=?";
-        try (Connection conn = DBUtil.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        // 归属校验放在WHERE中，由影响行数判断任务是否存在且属于该用户，无需先查询
+        // 大多数修改不改变分类、优先级和状态：先以新值作为条件更新，命中时计数不变，不需要读取原来的行
+        // 未命中时（计数键变化、任务不存在或不属于该用户）再锁定原来的行，更新任务并移动计数
+        // 两者都在取得变更序号的事务中执行
+        String sql = "UPDATE tasks SET category_id=?, title=?, content=?, priority=?, due_date=?, " +
+                "status=COALESCE(?, status), change_seq=" + ChangeSeq.CURRENT + " WHERE task_id=? AND user_id=?";
+        String sameKeySql = sql + " AND COALESCE(category_id, 0)=? AND priority=? AND status=COALESCE(?, status)";
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement sameKey = conn.prepareStatement(sameKeySql);
+                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                ChangeSeq.next(conn, task.getUserId());
+
+                bindUpdate(sameKey, task);
+                sameKey.setInt(10, task.getCategoryId() != null ? task.getCategoryId() : 0);
+                sameKey.setInt(11, task.getPriority());
+                if (task.getStatus() != null) {
+                    sameKey.setInt(12, task.getStatus());
+                } else {
+                    sameKey.setNull(12, Types.TINYINT);
+                }
+                int affectedRows = sameKey.executeUpdate();
+                if (affectedRows > 0) {
+                    conn.commit();
+                    return affectedRows;
+                }
 
+                TaskCounters.Key before = TaskCounters.lock(conn, task.getTaskId(), task.getUserId());
+                if (before == null) {
+                    conn.rollback();
+                    return 0;
+                }
+
+                bindUpdate(pstmt, task);
+                affectedRows = pstmt.executeUpdate();
+
+                TaskCounters counters = new TaskCounters();
+                counters.move(before, new TaskCounters.Key(task.getUserId(), task.getCategoryId(),
+                        task.getStatus() != null ? task.getStatus() : before.status, task.getPriority()));
+                counters.apply(conn);
+                conn.commit();
+                return affectedRows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    // 绑定UPDATE语句的前9个参数：修改的列、变更序号，以及任务ID和用户ID
+    private void bindUpdate(PreparedStatement pstmt, Task task) throws SQLException {
+        if (task.getCategoryId() != null) {
             pstmt.setInt(1, task.getCategoryId());
-            pstmt.setString(2, task.getTitle());
-            pstmt.setString(3, task.getContent());
-            pstmt.setInt(4, task.getPriority());
-            pstmt.setDate(5, new java.sql.Date(task.getDueDate().getTime()));
+        } else {
+            pstmt.setNull(1, Types.INTEGER);
+        }
+        pstmt.setString(2, task.getTitle());
+        pstmt.setString(3, task.getContent());
+        pstmt.setInt(4, task.getPriority());
+        pstmt.setDate(5, java.sql.Date.valueOf(task.getDueDate()));
+        if (task.getStatus() != null) {
             pstmt.setInt(6, task.getStatus());
-            pstmt.setInt(7, task.getTaskId());
-            pstmt.setInt(8, task.getUserId());
+        } else {
+            pstmt.setNull(6, Types.TINYINT);
+        }
+        pstmt.setInt(7, task.getUserId());
+        pstmt.setInt(8, task.getTaskId());
+        pstmt.setInt(9, task.getUserId());
+    }
 
-            return pstmt.executeUpdate();
+    @Override
+    public int delete(Integer taskId, Integer userId) {
+        // 删除标记、计数与删除在同一事务中写入，删除标记带有变更序号，增量同步不会漏掉删除
+        String tombstoneSql = "INSERT INTO task_tombstones (task_id, user_id, change_seq) " +
+                "SELECT task_id, user_id, " + ChangeSeq.CURRENT + " FROM tasks WHERE task_id=? AND user_id=?";
+        String sql = "DELETE FROM tasks WHERE task_id=? AND user_id=?";
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement tombstone = conn.prepareStatement(tombstoneSql);
+                    PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                ChangeSeq.next(conn, userId);
+                TaskCounters.Key before = TaskCounters.lock(conn, taskId, userId);
+                if (before == null) {
+                    conn.rollback();
+                    return 0;
+                }
+                tombstone.setInt(1, userId);
+                tombstone.setInt(2, taskId);
+                tombstone.setInt(3, userId);
+                tombstone.executeUpdate();
+
+                pstmt.setInt(1, taskId);
+                pstmt.setInt(2, userId);
+                int affectedRows = pstmt.executeUpdate();
+                TaskCounters counters = new TaskCounters();
+                counters.add(before, -1);
+                counters.apply(conn);
+                conn.commit();
+                return affectedRows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
             return 0;
@@ -65,12 +299,58 @@ public class TaskDaoImpl implements TaskDao {
     }
 
     @Override
-    public int delete(Integer taskId) {
-        String sql = "DELETE FROM tasks WHERE task_id=?";
+    public TaskChanges findChanges(Integer userId, Long since) {
+        TaskChanges changes = new TaskChanges();
+        String checkpointSql = "SELECT CURRENT_TIMESTAMP, " + ChangeSeq.CURRENT;
+        try (Connection conn = DBUtil.getConnection()) {
+            // 先读取该用户的变更序号，不大于该序号的写入都已提交；只读取到该序号为止，之后的变更留给下次同步
+            try (PreparedStatement pstmt = conn.prepareStatement(checkpointSql)) {
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    changes.setCheckpoint(rs.getTimestamp(1));
+                    changes.setSequence(rs.getLong(2));
+                }
+            }
+            if (since == null) {
+                return changes;
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(FIND_CHANGES_SQL)) {
+                pstmt.setInt(1, userId);
+                pstmt.setLong(2, since);
+                pstmt.setLong(3, changes.getSequence());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        changes.getTasks().add(extractTaskFromResultSet(rs));
+                    }
+                }
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(FIND_DELETED_SQL)) {
+                pstmt.setInt(1, userId);
+                pstmt.setLong(2, since);
+                pstmt.setLong(3, changes.getSequence());
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        changes.getDeletedTaskIds().add(rs.getInt(1));
+                    }
+                }
+            }
+            return changes;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public int purgeTombstones(Date before) {
+        String sql = "DELETE FROM task_tombstones WHERE deleted_date<?";
         try (Connection conn = DBUtil.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, taskId);
+            pstmt.setTimestamp(1, new Timestamp(before.getTime()));
             return pstmt.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -99,14 +379,13 @@ public class TaskDaoImpl implements TaskDao {
     @Override
     public List<Task> findByUserId(Integer userId) {
         List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks WHERE user_id=? ORDER BY due_date, priority DESC";
         try (Connection conn = DBUtil.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                PreparedStatement pstmt = conn.prepareStatement(FIND_BY_USER_SQL)) {
 
             pstmt.setInt(1, userId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    tasks.add(extractTaskFromResultSet(rs));
+                    tasks.add(extractTaskSummaryFromResultSet(rs));
                 }
             }
         } catch (SQLException e) {
@@ -116,13 +395,12 @@ public class TaskDaoImpl implements TaskDao {
     }
 
     @Override
-    public List<Task> findByCategoryId(Integer categoryId) {
+    public List<Task> findFullByUserId(Integer userId) {
         List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks WHERE category_id=? ORDER BY due_date, priority DESC";
         try (Connection conn = DBUtil.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                PreparedStatement pstmt = conn.prepareStatement(FIND_FULL_BY_USER_SQL)) {
 
-            pstmt.setInt(1, categoryId);
+            pstmt.setInt(1, userId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     tasks.add(extractTaskFromResultSet(rs));
@@ -130,22 +408,34 @@ public class TaskDaoImpl implements TaskDao {
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
         return tasks;
     }
 
     @Override
-    public List<Task> findByStatus(Integer userId, Integer status) {
+    public List<Task> findPageByUserId(Integer userId, TaskCursor cursor, int limit) {
         List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks WHERE user_id=? AND status=? ORDER BY due_date, priority DESC";
         try (Connection conn = DBUtil.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, status);
+                PreparedStatement pstmt = conn.prepareStatement(pageSql(cursor))) {
+
+            int index = 1;
+            pstmt.setInt(index++, userId);
+            if (cursor != null) {
+                if (cursor.getDueDate() != null) {
+                    java.sql.Date dueDate = java.sql.Date.valueOf(cursor.getDueDate());
+                    pstmt.setDate(index++, dueDate);
+                    pstmt.setDate(index++, dueDate);
+                    pstmt.setDate(index++, dueDate);
+                }
+                pstmt.setInt(index++, cursor.getPriority());
+                pstmt.setInt(index++, cursor.getPriority());
+                pstmt.setInt(index++, cursor.getTaskId());
+            }
+            pstmt.setInt(index, limit);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    tasks.add(extractTaskFromResultSet(rs));
+                    tasks.add(extractTaskSummaryFromResultSet(rs));
                 }
             }
         } catch (SQLException e) {
@@ -154,39 +444,52 @@ public class TaskDaoImpl implements TaskDao {
         return tasks;
     }
 
+    // 分页查询的SQL，包级可见，供查询计划测试使用
+    static String pageSql(TaskCursor cursor) {
+        StringBuilder sql = new StringBuilder(SUMMARY_SELECT).append(" WHERE user_id=?");
+        if (cursor != null) {
+            // 按排序键 (due_date, priority DESC, task_id) 定位到游标之后，MySQL中NULL排在最前
+            if (cursor.getDueDate() != null) {
+                sql.append(" AND due_date>=? AND (due_date>? OR (due_date=? AND (priority<? OR (priority=? AND task_id>?))))");
+            } else {
+                sql.append(" AND (due_date IS NOT NULL OR (priority<? OR (priority=? AND task_id>?)))");
+            }
+        }
+        return sql.append(" ORDER BY due_date, priority DESC, task_id LIMIT ?").toString();
+    }
+
     @Override
-    public List<Task> findByPriority(Integer userId, Integer priority) {
-        List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks WHERE user_id=? AND priority=? ORDER BY due_date";
+    public int streamByUserId(Integer userId, TaskHandler handler) throws IOException {
+        int count = 0;
         try (Connection conn = DBUtil.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                PreparedStatement pstmt = conn.prepareStatement(FIND_BY_USER_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
 
+            pstmt.setFetchSize(STREAMING_FETCH_SIZE);
             pstmt.setInt(1, userId);
-            pstmt.setInt(2, priority);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    tasks.add(extractTaskFromResultSet(rs));
+                    handler.handle(extractTaskSummaryFromResultSet(rs));
+                    count++;
                 }
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return -1;
         }
-        return tasks;
+        return count;
     }
 
     @Override
-    public List<Task> findByDateRange(Integer userId, Date startDate, Date endDate) {
+    public List<Task> findByCategoryId(Integer categoryId) {
         List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks WHERE user_id=? AND due_date BETWEEN ? AND ? ORDER BY due_date, priority DESC";
         try (Connection conn = DBUtil.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                PreparedStatement pstmt = conn.prepareStatement(FIND_BY_CATEGORY_SQL)) {
 
-            pstmt.setInt(1, userId);
-            pstmt.setDate(2, new java.sql.Date(startDate.getTime()));
-            pstmt.setDate(3, new java.sql.Date(endDate.getTime()));
+            pstmt.setInt(1, categoryId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    tasks.add(extractTaskFromResultSet(rs));
+                    tasks.add(extractTaskSummaryFromResultSet(rs));
                 }
             }
         } catch (SQLException e) {
@@ -196,14 +499,57 @@ public class TaskDaoImpl implements TaskDao {
     }
 
     @Override
-    public int updateStatus(Integer taskId, Integer status) {
-        String sql = "UPDATE tasks SET status=? WHERE task_id=?";
-        try (Connection conn = DBUtil.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    public List<Task> findByStatus(Integer userId, Integer status) {
+        TaskQuery query = new TaskQuery(userId);
+        query.getStatuses().add(status);
+        return query(query);
+    }
 
-            pstmt.setInt(1, status);
-            pstmt.setInt(2, taskId);
-            return pstmt.executeUpdate();
+    @Override
+    public List<Task> findByPriority(Integer userId, Integer priority) {
+        TaskQuery query = new TaskQuery(userId);
+        query.getPriorities().add(priority);
+        return query(query);
+    }
+
+    @Override
+    public List<Task> findByDateRange(Integer userId, LocalDate startDate, LocalDate endDate) {
+        TaskQuery query = new TaskQuery(userId);
+        query.setStartDate(startDate);
+        query.setEndDate(endDate);
+        return query(query);
+    }
+
+    @Override
+    public int updateStatus(Integer taskId, Integer userId, Integer status) {
+        String sql = "UPDATE tasks SET status=?, change_seq=" + ChangeSeq.CURRENT + " WHERE task_id=? AND user_id=?";
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                ChangeSeq.next(conn, userId);
+                TaskCounters.Key before = TaskCounters.lock(conn, taskId, userId);
+                if (before == null) {
+                    conn.rollback();
+                    return 0;
+                }
+
+                pstmt.setInt(1, status);
+                pstmt.setInt(2, userId);
+                pstmt.setInt(3, taskId);
+                pstmt.setInt(4, userId);
+                int affectedRows = pstmt.executeUpdate();
+
+                TaskCounters counters = new TaskCounters();
+                counters.move(before, new TaskCounters.Key(userId, before.categoryId, status, before.priority));
+                counters.apply(conn);
+                conn.commit();
+                return affectedRows;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
             return 0;
@@ -211,32 +557,94 @@ public class TaskDaoImpl implements TaskDao {
     }
 
     @Override
-    public List<Task> search(Integer userId, String keyword) {
-        List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks WHERE user_id=? AND (title LIKE ? OR content LIKE ?) " +
-                "ORDER BY due_date, priority DESC";
-        try (Connection conn = DBUtil.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    public int updateStatusBatch(Integer userId, List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        String sql = "UPDATE tasks SET status=?, change_seq=" + ChangeSeq.CURRENT + " WHERE task_id=? AND user_id=?";
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                ChangeSeq.next(conn, userId);
+                // 按任务ID顺序锁定，与并发的批量更新以相同顺序加锁；同一任务出现多次时以最后一次为准
+                Map<Integer, TaskCounters.Key> before = lockAll(conn, userId, tasks);
+                Map<Integer, TaskCounters.Key> after = new HashMap<>(before);
+                for (Task task : tasks) {
+                    TaskCounters.Key key = after.get(task.getTaskId());
+                    if (key != null) {
+                        after.put(task.getTaskId(),
+                                new TaskCounters.Key(userId, key.categoryId, task.getStatus(), key.priority));
+                    }
+                    pstmt.setInt(1, task.getStatus());
+                    pstmt.setInt(2, userId);
+                    pstmt.setInt(3, task.getTaskId());
+                    pstmt.setInt(4, userId);
+                    pstmt.addBatch();
+                }
+                int updated = 0;
+                for (int count : pstmt.executeBatch()) {
+                    // 驱动合并执行时可能只返回SUCCESS_NO_INFO，按成功一行计算
+                    updated += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+                }
 
-            pstmt.setInt(1, userId);
-            pstmt.setString(2, "%" + keyword + "%");
-            pstmt.setString(3, "%" + keyword + "%");
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    tasks.add(extractTaskFromResultSet(rs));
+                TaskCounters counters = new TaskCounters();
+                for (Map.Entry<Integer, TaskCounters.Key> entry : before.entrySet()) {
+                    counters.move(entry.getValue(), after.get(entry.getKey()));
                 }
+                counters.apply(conn);
+                conn.commit();
+                return updated;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
             e.printStackTrace();
+            return 0;
         }
-        return tasks;
+    }
+
+    // 锁定批量中属于该用户的任务，返回任务ID到写入前计数键的映射
+    private Map<Integer, TaskCounters.Key> lockAll(Connection conn, Integer userId, List<Task> tasks) throws SQLException {
+        Set<Integer> taskIds = new TreeSet<>();
+        for (Task task : tasks) {
+            taskIds.add(task.getTaskId());
+        }
+        StringBuilder sql = new StringBuilder("SELECT task_id, category_id, status, priority FROM tasks WHERE user_id=?");
+        appendInClause(sql, "task_id", taskIds.size());
+        sql.append(" ORDER BY task_id FOR UPDATE");
+
+        Map<Integer, TaskCounters.Key> keys = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            pstmt.setInt(index++, userId);
+            for (Integer taskId : taskIds) {
+                pstmt.setInt(index++, taskId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.put(rs.getInt(1), new TaskCounters.Key(userId, rs.getInt(2), rs.getInt(3), rs.getInt(4)));
+                }
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public List<Task> search(Integer userId, String keyword) {
+        TaskQuery query = new TaskQuery(userId);
+        query.setKeyword(keyword);
+        query.setSortField(TaskQuery.SortField.RELEVANCE);
+        query.setLimit(SEARCH_LIMIT);
+        return query(query);
     }
 
     @Override
     public int countByStatus(Integer userId, Integer status) {
-        String sql = "SELECT COUNT(*) FROM tasks WHERE user_id=? AND status=?";
         try (Connection conn = DBUtil.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                PreparedStatement pstmt = conn.prepareStatement(COUNT_BY_STATUS_SQL)) {
 
             pstmt.setInt(1, userId);
             pstmt.setInt(2, status);
@@ -251,34 +659,203 @@ public class TaskDaoImpl implements TaskDao {
         return 0;
     }
 
-    private Task extractTaskFromResultSet(ResultSet rs) throws SQLException {
+    @Override
+    public Map<Integer, Integer> countGroupByStatus(Integer userId) {
+        Map<Integer, Integer> counts = new LinkedHashMap<>();
+        try (Connection conn = DBUtil.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(COUNT_GROUP_BY_STATUS_SQL)) {
+
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(rs.getInt(1), rs.getInt(2));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return counts;
+    }
+
+    @Override
+    public TaskStats stats(Integer userId, LocalDate today) {
+        TaskStats stats = new TaskStats(today);
+        java.sql.Date todayDate = java.sql.Date.valueOf(today);
+        try (Connection conn = DBUtil.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(COUNTERS_SQL)) {
+                pstmt.setInt(1, userId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        int categoryId = rs.getInt(1);
+                        stats.add(rs.getInt(2), rs.getInt(3), categoryId == 0 ? null : categoryId, rs.getInt(4));
+                    }
+                }
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(DUE_STATS_SQL)) {
+                pstmt.setDate(1, todayDate);
+                pstmt.setDate(2, todayDate);
+                pstmt.setDate(3, todayDate);
+                pstmt.setInt(4, userId);
+                pstmt.setDate(5, java.sql.Date.valueOf(TaskStats.endOfWeek(today)));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        stats.addDue(rs.getInt(1), rs.getInt(2), rs.getInt(3));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return stats;
+    }
+
+    @Override
+    public int reconcileCounters(Integer userId) {
+        String deleteSql = "DELETE FROM task_counters WHERE user_id=? AND category_id=? AND status=? AND priority=?";
+        String setSql = "INSERT INTO task_counters (user_id, category_id, status, priority, task_count) " +
+                "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE task_count=VALUES(task_count)";
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement lock = conn.prepareStatement(
+                    "SELECT category_id, status, priority, task_count FROM task_counters WHERE user_id=? FOR UPDATE");
+                    PreparedStatement recount = conn.prepareStatement(RECOUNT_SQL);
+                    PreparedStatement delete = conn.prepareStatement(deleteSql);
+                    PreparedStatement set = conn.prepareStatement(setSql)) {
+                // 先锁定计数行再统计任务：正在写入的事务要么已提交、统计时可见，要么等对账提交后再累加变化量
+                Map<TaskCounters.Key, Integer> stored = new TreeMap<>();
+                lock.setInt(1, userId);
+                try (ResultSet rs = lock.executeQuery()) {
+                    while (rs.next()) {
+                        stored.put(new TaskCounters.Key(userId, rs.getInt(1), rs.getInt(2), rs.getInt(3)), rs.getInt(4));
+                    }
+                }
+                Map<TaskCounters.Key, Integer> actual = new TreeMap<>();
+                recount.setInt(1, userId);
+                try (ResultSet rs = recount.executeQuery()) {
+                    while (rs.next()) {
+                        actual.put(new TaskCounters.Key(userId, rs.getInt(1), rs.getInt(2), rs.getInt(3)), rs.getInt(4));
+                    }
+                }
+
+                // 计数不一致的按实际值改写，没有任务的行删除；原来就为0的行删除但不算作偏差
+                int repaired = 0;
+                Set<TaskCounters.Key> keys = new TreeSet<>(stored.keySet());
+                keys.addAll(actual.keySet());
+                for (TaskCounters.Key key : keys) {
+                    Integer storedCount = stored.get(key);
+                    Integer actualCount = actual.get(key);
+                    if (actualCount == null) {
+                        key.bind(delete);
+                        delete.executeUpdate();
+                        if (storedCount != 0) {
+                            repaired++;
+                        }
+                    } else if (!actualCount.equals(storedCount)) {
+                        key.bind(set);
+                        set.setInt(5, actualCount);
+                        set.executeUpdate();
+                        repaired++;
+                    }
+                }
+                conn.commit();
+                return repaired;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    // 包级可见，供基准测试直接调用
+    Task extractTaskFromResultSet(ResultSet rs) throws SQLException {
+        Task task = new Task();
+        task.setTaskId(rs.getInt("task_id"));
+        task.setUserId(rs.getInt("user_id"));
+        task.setCategoryId(rs.getInt("category_id"));
+        task.setTitle(rs.getString("title"));
+        // 描述与内容相同，只读取一次
+        String content = rs.getString("content");
+        task.setContent(content);
+        task.setDescription(content);
+        task.setPriority(rs.getInt("priority"));
+        task.setDueDate(rs.getObject("due_date", LocalDate.class));
+        task.setStatus(rs.getInt("status"));
+        task.setCreatedDate(rs.getObject("created_date", LocalDateTime.class));
+        task.setModifiedDate(rs.getObject("modified_date", LocalDateTime.class));
+        return task;
+    }
+
+    // 映射SUMMARY_SELECT的结果：预览放在description中，content和创建、修改时间为空
+    Task extractTaskSummaryFromResultSet(ResultSet rs) throws SQLException {
         Task task = new Task();
         task.setTaskId(rs.getInt("task_id"));
         task.setUserId(rs.getInt("user_id"));
         task.setCategoryId(rs.getInt("category_id"));
         task.setTitle(rs.getString("title"));
-        task.setContent(rs.getString("content"));
-        task.setDescription(rs.getString("content"));
+        task.setDescription(rs.getString("preview"));
         task.setPriority(rs.getInt("priority"));
-        task.setDueDate(rs.getDate("due_date"));
+        task.setDueDate(rs.getObject("due_date", LocalDate.class));
         task.setStatus(rs.getInt("status"));
-        task.setCreatedDate(rs.getTimestamp("created_date"));
-        task.setModifiedDate(rs.getTimestamp("modified_date"));
         return task;
     }
 
     @Override
     public List<Task> findByUserIdOrderByPriority(Integer userId, boolean descending) {
+        TaskQuery query = new TaskQuery(userId);
+        query.setSortField(TaskQuery.SortField.PRIORITY);
+        query.setDescending(descending);
+        return query(query);
+    }
+
+    @Override
+    public List<Task> query(TaskQuery query) {
         List<Task> tasks = new ArrayList<>();
-        String order = descending ? "DESC" : "ASC";
-        String sql = "SELECT * FROM tasks WHERE user_id=? ORDER BY priority " + order + ", due_date";
+        String sql = compileQuery(query);
+        String phrase = fullTextPhrase(query);
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, userId);
+            // 参数绑定顺序必须与compileQuery中条件的拼接顺序一致
+            int index = 1;
+            pstmt.setInt(index++, query.getUserId());
+            for (Integer status : query.getStatuses()) {
+                pstmt.setInt(index++, status);
+            }
+            for (Integer priority : query.getPriorities()) {
+                pstmt.setInt(index++, priority);
+            }
+            for (Integer categoryId : query.getCategoryIds()) {
+                pstmt.setInt(index++, categoryId);
+            }
+            if (query.getStartDate() != null) {
+                pstmt.setDate(index++, java.sql.Date.valueOf(query.getStartDate()));
+            }
+            if (query.getEndDate() != null) {
+                pstmt.setDate(index++, java.sql.Date.valueOf(query.getEndDate()));
+            }
+            if (phrase != null) {
+                pstmt.setString(index++, phrase);
+            } else if (query.getKeyword() != null) {
+                String pattern = "%" + escapeLike(query.getKeyword()) + "%";
+                pstmt.setString(index++, pattern);
+                pstmt.setString(index++, pattern);
+            }
+            if (phrase != null && query.getSortField() == TaskQuery.SortField.RELEVANCE) {
+                pstmt.setString(index++, phrase);
+            }
+            if (query.getLimit() != null) {
+                pstmt.setInt(index, query.getLimit());
+            }
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    tasks.add(extractTaskFromResultSet(rs));
+                    tasks.add(extractTaskSummaryFromResultSet(rs));
                 }
             }
         } catch (SQLException e) {
@@ -286,4 +863,99 @@ public class TaskDaoImpl implements TaskDao {
         }
         return tasks;
     }
+
+    // 将查询条件编译为SQL，相同形状（条件组合、集合大小、排序）的查询复用同一条SQL文本
+    // 包级可见，供查询计划测试使用
+    String compileQuery(TaskQuery query) {
+        boolean fullText = fullTextPhrase(query) != null;
+        String shape = query.getStatuses().size() + "|" + query.getPriorities().size() + "|"
+                + query.getCategoryIds().size() + "|" + (query.getStartDate() != null) + "|"
+                + (query.getEndDate() != null) + "|" + (query.getKeyword() != null) + "|" + fullText + "|"
+                + query.getSortField() + "|" + query.isDescendingOrder() + "|" + (query.getLimit() != null);
+        String sql = QUERY_SHAPES.get(shape);
+        if (sql != null) {
+            return sql;
+        }
+
+        StringBuilder builder = new StringBuilder(SUMMARY_SELECT).append(" WHERE user_id=?");
+        appendInClause(builder, "status", query.getStatuses().size());
+        appendInClause(builder, "priority", query.getPriorities().size());
+        appendInClause(builder, "category_id", query.getCategoryIds().size());
+        if (query.getStartDate() != null) {
+            builder.append(" AND due_date>=?");
+        }
+        if (query.getEndDate() != null) {
+            builder.append(" AND due_date<=?");
+        }
+        if (fullText) {
+            builder.append(" AND ").append(MATCH_EXPRESSION);
+        } else if (query.getKeyword() != null) {
+            builder.append(" AND (title LIKE ? OR content LIKE ?)");
+        }
+
+        String direction = query.isDescendingOrder() ? " DESC" : "";
+        switch (query.getSortField()) {
+            case PRIORITY:
+                builder.append(" ORDER BY priority").append(direction).append(", due_date, task_id");
+                break;
+            case CREATED_DATE:
+                builder.append(" ORDER BY created_date").append(direction).append(", task_id").append(direction);
+                break;
+            case RELEVANCE:
+                // 相关度总是从高到低；没有使用全文索引时按默认顺序排列
+                if (fullText) {
+                    builder.append(" ORDER BY ").append(MATCH_EXPRESSION).append(" DESC,");
+                } else {
+                    builder.append(" ORDER BY");
+                }
+                builder.append(" due_date, priority DESC, task_id");
+                break;
+            default:
+                builder.append(" ORDER BY due_date").append(direction).append(", priority DESC, task_id");
+                break;
+        }
+        if (query.getLimit() != null) {
+            builder.append(" LIMIT ?");
+        }
+
+        sql = builder.toString();
+        if (QUERY_SHAPES.size() < MAX_QUERY_SHAPES) {
+            QUERY_SHAPES.putIfAbsent(shape, sql);
+        }
+        return sql;
+    }
+
+    private void appendInClause(StringBuilder builder, String column, int size) {
+        if (size == 0) {
+            return;
+        }
+        if (size == 1) {
+            builder.append(" AND ").append(column).append("=?");
+            return;
+        }
+        builder.append(" AND ").append(column).append(" IN (?");
+        for (int i = 1; i < size; i++) {
+            builder.append(",?");
+        }
+        builder.append(')');
+    }
+
+    // 关键词可以使用全文索引时返回布尔模式下的短语，否则返回null
+    private static String fullTextPhrase(TaskQuery query) {
+        return FULL_TEXT && query.getKeyword() != null ? toPhrase(query.getKeyword()) : null;
+    }
+
+    // 关键词整体作为短语匹配，与LIKE的子串语义一致；去掉双引号，过短时返回null
+    static String toPhrase(String keyword) {
+        String text = keyword.replace("\"", " ").trim();
+        if (text.codePointCount(0, text.length()) < NGRAM_TOKEN_SIZE) {
+            return null;
+        }
+        return "\"" + text + "\"";
+    }
+
+    // 转义LIKE中的通配符，关键词按字面匹配
+    private String escapeLike(String keyword) {
+        return keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.taskmanager.dao.impl;
 
 import com.taskmanager.bean.User;
+import com.taskmanager.dao.IdentityHandler;
 import com.taskmanager.dao.UserDao;
 import com.taskmanager.util.DBUtil;
 
@@ -9,6 +10,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class UserDaoImpl implements UserDao {
+    // 与TaskDaoImpl相同：MySQL驱动只有在fetchSize为Integer.MIN_VALUE时才逐行读取结果
+    private static final int STREAMING_FETCH_SIZE = DBUtil.isMySQL() ? Integer.MIN_VALUE : 500;
 
     @Override
     public int insert(User user) {
@@ -104,6 +107,56 @@ public class UserDaoImpl implements UserDao {
         return null;
     }
 
+    @Override
+    public User findByEmail(String email) {
+        String sql = "SELECT * FROM users WHERE email=?";
+        try (Connection conn = DBUtil.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, email);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return extractUserFromResultSet(rs);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        String sql = "SELECT 1 FROM users WHERE email=? LIMIT 1";
+        try (Connection conn = DBUtil.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, email);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    @Override
+    public int countAll() {
+        String sql = "SELECT COUNT(*) FROM users";
+        try (Connection conn = DBUtil.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql);
+                ResultSet rs = pstmt.executeQuery()) {
+
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
     @Override
     public List<User> findAll() {
         List<User> users = new ArrayList<>();
@@ -121,6 +174,50 @@ public class UserDaoImpl implements UserDao {
         return users;
     }
 
+    @Override
+    public int streamIdentities(IdentityHandler handler) {
+        // 只读取两个有索引的列，不读取密码等其他字段
+        String sql = "SELECT username, email FROM users";
+        int count = 0;
+        try (Connection conn = DBUtil.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setFetchSize(STREAMING_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.handle(rs.getString(1), rs.getString(2));
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+        return count;
+    }
+
+    @Override
+    public List<Integer> findIdsAfter(Integer afterUserId, int limit) {
+        List<Integer> userIds = new ArrayList<>();
+        String sql = "SELECT user_id FROM users WHERE user_id>? ORDER BY user_id LIMIT ?";
+        try (Connection conn = DBUtil.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, afterUserId);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    userIds.add(rs.getInt(1));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return userIds;
+    }
+
     @Override
     public int updateLastLogin(Integer userId) {
         String sql = "UPDATE users SET last_login=CURRENT_TIMESTAMP WHERE user_id=?";
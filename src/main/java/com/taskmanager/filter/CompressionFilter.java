@@ -0,0 +1,116 @@
+package com.taskmanager.filter;
+
+import com.taskmanager.util.DeflaterPool;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.annotation.WebInitParam;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+// API响应压缩：客户端接受gzip时，超过threshold字节的JSON响应以gzip编码输出
+// 任务列表中字段名和内容重复度高，压缩后通常只有原来的十分之一到五分之一
+// 异步处理的请求（AsyncApiServlet）在filter返回时尚未写出响应，由Servlet在结束异步请求前调用finishResponse
+// 未提供brotli：目前没有可用的纯Java编码器
+@WebFilter(urlPatterns = "/api/*", asyncSupported = true, initParams = {
+        @WebInitParam(name = "threshold", value = "1024"),
+        @WebInitParam(name = "level", value = "6")
+})
+public class CompressionFilter implements Filter {
+    static final int DEFAULT_THRESHOLD = 1024;
+    static final int DEFAULT_LEVEL = 6;
+    // 空闲Deflater数上限，超过的部分用完即释放
+    private static final int MAX_IDLE_DEFLATERS = 64;
+
+    private int threshold = DEFAULT_THRESHOLD;
+    private DeflaterPool deflaterPool = new DeflaterPool(DEFAULT_LEVEL, MAX_IDLE_DEFLATERS);
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        try {
+            String thresholdParam = filterConfig.getInitParameter("threshold");
+            if (thresholdParam != null) {
+                threshold = Integer.parseInt(thresholdParam.trim());
+            }
+            String levelParam = filterConfig.getInitParameter("level");
+            int level = levelParam == null ? DEFAULT_LEVEL : Integer.parseInt(levelParam.trim());
+            if (threshold < 0 || level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+                throw new ServletException("压缩参数错误");
+            }
+            deflaterPool = new DeflaterPool(level, MAX_IDLE_DEFLATERS);
+        } catch (NumberFormatException e) {
+            throw new ServletException("压缩参数错误", e);
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+        // 事件推送的连接不压缩，否则事件会积压在压缩缓冲区中
+        if (!acceptsGzip(request.getHeader("Accept-Encoding")) || isEventStream(request.getHeader("Accept"))) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CompressionResponseWrapper wrapper = new CompressionResponseWrapper(response, deflaterPool, threshold);
+        try {
+            chain.doFilter(request, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            wrapper.abort();
+            throw e;
+        }
+        if (!request.isAsyncStarted()) {
+            wrapper.finish();
+        }
+    }
+
+    // 结束异步请求前调用，写出被压缩包装的响应中剩余的数据；响应未经过本过滤器时不做任何事
+    public static void finishResponse(ServletResponse response) throws IOException {
+        while (response instanceof ServletResponseWrapper) {
+            if (response instanceof CompressionResponseWrapper) {
+                ((CompressionResponseWrapper) response).finish();
+                return;
+            }
+            response = ((ServletResponseWrapper) response).getResponse();
+        }
+    }
+
+    // 解析Accept-Encoding，如 "gzip, deflate, br" 或 "gzip;q=0"
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            if (!"gzip".equalsIgnoreCase(params[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isEventStream(String accept) {
+        return accept != null && accept.contains("text/event-stream");
+    }
+}
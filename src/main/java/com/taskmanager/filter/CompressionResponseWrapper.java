@@ -0,0 +1,277 @@
+package com.taskmanager.filter;
+
+import com.taskmanager.util.DeflaterPool;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+// 按大小决定是否压缩的响应包装：响应体先写入缓冲区，超过阈值时改为gzip输出，
+// 响应结束时仍未超过阈值则原样输出并设置Content-Length
+// 内容类型不是JSON时在第一次写入时即改为原样输出，不做缓冲（如事件推送）
+class CompressionResponseWrapper extends HttpServletResponseWrapper {
+    private final DeflaterPool deflaterPool;
+    private final int threshold;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    // 决定编码方式之后的输出目标：底层输出流或gzip流，为null表示仍在缓冲
+    private OutputStream target;
+    private PooledGzipOutputStream gzip;
+    private CompressionOutputStream stream;
+    private PrintWriter writer;
+    private long contentLength = -1;
+    private boolean finished;
+
+    CompressionResponseWrapper(HttpServletResponse response, DeflaterPool deflaterPool, int threshold) {
+        super(response);
+        this.deflaterPool = deflaterPool;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called");
+        }
+        if (stream == null) {
+            stream = new CompressionOutputStream();
+        }
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            stream = new CompressionOutputStream();
+            writer = new PrintWriter(new OutputStreamWriter(stream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    // 压缩后长度未知，由本类在原样输出时设置
+    @Override
+    public void setContentLength(int len) {
+        contentLength = len;
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        contentLength = len;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            contentLength = value == null ? -1 : Long.parseLong(value);
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            contentLength = value == null ? -1 : Long.parseLong(value);
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            contentLength = value;
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if ("Content-Length".equalsIgnoreCase(name)) {
+            contentLength = value;
+        } else {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    // 仍在缓冲时不提交响应，否则无法再决定是否压缩
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target != null) {
+            target.flush();
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        discard(true);
+        contentLength = -1;
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        discard(false);
+    }
+
+    // 写出剩余数据，结束gzip流；响应结束前必须调用，可重复调用
+    void finish() throws IOException {
+        if (finished || stream == null) {
+            return;
+        }
+        finished = true;
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target == null) {
+            begin(false);
+        }
+        if (gzip != null) {
+            gzip.finish();
+        }
+        getResponse().getOutputStream().flush();
+    }
+
+    // 出错时放弃压缩，归还Deflater
+    void abort() {
+        finished = true;
+        if (gzip != null) {
+            gzip.release();
+        }
+    }
+
+    // 丢弃已写入的数据；full为true时（reset，响应头已清空）回到缓冲状态重新决定编码方式，
+    // 否则（resetBuffer）保持原来的编码方式，gzip流重新开始
+    private void discard(boolean full) {
+        if (writer != null) {
+            writer.flush();
+        }
+        buffer.reset();
+        if (gzip != null) {
+            gzip.release();
+            gzip = null;
+            if (full) {
+                target = null;
+            } else {
+                try {
+                    gzip = new PooledGzipOutputStream(getResponse().getOutputStream(), deflaterPool);
+                    target = gzip;
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        } else if (full) {
+            target = null;
+        }
+    }
+
+    private boolean isJson() {
+        String contentType = getContentType();
+        return contentType != null && contentType.startsWith("application/json");
+    }
+
+    // 决定编码方式并写出缓冲区中的数据，overThreshold表示数据已超过阈值
+    private void begin(boolean overThreshold) throws IOException {
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        ServletOutputStream out = response.getOutputStream();
+        boolean json = isJson();
+        if (json) {
+            // 同一地址的响应是否压缩取决于Accept-Encoding，缓存需要区分
+            response.addHeader("Vary", "Accept-Encoding");
+        }
+        int status = response.getStatus();
+        boolean compress = overThreshold && json && !response.containsHeader("Content-Encoding")
+                && status != HttpServletResponse.SC_NO_CONTENT && status != HttpServletResponse.SC_NOT_MODIFIED;
+        if (compress) {
+            response.setHeader("Content-Encoding", "gzip");
+            gzip = new PooledGzipOutputStream(out, deflaterPool);
+            target = gzip;
+        } else {
+            if (contentLength >= 0) {
+                response.setContentLengthLong(contentLength);
+            } else if (finished) {
+                response.setContentLength(buffer.size());
+            }
+            target = out;
+        }
+        if (buffer.size() > 0) {
+            buffer.writeTo(target);
+            buffer.reset();
+        }
+    }
+
+    private class CompressionOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            if (target == null) {
+                if (buffer.size() + 1 <= threshold && isJson()) {
+                    buffer.write(b);
+                    return;
+                }
+                begin(true);
+            }
+            target.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target == null) {
+                if (buffer.size() + len <= threshold && isJson()) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                begin(true);
+            }
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null) {
+                target.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            if (target == null) {
+                return true;
+            }
+            try {
+                return getResponse().getOutputStream().isReady();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                getResponse().getOutputStream().setWriteListener(writeListener);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.taskmanager.filter;
+
+import com.taskmanager.util.DeflaterPool;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// 使用池中Deflater的gzip输出流：GZIPOutputStream每次都新建Deflater，这里改为手工写出gzip头尾
+// flush时执行SYNC_FLUSH，已写入的数据立即可被客户端解压；finish后Deflater归还对象池
+class PooledGzipOutputStream extends DeflaterOutputStream {
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+
+    private final DeflaterPool pool;
+    private final CRC32 crc = new CRC32();
+    private boolean released;
+
+    PooledGzipOutputStream(OutputStream out, DeflaterPool pool) throws IOException {
+        super(out, pool.borrow(), 8192, true);
+        this.pool = pool;
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        crc.update(b, off, len);
+    }
+
+    // 写出剩余的压缩数据和gzip尾部（CRC32和原始长度），不关闭底层输出流
+    @Override
+    public void finish() throws IOException {
+        if (released) {
+            return;
+        }
+        try {
+            super.finish();
+            writeInt((int) crc.getValue());
+            writeInt((int) def.getBytesRead());
+        } finally {
+            release();
+        }
+    }
+
+    // 放弃已写入的数据（如响应被重置），只归还Deflater
+    void release() {
+        if (!released) {
+            released = true;
+            pool.release(def);
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+}
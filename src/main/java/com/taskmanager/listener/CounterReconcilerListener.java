@@ -0,0 +1,62 @@
+package com.taskmanager.listener;
+
+import com.taskmanager.dao.TaskDao;
+import com.taskmanager.dao.UserDao;
+import com.taskmanager.dao.impl.TaskDaoImpl;
+import com.taskmanager.dao.impl.UserDaoImpl;
+import com.taskmanager.util.CounterReconciler;
+import com.taskmanager.util.TaskCache;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import java.util.List;
+
+// 随应用启动任务计数表的后台对账，应用停止时结束对账线程
+@WebListener
+public class CounterReconcilerListener implements ServletContextListener {
+    // 停止时等待正在执行的批次结束的时间
+    private static final long STOP_TIMEOUT_MILLIS = 10000;
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        CounterReconciler.getInstance().start(new DaoSource(new TaskDaoImpl(), new UserDaoImpl(), TaskCache.getInstance()));
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+        try {
+            CounterReconciler.getInstance().stop(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 通过DAO遍历用户和修正计数
+    static class DaoSource implements CounterReconciler.Source {
+        private final TaskDao taskDao;
+        private final UserDao userDao;
+        private final TaskCache taskCache;
+
+        DaoSource(TaskDao taskDao, UserDao userDao, TaskCache taskCache) {
+            this.taskDao = taskDao;
+            this.userDao = userDao;
+            this.taskCache = taskCache;
+        }
+
+        @Override
+        public List<Integer> userIdsAfter(int afterUserId, int limit) {
+            return userDao.findIdsAfter(afterUserId, limit);
+        }
+
+        @Override
+        public int reconcile(int userId) {
+            int repaired = taskDao.reconcileCounters(userId);
+            if (repaired > 0) {
+                // 缓存的统计基于修正前的计数
+                taskCache.invalidate(userId);
+            }
+            return repaired;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.taskmanager.listener;
+
+import com.taskmanager.dao.UserDao;
+import com.taskmanager.dao.impl.UserDaoImpl;
+import com.taskmanager.util.IdentityFilter;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+import java.util.function.BiConsumer;
+
+// 应用启动时预热用户名和邮箱的布隆过滤器，注册页面的可用性检查不必在请求中读取全部用户
+// 预热失败时应用照常启动，检查改为查询数据库，过滤器按重试间隔重新预热
+@WebListener
+public class IdentityFilterListener implements ServletContextListener {
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        IdentityFilter.getInstance().warm(new DaoSource(new UserDaoImpl()));
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) {
+    }
+
+    // 通过DAO读取用户名和邮箱
+    static class DaoSource implements IdentityFilter.Source {
+        private final UserDao userDao;
+
+        DaoSource(UserDao userDao) {
+            this.userDao = userDao;
+        }
+
+        @Override
+        public int count() {
+            return userDao.countAll();
+        }
+
+        @Override
+        public int forEach(BiConsumer<String, String> handler) {
+            return userDao.streamIdentities(handler::accept);
+        }
+    }
+}
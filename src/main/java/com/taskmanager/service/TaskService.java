@@ -1,8 +1,15 @@
 package com.taskmanager.service;
 
 import com.taskmanager.bean.Task;
-import java.util.Date;
+import com.taskmanager.bean.TaskChanges;
+import com.taskmanager.bean.TaskPage;
+import com.taskmanager.bean.TaskQuery;
+import com.taskmanager.bean.TaskStats;
+import com.taskmanager.dao.TaskHandler;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 public interface TaskService {
     // 创建任务
@@ -11,8 +18,8 @@ public interface TaskService {
     // 更新任务
     boolean updateTask(Task task);
 
-    // 删除任务
-    boolean deleteTask(Integer taskId);
+    // 删除用户的任务，任务不存在或不属于该用户时返回false
+    boolean deleteTask(Integer taskId, Integer userId);
 
     // 获取任务信息
     Task getTaskById(Integer taskId);
@@ -20,6 +27,15 @@ public interface TaskService {
     // 获取用户的所有任务
     List<Task> getUserTasks(Integer userId);
 
+    // 分页获取用户的任务，cursor为上一页返回的游标，首页传null
+    TaskPage getUserTasksPage(Integer userId, String cursor, Integer pageSize);
+
+    // 获取since标记之后用户任务的增量，since为空或已过期时返回full=true，客户端需全量加载
+    TaskChanges getTaskChanges(Integer userId, String since);
+
+    // 流式获取用户的所有任务，返回处理的任务数，失败时返回-1
+    int streamUserTasks(Integer userId, TaskHandler handler) throws IOException;
+
     // 获取分类下的所有任务
     List<Task> getCategoryTasks(Integer categoryId);
 
@@ -30,20 +46,38 @@ public interface TaskService {
     List<Task> getTasksByPriority(Integer userId, Integer priority);
 
     // 获取指定日期范围内的任务
-    List<Task> getTasksByDateRange(Integer userId, Date startDate, Date endDate);
+    List<Task> getTasksByDateRange(Integer userId, LocalDate startDate, LocalDate endDate);
+
+    // 更新用户任务的状态，任务不存在或不属于该用户时返回false
+    boolean updateTaskStatus(Integer taskId, Integer userId, Integer status);
+
+    // 批量创建任务，全部成功或全部失败，返回创建的任务数
+    int createTasks(List<Task> tasks);
 
-    // 更新任务状态
-    boolean updateTaskStatus(Integer taskId, Integer status);
+    // 批量更新用户任务的状态，不属于该用户的任务会被忽略，返回更新的任务数
+    int updateTaskStatuses(Integer userId, List<Task> tasks);
 
     // 搜索任务
     List<Task> searchTasks(Integer userId, String keyword);
 
+    // 搜索框的输入提示：以prefix开头的任务标题和分类名称，按使用次数排序
+    List<String> suggest(Integer userId, String prefix);
+
     // 获取任务统计信息
     int getTaskCountByStatus(Integer userId, Integer status);
 
+    // 获取用户各状态的任务数，键为状态
+    Map<Integer, Integer> getTaskCountsByStatus(Integer userId);
+
+    // 获取用户的任务统计（按状态、优先级、分类，以及未完成任务的截止日期分布），today为null时使用服务器日期
+    TaskStats getTaskStats(Integer userId, LocalDate today);
+
     // 验证任务是否属于指定用户
     boolean isTaskBelongsToUser(Integer taskId, Integer userId);
 
     // 获取用户的所有任务（按优先级排序）
     List<Task> getUserTasksOrderByPriority(Integer userId, boolean descending);
+
+    // 按组合条件查询任务
+    List<Task> queryTasks(TaskQuery query);
 }
\ No newline at end of file
@@ -4,12 +4,20 @@ import com.taskmanager.bean.Category;
 import com.taskmanager.dao.CategoryDao;
 import com.taskmanager.dao.impl.CategoryDaoImpl;
 import com.taskmanager.service.CategoryService;
+import com.taskmanager.util.TaskCache;
+import com.taskmanager.util.TaskEventBus;
+import com.taskmanager.util.TaskSearchIndex;
+import com.taskmanager.util.UserVersions;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.List;
 
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryDao categoryDao = new CategoryDaoImpl();
+    private final TaskCache taskCache = TaskCache.getInstance();
+    private final TaskEventBus eventBus = TaskEventBus.getInstance();
+    private final UserVersions userVersions = UserVersions.getInstance();
+    private final TaskSearchIndex searchIndex = TaskSearchIndex.getInstance();
 
     @Override
     public boolean createCategory(Category category) {
@@ -24,7 +32,11 @@ public class CategoryServiceImpl implements CategoryService {
             return false;
         }
 
-        return categoryDao.insert(category) > 0;
+        if (categoryDao.insert(category) > 0) {
+            userVersions.bump(category.getUserId());
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -49,7 +61,11 @@ public class CategoryServiceImpl implements CategoryService {
             return false;
         }
 
-        return categoryDao.update(category) > 0;
+        if (categoryDao.update(category) > 0) {
+            userVersions.bump(category.getUserId());
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -57,7 +73,19 @@ public class CategoryServiceImpl implements CategoryService {
         if (categoryId == null) {
             return false;
         }
-        return categoryDao.delete(categoryId) > 0;
+        // 删除分类会把其下任务的分类置空，需要使分类所属用户的任务缓存失效并通知其客户端；按主键查询所有者
+        Category category = categoryDao.findById(categoryId);
+        if (category == null) {
+            return false;
+        }
+        if (categoryDao.delete(categoryId) > 0) {
+            taskCache.invalidate(category.getUserId());
+            userVersions.bump(category.getUserId());
+            searchIndex.invalidate(category.getUserId());
+            eventBus.publish(category.getUserId(), TaskEventBus.UPDATED, (List<Integer>) null);
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -1,31 +1,122 @@
 package com.taskmanager.service.impl;
 
 import com.taskmanager.bean.Task;
+import com.taskmanager.bean.TaskChanges;
+import com.taskmanager.bean.TaskCursor;
+import com.taskmanager.bean.TaskPage;
+import com.taskmanager.bean.TaskQuery;
+import com.taskmanager.bean.TaskStats;
+import com.taskmanager.dao.CategoryDao;
 import com.taskmanager.dao.TaskDao;
+import com.taskmanager.dao.TaskHandler;
+import com.taskmanager.dao.impl.CategoryDaoImpl;
 import com.taskmanager.dao.impl.TaskDaoImpl;
 import com.taskmanager.service.TaskService;
+import com.taskmanager.util.TaskCache;
+import com.taskmanager.util.TaskEventBus;
+import com.taskmanager.util.TaskSearchIndex;
+import com.taskmanager.util.TaskSuggester;
+import com.taskmanager.util.UserVersions;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TaskServiceImpl implements TaskService {
+    // 分页大小的默认值与上限
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    // 组合查询单次返回的最大条数
+    public static final int MAX_QUERY_LIMIT = 500;
+    // 批量操作单次最多处理的任务数
+    public static final int MAX_BATCH_SIZE = 500;
+    // 输入提示单次返回的条数
+    public static final int SUGGEST_LIMIT = 10;
+
+    // 删除标记的保留时间，更早的同步标记无法给出完整的增量
+    public static final long TOMBSTONE_RETENTION_MILLIS = TimeUnit.DAYS.toMillis(7);
+    private static final long TOMBSTONE_PURGE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final AtomicLong lastTombstonePurge = new AtomicLong();
+
+    // 缓存视图的键
+    private static final String ALL_TASKS_VIEW = "all";
+    private static final String PAGE_VIEW_PREFIX = "page:";
+    private static final String QUERY_VIEW_PREFIX = "query:";
+    private static final String STATS_VIEW_PREFIX = "stats:";
+
     private final TaskDao taskDao = new TaskDaoImpl();
+    private final CategoryDao categoryDao = new CategoryDaoImpl();
+    private final TaskCache taskCache = TaskCache.getInstance();
+    private final TaskEventBus eventBus = TaskEventBus.getInstance();
+    private final UserVersions userVersions = UserVersions.getInstance();
+    private final TaskSearchIndex searchIndex = TaskSearchIndex.getInstance();
+    private final TaskSuggester suggester = TaskSuggester.getInstance();
 
     @Override
     public boolean createTask(Task task) {
         // 参数验证
-        if (task == null || task.getUserId() == null
-                || StringUtils.isBlank(task.getTitle())
-                || task.getPriority() == null
-                || task.getDueDate() == null) {
+        if (!isValidNewTask(task)) {
             return false;
         }
 
         // 设置默认状态为未完成
         task.setStatus(0);
 
-        return taskDao.insert(task) > 0;
+        if (taskDao.insert(task) > 0) {
+            taskCache.invalidate(task.getUserId());
+            userVersions.bump(task.getUserId());
+            searchIndex.put(task);
+            eventBus.publish(task.getUserId(), TaskEventBus.CREATED, task.getTaskId());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int createTasks(List<Task> tasks) {
+        if (tasks == null || tasks.isEmpty() || tasks.size() > MAX_BATCH_SIZE) {
+            return 0;
+        }
+        for (Task task : tasks) {
+            if (!isValidNewTask(task)) {
+                return 0;
+            }
+            task.setStatus(0);
+        }
+
+        int created = taskDao.insertBatch(tasks);
+        if (created > 0) {
+            Map<Integer, List<Task>> tasksByUser = new LinkedHashMap<>();
+            for (Task task : tasks) {
+                tasksByUser.computeIfAbsent(task.getUserId(), id -> new ArrayList<>()).add(task);
+            }
+            for (Map.Entry<Integer, List<Task>> entry : tasksByUser.entrySet()) {
+                taskCache.invalidate(entry.getKey());
+                userVersions.bump(entry.getKey());
+                List<Integer> taskIds = new ArrayList<>();
+                for (Task task : entry.getValue()) {
+                    searchIndex.put(task);
+                    taskIds.add(task.getTaskId());
+                }
+                eventBus.publish(entry.getKey(), TaskEventBus.CREATED, taskIds);
+            }
+        }
+        return created;
+    }
+
+    private boolean isValidNewTask(Task task) {
+        return task != null && task.getUserId() != null
+                && StringUtils.isNotBlank(task.getTitle())
+                && task.getPriority() != null
+                && task.getDueDate() != null;
     }
 
     @Override
@@ -39,20 +130,30 @@ public class TaskServiceImpl implements TaskService {
             return false;
         }
 
-        // 验证任务是否属于该用户
-        if (!isTaskBelongsToUser(task.getTaskId(), task.getUserId())) {
-            return false;
+        // 归属校验由UPDATE语句的WHERE条件完成
+        if (taskDao.update(task) > 0) {
+            taskCache.invalidate(task.getUserId());
+            userVersions.bump(task.getUserId());
+            searchIndex.put(task);
+            eventBus.publish(task.getUserId(), TaskEventBus.UPDATED, task.getTaskId());
+            return true;
         }
-
-        return taskDao.update(task) > 0;
+        return false;
     }
 
     @Override
-    public boolean deleteTask(Integer taskId) {
-        if (taskId == null) {
+    public boolean deleteTask(Integer taskId, Integer userId) {
+        if (taskId == null || userId == null) {
             return false;
         }
-        return taskDao.delete(taskId) > 0;
+        if (taskDao.delete(taskId, userId) > 0) {
+            taskCache.invalidate(userId);
+            userVersions.bump(userId);
+            searchIndex.remove(userId, taskId);
+            eventBus.publish(userId, TaskEventBus.DELETED, taskId);
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -68,7 +169,87 @@ public class TaskServiceImpl implements TaskService {
         if (userId == null) {
             return null;
         }
-        return taskDao.findByUserId(userId);
+        List<Task> tasks = taskCache.get(userId, ALL_TASKS_VIEW);
+        if (tasks != null) {
+            return tasks;
+        }
+        long stamp = taskCache.begin();
+        tasks = Collections.unmodifiableList(taskDao.findByUserId(userId));
+        cache(userId, ALL_TASKS_VIEW, tasks, tasks, stamp);
+        return tasks;
+    }
+
+    @Override
+    public TaskPage getUserTasksPage(Integer userId, String cursor, Integer pageSize) {
+        if (userId == null) {
+            return null;
+        }
+
+        int limit = pageSize == null || pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        TaskCursor after = StringUtils.isBlank(cursor) ? null : TaskCursor.fromToken(cursor);
+
+        String view = PAGE_VIEW_PREFIX + (after == null ? "" : cursor) + ":" + limit;
+        TaskPage page = taskCache.get(userId, view);
+        if (page != null) {
+            return page;
+        }
+        long stamp = taskCache.begin();
+
+        // 多取一条用于判断是否还有下一页
+        List<Task> tasks = taskDao.findPageByUserId(userId, after, limit + 1);
+        boolean hasMore = tasks.size() > limit;
+        if (hasMore) {
+            tasks = new ArrayList<>(tasks.subList(0, limit));
+        }
+        String nextCursor = hasMore ? TaskCursor.after(tasks.get(limit - 1)).toToken() : null;
+        page = new TaskPage(Collections.unmodifiableList(tasks), nextCursor, hasMore);
+        cache(userId, view, page, page.getTasks(), stamp);
+        return page;
+    }
+
+    @Override
+    public TaskChanges getTaskChanges(Integer userId, String since) {
+        if (userId == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        Long from = null;
+        if (StringUtils.isNotBlank(since)) {
+            // 标记为 "<变更序号>-<数据库时间>"，时间只用于判断所需的删除标记是否已被清理；
+            // 升级前发出的只有时间的标记按过期处理
+            String[] parts = since.trim().split("-", -1);
+            long seq = Long.parseLong(parts[0]);
+            if (parts.length == 2 && Long.parseLong(parts[1]) >= now - TOMBSTONE_RETENTION_MILLIS) {
+                from = seq;
+            }
+        }
+        purgeTombstones(now);
+
+        TaskChanges changes = taskDao.findChanges(userId, from);
+        if (changes == null) {
+            return null;
+        }
+        changes.setFull(from == null);
+        changes.setToken(changes.getSequence() + "-" + changes.getCheckpoint().getTime());
+        return changes;
+    }
+
+    // 顺带清理过期的删除标记，每个间隔内只有一个请求执行
+    private void purgeTombstones(long now) {
+        long last = lastTombstonePurge.get();
+        if (now - last >= TOMBSTONE_PURGE_INTERVAL_MILLIS && lastTombstonePurge.compareAndSet(last, now)) {
+            // 多保留一个清理间隔，保证仍被接受的同步标记所需的删除标记都还在
+            taskDao.purgeTombstones(new Date(now - TOMBSTONE_RETENTION_MILLIS - TOMBSTONE_PURGE_INTERVAL_MILLIS));
+        }
+    }
+
+    @Override
+    public int streamUserTasks(Integer userId, TaskHandler handler) throws IOException {
+        if (userId == null || handler == null) {
+            return -1;
+        }
+        return taskDao.streamByUserId(userId, handler);
     }
 
     @Override
@@ -96,7 +277,7 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
-    public List<Task> getTasksByDateRange(Integer userId, Date startDate, Date endDate) {
+    public List<Task> getTasksByDateRange(Integer userId, LocalDate startDate, LocalDate endDate) {
         if (userId == null || startDate == null || endDate == null) {
             return null;
         }
@@ -104,11 +285,43 @@ public class TaskServiceImpl implements TaskService {
     }
 
     @Override
-    public boolean updateTaskStatus(Integer taskId, Integer status) {
-        if (taskId == null || status == null) {
+    public boolean updateTaskStatus(Integer taskId, Integer userId, Integer status) {
+        if (taskId == null || userId == null || status == null) {
             return false;
         }
-        return taskDao.updateStatus(taskId, status) > 0;
+        if (taskDao.updateStatus(taskId, userId, status) > 0) {
+            taskCache.invalidate(userId);
+            userVersions.bump(userId);
+            searchIndex.updateStatus(userId, taskId, status);
+            eventBus.publish(userId, TaskEventBus.STATUS, taskId);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int updateTaskStatuses(Integer userId, List<Task> tasks) {
+        if (userId == null || tasks == null || tasks.isEmpty() || tasks.size() > MAX_BATCH_SIZE) {
+            return 0;
+        }
+        for (Task task : tasks) {
+            if (task == null || task.getTaskId() == null || task.getStatus() == null) {
+                return 0;
+            }
+        }
+
+        int updated = taskDao.updateStatusBatch(userId, tasks);
+        if (updated > 0) {
+            taskCache.invalidate(userId);
+            userVersions.bump(userId);
+            List<Integer> taskIds = new ArrayList<>();
+            for (Task task : tasks) {
+                searchIndex.updateStatus(userId, task.getTaskId(), task.getStatus());
+                taskIds.add(task.getTaskId());
+            }
+            eventBus.publish(userId, TaskEventBus.STATUS, taskIds);
+        }
+        return updated;
     }
 
     @Override
@@ -116,7 +329,20 @@ public class TaskServiceImpl implements TaskService {
         if (userId == null || StringUtils.isBlank(keyword)) {
             return null;
         }
-        return taskDao.search(userId, keyword);
+        // 优先使用内存中的倒排索引，用户任务过多或加载失败时查询数据库
+        List<Task> tasks = searchIndex.search(userId, keyword.trim(), TaskDaoImpl.SEARCH_LIMIT,
+                () -> taskDao.findFullByUserId(userId));
+        return tasks != null ? tasks : taskDao.search(userId, keyword);
+    }
+
+    @Override
+    public List<String> suggest(Integer userId, String prefix) {
+        if (userId == null || StringUtils.isBlank(prefix)) {
+            return Collections.emptyList();
+        }
+        // 任务标题取自缓存的全部任务视图
+        return suggester.suggest(userId, prefix, SUGGEST_LIMIT,
+                () -> getUserTasks(userId), () -> categoryDao.findByUserId(userId));
     }
 
     @Override
@@ -127,6 +353,36 @@ public class TaskServiceImpl implements TaskService {
         return taskDao.countByStatus(userId, status);
     }
 
+    @Override
+    public Map<Integer, Integer> getTaskCountsByStatus(Integer userId) {
+        if (userId == null) {
+            return null;
+        }
+        return taskDao.countGroupByStatus(userId);
+    }
+
+    @Override
+    public TaskStats getTaskStats(Integer userId, LocalDate today) {
+        if (userId == null) {
+            return null;
+        }
+        if (today == null) {
+            today = LocalDate.now();
+        }
+        // 截止日期的分布与日期有关，日期作为视图键的一部分
+        String view = STATS_VIEW_PREFIX + today;
+        TaskStats stats = taskCache.get(userId, view);
+        if (stats != null) {
+            return stats;
+        }
+        long stamp = taskCache.begin();
+        stats = taskDao.stats(userId, today);
+        if (stats != null) {
+            taskCache.put(userId, view, stats, stamp);
+        }
+        return stats;
+    }
+
     @Override
     public boolean isTaskBelongsToUser(Integer taskId, Integer userId) {
         if (taskId == null || userId == null) {
@@ -144,4 +400,33 @@ public class TaskServiceImpl implements TaskService {
         List<Task> tasks = taskDao.findByUserIdOrderByPriority(userId, descending);
         return tasks;
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<Task> queryTasks(TaskQuery query) {
+        if (query == null || query.getUserId() == null) {
+            return null;
+        }
+
+        // 空白关键词视为未设置，条数限制在上限以内
+        query.setKeyword(StringUtils.isBlank(query.getKeyword()) ? null : query.getKeyword().trim());
+        Integer limit = query.getLimit();
+        query.setLimit(limit == null || limit <= 0 ? MAX_QUERY_LIMIT : Math.min(limit, MAX_QUERY_LIMIT));
+
+        String view = QUERY_VIEW_PREFIX + query;
+        List<Task> tasks = taskCache.get(query.getUserId(), view);
+        if (tasks != null) {
+            return tasks;
+        }
+        long stamp = taskCache.begin();
+        tasks = Collections.unmodifiableList(taskDao.query(query));
+        cache(query.getUserId(), view, tasks, tasks, stamp);
+        return tasks;
+    }
+
+    // DAO出错时同样返回空列表，为避免把错误结果缓存下来，空结果不进入缓存
+    private void cache(Integer userId, String view, Object value, List<Task> tasks, long stamp) {
+        if (!tasks.isEmpty()) {
+            taskCache.put(userId, view, value, stamp);
+        }
+    }
+}
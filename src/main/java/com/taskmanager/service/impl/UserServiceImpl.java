@@ -4,12 +4,15 @@ import com.taskmanager.bean.User;
 import com.taskmanager.dao.UserDao;
 import com.taskmanager.dao.impl.UserDaoImpl;
 import com.taskmanager.service.UserService;
+import com.taskmanager.util.IdentityFilter;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.List;
 
 public class UserServiceImpl implements UserService {
     private final UserDao userDao = new UserDaoImpl();
+    // 用户名和邮箱的布隆过滤器，所有实例共享，应用启动时预热
+    private final IdentityFilter identityFilter = IdentityFilter.getInstance();
 
     @Override
     public boolean register(User user) {
@@ -34,7 +37,11 @@ public class UserServiceImpl implements UserService {
         user.setStatus(1);
 
         // 保存用户信息
-        return userDao.insert(user) > 0;
+        if (userDao.insert(user) > 0) {
+            identityFilter.add(user.getUsername(), user.getEmail());
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -69,7 +76,11 @@ public class UserServiceImpl implements UserService {
             return false;
         }
 
-        return userDao.update(user) > 0;
+        if (userDao.update(user) > 0) {
+            identityFilter.add(user.getUsername(), user.getEmail());
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -114,6 +125,10 @@ public class UserServiceImpl implements UserService {
         if (StringUtils.isBlank(username)) {
             return false;
         }
+        // 布隆过滤器判定不存在时直接返回，不查询数据库
+        if (!identityFilter.mightContainUsername(username)) {
+            return false;
+        }
         return userDao.findByUsername(username) != null;
     }
 
@@ -122,9 +137,9 @@ public class UserServiceImpl implements UserService {
         if (StringUtils.isBlank(email)) {
             return false;
         }
-        // 由于UserDao中没有直接通过邮箱查询的方法，这里通过查询所有用户来检查
-        List<User> users = userDao.findAll();
-        return users.stream()
-                .anyMatch(user -> email.equals(user.getEmail()));
+        if (!identityFilter.mightContainEmail(email)) {
+            return false;
+        }
+        return userDao.existsByEmail(email);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,112 @@
+package com.taskmanager.servlet;
+
+import com.taskmanager.util.CounterReconciler;
+import com.taskmanager.util.DBUtil;
+import com.taskmanager.util.DbExecutor;
+import com.taskmanager.util.PoolMetrics;
+import com.taskmanager.util.PrometheusWriter;
+import com.taskmanager.util.TaskCache;
+import com.taskmanager.util.TaskEventBus;
+import com.taskmanager.util.TaskSearchIndex;
+import com.taskmanager.util.TaskSuggester;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebInitParam;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+// 运维接口：/api/admin/metrics 以Prometheus文本格式输出连接池、请求线程池、任务缓存和事件推送的统计信息
+// 默认只允许本机访问，可在web.xml中将初始化参数allowRemote设为true以允许远程采集
+@WebServlet(urlPatterns = "/api/admin/*", initParams = @WebInitParam(name = "allowRemote", value = "false"))
+public class AdminServlet extends HttpServlet {
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        if (!"/metrics".equals(request.getPathInfo())) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!"true".equals(getInitParameter("allowRemote")) && !isLoopback(request.getRemoteAddr())) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        response.setContentType(PrometheusWriter.CONTENT_TYPE);
+        PrintWriter out = response.getWriter();
+        writeMetrics(new PrometheusWriter(out));
+        out.flush();
+    }
+
+    private void writeMetrics(PrometheusWriter writer) {
+        PoolMetrics pool = DBUtil.getPoolMetrics();
+        writer.gauge("taskmanager_db_pool_active", "当前借出的连接数", DBUtil.getNumActive())
+                .gauge("taskmanager_db_pool_idle", "当前空闲的连接数", DBUtil.getNumIdle())
+                .gauge("taskmanager_db_pool_max", "连接池最大连接数", DBUtil.getMaxTotal())
+                .gauge("taskmanager_db_pool_waiters", "正在等待连接的线程数", DBUtil.getNumWaiters())
+                .histogram("taskmanager_db_pool_wait_seconds", "获取连接的等待时间",
+                        PoolMetrics.WAIT_BUCKETS, pool.getWaitBucketCounts(), pool.getWaitSeconds())
+                .counter("taskmanager_db_pool_timeouts_total", "等待连接超时的次数", pool.getTimeouts())
+                .counter("taskmanager_db_pool_failures_total", "获取连接失败（非超时）的次数", pool.getFailures())
+                .counter("taskmanager_db_pool_created_total", "连接池创建的物理连接数", DBUtil.getCreatedCount())
+                .counter("taskmanager_db_pool_destroyed_total", "连接池销毁的物理连接数", DBUtil.getDestroyedCount())
+                .counter("taskmanager_db_pool_leaks_total", "检测到的泄漏连接数", pool.getLeaks())
+                .gauge("taskmanager_db_pool_leaks_open", "超过泄漏阈值仍未归还的连接数", pool.getSuspectedLeaks());
+
+        DbExecutor executor = DBUtil.getExecutor();
+        writer.gauge("taskmanager_executor_threads", "请求线程池的最大线程数", executor.getThreads())
+                .gauge("taskmanager_executor_active", "正在处理请求的线程数", executor.getActiveCount())
+                .gauge("taskmanager_executor_queue_depth", "排队等待处理的请求数", executor.getQueueDepth())
+                .gauge("taskmanager_executor_queue_capacity", "排队请求数上限", executor.getQueueCapacity())
+                .counter("taskmanager_executor_rejected_total", "队列已满被拒绝（503）的请求数", executor.getRejected())
+                .counter("taskmanager_executor_expired_total", "排队超时（503）的请求数", executor.getExpired())
+                .counter("taskmanager_executor_completed_total", "线程池处理完成的请求数", executor.getCompleted());
+
+        TaskCache cache = TaskCache.getInstance();
+        writer.gauge("taskmanager_task_cache_views", "任务缓存中的视图数", cache.size())
+                .counter("taskmanager_task_cache_hits_total", "任务缓存命中次数", cache.getHits())
+                .counter("taskmanager_task_cache_misses_total", "任务缓存未命中次数", cache.getMisses())
+                .counter("taskmanager_task_cache_evictions_total", "因容量淘汰的缓存视图数", cache.getEvictions())
+                .counter("taskmanager_task_cache_expirations_total", "因过期失效的缓存视图数", cache.getExpirations())
+                .counter("taskmanager_task_cache_invalidations_total", "写操作触发的缓存失效次数", cache.getInvalidations());
+
+        TaskSearchIndex searchIndex = TaskSearchIndex.getInstance();
+        writer.gauge("taskmanager_search_index_users", "建立了搜索索引的用户数", searchIndex.size())
+                .gauge("taskmanager_search_index_tasks", "搜索索引中的任务数（按加载时计）", searchIndex.getIndexedTasks())
+                .counter("taskmanager_search_index_hits_total", "直接使用已有索引的搜索次数", searchIndex.getHits())
+                .counter("taskmanager_search_index_loads_total", "加载用户任务建立索引的次数", searchIndex.getLoads())
+                .counter("taskmanager_search_index_fallbacks_total", "改为查询数据库的搜索次数", searchIndex.getFallbacks());
+
+        TaskSuggester suggester = TaskSuggester.getInstance();
+        writer.gauge("taskmanager_suggest_users", "保存了输入提示词典的用户数", suggester.size())
+                .counter("taskmanager_suggest_hits_total", "直接使用已有词典的提示请求数", suggester.getHits())
+                .counter("taskmanager_suggest_loads_total", "建立输入提示词典的次数", suggester.getLoads());
+
+        CounterReconciler reconciler = CounterReconciler.getInstance();
+        writer.counter("taskmanager_counter_reconcile_users_total", "对账检查的用户数", reconciler.getUsers())
+                .counter("taskmanager_counter_reconcile_drifted_users_total", "计数与任务表不一致的用户数", reconciler.getDriftedUsers())
+                .counter("taskmanager_counter_reconcile_repaired_rows_total", "对账修正的计数行数", reconciler.getRepairedRows())
+                .counter("taskmanager_counter_reconcile_failures_total", "对账出错的次数", reconciler.getFailures())
+                .counter("taskmanager_counter_reconcile_passes_total", "完成的全量对账轮数", reconciler.getPasses());
+
+        TaskEventBus eventBus = TaskEventBus.getInstance();
+        writer.gauge("taskmanager_task_events_subscriptions", "当前的事件推送连接数", eventBus.getSubscriptionCount())
+                .counter("taskmanager_task_events_published_total", "发布的任务变更事件数", eventBus.getPublished())
+                .counter("taskmanager_task_events_delivered_total", "写给客户端的事件数", eventBus.getDelivered())
+                .counter("taskmanager_task_events_overflows_total", "缓冲区满后合并为resync的次数", eventBus.getOverflows());
+    }
+
+    private boolean isLoopback(String address) {
+        try {
+            return address != null && InetAddress.getByName(address).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
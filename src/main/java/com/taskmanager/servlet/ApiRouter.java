@@ -0,0 +1,239 @@
+package com.taskmanager.servlet;
+
+import com.google.gson.Gson;
+import com.taskmanager.util.UserVersions;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// API Servlet的路由表：按请求方法和pathInfo在预先构建的HashMap中查找处理方法，代替逐个比较路径的if/else链
+// 需要登录的路由由路由表统一检查会话，处理方法直接拿到userId；未登录、接口不存在和服务器内部错误
+// 这几种固定响应在构造时序列化一次，之后直接写出
+// 带版本的路由根据用户的数据版本号生成ETag，请求的If-None-Match与之相同时直接返回304，不调用处理方法
+// 路由可以另外注册流式处理方法，请求参数stream=true时由它逐步写出响应体，登录检查和ETag与普通模式相同
+class ApiRouter {
+    static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+    // 浏览器可以缓存，但每次使用前都要带上ETag重新验证
+    static final String CACHE_CONTROL = "private, no-cache";
+
+    // 处理方法：把响应内容放入result，由路由表统一序列化写出；userId在公开路由中可能为null
+    @FunctionalInterface
+    interface Handler {
+        void handle(HttpServletRequest request, HttpServletResponse response, Integer userId,
+                    Map<String, Object> result) throws Exception;
+    }
+
+    // 流式处理方法：自行写出响应体，返回false表示输出不完整（如中途读取失败）
+    @FunctionalInterface
+    interface StreamHandler {
+        boolean handle(HttpServletRequest request, HttpServletResponse response, Integer userId) throws Exception;
+    }
+
+    private static class Route {
+        private final Handler handler;
+        private final StreamHandler streamHandler;
+        private final boolean loginRequired;
+        private final boolean versioned;
+
+        private Route(Handler handler, boolean loginRequired, boolean versioned) {
+            this(handler, null, loginRequired, versioned);
+        }
+
+        private Route(Handler handler, StreamHandler streamHandler, boolean loginRequired, boolean versioned) {
+            this.handler = handler;
+            this.streamHandler = streamHandler;
+            this.loginRequired = loginRequired;
+            this.versioned = versioned;
+        }
+    }
+
+    private final Gson gson;
+    private final UserVersions userVersions;
+    private final Map<String, Route> getRoutes = new HashMap<>();
+    private final Map<String, Route> postRoutes = new HashMap<>();
+    private final String unauthorizedJson;
+    private final String notFoundJson;
+    private final String internalErrorJson;
+
+    // 构造函数
+    ApiRouter(Gson gson) {
+        this(gson, UserVersions.getInstance());
+    }
+
+    ApiRouter(Gson gson, UserVersions userVersions) {
+        this.gson = gson;
+        this.userVersions = userVersions;
+        this.unauthorizedJson = envelope("未登录");
+        this.notFoundJson = envelope("请求的接口不存在");
+        this.internalErrorJson = envelope("服务器内部错误");
+    }
+
+    // 注册需要登录的GET路由
+    ApiRouter get(String path, Handler handler) {
+        getRoutes.put(path, new Route(handler, true, false));
+        return this;
+    }
+
+    // 注册需要登录的POST路由
+    ApiRouter post(String path, Handler handler) {
+        postRoutes.put(path, new Route(handler, true, false));
+        return this;
+    }
+
+    // 注册需要登录、支持条件请求的GET路由，响应内容必须只取决于请求参数和用户的任务、分类数据
+    ApiRouter versionedGet(String path, Handler handler) {
+        getRoutes.put(path, new Route(handler, true, true));
+        return this;
+    }
+
+    // 注册带版本的GET路由，同时支持流式模式
+    ApiRouter versionedGet(String path, Handler handler, StreamHandler streamHandler) {
+        getRoutes.put(path, new Route(handler, streamHandler, true, true));
+        return this;
+    }
+
+    // 注册不需要登录的GET路由
+    ApiRouter publicGet(String path, Handler handler) {
+        getRoutes.put(path, new Route(handler, false, false));
+        return this;
+    }
+
+    // 注册不需要登录的POST路由
+    ApiRouter publicPost(String path, Handler handler) {
+        postRoutes.put(path, new Route(handler, false, false));
+        return this;
+    }
+
+    void dispatchGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        dispatch(getRoutes, request, response);
+    }
+
+    void dispatchPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        dispatch(postRoutes, request, response);
+    }
+
+    private void dispatch(Map<String, Route> routes, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setContentType(CONTENT_TYPE);
+
+        // 按精确路径映射的Servlet没有pathInfo，按"/"查找
+        String pathInfo = request.getPathInfo();
+        Route route = routes.get(pathInfo == null ? "/" : pathInfo);
+        if (route == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            write(response, notFoundJson);
+            return;
+        }
+
+        // 不为匿名请求创建会话
+        HttpSession session = request.getSession(false);
+        Integer userId = session == null ? null : (Integer) session.getAttribute("userId");
+        if (userId == null && route.loginRequired) {
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            write(response, unauthorizedJson);
+            return;
+        }
+
+        // 版本号必须在读取数据之前获取：读取期间发生的写入会使版本号变化，下次请求不会误判为未修改
+        String etag = null;
+        if (route.versioned) {
+            etag = etag(userId);
+            if (etagMatches(request.getHeader("If-None-Match"), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                response.setHeader("ETag", etag);
+                response.setHeader("Cache-Control", CACHE_CONTROL);
+                return;
+            }
+        }
+
+        if (route.streamHandler != null && "true".equals(request.getParameter("stream"))) {
+            stream(route, request, response, userId, etag);
+            return;
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        try {
+            route.handler.handle(request, response, userId, result);
+        } catch (Exception e) {
+            e.printStackTrace();
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            write(response, internalErrorJson);
+            return;
+        }
+        // 只为成功的响应设置ETag
+        if (etag != null && response.getStatus() == HttpServletResponse.SC_OK
+                && !Boolean.FALSE.equals(result.get("success"))) {
+            response.setHeader("ETag", etag);
+            response.setHeader("Cache-Control", CACHE_CONTROL);
+        }
+        write(response, gson.toJson(result));
+    }
+
+    // 流式输出在写出第一个字节之前就要设置ETag；输出不完整时递增该用户的版本号，
+    // 使已发出的ETag失效，客户端重试时不会被304确认为不完整的内容
+    private void stream(Route route, HttpServletRequest request, HttpServletResponse response,
+                        Integer userId, String etag) throws IOException {
+        if (etag != null) {
+            response.setHeader("ETag", etag);
+            response.setHeader("Cache-Control", CACHE_CONTROL);
+        }
+        boolean complete;
+        try {
+            complete = route.streamHandler.handle(request, response, userId);
+        } catch (Exception e) {
+            e.printStackTrace();
+            complete = false;
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setContentType(CONTENT_TYPE);
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                write(response, internalErrorJson);
+            }
+        }
+        if (!complete && etag != null) {
+            userVersions.bump(userId);
+        }
+    }
+
+    // 弱ETag：同一内容压缩与否的字节不同
+    private String etag(Integer userId) {
+        return "W/\"" + userVersions.getNonce() + "-" + userId + "-" + userVersions.get(userId) + "\"";
+    }
+
+    // If-None-Match可能包含多个ETag或*，按弱比较忽略W/前缀
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if ("*".equals(candidate) || opaque.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void write(HttpServletResponse response, String json) throws IOException {
+        PrintWriter out = response.getWriter();
+        out.print(json);
+        out.flush();
+    }
+
+    private String envelope(String message) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("success", false);
+        result.put("message", message);
+        return gson.toJson(result);
+    }
+}
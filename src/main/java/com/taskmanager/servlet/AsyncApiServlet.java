@@ -0,0 +1,128 @@
+package com.taskmanager.servlet;
+
+import com.taskmanager.filter.CompressionFilter;
+import com.taskmanager.util.DBUtil;
+import com.taskmanager.util.DbExecutor;
+import com.google.gson.Gson;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+// 访问数据库的API Servlet的基类：请求转入异步模式，在DbExecutor线程池中处理，容器线程立即释放
+// 数据库变慢时排队的是线程池中的任务而不是容器线程，静态页面等其他请求不受影响；
+// 线程池队列已满或任务排队超时时立即返回503
+// 异步请求超过db.asyncTimeout仍未完成时由容器回调onTimeout返回503并结束请求；处理线程写入的是DetachableResponse，
+// 超时后其输出被丢弃，不会写入已经结束的响应
+public abstract class AsyncApiServlet extends HttpServlet {
+    private final DbExecutor executor = DBUtil.getExecutor();
+    private final long asyncTimeout = DBUtil.getAsyncTimeout();
+    private final Gson errorGson = new Gson();
+
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        // 容器不支持异步（如过滤器未开启asyncSupported）时仍在当前线程处理
+        if (!request.isAsyncSupported()) {
+            super.service(request, response);
+            return;
+        }
+
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(asyncTimeout);
+        // 超时处理、排队超时和处理线程中先调用detach的一方负责结束请求
+        DetachableResponse worker = new DetachableResponse(response);
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                if (worker.detach()) {
+                    if (!response.isCommitted()) {
+                        writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "请求处理超时，请稍后再试");
+                    }
+                    complete(asyncContext, response);
+                }
+            }
+
+            // 客户端断开等错误：之后的输出没有意义，同样结束请求
+            @Override
+            public void onError(AsyncEvent event) {
+                if (worker.detach()) {
+                    asyncContext.complete();
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        try {
+            executor.execute(() -> {
+                try {
+                    AsyncApiServlet.super.service(request, worker);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    if (!worker.isCommitted()) {
+                        writeError(worker, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "服务器内部错误");
+                    }
+                } finally {
+                    if (worker.detach()) {
+                        complete(asyncContext, response);
+                    }
+                }
+            }, () -> {
+                if (worker.detach()) {
+                    writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "请求排队超时，请稍后再试");
+                    complete(asyncContext, response);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (worker.detach()) {
+                writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "服务器繁忙，请稍后再试");
+                complete(asyncContext, response);
+            }
+        }
+    }
+
+    // 压缩过滤器在异步请求中无法自行结束输出，需要在complete之前写出剩余数据
+    private void complete(AsyncContext asyncContext, HttpServletResponse response) {
+        try {
+            CompressionFilter.finishResponse(response);
+        } catch (IOException e) {
+            // 客户端已断开
+        } finally {
+            asyncContext.complete();
+        }
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("message", message);
+        try {
+            response.reset();
+            response.setStatus(status);
+            if (status == HttpServletResponse.SC_SERVICE_UNAVAILABLE) {
+                response.setHeader("Retry-After", "1");
+            }
+            response.setContentType("application/json;charset=UTF-8");
+            PrintWriter out = response.getWriter();
+            out.print(errorGson.toJson(result));
+            out.flush();
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.taskmanager.servlet;
+
+import com.taskmanager.bean.Category;
+import com.taskmanager.bean.TaskChanges;
+import com.taskmanager.bean.TaskPage;
+import com.taskmanager.bean.User;
+import com.taskmanager.service.CategoryService;
+import com.taskmanager.service.TaskService;
+import com.taskmanager.service.UserService;
+import com.taskmanager.service.impl.CategoryServiceImpl;
+import com.taskmanager.service.impl.TaskServiceImpl;
+import com.taskmanager.service.impl.UserServiceImpl;
+import com.taskmanager.util.DateUtil;
+import com.google.gson.Gson;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 任务页面的启动数据：一次请求返回用户信息、分类、任务第一页、各状态任务数和增量同步标记，
+// 代替页面加载时依次请求 /api/user/info、/api/category/list 和 /api/task/list
+// 各项在同一个工作线程中依次查询，同一时刻只占用一个数据库连接；不再并行拆分到线程池，
+// 否则请求线程池饱和时会出现等待自身子任务的死锁
+@WebServlet(urlPatterns = "/api/bootstrap", asyncSupported = true)
+public class BootstrapServlet extends AsyncApiServlet {
+    private final UserService userService = new UserServiceImpl();
+    private final CategoryService categoryService = new CategoryServiceImpl();
+    private final TaskService taskService = new TaskServiceImpl();
+    // 日期格式与任务接口一致
+    private final Gson gson = DateUtil.gsonBuilder().create();
+
+    // 登录检查、错误响应和不为匿名请求创建会话都由路由表统一处理
+    private final ApiRouter router = new ApiRouter(gson)
+            .get("/", this::handleBootstrap);
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        router.dispatchGet(request, response);
+    }
+
+    private void handleBootstrap(HttpServletRequest request, HttpServletResponse response,
+            Integer userId, Map<String, Object> result) {
+        User user = userService.getUserById(userId);
+        if (user == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            result.put("success", false);
+            result.put("message", "用户不存在");
+            return;
+        }
+
+        // 同步标记要在读取任务之前获取，期间发生的修改会在下次同步时再次返回
+        TaskChanges sync = taskService.getTaskChanges(userId, null);
+        List<Category> categories = categoryService.getUserCategories(userId);
+        String pageSizeStr = request.getParameter("pageSize");
+        TaskPage page;
+        try {
+            Integer pageSize = pageSizeStr == null || pageSizeStr.isEmpty() ? null : Integer.parseInt(pageSizeStr);
+            page = taskService.getUserTasksPage(userId, null, pageSize);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            result.put("success", false);
+            result.put("message", "分页参数格式错误");
+            return;
+        }
+        Map<Integer, Integer> statusCounts = taskService.getTaskCountsByStatus(userId);
+
+        // 页面只需要用户名，不返回密码等其他字段
+        Map<String, Object> userInfo = new HashMap<>();
+        userInfo.put("userId", user.getUserId());
+        userInfo.put("username", user.getUsername());
+
+        result.put("success", true);
+        result.put("user", userInfo);
+        result.put("categories", categories);
+        result.put("tasks", page.getTasks());
+        result.put("hasMore", page.isHasMore());
+        result.put("nextCursor", page.getNextCursor());
+        result.put("statusCounts", statusCounts);
+        result.put("syncToken", sync == null ? null : sync.getToken());
+    }
+}
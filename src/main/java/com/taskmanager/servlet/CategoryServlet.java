@@ -6,90 +6,37 @@ import com.taskmanager.service.impl.CategoryServiceImpl;
 import com.google.gson.Gson;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
-import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpSession;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-@WebServlet("/api/category/*")
-public class CategoryServlet extends HttpServlet {
+@WebServlet(urlPatterns = "/api/category/*", asyncSupported = true)
+public class CategoryServlet extends AsyncApiServlet {
     private final CategoryService categoryService = new CategoryServiceImpl();
     private final Gson gson = new Gson();
+    private final ApiRouter router = new ApiRouter(gson)
+            .post("/create", this::handleCreateCategory)
+            .post("/update", this::handleUpdateCategory)
+            .post("/delete", this::handleDeleteCategory)
+            .versionedGet("/list", this::handleGetUserCategories)
+            .get("/checkName", this::handleCheckCategoryName);
 
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        String pathInfo = request.getPathInfo();
-        response.setContentType("application/json;charset=UTF-8");
-        PrintWriter out = response.getWriter();
-        Map<String, Object> result = new HashMap<>();
-
-        try {
-            if ("/create".equals(pathInfo)) {
-                handleCreateCategory(request, response, result);
-            } else if ("/update".equals(pathInfo)) {
-                handleUpdateCategory(request, response, result);
-            } else if ("/delete".equals(pathInfo)) {
-                handleDeleteCategory(request, response, result);
-            } else {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                result.put("success", false);
-                result.put("message", "请求的接口不存在");
-            }
-        } catch (Exception e) {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            result.put("success", false);
-            result.put("message", "服务器内部错误");
-        }
-
-        out.print(gson.toJson(result));
-        out.flush();
+        router.dispatchPost(request, response);
     }
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        String pathInfo = request.getPathInfo();
-        response.setContentType("application/json;charset=UTF-8");
-        PrintWriter out = response.getWriter();
-        Map<String, Object> result = new HashMap<>();
-
-        try {
-            if ("/list".equals(pathInfo)) {
-                handleGetUserCategories(request, response, result);
-            } else if ("/checkName".equals(pathInfo)) {
-                handleCheckCategoryName(request, response, result);
-            } else {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                result.put("success", false);
-                result.put("message", "请求的接口不存在");
-            }
-        } catch (Exception e) {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            result.put("success", false);
-            result.put("message", "服务器内部错误");
-        }
-
-        out.print(gson.toJson(result));
-        out.flush();
+        router.dispatchGet(request, response);
     }
 
     private void handleCreateCategory(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         String categoryName = request.getParameter("categoryName");
         if (categoryName == null || categoryName.trim().isEmpty()) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -113,16 +60,7 @@ public class CategoryServlet extends HttpServlet {
     }
 
     private void handleUpdateCategory(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         String categoryIdStr = request.getParameter("categoryId");
         String categoryName = request.getParameter("categoryName");
         if (categoryIdStr == null || categoryName == null || categoryName.trim().isEmpty()) {
@@ -155,16 +93,7 @@ public class CategoryServlet extends HttpServlet {
     }
 
     private void handleDeleteCategory(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         String categoryIdStr = request.getParameter("categoryId");
         if (categoryIdStr == null) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -191,32 +120,14 @@ public class CategoryServlet extends HttpServlet {
     }
 
     private void handleGetUserCategories(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         List<Category> categories = categoryService.getUserCategories(userId);
         result.put("success", true);
         result.put("categories", categories);
     }
 
     private void handleCheckCategoryName(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         String categoryName = request.getParameter("categoryName");
         if (categoryName == null) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
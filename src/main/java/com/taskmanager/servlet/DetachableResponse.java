@@ -0,0 +1,234 @@
+package com.taskmanager.servlet;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+// 异步请求的处理线程使用的响应包装：请求超时后调用detach断开与底层响应的关联，
+// 之后处理线程的输出和对状态码、响应头的修改都被丢弃，不会写入已经结束（可能已被容器回收复用）的响应
+// 写出和detach在同一把锁上互斥，detach返回时不会有写到一半的输出
+class DetachableResponse extends HttpServletResponseWrapper {
+    private boolean detached;
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    DetachableResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    // 断开与底层响应的关联；返回false表示已经断开，由先断开的一方负责结束请求
+    synchronized boolean detach() {
+        if (detached) {
+            return false;
+        }
+        detached = true;
+        return true;
+    }
+
+    @Override
+    public synchronized ServletOutputStream getOutputStream() throws IOException {
+        if (stream == null) {
+            stream = new DetachableOutputStream(detached ? null : super.getOutputStream());
+        }
+        return stream;
+    }
+
+    @Override
+    public synchronized PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new DetachableWriter(detached ? null : super.getWriter()));
+        }
+        return writer;
+    }
+
+    // 断开之后视为已提交，处理线程不会再尝试写出错误信息
+    @Override
+    public synchronized boolean isCommitted() {
+        return detached || super.isCommitted();
+    }
+
+    @Override
+    public synchronized void setStatus(int sc) {
+        if (!detached) {
+            super.setStatus(sc);
+        }
+    }
+
+    @Override
+    public synchronized void sendError(int sc, String msg) throws IOException {
+        if (!detached) {
+            super.sendError(sc, msg);
+        }
+    }
+
+    @Override
+    public synchronized void sendError(int sc) throws IOException {
+        if (!detached) {
+            super.sendError(sc);
+        }
+    }
+
+    @Override
+    public synchronized void setHeader(String name, String value) {
+        if (!detached) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public synchronized void addHeader(String name, String value) {
+        if (!detached) {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public synchronized void setDateHeader(String name, long date) {
+        if (!detached) {
+            super.setDateHeader(name, date);
+        }
+    }
+
+    @Override
+    public synchronized void setIntHeader(String name, int value) {
+        if (!detached) {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public synchronized void setContentType(String type) {
+        if (!detached) {
+            super.setContentType(type);
+        }
+    }
+
+    @Override
+    public synchronized void setCharacterEncoding(String charset) {
+        if (!detached) {
+            super.setCharacterEncoding(charset);
+        }
+    }
+
+    @Override
+    public synchronized void setContentLengthLong(long len) {
+        if (!detached) {
+            super.setContentLengthLong(len);
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        if (!detached) {
+            super.reset();
+        }
+    }
+
+    @Override
+    public synchronized void resetBuffer() {
+        if (!detached) {
+            super.resetBuffer();
+        }
+    }
+
+    @Override
+    public synchronized void flushBuffer() throws IOException {
+        if (!detached) {
+            super.flushBuffer();
+        }
+    }
+
+    private class DetachableWriter extends Writer {
+        private final Writer target;
+
+        DetachableWriter(Writer target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            synchronized (DetachableResponse.this) {
+                if (!detached && target != null) {
+                    target.write(cbuf, off, len);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (DetachableResponse.this) {
+                if (!detached && target != null) {
+                    target.flush();
+                }
+            }
+        }
+
+        // 底层响应由容器关闭
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    private class DetachableOutputStream extends ServletOutputStream {
+        private final ServletOutputStream target;
+
+        DetachableOutputStream(ServletOutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            synchronized (DetachableResponse.this) {
+                if (!detached && target != null) {
+                    target.write(b);
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            synchronized (DetachableResponse.this) {
+                if (!detached && target != null) {
+                    target.write(b, off, len);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (DetachableResponse.this) {
+                if (!detached && target != null) {
+                    target.flush();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        // 断开之后写入都被丢弃，总是可以写
+        @Override
+        public boolean isReady() {
+            synchronized (DetachableResponse.this) {
+                return detached || target == null || target.isReady();
+            }
+        }
+
+        // 与写入一样，断开之后设置的监听器被丢弃
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            synchronized (DetachableResponse.this) {
+                if (!detached && target != null) {
+                    target.setWriteListener(writeListener);
+                }
+            }
+        }
+    }
+}
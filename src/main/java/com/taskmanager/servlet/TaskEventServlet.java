@@ -0,0 +1,167 @@
+package com.taskmanager.servlet;
+
+import com.taskmanager.util.TaskEventBus;
+import com.google.gson.Gson;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// 任务变更推送（Server-Sent Events）：/api/task/events 保持长连接，把当前用户的任务变更事件推送给浏览器
+// 使用异步Servlet和非阻塞输出，连接不占用容器线程；只在输出流可写时写出，客户端读取过慢时事件积压在
+// 总线的有界缓冲区中，缓冲区满后合并为一条resync事件
+@WebServlet(urlPatterns = "/api/task/events", asyncSupported = true)
+public class TaskEventServlet extends HttpServlet {
+    // 连接最长保持时间，超时后正常结束，浏览器的EventSource会自动重连
+    static final long CONNECTION_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    // 浏览器断线后的重连间隔
+    static final long RETRY_MILLIS = 3000;
+
+    private final TaskEventBus eventBus = TaskEventBus.getInstance();
+    private final Gson gson = new Gson();
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        Integer userId = session == null ? null : (Integer) session.getAttribute("userId");
+        if (userId == null) {
+            writeError(response, HttpServletResponse.SC_UNAUTHORIZED, "未登录");
+            return;
+        }
+        if (!request.isAsyncSupported()) {
+            writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "服务器不支持事件推送");
+            return;
+        }
+
+        EventStream stream = new EventStream();
+        TaskEventBus.Subscription subscription = eventBus.subscribe(userId, stream::drain);
+        if (subscription == null) {
+            writeError(response, 429, "打开的连接过多");
+            return;
+        }
+
+        response.setContentType("text/event-stream;charset=UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        // 禁止反向代理（如Nginx）缓冲事件
+        response.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(CONNECTION_TIMEOUT_MILLIS);
+        stream.start(asyncContext, response.getOutputStream(), subscription);
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("message", message);
+        response.setStatus(status);
+        response.setContentType("application/json;charset=UTF-8");
+        PrintWriter out = response.getWriter();
+        out.print(gson.toJson(result));
+        out.flush();
+    }
+
+    // 一个SSE连接：容器在输出流可写时回调onWritePossible，总线在有新事件时调用drain，两者都只在可写时写出
+    private class EventStream implements WriteListener, AsyncListener {
+        private AsyncContext asyncContext;
+        private ServletOutputStream out;
+        private TaskEventBus.Subscription subscription;
+        private boolean started;
+        private boolean finished;
+
+        synchronized void start(AsyncContext asyncContext, ServletOutputStream out,
+                                TaskEventBus.Subscription subscription) {
+            this.asyncContext = asyncContext;
+            this.out = out;
+            this.subscription = subscription;
+            asyncContext.addListener(this);
+            // 设置后容器会回调onWritePossible，首次写出在那里完成
+            out.setWriteListener(this);
+        }
+
+        @Override
+        public void onWritePossible() throws IOException {
+            drain();
+        }
+
+        // 写出缓冲区中的事件，直到没有事件或输出流暂时不可写（可写后容器会再次回调onWritePossible）
+        synchronized void drain() {
+            if (out == null || finished) {
+                return;
+            }
+            try {
+                if (!started) {
+                    if (!out.isReady()) {
+                        return;
+                    }
+                    out.write(("retry: " + RETRY_MILLIS + "\n\n").getBytes(StandardCharsets.UTF_8));
+                    started = true;
+                }
+                while (out.isReady()) {
+                    TaskEventBus.Event event = subscription.poll();
+                    if (event == null) {
+                        out.flush();
+                        return;
+                    }
+                    String frame = "event: " + event.getType() + "\ndata: " + gson.toJson(event) + "\n\n";
+                    out.write(frame.getBytes(StandardCharsets.UTF_8));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // 客户端已断开
+                finish();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            finish();
+        }
+
+        private synchronized void finish() {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            subscription.close();
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // 连接已由容器结束
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            subscription.close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -1,119 +1,71 @@
 package com.taskmanager.servlet;
 
 import com.taskmanager.bean.Task;
+import com.taskmanager.bean.TaskChanges;
+import com.taskmanager.bean.TaskPage;
+import com.taskmanager.bean.TaskQuery;
+import com.taskmanager.bean.TaskStats;
+import com.taskmanager.dao.TaskHandler;
 import com.taskmanager.service.TaskService;
 import com.taskmanager.service.impl.TaskServiceImpl;
+import com.taskmanager.util.DateUtil;
 import com.google.gson.Gson;
+import org.apache.commons.lang3.StringUtils;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
-import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpSession;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.HashMap;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import com.google.gson.GsonBuilder;
+import java.util.Set;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
 
-@WebServlet("/api/task/*")
-public class TaskServlet extends HttpServlet {
+@WebServlet(urlPatterns = "/api/task/*", asyncSupported = true)
+public class TaskServlet extends AsyncApiServlet {
     private final TaskService taskService = new TaskServiceImpl();
-    private final Gson gson = new GsonBuilder()
-            .setDateFormat("yyyy-MM-dd")
-            .create();
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+    private final Gson gson = DateUtil.gsonBuilder().create();
+    private final ApiRouter router = new ApiRouter(gson)
+            .post("/create", this::handleCreateTask)
+            .post("/update", this::handleUpdateTask)
+            .post("/delete", this::handleDeleteTask)
+            .post("/updateStatus", this::handleUpdateTaskStatus)
+            .post("/batchCreate", this::handleBatchCreateTasks)
+            .post("/batchUpdateStatus", this::handleBatchUpdateTaskStatus)
+            .versionedGet("/list", this::handleGetUserTasks, this::handleStreamUserTasks)
+            .get("/detail", this::handleGetTaskDetail)
+            .get("/category", this::handleGetCategoryTasks)
+            .get("/status", this::handleGetTasksByStatus)
+            .get("/priority", this::handleGetTasksByPriority)
+            .get("/dateRange", this::handleGetTasksByDateRange)
+            .get("/search", this::handleSearchTasks)
+            .versionedGet("/suggest", this::handleSuggest)
+            .get("/count", this::handleGetTaskCount)
+            .get("/stats", this::handleGetTaskStats)
+            .get("/orderByPriority", this::handleGetTasksOrderByPriority)
+            .get("/query", this::handleQueryTasks)
+            .get("/changes", this::handleGetTaskChanges);
 
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        String pathInfo = request.getPathInfo();
-        response.setContentType("application/json;charset=UTF-8");
-        PrintWriter out = response.getWriter();
-        Map<String, Object> result = new HashMap<>();
-
-        try {
-            if ("/create".equals(pathInfo)) {
-                handleCreateTask(request, response, result);
-            } else if ("/update".equals(pathInfo)) {
-                handleUpdateTask(request, response, result);
-            } else if ("/delete".equals(pathInfo)) {
-                handleDeleteTask(request, response, result);
-            } else if ("/updateStatus".equals(pathInfo)) {
-                handleUpdateTaskStatus(request, response, result);
-            } else {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                result.put("success", false);
-                result.put("message", "请求的接口不存在");
-            }
-        } catch (Exception e) {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            result.put("success", false);
-            result.put("message", "服务器内部错误：" + e.getMessage());
-        }
-
-        out.print(gson.toJson(result));
-        out.flush();
+        router.dispatchPost(request, response);
     }
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        String pathInfo = request.getPathInfo();
-        response.setContentType("application/json;charset=UTF-8");
-        PrintWriter out = response.getWriter();
-        Map<String, Object> result = new HashMap<>();
-
-        try {
-            if ("/list".equals(pathInfo)) {
-                handleGetUserTasks(request, response, result);
-            } else if ("/detail".equals(pathInfo)) {
-                handleGetTaskDetail(request, response, result);
-            } else if ("/category".equals(pathInfo)) {
-                handleGetCategoryTasks(request, response, result);
-            } else if ("/status".equals(pathInfo)) {
-                handleGetTasksByStatus(request, response, result);
-            } else if ("/priority".equals(pathInfo)) {
-                handleGetTasksByPriority(request, response, result);
-            } else if ("/dateRange".equals(pathInfo)) {
-                handleGetTasksByDateRange(request, response, result);
-            } else if ("/search".equals(pathInfo)) {
-                handleSearchTasks(request, response, result);
-            } else if ("/count".equals(pathInfo)) {
-                handleGetTaskCount(request, response, result);
-            } else if ("/orderByPriority".equals(pathInfo)) {
-                handleGetTasksOrderByPriority(request, response, result);
-            }
-            else {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                result.put("success", false);
-                result.put("message", "请求的接口不存在");
-            }
-        } catch (Exception e) {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            result.put("success", false);
-            result.put("message", "服务器内部错误：" + e.getMessage());
-        }
-
-        out.print(gson.toJson(result));
-        out.flush();
+        router.dispatchGet(request, response);
     }
 
     private void handleCreateTask(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         String title = request.getParameter("taskName");
         String description = request.getParameter("description");
         String categoryIdStr = request.getParameter("categoryId");
@@ -129,7 +81,7 @@ public class TaskServlet extends HttpServlet {
 
         try {
             Integer categoryId = Integer.parseInt(categoryIdStr);
-            Date dueDate = dateFormat.parse(dueDateStr);
+            LocalDate dueDate = DateUtil.parseDate(dueDateStr);
 
             // 解析优先级，默认为1（低）
             Integer priority = 1;
@@ -159,7 +111,7 @@ public class TaskServlet extends HttpServlet {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             result.put("success", false);
             result.put("message", "参数格式错误");
-        } catch (ParseException e) {
+        } catch (DateTimeParseException e) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             result.put("success", false);
             result.put("message", "日期格式错误");
@@ -171,16 +123,7 @@ public class TaskServlet extends HttpServlet {
     }
 
     private void handleUpdateTask(HttpServletRequest request, HttpServletResponse response,
-                                  Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+                                  Integer userId, Map<String, Object> result) throws IOException {
         String taskIdStr = request.getParameter("taskId");
         if (taskIdStr == null) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -192,15 +135,6 @@ public class TaskServlet extends HttpServlet {
         try {
             Integer taskId = Integer.parseInt(taskIdStr);
 
-            // Get the existing task to preserve its status
-            Task existingTask = taskService.getTaskById(taskId);
-            if (existingTask == null || !existingTask.getUserId().equals(userId)) {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                result.put("success", false);
-                result.put("message", "任务不存在或无权限修改");
-                return;
-            }
-
             String title = request.getParameter("taskName");
             String description = request.getParameter("description");
             String categoryIdStr = request.getParameter("categoryId");
@@ -215,7 +149,7 @@ public class TaskServlet extends HttpServlet {
             }
 
             Integer categoryId = Integer.parseInt(categoryIdStr);
-            Date dueDate = dateFormat.parse(dueDateStr);
+            LocalDate dueDate = DateUtil.parseDate(dueDateStr);
             Integer priority = 1;
             if (priorityStr != null && !priorityStr.isEmpty()) {
                 priority = Integer.parseInt(priorityStr);
@@ -231,8 +165,8 @@ public class TaskServlet extends HttpServlet {
             task.setPriority(priority);
             task.setDueDate(dueDate);
 
-            // Preserve the existing status
-            task.setStatus(existingTask.getStatus());
+            // 状态为null时保留原状态；任务不存在或不属于当前用户时不会更新任何行
+            task.setStatus(null);
 
             if (taskService.updateTask(task)) {
                 result.put("success", true);
@@ -240,13 +174,13 @@ public class TaskServlet extends HttpServlet {
             } else {
                 response.setStatus(HttpServletResponse.SC_NOT_FOUND);
                 result.put("success", false);
-                result.put("message", "更新任务失败");
+                result.put("message", "任务不存在或无权限修改");
             }
         } catch (NumberFormatException e) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             result.put("success", false);
             result.put("message", "任务ID格式错误");
-        } catch (ParseException e) {
+        } catch (DateTimeParseException e) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             result.put("success", false);
             result.put("message", "日期格式错误");
@@ -259,16 +193,7 @@ public class TaskServlet extends HttpServlet {
     }
 
     private void handleDeleteTask(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         String taskIdStr = request.getParameter("taskId");
         if (taskIdStr == null) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -279,7 +204,7 @@ public class TaskServlet extends HttpServlet {
 
         try {
             Integer taskId = Integer.parseInt(taskIdStr);
-            if (taskService.deleteTask(taskId)) {
+            if (taskService.deleteTask(taskId, userId)) {
                 result.put("success", true);
                 result.put("message", "删除任务成功");
             } else {
@@ -299,16 +224,7 @@ public class TaskServlet extends HttpServlet {
     }
 
     private void handleUpdateTaskStatus(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         String taskIdStr = request.getParameter("taskId");
         String statusStr = request.getParameter("status");
 
@@ -330,7 +246,7 @@ public class TaskServlet extends HttpServlet {
                 return;
             }
 
-            if (taskService.updateTaskStatus(taskId, status)) {
+            if (taskService.updateTaskStatus(taskId, userId, status)) {
                 result.put("success", true);
                 result.put("message", "更新任务状态成功");
             } else {
@@ -349,21 +265,137 @@ public class TaskServlet extends HttpServlet {
         }
     }
 
-    private void handleGetUserTasks(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+    // 请求体为任务的JSON数组，字段与任务对象一致，如 [{"title":"...","priority":2,"dueDate":"2024-06-30"}]
+    private void handleBatchCreateTasks(HttpServletRequest request, HttpServletResponse response,
+            Integer userId, Map<String, Object> result) throws IOException {
+        List<Task> tasks = readTaskArray(request, response, result);
+        if (tasks == null) {
+            return;
+        }
+
+        for (Task task : tasks) {
+            if (task == null || StringUtils.isBlank(task.getTitle()) || task.getDueDate() == null) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                result.put("success", false);
+                result.put("message", "参数不完整");
+                return;
+            }
+            task.setTaskId(null);
+            task.setUserId(userId);
+            // 与单个创建一致：描述即内容，优先级默认为1（低）
+            if (task.getContent() == null) {
+                task.setContent(task.getDescription());
+            }
+            task.setDescription(task.getContent());
+            if (task.getPriority() == null) {
+                task.setPriority(1);
+            }
+        }
+
+        int created = taskService.createTasks(tasks);
+        if (created > 0) {
+            List<Integer> taskIds = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                taskIds.add(task.getTaskId());
+            }
+            result.put("success", true);
+            result.put("message", "创建任务成功");
+            result.put("created", created);
+            result.put("taskIds", taskIds);
+        } else {
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             result.put("success", false);
-            result.put("message", "未登录");
+            result.put("message", "创建任务失败");
+        }
+    }
+
+    // 请求体为JSON数组，如 [{"taskId":1,"status":2},{"taskId":2,"status":2}]
+    private void handleBatchUpdateTaskStatus(HttpServletRequest request, HttpServletResponse response,
+            Integer userId, Map<String, Object> result) throws IOException {
+        List<Task> tasks = readTaskArray(request, response, result);
+        if (tasks == null) {
             return;
         }
 
+        for (Task task : tasks) {
+            if (task == null || task.getTaskId() == null || task.getStatus() == null) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                result.put("success", false);
+                result.put("message", "参数不完整");
+                return;
+            }
+            if (task.getStatus() < 0 || task.getStatus() > 2) {
+                response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                result.put("success", false);
+                result.put("message", "无效的任务状态");
+                return;
+            }
+        }
+
+        // 不属于当前用户或不存在的任务不会被更新，通过updated告知实际更新的数量
+        int updated = taskService.updateTaskStatuses(userId, tasks);
+        if (updated > 0) {
+            result.put("success", true);
+            result.put("message", "更新任务状态成功");
+            result.put("updated", updated);
+        } else {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            result.put("success", false);
+            result.put("message", "任务不存在");
+        }
+    }
+
+    // 读取请求体中的任务数组，格式错误、为空或超过数量上限时写入错误信息并返回null
+    private List<Task> readTaskArray(HttpServletRequest request, HttpServletResponse response,
+            Map<String, Object> result) throws IOException {
+        Task[] tasks;
+        try {
+            tasks = gson.fromJson(request.getReader(), Task[].class);
+        } catch (JsonParseException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            result.put("success", false);
+            result.put("message", "请求数据格式错误");
+            return null;
+        }
+        if (tasks == null || tasks.length == 0) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            result.put("success", false);
+            result.put("message", "参数不完整");
+            return null;
+        }
+        if (tasks.length > TaskServiceImpl.MAX_BATCH_SIZE) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            result.put("success", false);
+            result.put("message", "单次最多处理" + TaskServiceImpl.MAX_BATCH_SIZE + "个任务");
+            return null;
+        }
+        return Arrays.asList(tasks);
+    }
+
+    private void handleGetUserTasks(HttpServletRequest request, HttpServletResponse response,
+            Integer userId, Map<String, Object> result) throws IOException {
+        String cursor = request.getParameter("cursor");
+        String pageSizeStr = request.getParameter("pageSize");
+
         try {
+            // 携带分页参数时按游标分页返回，否则保持原有的全量列表
+            if (cursor != null || pageSizeStr != null) {
+                Integer pageSize = pageSizeStr == null || pageSizeStr.isEmpty() ? null : Integer.parseInt(pageSizeStr);
+                TaskPage page = taskService.getUserTasksPage(userId, cursor, pageSize);
+                result.put("success", true);
+                result.put("tasks", page.getTasks());
+                result.put("hasMore", page.isHasMore());
+                result.put("nextCursor", page.getNextCursor());
+                return;
+            }
+
             List<Task> tasks = taskService.getUserTasks(userId);
             result.put("success", true);
             result.put("tasks", tasks);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            result.put("success", false);
+            result.put("message", "分页参数格式错误");
         } catch (Exception e) {
             response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             result.put("success", false);
@@ -371,17 +403,44 @@ public class TaskServlet extends HttpServlet {
         }
     }
 
-    private void handleGetCategoryTasks(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
+    // 流式模式（/list?stream=true）：查询结果逐行写入响应，不在内存中构建完整列表
+    private boolean handleStreamUserTasks(HttpServletRequest request, HttpServletResponse response,
+            Integer userId) throws IOException {
+        JsonWriter writer = gson.newJsonWriter(response.getWriter());
+        writer.beginObject();
+        writer.name("success").value(true);
+        writer.name("tasks").beginArray();
+        int count = taskService.streamUserTasks(userId, new TaskHandler() {
+            private boolean first = true;
+
+            @Override
+            public void handle(Task task) throws IOException {
+                gson.toJson(task, Task.class, writer);
+                // 第一行写出后立即刷新，让客户端尽早收到响应头和首字节
+                if (first) {
+                    writer.flush();
+                    first = false;
+                }
+            }
+        });
+        writer.endArray();
+        if (count < 0) {
+            // 响应可能已经提交，只能在结果中标记列表不完整
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+            writer.name("complete").value(false);
+            writer.name("message").value("服务器内部错误");
+        } else {
+            writer.name("complete").value(true);
+        }
+        writer.endObject();
+        writer.flush();
+        return count >= 0;
+    }
 
+    private void handleGetCategoryTasks(HttpServletRequest request, HttpServletResponse response,
+            Integer userId, Map<String, Object> result) throws IOException {
         String categoryIdStr = request.getParameter("categoryId");
         if (categoryIdStr == null) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -403,16 +462,7 @@ public class TaskServlet extends HttpServlet {
     }
 
     private void handleGetTasksByStatus(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         String statusStr = request.getParameter("status");
         if (statusStr == null) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -434,16 +484,7 @@ public class TaskServlet extends HttpServlet {
     }
 
     private void handleGetTasksByPriority(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         String priorityStr = request.getParameter("priority");
         if (priorityStr == null) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -465,16 +506,7 @@ public class TaskServlet extends HttpServlet {
     }
 
     private void handleGetTasksByDateRange(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         String startDateStr = request.getParameter("startDate");
         String endDateStr = request.getParameter("endDate");
         if (startDateStr == null || endDateStr == null) {
@@ -485,12 +517,12 @@ public class TaskServlet extends HttpServlet {
         }
 
         try {
-            Date startDate = dateFormat.parse(startDateStr);
-            Date endDate = dateFormat.parse(endDateStr);
+            LocalDate startDate = DateUtil.parseDate(startDateStr);
+            LocalDate endDate = DateUtil.parseDate(endDateStr);
             List<Task> tasks = taskService.getTasksByDateRange(userId, startDate, endDate);
             result.put("success", true);
             result.put("tasks", tasks);
-        } catch (ParseException e) {
+        } catch (DateTimeParseException e) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             result.put("success", false);
             result.put("message", "日期格式错误");
@@ -498,16 +530,7 @@ public class TaskServlet extends HttpServlet {
     }
 
     private void handleSearchTasks(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         String keyword = request.getParameter("keyword");
         if (keyword == null) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -521,17 +544,22 @@ public class TaskServlet extends HttpServlet {
         result.put("tasks", tasks);
     }
 
-    private void handleGetTaskCount(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+    private void handleSuggest(HttpServletRequest request, HttpServletResponse response,
+            Integer userId, Map<String, Object> result) throws IOException {
+        String prefix = request.getParameter("prefix");
+        if (prefix == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             result.put("success", false);
-            result.put("message", "未登录");
+            result.put("message", "参数不完整");
             return;
         }
 
+        result.put("success", true);
+        result.put("suggestions", taskService.suggest(userId, prefix));
+    }
+
+    private void handleGetTaskCount(HttpServletRequest request, HttpServletResponse response,
+            Integer userId, Map<String, Object> result) throws IOException {
         String statusStr = request.getParameter("status");
         if (statusStr == null) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -551,17 +579,31 @@ public class TaskServlet extends HttpServlet {
             result.put("message", "状态格式错误");
         }
     }
-    private void handleGetTasksOrderByPriority(HttpServletRequest request, HttpServletResponse response,
-                                               Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+
+    private void handleGetTaskStats(HttpServletRequest request, HttpServletResponse response,
+            Integer userId, Map<String, Object> result) throws IOException {
+        // 客户端可传入本地日期，避免与服务器时区不同时逾期的统计错位
+        String todayStr = request.getParameter("today");
+        try {
+            LocalDate today = StringUtils.isBlank(todayStr) ? null : DateUtil.parseDate(todayStr);
+            TaskStats stats = taskService.getTaskStats(userId, today);
+            if (stats == null) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                result.put("success", false);
+                result.put("message", "获取任务统计失败");
+                return;
+            }
+            result.put("success", true);
+            result.put("stats", stats);
+        } catch (DateTimeParseException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             result.put("success", false);
-            result.put("message", "未登录");
-            return;
+            result.put("message", "日期格式错误");
         }
+    }
 
+    private void handleGetTasksOrderByPriority(HttpServletRequest request, HttpServletResponse response,
+                                               Integer userId, Map<String, Object> result) throws IOException {
         // 获取降序还是升序参数，默认降序（高优先级在前）
         String orderStr = request.getParameter("order");
         boolean descending = true;
@@ -574,17 +616,104 @@ public class TaskServlet extends HttpServlet {
         result.put("tasks", tasks);
     }
 
-    private void handleGetTaskDetail(HttpServletRequest request, HttpServletResponse response,
-                                     Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+    private void handleQueryTasks(HttpServletRequest request, HttpServletResponse response,
+                                  Integer userId, Map<String, Object> result) throws IOException {
+        try {
+            TaskQuery query = new TaskQuery(userId);
+            query.setStatuses(parseIntegerSet(request, "status"));
+            query.setPriorities(parseIntegerSet(request, "priority"));
+            query.setCategoryIds(parseIntegerSet(request, "categoryId"));
+
+            String startDateStr = request.getParameter("startDate");
+            String endDateStr = request.getParameter("endDate");
+            if (startDateStr != null && !startDateStr.isEmpty()) {
+                query.setStartDate(DateUtil.parseDate(startDateStr));
+            }
+            if (endDateStr != null && !endDateStr.isEmpty()) {
+                query.setEndDate(DateUtil.parseDate(endDateStr));
+            }
+            query.setKeyword(request.getParameter("keyword"));
+
+            // 排序字段：dueDate（默认）、priority、createdDate、relevance（关键词相关度）
+            String sort = request.getParameter("sort");
+            if ("priority".equals(sort)) {
+                query.setSortField(TaskQuery.SortField.PRIORITY);
+            } else if ("createdDate".equals(sort)) {
+                query.setSortField(TaskQuery.SortField.CREATED_DATE);
+            } else if ("relevance".equals(sort)) {
+                query.setSortField(TaskQuery.SortField.RELEVANCE);
+            }
+            String order = request.getParameter("order");
+            if ("asc".equals(order) || "desc".equals(order)) {
+                query.setDescending("desc".equals(order));
+            }
+
+            String limitStr = request.getParameter("limit");
+            if (limitStr != null && !limitStr.isEmpty()) {
+                query.setLimit(Integer.parseInt(limitStr));
+            }
+
+            List<Task> tasks = taskService.queryTasks(query);
+            result.put("success", true);
+            result.put("tasks", tasks);
+            result.put("truncated", tasks.size() >= query.getLimit());
+        } catch (NumberFormatException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
             result.put("success", false);
-            result.put("message", "未登录");
-            return;
+            result.put("message", "参数格式错误");
+        } catch (DateTimeParseException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            result.put("success", false);
+            result.put("message", "日期格式错误");
+        }
+    }
+
+    // 增量同步：返回since标记之后修改和删除的任务，以及下次同步使用的标记
+    private void handleGetTaskChanges(HttpServletRequest request, HttpServletResponse response,
+                                      Integer userId, Map<String, Object> result) throws IOException {
+        try {
+            TaskChanges changes = taskService.getTaskChanges(userId, request.getParameter("since"));
+            if (changes == null) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                result.put("success", false);
+                result.put("message", "获取任务变更失败");
+                return;
+            }
+            result.put("success", true);
+            result.put("full", changes.isFull());
+            result.put("token", changes.getToken());
+            result.put("tasks", changes.getTasks());
+            result.put("deletedTaskIds", changes.getDeletedTaskIds());
+            // 有变化时顺带返回最新的各状态任务数，页面上的计数无需单独请求
+            if (!changes.isFull() && (!changes.getTasks().isEmpty() || !changes.getDeletedTaskIds().isEmpty())) {
+                result.put("statusCounts", taskService.getTaskCountsByStatus(userId));
+            }
+        } catch (NumberFormatException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            result.put("success", false);
+            result.put("message", "同步标记格式错误");
         }
+    }
+
+    // 解析多值参数，支持重复参数（status=0&status=1）和逗号分隔（status=0,1）两种写法
+    private Set<Integer> parseIntegerSet(HttpServletRequest request, String name) {
+        Set<Integer> values = new LinkedHashSet<>();
+        String[] params = request.getParameterValues(name);
+        if (params == null) {
+            return values;
+        }
+        for (String param : params) {
+            for (String value : param.split(",")) {
+                if (!value.trim().isEmpty()) {
+                    values.add(Integer.parseInt(value.trim()));
+                }
+            }
+        }
+        return values;
+    }
 
+    private void handleGetTaskDetail(HttpServletRequest request, HttpServletResponse response,
+                                     Integer userId, Map<String, Object> result) throws IOException {
         String taskIdStr = request.getParameter("taskId");
         if (taskIdStr == null) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -6,82 +6,38 @@ import com.taskmanager.service.impl.UserServiceImpl;
 import com.google.gson.Gson;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
-import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.HashMap;
 import java.util.Map;
 
-@WebServlet("/api/user/*")
-public class UserServlet extends HttpServlet {
+@WebServlet(urlPatterns = "/api/user/*", asyncSupported = true)
+public class UserServlet extends AsyncApiServlet {
     private final UserService userService = new UserServiceImpl();
     private final Gson gson = new Gson();
+    private final ApiRouter router = new ApiRouter(gson)
+            .publicPost("/register", this::handleRegister)
+            .publicPost("/login", this::handleLogin)
+            .publicPost("/logout", this::handleLogout)
+            .get("/info", this::handleGetUserInfo)
+            .publicGet("/checkUsername", this::handleCheckUsername)
+            .publicGet("/checkEmail", this::handleCheckEmail);
 
     @Override
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        String pathInfo = request.getPathInfo();
-        response.setContentType("application/json;charset=UTF-8");
-        PrintWriter out = response.getWriter();
-        Map<String, Object> result = new HashMap<>();
-
-        try {
-            if ("/register".equals(pathInfo)) {
-                handleRegister(request, response, result);
-            } else if ("/login".equals(pathInfo)) {
-                handleLogin(request, response, result);
-            } else if ("/logout".equals(pathInfo)) {
-                handleLogout(request, response, result);
-            } else {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                result.put("success", false);
-                result.put("message", "请求的接口不存在");
-            }
-        } catch (Exception e) {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            result.put("success", false);
-            result.put("message", "服务器内部错误");
-        }
-
-        out.print(gson.toJson(result));
-        out.flush();
+        router.dispatchPost(request, response);
     }
 
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
-        String pathInfo = request.getPathInfo();
-        response.setContentType("application/json;charset=UTF-8");
-        PrintWriter out = response.getWriter();
-        Map<String, Object> result = new HashMap<>();
-
-        try {
-            if ("/info".equals(pathInfo)) {
-                handleGetUserInfo(request, response, result);
-            } else if ("/checkUsername".equals(pathInfo)) {
-                handleCheckUsername(request, response, result);
-            } else if ("/checkEmail".equals(pathInfo)) {
-                handleCheckEmail(request, response, result);
-            } else {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                result.put("success", false);
-                result.put("message", "请求的接口不存在");
-            }
-        } catch (Exception e) {
-            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            result.put("success", false);
-            result.put("message", "服务器内部错误");
-        }
-
-        out.print(gson.toJson(result));
-        out.flush();
+        router.dispatchGet(request, response);
     }
 
     private void handleRegister(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
+            Integer userId, Map<String, Object> result) throws IOException {
         String username = request.getParameter("username");
         String password = request.getParameter("password");
         String email = request.getParameter("email");
@@ -109,7 +65,7 @@ public class UserServlet extends HttpServlet {
     }
 
     private void handleLogin(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
+            Integer userId, Map<String, Object> result) throws IOException {
         String username = request.getParameter("username");
         String password = request.getParameter("password");
 
@@ -137,7 +93,7 @@ public class UserServlet extends HttpServlet {
     }
 
     private void handleLogout(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
+            Integer userId, Map<String, Object> result) throws IOException {
         HttpSession session = request.getSession();
         session.invalidate();
         result.put("success", true);
@@ -145,17 +101,7 @@ public class UserServlet extends HttpServlet {
     }
 
     private void handleGetUserInfo(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
-        HttpSession session = request.getSession();
-        Integer userId = (Integer) session.getAttribute("userId");
-
-        if (userId == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            result.put("success", false);
-            result.put("message", "未登录");
-            return;
-        }
-
+            Integer userId, Map<String, Object> result) throws IOException {
         User user = userService.getUserById(userId);
         if (user != null) {
             result.put("success", true);
@@ -168,7 +114,7 @@ public class UserServlet extends HttpServlet {
     }
 
     private void handleCheckUsername(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
+            Integer userId, Map<String, Object> result) throws IOException {
         String username = request.getParameter("username");
         if (username == null) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -183,7 +129,7 @@ public class UserServlet extends HttpServlet {
     }
 
     private void handleCheckEmail(HttpServletRequest request, HttpServletResponse response,
-            Map<String, Object> result) throws IOException {
+            Integer userId, Map<String, Object> result) throws IOException {
         String email = request.getParameter("email");
         if (email == null) {
             response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -0,0 +1,143 @@
+package com.taskmanager.util;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 任务计数表（task_counters）的对账：按用户ID分批遍历所有用户，按任务表重新统计并修正计数
+// 计数在任务写入的事务中增量维护，对账用于发现并修复绕过DAO的写入（如手工执行的SQL）和迁移期间产生的偏差
+// 在独立的后台线程上按固定间隔执行，每次一批，不占用请求线程池；由CounterReconcilerListener随应用启动和停止
+public class CounterReconciler {
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final long DEFAULT_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final CounterReconciler INSTANCE = new CounterReconciler(DEFAULT_BATCH_SIZE, DEFAULT_INTERVAL_MILLIS);
+
+    private final int batchSize;
+    private final long intervalMillis;
+    private ScheduledExecutorService scheduler;
+    // 下一批从该用户ID之后开始，遍历完所有用户后回到0；只在后台线程上读写
+    private volatile int cursor;
+
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong driftedUsers = new AtomicLong();
+    private final AtomicLong repairedRows = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong passes = new AtomicLong();
+
+    // 对账读取和修正数据的方式，由调用方通过DAO实现
+    public interface Source {
+        // 按用户ID顺序返回大于afterUserId的用户ID，最多limit个，出错时返回null
+        List<Integer> userIdsAfter(int afterUserId, int limit);
+
+        // 修正一个用户的计数，返回修正的计数行数，出错时返回-1
+        int reconcile(int userId);
+    }
+
+    // 构造函数
+    public CounterReconciler(int batchSize, long intervalMillis) {
+        if (batchSize <= 0 || intervalMillis <= 0) {
+            throw new IllegalArgumentException("对账参数错误");
+        }
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    // 全局共享的实例
+    public static CounterReconciler getInstance() {
+        return INSTANCE;
+    }
+
+    // 启动后台线程，第一批在一个间隔之后执行；已启动时不重复启动
+    public synchronized void start(Source source) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "counter-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 上一批结束后再等待一个间隔，批次之间不会重叠
+        scheduler.scheduleWithFixedDelay(() -> runSafely(source), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // 停止后台线程并等待正在执行的批次结束，最多等待timeoutMillis
+    public void stop(long timeoutMillis) throws InterruptedException {
+        ScheduledExecutorService stopped;
+        synchronized (this) {
+            stopped = scheduler;
+            scheduler = null;
+        }
+        if (stopped != null) {
+            stopped.shutdownNow();
+            stopped.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    // 周期任务抛出异常后ScheduledExecutorService不再执行后续周期，这里记为失败，下一个间隔继续
+    private void runSafely(Source source) {
+        try {
+            runBatch(source);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    // 对账下一批用户，返回修正的计数行数
+    public int runBatch(Source source) {
+        int from = cursor;
+        List<Integer> userIds = source.userIdsAfter(from, batchSize);
+        if (userIds == null) {
+            failures.incrementAndGet();
+            return 0;
+        }
+        int repaired = 0;
+        for (Integer userId : userIds) {
+            int rows = source.reconcile(userId);
+            users.incrementAndGet();
+            if (rows < 0) {
+                failures.incrementAndGet();
+            } else if (rows > 0) {
+                driftedUsers.incrementAndGet();
+                repairedRows.addAndGet(rows);
+                repaired += rows;
+            }
+        }
+        if (userIds.size() < batchSize) {
+            cursor = 0;
+            passes.incrementAndGet();
+        } else {
+            cursor = userIds.get(userIds.size() - 1);
+        }
+        return repaired;
+    }
+
+    // 统计信息
+    public long getUsers() {
+        return users.get();
+    }
+
+    public long getDriftedUsers() {
+        return driftedUsers.get();
+    }
+
+    public long getRepairedRows() {
+        return repairedRows.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public long getPasses() {
+        return passes.get();
+    }
+}
@@ -1,22 +1,51 @@
 package com.taskmanager.util;
 
 import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.pool2.impl.GenericObjectPool;
 import javax.sql.DataSource;
 import java.io.InputStream;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Properties;
 
 public class DBUtil {
-    private static final BasicDataSource dataSource = new BasicDataSource();
+    // 配置文件名可通过系统属性db.config指定，如 -Ddb.config=db-h2.properties 使用内嵌H2数据库
+    public static final String CONFIG_PROPERTY = "db.config";
+    private static final String DEFAULT_CONFIG = "db.properties";
+
+    private static final PooledDataSource dataSource = new PooledDataSource();
+    private static PoolMetrics metrics;
+    private static DbExecutor executor;
+    private static long asyncTimeout;
+    private static boolean mysql;
+
+    // 暴露连接池内部的创建、销毁和等待线程数，供监控使用
+    private static class PooledDataSource extends BasicDataSource {
+        long getCreatedCount() {
+            GenericObjectPool<?> pool = getConnectionPool();
+            return pool == null ? 0 : pool.getCreatedCount();
+        }
+
+        long getDestroyedCount() {
+            GenericObjectPool<?> pool = getConnectionPool();
+            return pool == null ? 0 : pool.getDestroyedCount();
+        }
+
+        int getNumWaiters() {
+            GenericObjectPool<?> pool = getConnectionPool();
+            return pool == null ? 0 : pool.getNumWaiters();
+        }
+    }
 
     static {
         try {
             // 加载配置文件
             Properties props = new Properties();
-            InputStream in = DBUtil.class.getClassLoader().getResourceAsStream("db.properties");
+            String config = System.getProperty(CONFIG_PROPERTY, DEFAULT_CONFIG);
+            InputStream in = DBUtil.class.getClassLoader().getResourceAsStream(config);
             if (in == null) {
-                throw new RuntimeException("找不到数据库配置文件");
+                throw new RuntimeException("找不到数据库配置文件：" + config);
             }
             props.load(in);
             in.close();
@@ -35,6 +64,7 @@ public class DBUtil {
             dataSource.setUrl(url);
             dataSource.setUsername(username);
             dataSource.setPassword(password);
+            mysql = url.startsWith("jdbc:mysql:");
 
             // 配置连接池
             try {
@@ -43,17 +73,115 @@ public class DBUtil {
                 dataSource.setMaxIdle(Integer.parseInt(props.getProperty("db.maxIdle", "10").trim()));
                 dataSource.setMinIdle(Integer.parseInt(props.getProperty("db.minIdle", "5").trim()));
                 dataSource.setMaxWaitMillis(Long.parseLong(props.getProperty("db.maxWait", "30000").trim()));
+                // 连接借出超过该时长（毫秒）未归还时记录为泄漏，0表示不检测
+                metrics = new PoolMetrics(Long.parseLong(props.getProperty("db.leakDetectionThreshold", "0").trim()));
+                // 单条SQL的最长执行时间（秒），0表示不限制
+                int queryTimeout = Integer.parseInt(props.getProperty("db.queryTimeout", "0").trim());
+                if (queryTimeout > 0) {
+                    dataSource.setDefaultQueryTimeout(queryTimeout);
+                }
+                // API请求在专用线程池中执行，线程数与最大连接数一致；队列长度和排队超时（毫秒）可配置
+                executor = new DbExecutor(dataSource.getMaxTotal(),
+                        Integer.parseInt(props.getProperty("db.executorQueueSize", "200").trim()),
+                        Long.parseLong(props.getProperty("db.executorQueueTimeout", "5000").trim()));
+                // 异步请求的超时（毫秒），超时后返回503，处理线程之后的输出被丢弃
+                asyncTimeout = Long.parseLong(props.getProperty("db.asyncTimeout", "60000").trim());
+                if (asyncTimeout <= 0) {
+                    throw new RuntimeException("db.asyncTimeout必须大于0");
+                }
             } catch (NumberFormatException e) {
                 throw new RuntimeException("连接池配置参数格式错误: " + e.getMessage());
             }
 
+            // 内存数据库启动时为空，按db.initScript指定的脚本建表
+            String initScript = props.getProperty("db.initScript");
+            if (initScript != null && !initScript.trim().isEmpty()) {
+                try (Connection conn = dataSource.getConnection()) {
+                    SqlScript.runResource(conn, initScript.trim());
+                }
+            }
+
+            // 执行数据库结构迁移；db.migrate为false时跳过，如数据库账号没有DDL权限、由DBA手动执行迁移脚本
+            if (Boolean.parseBoolean(props.getProperty("db.migrate", "true").trim())) {
+                try (Connection conn = dataSource.getConnection()) {
+                    SchemaMigrator.migrate(conn);
+                }
+            }
+
         } catch (Exception e) {
             throw new RuntimeException("初始化数据库连接池失败: " + e.getMessage(), e);
         }
     }
 
     public static Connection getConnection() throws SQLException {
-        return dataSource.getConnection();
+        long start = System.nanoTime();
+        Connection conn;
+        try {
+            conn = dataSource.getConnection();
+        } catch (SQLException e) {
+            metrics.failed(e, System.nanoTime() - start);
+            throw e;
+        }
+        return metrics.borrowed(conn, System.nanoTime() - start);
+    }
+
+    // 执行API请求的线程池
+    public static DbExecutor getExecutor() {
+        return executor;
+    }
+
+    // 异步API请求的超时（毫秒）
+    public static long getAsyncTimeout() {
+        return asyncTimeout;
+    }
+
+    // 连接池统计信息
+    public static PoolMetrics getPoolMetrics() {
+        return metrics;
+    }
+
+    public static int getNumActive() {
+        return dataSource.getNumActive();
+    }
+
+    public static int getNumIdle() {
+        return dataSource.getNumIdle();
+    }
+
+    public static int getMaxTotal() {
+        return dataSource.getMaxTotal();
+    }
+
+    public static int getNumWaiters() {
+        return dataSource.getNumWaiters();
+    }
+
+    public static long getCreatedCount() {
+        return dataSource.getCreatedCount();
+    }
+
+    public static long getDestroyedCount() {
+        return dataSource.getDestroyedCount();
+    }
+
+    // 当前是否连接的是MySQL，用于少数依赖数据库方言的地方
+    public static boolean isMySQL() {
+        return mysql;
+    }
+
+    // 表上是否存在指定名称的索引，用于依赖可选索引（如MySQL全文索引）的查询
+    public static boolean hasIndex(String table, String index) {
+        try (Connection conn = getConnection();
+                ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, table, false, true)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
     }
 
     public static DataSource getDataSource() {
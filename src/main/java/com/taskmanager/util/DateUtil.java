@@ -0,0 +1,93 @@
+package com.taskmanager.util;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+
+// 任务日期的解析和JSON格式化
+// DateTimeFormatter不可变且线程安全，全局共享一个实例即可，不再需要每个Servlet持有一个SimpleDateFormat
+public final class DateUtil {
+    // 日期格式：yyyy-MM-dd；严格校验，2024-02-30这类日期不会被顺延到下个月
+    public static final DateTimeFormatter DATE_FORMATTER =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd").withResolverStyle(ResolverStyle.STRICT);
+    // 时间格式：yyyy-MM-dd HH:mm:ss，用于创建时间和修改时间
+    public static final DateTimeFormatter DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss").withResolverStyle(ResolverStyle.STRICT);
+
+    private static final TypeAdapter<LocalDate> LOCAL_DATE_ADAPTER = new TypeAdapter<LocalDate>() {
+        @Override
+        public void write(JsonWriter out, LocalDate value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                out.value(DATE_FORMATTER.format(value));
+            }
+        }
+
+        @Override
+        public LocalDate read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String value = in.nextString();
+            try {
+                return parseDate(value);
+            } catch (DateTimeParseException e) {
+                throw new JsonSyntaxException("日期格式错误: " + value, e);
+            }
+        }
+    };
+
+    private static final TypeAdapter<LocalDateTime> LOCAL_DATE_TIME_ADAPTER = new TypeAdapter<LocalDateTime>() {
+        @Override
+        public void write(JsonWriter out, LocalDateTime value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else {
+                out.value(DATE_TIME_FORMATTER.format(value));
+            }
+        }
+
+        @Override
+        public LocalDateTime read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String value = in.nextString();
+            try {
+                return LocalDateTime.parse(value, DATE_TIME_FORMATTER);
+            } catch (DateTimeParseException e) {
+                throw new JsonSyntaxException("时间格式错误: " + value, e);
+            }
+        }
+    };
+
+    private DateUtil() {
+    }
+
+    // 解析yyyy-MM-dd格式的日期，格式错误时抛出DateTimeParseException
+    public static LocalDate parseDate(String value) {
+        return LocalDate.parse(value, DATE_FORMATTER);
+    }
+
+    // 注册了日期类型适配器的GsonBuilder，各Servlet在此基础上按需追加配置
+    // java.util.Date（分类、用户的创建时间）仍按yyyy-MM-dd输出，与原来一致
+    public static GsonBuilder gsonBuilder() {
+        return new GsonBuilder()
+                .setDateFormat("yyyy-MM-dd")
+                .registerTypeAdapter(LocalDate.class, LOCAL_DATE_ADAPTER)
+                .registerTypeAdapter(LocalDateTime.class, LOCAL_DATE_TIME_ADAPTER);
+    }
+}
@@ -0,0 +1,93 @@
+package com.taskmanager.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// 执行数据库相关请求的专用线程池：线程数与连接池大小一致，多出的线程只会在连接池上排队
+// 等待队列有上限，队列满时立即拒绝；在队列中等待过久的任务不再执行，避免处理客户端早已放弃的请求
+public class DbExecutor {
+    private final ThreadPoolExecutor executor;
+    private final long queueTimeoutNanos;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+
+    // 构造函数
+    public DbExecutor(int threads, int queueSize, long queueTimeoutMillis) {
+        if (threads <= 0 || queueSize <= 0 || queueTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("线程池参数错误");
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "db-worker-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // 核心线程数等于最大线程数，队列满之前就会用满所有线程；空闲线程超时后回收
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+    }
+
+    // 提交任务，队列已满时抛出RejectedExecutionException；任务在队列中等待超时时执行onExpired代替task
+    public void execute(Runnable task, Runnable onExpired) {
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                try {
+                    if (System.nanoTime() - queuedAt > queueTimeoutNanos) {
+                        expired.increment();
+                        onExpired.run();
+                    } else {
+                        task.run();
+                    }
+                } finally {
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // 统计信息
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getQueueCapacity() {
+        return executor.getQueue().size() + executor.getQueue().remainingCapacity();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getExpired() {
+        return expired.sum();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+}
@@ -0,0 +1,50 @@
+package com.taskmanager.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+// Deflater对象池：每个Deflater持有一块本地内存（zlib状态），按请求新建要等到GC后才能释放，
+// 压缩的响应较多时本地内存占用和分配开销都很明显；这里用完后重置放回池中，空闲数超过上限时直接释放
+public class DeflaterPool {
+    private final int level;
+    private final BlockingQueue<Deflater> idle;
+    private final LongAdder created = new LongAdder();
+
+    // 构造函数，Deflater使用nowrap模式，由调用方自行写出gzip头尾
+    public DeflaterPool(int level, int maxIdle) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION || maxIdle <= 0) {
+            throw new IllegalArgumentException("压缩参数错误");
+        }
+        this.level = level;
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+    }
+
+    // 取出一个Deflater，池为空时新建
+    public Deflater borrow() {
+        Deflater deflater = idle.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+            created.increment();
+        }
+        return deflater;
+    }
+
+    // 归还Deflater，池已满时释放其本地内存
+    public void release(Deflater deflater) {
+        deflater.reset();
+        if (!idle.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    // 统计信息
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public long getCreated() {
+        return created.sum();
+    }
+}
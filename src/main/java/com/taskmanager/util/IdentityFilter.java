@@ -0,0 +1,189 @@
+package com.taskmanager.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+// 用户名和邮箱的布隆过滤器，注册时的可用性检查在过滤器判定不存在时不再查询数据库
+// 全局共享一个实例，由IdentityFilterListener在应用启动时预热；没有过滤器时检查一律视为可能存在，由数据库判断
+// 重建（预热、饱和后扩容）在锁外读取数据库，完成后整体替换，期间的检查继续使用旧的过滤器，不会阻塞
+// 重建失败后等待一段时间才重试，避免数据库故障时每次检查都读取全部用户
+public class IdentityFilter {
+    public static final long DEFAULT_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    // 过滤器的最小容量和误判率；容量按现有用户数留出增长空间
+    static final int MIN_CAPACITY = 10000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final IdentityFilter INSTANCE = new IdentityFilter(DEFAULT_RETRY_MILLIS);
+
+    private final long retryNanos;
+    private volatile Source source;
+    private volatile BloomFilter filter;
+    // 同一时刻只有一个线程重建
+    private final AtomicBoolean building = new AtomicBoolean();
+    private volatile boolean failed;
+    private volatile long failedAt;
+    // 重建期间加入的键，重建完成后补充到新的过滤器中，由this的锁保护
+    private final List<String> pending = new ArrayList<>();
+    private boolean collecting;
+
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    // 预热读取数据的方式，由调用方通过DAO实现
+    public interface Source {
+        // 用户总数，出错时返回-1
+        int count();
+
+        // 逐个传入所有用户的用户名和邮箱，返回用户数，出错时返回-1
+        int forEach(BiConsumer<String, String> handler);
+    }
+
+    // 构造函数
+    public IdentityFilter(long retryMillis) {
+        if (retryMillis <= 0) {
+            throw new IllegalArgumentException("过滤器参数错误");
+        }
+        this.retryNanos = TimeUnit.MILLISECONDS.toNanos(retryMillis);
+    }
+
+    // 全局共享的实例
+    public static IdentityFilter getInstance() {
+        return INSTANCE;
+    }
+
+    // 从source预热，之后过滤器饱和或预热失败时也从source重建；返回是否成功
+    public boolean warm(Source source) {
+        this.source = source;
+        return rebuild();
+    }
+
+    // 返回false时用户名一定不存在
+    public boolean mightContainUsername(String username) {
+        return mightContain(usernameKey(username));
+    }
+
+    // 返回false时邮箱一定不存在
+    public boolean mightContainEmail(String email) {
+        return mightContain(emailKey(email));
+    }
+
+    // 注册或修改了用户
+    public synchronized void add(String username, String email) {
+        BloomFilter current = filter;
+        if (username != null) {
+            put(current, usernameKey(username));
+        }
+        if (email != null) {
+            put(current, emailKey(email));
+        }
+    }
+
+    // 当前是否有可用的过滤器
+    public boolean isWarm() {
+        return filter != null;
+    }
+
+    private void put(BloomFilter current, String key) {
+        if (current != null) {
+            current.put(key);
+        }
+        if (collecting) {
+            pending.add(key);
+        }
+    }
+
+    private boolean mightContain(String key) {
+        BloomFilter current = filter;
+        if ((current == null || current.isSaturated()) && (!failed || System.nanoTime() - failedAt >= retryNanos)) {
+            rebuild();
+            current = filter;
+        }
+        return current == null || current.mightContain(key);
+    }
+
+    // 读取全部用户建立新的过滤器；已有线程在重建或还没有source时直接返回false
+    private boolean rebuild() {
+        Source current = source;
+        if (current == null || !building.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            synchronized (this) {
+                collecting = true;
+            }
+            BloomFilter built = build(current);
+            if (built == null) {
+                failedAt = System.nanoTime();
+                failed = true;
+                failures.incrementAndGet();
+                return false;
+            }
+            synchronized (this) {
+                for (String key : pending) {
+                    built.put(key);
+                }
+                filter = built;
+            }
+            failed = false;
+            rebuilds.incrementAndGet();
+            return true;
+        } finally {
+            synchronized (this) {
+                collecting = false;
+                pending.clear();
+            }
+            building.set(false);
+        }
+    }
+
+    private static BloomFilter build(Source source) {
+        int count = source.count();
+        if (count < 0) {
+            return null;
+        }
+        BloomFilter built = new BloomFilter((int) Math.min(Integer.MAX_VALUE, Math.max(MIN_CAPACITY, count * 4L)),
+                FALSE_POSITIVE_RATE);
+        int loaded = source.forEach((username, email) -> {
+            if (username != null) {
+                built.put(usernameKey(username));
+            }
+            if (email != null) {
+                built.put(emailKey(email));
+            }
+        });
+        return loaded < 0 ? null : built;
+    }
+
+    private static String usernameKey(String username) {
+        return "u:" + normalize(username);
+    }
+
+    private static String emailKey(String email) {
+        return "e:" + normalize(email);
+    }
+
+    // 过滤器只是保守的预检查：忽略大小写、重音和首尾空格，尽量让数据库排序规则认为相同的值在过滤器中也相同，
+    // 规则比数据库宽时只会多查询一次数据库；建表语句没有指定排序规则，唯一性以users表的UNIQUE约束为准，
+    // 过滤器漏判的重复值在插入时被约束拒绝，注册失败
+    private static String normalize(String value) {
+        String lower = value.trim().toLowerCase(Locale.ROOT);
+        return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    // 统计信息
+    public long getRebuilds() {
+        return rebuilds.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+}
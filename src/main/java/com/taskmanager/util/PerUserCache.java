@@ -0,0 +1,130 @@
+package com.taskmanager.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 按用户保存由该用户数据建立的内存结构（搜索索引、输入提示词典等），与用户的数据版本号（UserVersions）绑定
+// 读取数据之前先取得版本号，建立完成后只有版本号没有变化才保存，读取期间发生的写入不会被旧数据覆盖
+// 命中要求版本号一致且没有超过存活时间；容量按用户数和总权重（如任务数）限制，超出时淘汰最久未访问的用户
+public class PerUserCache<V> {
+    private final int maxUsers;
+    private final long maxWeight;
+    private final long ttlNanos;
+    private final UserVersions userVersions;
+
+    // accessOrder=true，遍历顺序即最久未访问在前
+    private final LinkedHashMap<Integer, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private static class Entry<V> {
+        final V value;
+        final int weight;
+        final long loadedAt = System.nanoTime();
+        long version;
+
+        Entry(V value, int weight, long version) {
+            this.value = value;
+            this.weight = weight;
+            this.version = version;
+        }
+    }
+
+    // 构造函数，只按用户数限制容量
+    public PerUserCache(int maxUsers, long ttlMillis, UserVersions userVersions) {
+        this(maxUsers, Long.MAX_VALUE, ttlMillis, userVersions);
+    }
+
+    // 构造函数
+    public PerUserCache(int maxUsers, long maxWeight, long ttlMillis, UserVersions userVersions) {
+        if (maxUsers <= 0 || maxWeight <= 0 || ttlMillis <= 0 || userVersions == null) {
+            throw new IllegalArgumentException("缓存参数错误");
+        }
+        this.maxUsers = maxUsers;
+        this.maxWeight = maxWeight;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.userVersions = userVersions;
+    }
+
+    // 用户当前的版本号，必须在读取数据之前获取，查询和保存时传回
+    public long version(Integer userId) {
+        return userVersions.get(userId);
+    }
+
+    // 查询缓存，不存在、版本号不一致或已过期时返回null
+    public synchronized V get(Integer userId, long version) {
+        Entry<V> entry = entries.get(userId);
+        if (entry == null || entry.version != version || System.nanoTime() - entry.loadedAt > ttlNanos) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    // 保存不计权重的值
+    public boolean put(Integer userId, V value, long version) {
+        return put(userId, value, 0, version);
+    }
+
+    // 保存建立好的值；version之后该用户有过写入时放弃，返回是否保存
+    public synchronized boolean put(Integer userId, V value, int weight, long version) {
+        if (userId == null || value == null || userVersions.get(userId) != version) {
+            return false;
+        }
+        Entry<V> previous = entries.put(userId, new Entry<>(value, weight, version));
+        if (previous != null) {
+            this.weight -= previous.weight;
+        }
+        this.weight += weight;
+        // 刚保存的用户排在最后，最后淘汰
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (entries.size() > maxUsers || this.weight > maxWeight) {
+            this.weight -= iterator.next().weight;
+            iterator.remove();
+        }
+        return true;
+    }
+
+    // 调用方在递增版本号之后把写入同步到已保存的值上：返回该用户的值并更新为当前版本号，没有时返回null
+    // 值的内容由调用方维护，同步完成之前的短暂时间内读到的值可能还不包含这次写入
+    public synchronized V written(Integer userId) {
+        Entry<V> entry = userId == null ? null : entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        entry.version = userVersions.get(userId);
+        return entry.value;
+    }
+
+    // 丢弃某个用户的值，下次查询时重新建立
+    public synchronized void invalidate(Integer userId) {
+        Entry<V> entry = userId == null ? null : entries.remove(userId);
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+    }
+
+    // 当前保存了值的用户数
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // 当前保存的总权重
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    // 统计信息
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
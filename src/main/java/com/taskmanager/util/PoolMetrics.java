@@ -0,0 +1,160 @@
+package com.taskmanager.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// 连接池的运行统计：获取连接的等待时间分布、超时和失败次数，以及连接泄漏检测
+public class PoolMetrics {
+    // 等待时间直方图的桶上限（秒），最后还有一个隐含的+Inf桶
+    public static final double[] WAIT_BUCKETS = {0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+    // 泄漏检查的最小间隔，检查在获取连接时顺带进行，不需要单独的线程
+    private static final long LEAK_CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long[] bucketBounds = new long[WAIT_BUCKETS.length];
+    private final LongAdder[] bucketCounts = new LongAdder[WAIT_BUCKETS.length + 1];
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    // 连接借出超过该时长仍未归还即视为泄漏，为0时不检测
+    private final long leakThresholdNanos;
+    private final Map<Long, Borrow> borrowed = new ConcurrentHashMap<>();
+    private final AtomicLong borrowSequence = new AtomicLong();
+    private final AtomicLong lastLeakCheck = new AtomicLong(System.nanoTime());
+    private final LongAdder leaks = new LongAdder();
+
+    // 一次借出记录，stack记录借出连接的调用位置，用于定位泄漏的代码
+    private static class Borrow {
+        final long borrowedAt;
+        final Throwable stack;
+        volatile boolean reported;
+
+        Borrow(long borrowedAt, Throwable stack) {
+            this.borrowedAt = borrowedAt;
+            this.stack = stack;
+        }
+    }
+
+    // 构造函数
+    public PoolMetrics(long leakThresholdMillis) {
+        for (int i = 0; i < WAIT_BUCKETS.length; i++) {
+            bucketBounds[i] = (long) (WAIT_BUCKETS[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+        for (int i = 0; i < bucketCounts.length; i++) {
+            bucketCounts[i] = new LongAdder();
+        }
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, leakThresholdMillis));
+    }
+
+    // 记录一次成功获取连接的等待时间，并在启用泄漏检测时返回带跟踪的连接
+    public Connection borrowed(Connection conn, long waitedNanos) {
+        recordWait(waitedNanos);
+        if (leakThresholdNanos == 0) {
+            return conn;
+        }
+        long now = System.nanoTime();
+        checkLeaks(now);
+        Long id = borrowSequence.incrementAndGet();
+        borrowed.put(id, new Borrow(now, new Throwable("连接借出位置")));
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) {
+                        borrowed.remove(id);
+                    }
+                    try {
+                        return method.invoke(conn, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    // 记录一次获取连接失败；等待超时由连接池抛出NoSuchElementException
+    public void failed(SQLException e, long waitedNanos) {
+        recordWait(waitedNanos);
+        if (e.getCause() instanceof NoSuchElementException) {
+            timeouts.increment();
+        } else {
+            failures.increment();
+        }
+    }
+
+    // 检查借出过久的连接，每个泄漏只报告一次
+    public void checkLeaks(long now) {
+        long last = lastLeakCheck.get();
+        if (now - last < LEAK_CHECK_INTERVAL_NANOS || !lastLeakCheck.compareAndSet(last, now)) {
+            return;
+        }
+        for (Borrow borrow : borrowed.values()) {
+            if (!borrow.reported && now - borrow.borrowedAt > leakThresholdNanos) {
+                borrow.reported = true;
+                leaks.increment();
+                System.err.println("检测到可能泄漏的数据库连接，已借出 "
+                        + TimeUnit.NANOSECONDS.toMillis(now - borrow.borrowedAt) + " 毫秒未归还");
+                borrow.stack.printStackTrace();
+            }
+        }
+    }
+
+    private void recordWait(long waitedNanos) {
+        int bucket = 0;
+        while (bucket < bucketBounds.length && waitedNanos > bucketBounds[bucket]) {
+            bucket++;
+        }
+        bucketCounts[bucket].increment();
+        waitNanos.add(waitedNanos);
+        borrows.increment();
+    }
+
+    // 各桶的累计计数（Prometheus直方图格式），长度比WAIT_BUCKETS多1，最后一个为+Inf
+    public long[] getWaitBucketCounts() {
+        long[] counts = new long[bucketCounts.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += bucketCounts[i].sum();
+            counts[i] = total;
+        }
+        return counts;
+    }
+
+    public double getWaitSeconds() {
+        return waitNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    public long getBorrows() {
+        return borrows.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    public long getLeaks() {
+        return leaks.sum();
+    }
+
+    // 当前借出超过阈值仍未归还的连接数
+    public int getSuspectedLeaks() {
+        int count = 0;
+        long now = System.nanoTime();
+        for (Borrow borrow : borrowed.values()) {
+            if (now - borrow.borrowedAt > leakThresholdNanos) {
+                count++;
+            }
+        }
+        return leakThresholdNanos == 0 ? 0 : count;
+    }
+}
@@ -0,0 +1,53 @@
+package com.taskmanager.util;
+
+import java.io.PrintWriter;
+
+// 按Prometheus文本格式（version 0.0.4）输出指标
+public class PrometheusWriter {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PrintWriter out;
+
+    // 构造函数
+    public PrometheusWriter(PrintWriter out) {
+        this.out = out;
+    }
+
+    public PrometheusWriter counter(String name, String help, double value) {
+        return sample(name, help, "counter", value);
+    }
+
+    public PrometheusWriter gauge(String name, String help, double value) {
+        return sample(name, help, "gauge", value);
+    }
+
+    // counts为各桶的累计计数，比bounds多一个+Inf桶
+    public PrometheusWriter histogram(String name, String help, double[] bounds, long[] counts, double sum) {
+        header(name, help, "histogram");
+        for (int i = 0; i < bounds.length; i++) {
+            out.print(name + "_bucket{le=\"" + format(bounds[i]) + "\"} " + counts[i] + "\n");
+        }
+        out.print(name + "_bucket{le=\"+Inf\"} " + counts[bounds.length] + "\n");
+        out.print(name + "_sum " + format(sum) + "\n");
+        out.print(name + "_count " + counts[bounds.length] + "\n");
+        return this;
+    }
+
+    private PrometheusWriter sample(String name, String help, String type, double value) {
+        header(name, help, type);
+        out.print(name + " " + format(value) + "\n");
+        return this;
+    }
+
+    private void header(String name, String help, String type) {
+        out.print("# HELP " + name + " " + help + "\n");
+        out.print("# TYPE " + name + " " + type + "\n");
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && !Double.isInfinite(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
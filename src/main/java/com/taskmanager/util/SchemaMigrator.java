@@ -0,0 +1,142 @@
+package com.taskmanager.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 数据库结构的版本化迁移：按版本号依次执行类路径 db/migration/ 下的脚本，已执行的版本记录在schema_version表中
+// 脚本在 db/migration/migrations.txt 中登记，每行一个文件名，格式为 V<版本号>__<说明>.sql，
+// 文件名后可以跟数据库名（如mysql），表示只在该数据库上执行，其他数据库跳过且不记录
+// MySQL的DDL不能回滚，脚本执行失败时删除该版本的记录并抛出异常，修复数据库后重新启动即可从失败的版本继续
+public class SchemaMigrator {
+    public static final String MIGRATION_DIR = "db/migration/";
+    private static final String MIGRATION_LIST = MIGRATION_DIR + "migrations.txt";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT PRIMARY KEY, description VARCHAR(200) NOT NULL, " +
+            "installed_date DATETIME DEFAULT CURRENT_TIMESTAMP)";
+
+    // 一个迁移脚本
+    static class Migration {
+        final int version;
+        final String description;
+        final String resource;
+        // 只在该数据库上执行，null表示所有数据库
+        final String database;
+
+        Migration(int version, String description, String resource, String database) {
+            this.version = version;
+            this.description = description;
+            this.resource = resource;
+            this.database = database;
+        }
+    }
+
+    // 执行尚未执行的迁移，返回本次执行的个数
+    public static int migrate(Connection conn) throws IOException, SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_TABLE_SQL);
+        }
+        Set<Integer> applied = appliedVersions(conn);
+        String database = conn.getMetaData().getDatabaseProductName();
+        int count = 0;
+        for (Migration migration : list()) {
+            if (migration.database != null && !migration.database.equalsIgnoreCase(database)) {
+                continue;
+            }
+            if (applied.contains(migration.version) || !claim(conn, migration)) {
+                continue;
+            }
+            try {
+                SqlScript.runResource(conn, migration.resource);
+            } catch (IOException | SQLException e) {
+                release(conn, migration);
+                throw e;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    // 已执行的版本，按版本号排序
+    public static Set<Integer> appliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new TreeSet<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    // 读取登记的迁移脚本，版本号必须递增
+    static List<Migration> list() throws IOException {
+        InputStream in = SchemaMigrator.class.getClassLoader().getResourceAsStream(MIGRATION_LIST);
+        if (in == null) {
+            throw new IOException("找不到迁移脚本列表：" + MIGRATION_LIST);
+        }
+        List<Migration> migrations = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                if (fields.length > 2) {
+                    throw new IOException("迁移脚本登记格式错误：" + line);
+                }
+                Matcher matcher = FILE_NAME.matcher(fields[0]);
+                if (!matcher.matches()) {
+                    throw new IOException("迁移脚本文件名格式错误：" + line);
+                }
+                int version = Integer.parseInt(matcher.group(1));
+                if (!migrations.isEmpty() && migrations.get(migrations.size() - 1).version >= version) {
+                    throw new IOException("迁移脚本版本号必须递增：" + line);
+                }
+                migrations.add(new Migration(version, matcher.group(2), MIGRATION_DIR + fields[0],
+                        fields.length > 1 ? fields[1] : null));
+            }
+        }
+        return migrations;
+    }
+
+    // 先写入版本记录再执行脚本，多个实例同时启动时只有写入成功的实例执行该版本
+    private static boolean claim(Connection conn, Migration migration) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, description) VALUES (?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, migration.version);
+            pstmt.setString(2, migration.description);
+            pstmt.executeUpdate();
+            return true;
+        } catch (SQLIntegrityConstraintViolationException e) {
+            return false;
+        }
+    }
+
+    private static void release(Connection conn, Migration migration) {
+        try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM schema_version WHERE version=?")) {
+            pstmt.setInt(1, migration.version);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.taskmanager.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// SQL脚本解析与执行：按分号拆分语句，忽略“--”开头的注释行
+// 不处理字符串中的分号，只用于项目自带的建表脚本
+public class SqlScript {
+
+    // 解析脚本为语句列表
+    public static List<String> parse(InputStream in) throws IOException {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    addStatement(statements, current);
+                }
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    // 执行类路径下的脚本，跳过CREATE DATABASE和USE语句，由连接本身决定使用哪个库
+    public static void runResource(Connection conn, String resource) throws IOException, SQLException {
+        InputStream in = SqlScript.class.getClassLoader().getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("找不到SQL脚本：" + resource);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : parse(in)) {
+                String upper = sql.toUpperCase();
+                if (upper.startsWith("CREATE DATABASE") || upper.startsWith("USE ")) {
+                    continue;
+                }
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String sql = current.toString().trim();
+        if (sql.endsWith(";")) {
+            sql = sql.substring(0, sql.length() - 1).trim();
+        }
+        if (!sql.isEmpty()) {
+            statements.add(sql);
+        }
+        current.setLength(0);
+    }
+}
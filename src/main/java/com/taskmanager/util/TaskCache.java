@@ -0,0 +1,193 @@
+package com.taskmanager.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 按用户缓存任务查询结果（全部任务、分页、组合查询等视图），任务写入后按用户整体失效
+// 容量按用户数和每个用户的视图数双重限制，超出时淘汰最久未访问的，视图超过存活时间后自动失效
+public class TaskCache {
+    public static final int DEFAULT_MAX_USERS = 1000;
+    public static final int DEFAULT_MAX_VIEWS_PER_USER = 16;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final TaskCache INSTANCE = new TaskCache(DEFAULT_MAX_USERS, DEFAULT_MAX_VIEWS_PER_USER, DEFAULT_TTL_MILLIS);
+
+    private final int maxUsers;
+    private final int maxViewsPerUser;
+    private final long ttlNanos;
+
+    // accessOrder=true，遍历顺序即最久未访问在前
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int viewCount;
+
+    // 逻辑时钟：每次失效递增，读取前记录的时钟用于丢弃读取期间已被写操作作废的结果
+    private long clock;
+    private long lastRemovalClock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private static class Entry {
+        final LinkedHashMap<String, View> views = new LinkedHashMap<>(8, 0.75f, true);
+        long invalidatedClock;
+    }
+
+    private static class View {
+        final Object value;
+        final long loadedAt;
+
+        View(Object value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    // 构造函数
+    public TaskCache(int maxUsers, int maxViewsPerUser, long ttlMillis) {
+        if (maxUsers <= 0 || maxViewsPerUser <= 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("缓存参数错误");
+        }
+        this.maxUsers = maxUsers;
+        this.maxViewsPerUser = maxViewsPerUser;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    // 全局共享的缓存实例
+    public static TaskCache getInstance() {
+        return INSTANCE;
+    }
+
+    // 开始一次读取，返回的标记在put时传回
+    public synchronized long begin() {
+        return clock;
+    }
+
+    // 查询缓存，未命中或已过期时返回null
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T get(Integer userId, String key) {
+        Entry entry = entries.get(userId);
+        View view = entry == null ? null : entry.views.get(key);
+        if (view == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (System.nanoTime() - view.loadedAt > ttlNanos) {
+            entry.views.remove(key);
+            viewCount--;
+            expirations.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return (T) view.value;
+    }
+
+    // 写入缓存；stamp之后该用户发生过失效（或缓存项被淘汰过）时放弃写入，避免旧数据覆盖新数据
+    public synchronized void put(Integer userId, String key, Object value, long stamp) {
+        if (userId == null || value == null) {
+            return;
+        }
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            if (lastRemovalClock > stamp) {
+                return;
+            }
+            entry = new Entry();
+            entries.put(userId, entry);
+        } else if (entry.invalidatedClock > stamp) {
+            return;
+        }
+
+        if (entry.views.put(key, new View(value, System.nanoTime())) == null) {
+            viewCount++;
+        }
+
+        // 先淘汰该用户最久未访问的视图，再淘汰最久未访问的用户
+        Iterator<View> viewIterator = entry.views.values().iterator();
+        while (entry.views.size() > maxViewsPerUser) {
+            viewIterator.next();
+            viewIterator.remove();
+            viewCount--;
+            evictions.incrementAndGet();
+        }
+        trimUsers();
+    }
+
+    // 使某个用户的所有缓存视图失效
+    public synchronized void invalidate(Integer userId) {
+        if (userId == null) {
+            return;
+        }
+        clock++;
+        invalidations.incrementAndGet();
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            // 即使当前没有缓存也要记录失效时间，拦截正在进行中的读取
+            entry = new Entry();
+            entries.put(userId, entry);
+            entry.invalidatedClock = clock;
+            trimUsers();
+            return;
+        }
+        viewCount -= entry.views.size();
+        entry.views.clear();
+        entry.invalidatedClock = clock;
+    }
+
+    // 清空缓存
+    public synchronized void invalidateAll() {
+        clock++;
+        invalidations.incrementAndGet();
+        entries.clear();
+        viewCount = 0;
+        lastRemovalClock = clock;
+    }
+
+    // 当前是否没有任何缓存视图
+    public synchronized boolean isEmpty() {
+        return viewCount == 0;
+    }
+
+    // 当前缓存的视图数
+    public synchronized int size() {
+        return viewCount;
+    }
+
+    // 用户数超出上限时淘汰最久未访问的用户
+    private void trimUsers() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxUsers) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            viewCount -= eldest.views.size();
+            evictions.addAndGet(eldest.views.size());
+            lastRemovalClock = clock;
+        }
+    }
+
+    // 统计信息
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+}
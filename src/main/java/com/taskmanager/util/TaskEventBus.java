@@ -0,0 +1,188 @@
+package com.taskmanager.util;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 进程内的任务变更事件总线：任务写入成功后按用户发布事件，分发给该用户的所有订阅（浏览器标签页、设备）
+// 每个订阅的缓冲区有上限，客户端读取过慢导致缓冲区满时丢弃积压的事件，改为发送一条resync事件，
+// 客户端收到后做一次增量同步即可追上，服务端不会为慢客户端无限占用内存
+public class TaskEventBus {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    public static final String STATUS = "status";
+    public static final String RESYNC = "resync";
+
+    public static final int DEFAULT_BUFFER_SIZE = 64;
+    public static final int DEFAULT_MAX_SUBSCRIPTIONS_PER_USER = 8;
+
+    private static final TaskEventBus INSTANCE = new TaskEventBus(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_SUBSCRIPTIONS_PER_USER);
+
+    private final int bufferSize;
+    private final int maxSubscriptionsPerUser;
+    private final Map<Integer, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptionCount = new AtomicInteger();
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+
+    // 一条任务变更事件，taskIds为空表示变更范围未知（如删除分类影响的任务）
+    public static class Event {
+        private final String type;
+        private final List<Integer> taskIds;
+
+        public Event(String type, List<Integer> taskIds) {
+            this.type = type;
+            this.taskIds = taskIds == null ? Collections.<Integer>emptyList() : taskIds;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public List<Integer> getTaskIds() {
+            return taskIds;
+        }
+    }
+
+    // 一个订阅，listener在有新事件时被调用（在发布者线程中执行，不能阻塞），订阅方随后通过poll取出事件
+    public class Subscription {
+        private final Integer userId;
+        private final Runnable listener;
+        private final ArrayDeque<Event> buffer = new ArrayDeque<>();
+        private boolean overflowed;
+        private volatile boolean closed;
+
+        private Subscription(Integer userId, Runnable listener) {
+            this.userId = userId;
+            this.listener = listener;
+        }
+
+        // 取出下一条事件，没有事件时返回null
+        public synchronized Event poll() {
+            if (overflowed) {
+                overflowed = false;
+                delivered.incrementAndGet();
+                return new Event(RESYNC, null);
+            }
+            Event event = buffer.poll();
+            if (event != null) {
+                delivered.incrementAndGet();
+            }
+            return event;
+        }
+
+        // 取消订阅，可重复调用
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            Set<Subscription> userSubscriptions = subscriptions.get(userId);
+            if (userSubscriptions != null && userSubscriptions.remove(this)) {
+                subscriptionCount.decrementAndGet();
+                subscriptions.computeIfPresent(userId, (id, set) -> set.isEmpty() ? null : set);
+            }
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        private void offer(Event event) {
+            synchronized (this) {
+                if (overflowed) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    // 积压的事件已无意义，客户端重新同步即可
+                    buffer.clear();
+                    overflowed = true;
+                    overflows.incrementAndGet();
+                } else {
+                    buffer.add(event);
+                }
+            }
+            listener.run();
+        }
+    }
+
+    // 构造函数
+    public TaskEventBus(int bufferSize, int maxSubscriptionsPerUser) {
+        if (bufferSize <= 0 || maxSubscriptionsPerUser <= 0) {
+            throw new IllegalArgumentException("事件总线参数错误");
+        }
+        this.bufferSize = bufferSize;
+        this.maxSubscriptionsPerUser = maxSubscriptionsPerUser;
+    }
+
+    // 全局共享的事件总线
+    public static TaskEventBus getInstance() {
+        return INSTANCE;
+    }
+
+    // 订阅用户的任务变更事件，该用户的订阅数已达上限时返回null
+    public Subscription subscribe(Integer userId, Runnable listener) {
+        Subscription subscription = new Subscription(userId, listener);
+        boolean[] added = new boolean[1];
+        subscriptions.compute(userId, (id, set) -> {
+            if (set == null) {
+                set = new CopyOnWriteArraySet<>();
+            }
+            if (set.size() < maxSubscriptionsPerUser) {
+                added[0] = set.add(subscription);
+            }
+            return set;
+        });
+        if (!added[0]) {
+            return null;
+        }
+        subscriptionCount.incrementAndGet();
+        return subscription;
+    }
+
+    // 发布事件，没有订阅者时几乎没有开销
+    public void publish(Integer userId, String type, List<Integer> taskIds) {
+        if (userId == null) {
+            return;
+        }
+        Set<Subscription> userSubscriptions = subscriptions.get(userId);
+        if (userSubscriptions == null) {
+            return;
+        }
+        Event event = new Event(type, taskIds);
+        published.incrementAndGet();
+        for (Subscription subscription : userSubscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    public void publish(Integer userId, String type, Integer taskId) {
+        publish(userId, type, taskId == null ? null : Collections.singletonList(taskId));
+    }
+
+    // 统计信息
+    public int getSubscriptionCount() {
+        return subscriptionCount.get();
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    public long getOverflows() {
+        return overflows.get();
+    }
+}
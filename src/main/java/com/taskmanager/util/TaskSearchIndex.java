@@ -0,0 +1,443 @@
+package com.taskmanager.util;
+
+import com.taskmanager.bean.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// 按用户划分的任务倒排索引，关键词搜索在内存中完成，不访问数据库
+// 中日韩文字按单字和相邻两字建立词项，字母和数字按单词建立词项；查询中的单词按前缀匹配，所有词项都要匹配
+// 用户第一次搜索时加载该用户的全部任务建立索引，之后随任务的写入增量维护；索引保存在PerUserCache中，
+// 与用户的数据版本号绑定，任务写入在递增版本号之后同步到索引上，其他原因导致版本号变化（如新建分类）时重新加载
+// 并发写入同一任务时索引可能短暂落后于数据库，索引超过存活时间后重新加载
+// 索引的总任务数（按加载时计）超过上限时淘汰最久未搜索的用户，每个任务的索引约占几KB
+public class TaskSearchIndex {
+    public static final int DEFAULT_MAX_USERS = 1000;
+    public static final int DEFAULT_MAX_TASKS = 20000;
+    public static final int DEFAULT_MAX_TASKS_PER_USER = 5000;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    // 标题中的词项相对内容的权重
+    static final int TITLE_WEIGHT = 3;
+
+    private static final TaskSearchIndex INSTANCE = new TaskSearchIndex(DEFAULT_MAX_USERS, DEFAULT_MAX_TASKS,
+            DEFAULT_MAX_TASKS_PER_USER, DEFAULT_TTL_MILLIS, UserVersions.getInstance());
+
+    private final int maxTasksPerUser;
+    // 权重为加载时的任务数
+    private final PerUserCache<Partition> partitions;
+
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    private static class Document {
+        final Task task;
+        final Set<String> terms;
+
+        Document(Task task, Set<String> terms) {
+            this.task = task;
+            this.terms = terms;
+        }
+    }
+
+    // 一个用户的索引：词项到 (任务ID, 权重) 的映射，字母数字单词另外保存在有序集合中用于前缀查找
+    // 各用户的索引分别加锁，搜索时不持有全局锁，不同用户的搜索互不阻塞
+    private static class Partition {
+        final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+        final TreeSet<String> words = new TreeSet<>();
+        final Map<Integer, Document> documents = new HashMap<>();
+        // 任务数超过上限时不建立索引，由数据库搜索
+        final boolean oversized;
+
+        Partition(boolean oversized) {
+            this.oversized = oversized;
+        }
+
+        synchronized void add(Task task) {
+            remove(task.getTaskId());
+            Map<String, Integer> weights = new HashMap<>();
+            for (String term : terms(task.getTitle())) {
+                weights.merge(term, TITLE_WEIGHT, Integer::sum);
+            }
+            for (String term : terms(task.getContent())) {
+                weights.merge(term, 1, Integer::sum);
+            }
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                Map<Integer, Integer> posting = postings.get(entry.getKey());
+                if (posting == null) {
+                    // 多数词项只出现在少数任务中
+                    posting = new HashMap<>(2);
+                    postings.put(entry.getKey(), posting);
+                    if (!isCjk(entry.getKey().codePointAt(0))) {
+                        words.add(entry.getKey());
+                    }
+                }
+                posting.put(task.getTaskId(), entry.getValue());
+            }
+            documents.put(task.getTaskId(), new Document(summarize(task), weights.keySet()));
+        }
+
+        synchronized void remove(Integer taskId) {
+            Document document = documents.remove(taskId);
+            if (document != null) {
+                for (String term : document.terms) {
+                    Map<Integer, Integer> posting = postings.get(term);
+                    posting.remove(taskId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                        words.remove(term);
+                    }
+                }
+            }
+        }
+
+        synchronized Integer statusOf(Integer taskId) {
+            Document document = documents.get(taskId);
+            return document == null ? null : document.task.getStatus();
+        }
+
+        // 状态不影响词项，只替换摘要
+        synchronized void setStatus(Integer taskId, Integer status) {
+            Document document = documents.get(taskId);
+            if (document != null) {
+                Task task = copy(document.task);
+                task.setStatus(status);
+                documents.put(taskId, new Document(task, document.terms));
+            }
+        }
+
+        synchronized List<Task> search(Query query, int limit) {
+            // 每个词项匹配的任务及权重，从匹配最少的词项开始求交集
+            List<Map<Integer, Integer>> matches = new ArrayList<>();
+            for (String term : query.exact) {
+                Map<Integer, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    return Collections.emptyList();
+                }
+                matches.add(posting);
+            }
+            for (String prefix : query.prefixes) {
+                SortedSet<String> expanded = words.subSet(prefix, prefix + Character.MAX_VALUE);
+                if (expanded.size() == 1) {
+                    matches.add(postings.get(expanded.first()));
+                    continue;
+                }
+                Map<Integer, Integer> merged = new HashMap<>();
+                for (String word : expanded) {
+                    for (Map.Entry<Integer, Integer> entry : postings.get(word).entrySet()) {
+                        merged.merge(entry.getKey(), entry.getValue(), Math::max);
+                    }
+                }
+                if (merged.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                matches.add(merged);
+            }
+            matches.sort(Comparator.comparingInt(Map::size));
+
+            // 得分为各词项权重乘以逆文档频率之和，越少见的词项区分度越高
+            double[] idf = new double[matches.size()];
+            for (int i = 0; i < idf.length; i++) {
+                idf[i] = Math.log(1 + (double) documents.size() / matches.get(i).size());
+            }
+            // 只保留前limit个结果，堆顶为当前最差的结果
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(limit, matches.get(0).size()) + 1,
+                    HIT_ORDER.reversed());
+            for (Map.Entry<Integer, Integer> entry : matches.get(0).entrySet()) {
+                double score = entry.getValue() * idf[0];
+                for (int i = 1; i < idf.length && score >= 0; i++) {
+                    Integer weight = matches.get(i).get(entry.getKey());
+                    score = weight == null ? -1 : score + weight * idf[i];
+                }
+                if (score >= 0) {
+                    top.offer(new Hit(documents.get(entry.getKey()).task, score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+
+            Task[] tasks = new Task[top.size()];
+            for (int i = tasks.length - 1; i >= 0; i--) {
+                tasks[i] = top.poll().task;
+            }
+            return Arrays.asList(tasks);
+        }
+    }
+
+    private static class Hit {
+        final Task task;
+        final double score;
+
+        Hit(Task task, double score) {
+            this.task = task;
+            this.score = score;
+        }
+    }
+
+    // 相关度相同时与列表一致，按截止日期、优先级排序
+    private static final Comparator<Hit> HIT_ORDER = Comparator.<Hit>comparingDouble(hit -> -hit.score)
+            .thenComparing(hit -> hit.task.getDueDate(), Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(hit -> hit.task.getPriority(), Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(hit -> hit.task.getTaskId());
+
+    // 解析后的查询：精确匹配的词项和按前缀匹配的单词
+    static class Query {
+        final Set<String> exact = new HashSet<>();
+        final Set<String> prefixes = new HashSet<>();
+
+        boolean isEmpty() {
+            return exact.isEmpty() && prefixes.isEmpty();
+        }
+    }
+
+    // 构造函数
+    public TaskSearchIndex(int maxUsers, int maxTasks, int maxTasksPerUser, long ttlMillis, UserVersions userVersions) {
+        if (maxUsers <= 0 || maxTasksPerUser <= 0 || maxTasks < maxTasksPerUser || ttlMillis <= 0
+                || userVersions == null) {
+            throw new IllegalArgumentException("索引参数错误");
+        }
+        this.maxTasksPerUser = maxTasksPerUser;
+        this.partitions = new PerUserCache<>(maxUsers, maxTasks, ttlMillis, userVersions);
+    }
+
+    // 全局共享的索引实例
+    public static TaskSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    // 搜索用户的任务，按相关度排序；索引未建立时通过loader读取用户的全部任务（包含完整内容）建立索引
+    // 返回null表示无法通过索引搜索（用户任务过多或加载失败），由调用方改为查询数据库
+    public List<Task> search(Integer userId, String keyword, int limit, Supplier<List<Task>> loader) {
+        Query query = parse(keyword);
+        if (query.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 版本号必须在读取任务之前获取：加载期间发生的写入会使版本号变化，加载的结果不再保存
+        long version = partitions.version(userId);
+        Partition partition = partitions.get(userId, version);
+        if (partition != null) {
+            return searchOrFallback(partition, query, limit);
+        }
+
+        List<Task> tasks = loader.get();
+        if (tasks == null) {
+            fallbacks.incrementAndGet();
+            return null;
+        }
+        partition = new Partition(tasks.size() > maxTasksPerUser);
+        if (!partition.oversized) {
+            for (Task task : tasks) {
+                partition.add(task);
+            }
+        }
+        partitions.put(userId, partition, partition.oversized ? 0 : tasks.size(), version);
+        return searchOrFallback(partition, query, limit);
+    }
+
+    private List<Task> searchOrFallback(Partition partition, Query query, int limit) {
+        if (partition.oversized) {
+            fallbacks.incrementAndGet();
+            return null;
+        }
+        return partition.search(query, limit);
+    }
+
+    // 以下写入方法在递增用户的版本号之后调用
+    // 新建或修改了任务；status为null时沿用索引中原来的状态
+    public synchronized void put(Task task) {
+        if (task == null || task.getUserId() == null || task.getTaskId() == null) {
+            return;
+        }
+        Partition partition = partitions.written(task.getUserId());
+        if (partition == null || partition.oversized) {
+            return;
+        }
+        if (task.getStatus() == null) {
+            Integer status = partition.statusOf(task.getTaskId());
+            if (status == null) {
+                partitions.invalidate(task.getUserId());
+                return;
+            }
+            Task copy = copy(task);
+            copy.setContent(task.getContent());
+            copy.setStatus(status);
+            task = copy;
+        }
+        partition.add(task);
+    }
+
+    // 任务状态发生变化
+    public synchronized void updateStatus(Integer userId, Integer taskId, Integer status) {
+        Partition partition = partitions.written(userId);
+        if (partition != null && !partition.oversized) {
+            partition.setStatus(taskId, status);
+        }
+    }
+
+    // 任务被删除
+    public synchronized void remove(Integer userId, Integer taskId) {
+        Partition partition = partitions.written(userId);
+        if (partition != null) {
+            partition.remove(taskId);
+        }
+    }
+
+    // 丢弃某个用户的索引，下次搜索时重新加载
+    public void invalidate(Integer userId) {
+        partitions.invalidate(userId);
+    }
+
+    // 当前建立了索引的用户数
+    public int size() {
+        return partitions.size();
+    }
+
+    // 索引中保存的任务摘要，与列表查询返回的字段一致
+    static Task summarize(Task task) {
+        Task summary = copy(task);
+        String content = task.getContent();
+        if (content != null && content.codePointCount(0, content.length()) > Task.PREVIEW_LENGTH) {
+            content = content.substring(0, content.offsetByCodePoints(0, Task.PREVIEW_LENGTH));
+        }
+        summary.setDescription(content);
+        return summary;
+    }
+
+    private static Task copy(Task task) {
+        Task copy = new Task();
+        copy.setTaskId(task.getTaskId());
+        copy.setUserId(task.getUserId());
+        copy.setCategoryId(task.getCategoryId());
+        copy.setTitle(task.getTitle());
+        copy.setDescription(task.getDescription());
+        copy.setPriority(task.getPriority());
+        copy.setDueDate(task.getDueDate());
+        copy.setStatus(task.getStatus());
+        return copy;
+    }
+
+    // 文本中的词项，同一词项出现几次就返回几次
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        // 直接截取子串作为词项，每个词项只分配一次
+        text = text.toLowerCase(Locale.ROOT);
+        int wordStart = -1;
+        int previous = -1;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            int next = i + Character.charCount(codePoint);
+            if (isCjk(codePoint)) {
+                wordStart = flush(text, wordStart, i, terms);
+                terms.add(text.substring(i, next));
+                if (previous >= 0) {
+                    terms.add(text.substring(previous, next));
+                }
+                previous = i;
+            } else {
+                previous = -1;
+                if (Character.isLetterOrDigit(codePoint)) {
+                    wordStart = wordStart < 0 ? i : wordStart;
+                } else {
+                    wordStart = flush(text, wordStart, i, terms);
+                }
+            }
+            i = next;
+        }
+        flush(text, wordStart, text.length(), terms);
+        return terms;
+    }
+
+    // 解析关键词：连续的中日韩文字多于一个字时按相邻两字匹配，只有一个字时按单字匹配，单词按前缀匹配
+    static Query parse(String keyword) {
+        Query query = new Query();
+        if (keyword == null) {
+            return query;
+        }
+        List<String> run = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        keyword = keyword.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < keyword.length(); ) {
+            int codePoint = keyword.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isCjk(codePoint)) {
+                addPrefix(word, query);
+                run.add(new String(Character.toChars(codePoint)));
+            } else {
+                addRun(run, query);
+                if (Character.isLetterOrDigit(codePoint)) {
+                    word.appendCodePoint(codePoint);
+                } else {
+                    addPrefix(word, query);
+                }
+            }
+        }
+        addPrefix(word, query);
+        addRun(run, query);
+        return query;
+    }
+
+    private static void addRun(List<String> run, Query query) {
+        if (run.size() == 1) {
+            query.exact.add(run.get(0));
+        }
+        for (int i = 1; i < run.size(); i++) {
+            query.exact.add(run.get(i - 1) + run.get(i));
+        }
+        run.clear();
+    }
+
+    private static void addPrefix(StringBuilder word, Query query) {
+        if (word.length() > 0) {
+            query.prefixes.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static int flush(String text, int wordStart, int end, List<String> terms) {
+        if (wordStart >= 0) {
+            terms.add(text.substring(wordStart, end));
+        }
+        return -1;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+    }
+
+    // 索引中的任务数，按加载时计
+    public int getIndexedTasks() {
+        return (int) partitions.getWeight();
+    }
+
+    // 统计信息
+    public long getHits() {
+        return partitions.getHits();
+    }
+
+    public long getLoads() {
+        return partitions.getMisses();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+}
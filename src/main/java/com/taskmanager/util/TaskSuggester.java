@@ -0,0 +1,261 @@
+package com.taskmanager.util;
+
+import com.taskmanager.bean.Category;
+import com.taskmanager.bean.Task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// 搜索框的输入提示：按用户把任务标题和分类名称整理成按小写排序的数组，输入的前缀通过二分查找定位
+// 标题的开头和标题中每个词的开头都可以匹配，结果按使用次数（同名任务数、分类下的任务数）排序，只返回前几条
+// 提示词典保存在PerUserCache中，与用户的数据版本号绑定，任务或分类写入后下次请求时重新建立
+// 每个用户的词典按字符数限制大小，超出时优先保留分类和使用次数多的标题
+public class TaskSuggester {
+    public static final int DEFAULT_MAX_USERS = 1000;
+    public static final int DEFAULT_MAX_CHARS_PER_USER = 16384;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    // 单次返回的提示数和前缀长度的上限
+    public static final int MAX_LIMIT = 20;
+    public static final int MAX_PREFIX_LENGTH = 100;
+    // 每条提示最多按几个词的开头建立索引
+    static final int MAX_KEYS_PER_TEXT = 4;
+
+    private static final TaskSuggester INSTANCE = new TaskSuggester(DEFAULT_MAX_USERS, DEFAULT_MAX_CHARS_PER_USER,
+            DEFAULT_TTL_MILLIS, UserVersions.getInstance());
+
+    private final int maxCharsPerUser;
+    private final PerUserCache<Dictionary> dictionaries;
+
+    // 一个用户的提示词典：keys按字典序排列，targets[i]为keys[i]对应的提示在texts中的下标，
+    // starts[i]表示keys[i]是否从提示的开头开始
+    static class Dictionary {
+        final String[] keys;
+        final int[] targets;
+        final boolean[] starts;
+        final String[] texts;
+        final int[] weights;
+
+        private Dictionary(String[] keys, int[] targets, boolean[] starts, String[] texts, int[] weights) {
+            this.keys = keys;
+            this.targets = targets;
+            this.starts = starts;
+            this.texts = texts;
+            this.weights = weights;
+        }
+
+        // 按前缀查找，同一提示只出现一次；使用次数相同时标题开头匹配的、较短的在前
+        List<String> lookup(String prefix, int limit) {
+            int from = lowerBound(prefix);
+            Map<Integer, Boolean> matched = new HashMap<>();
+            for (int i = from; i < keys.length && keys[i].startsWith(prefix); i++) {
+                matched.merge(targets[i], starts[i], Boolean::logicalOr);
+            }
+            List<Map.Entry<Integer, Boolean>> candidates = new ArrayList<>(matched.entrySet());
+            candidates.sort((a, b) -> {
+                int result = Integer.compare(weights[b.getKey()], weights[a.getKey()]);
+                if (result == 0) {
+                    result = Boolean.compare(b.getValue(), a.getValue());
+                }
+                if (result == 0) {
+                    result = Integer.compare(texts[a.getKey()].length(), texts[b.getKey()].length());
+                }
+                return result != 0 ? result : texts[a.getKey()].compareTo(texts[b.getKey()]);
+            });
+            List<String> suggestions = new ArrayList<>(Math.min(limit, candidates.size()));
+            for (int i = 0; i < candidates.size() && i < limit; i++) {
+                suggestions.add(texts[candidates.get(i).getKey()]);
+            }
+            return suggestions;
+        }
+
+        // 第一个不小于prefix的key
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(prefix) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // 构造函数
+    public TaskSuggester(int maxUsers, int maxCharsPerUser, long ttlMillis, UserVersions userVersions) {
+        if (maxUsers <= 0 || maxCharsPerUser <= 0 || ttlMillis <= 0 || userVersions == null) {
+            throw new IllegalArgumentException("提示参数错误");
+        }
+        this.maxCharsPerUser = maxCharsPerUser;
+        this.dictionaries = new PerUserCache<>(maxUsers, ttlMillis, userVersions);
+    }
+
+    // 全局共享的实例
+    public static TaskSuggester getInstance() {
+        return INSTANCE;
+    }
+
+    // 查询以prefix开头的提示，最多返回limit条；词典不存在或已过期时通过tasks和categories重新建立
+    public List<String> suggest(Integer userId, String prefix, int limit,
+                                Supplier<List<Task>> tasks, Supplier<List<Category>> categories) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || key.length() > MAX_PREFIX_LENGTH || limit <= 0) {
+            return Collections.emptyList();
+        }
+        limit = Math.min(limit, MAX_LIMIT);
+
+        // 版本号必须在读取数据之前获取：读取期间发生的写入会使版本号变化，下次请求时重新建立
+        long version = dictionaries.version(userId);
+        Dictionary dictionary = dictionaries.get(userId, version);
+        if (dictionary != null) {
+            return dictionary.lookup(key, limit);
+        }
+
+        dictionary = build(tasks.get(), categories.get(), maxCharsPerUser);
+        dictionaries.put(userId, dictionary, version);
+        return dictionary.lookup(key, limit);
+    }
+
+    // 建立提示词典：分类在前，标题按同名任务数从多到少，超出字符数上限的部分不再加入
+    static Dictionary build(List<Task> tasks, List<Category> categories, int maxChars) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        Map<Integer, String> categoryNames = new HashMap<>();
+        if (categories != null) {
+            for (Category category : categories) {
+                String name = trim(category.getCategoryName());
+                if (name != null) {
+                    weights.merge(name, 1, Integer::sum);
+                    categoryNames.put(category.getCategoryId(), name);
+                }
+            }
+        }
+        Map<String, Integer> titles = new HashMap<>();
+        if (tasks != null) {
+            for (Task task : tasks) {
+                String name = categoryNames.get(task.getCategoryId());
+                if (name != null) {
+                    weights.merge(name, 1, Integer::sum);
+                }
+                String title = trim(task.getTitle());
+                if (title != null) {
+                    titles.merge(title, 1, Integer::sum);
+                }
+            }
+        }
+        List<Map.Entry<String, Integer>> sortedTitles = new ArrayList<>(titles.entrySet());
+        sortedTitles.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+        for (Map.Entry<String, Integer> title : sortedTitles) {
+            weights.merge(title.getKey(), title.getValue(), Integer::sum);
+        }
+
+        List<String> texts = new ArrayList<>();
+        List<Integer> textWeights = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<Integer> keyTargets = new ArrayList<>();
+        List<Boolean> keyStarts = new ArrayList<>();
+        int chars = 0;
+        for (Map.Entry<String, Integer> text : weights.entrySet()) {
+            List<String> textKeys = keys(text.getKey());
+            int length = 0;
+            for (String key : textKeys) {
+                length += key.length();
+            }
+            if (chars + length > maxChars) {
+                continue;
+            }
+            chars += length;
+            for (int i = 0; i < textKeys.size(); i++) {
+                keys.add(textKeys.get(i));
+                keyTargets.add(texts.size());
+                keyStarts.add(i == 0);
+            }
+            texts.add(text.getKey());
+            textWeights.add(text.getValue());
+        }
+
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> keys.get(a).compareTo(keys.get(b)));
+        String[] sortedKeys = new String[order.length];
+        int[] targets = new int[order.length];
+        boolean[] starts = new boolean[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = keys.get(order[i]);
+            targets[i] = keyTargets.get(order[i]);
+            starts[i] = keyStarts.get(order[i]);
+        }
+        int[] weightArray = new int[textWeights.size()];
+        for (int i = 0; i < weightArray.length; i++) {
+            weightArray[i] = textWeights.get(i);
+        }
+        return new Dictionary(sortedKeys, targets, starts, texts.toArray(new String[0]), weightArray);
+    }
+
+    // 提示的索引键：小写后的全文，以及从其中每个词的开头到结尾的部分
+    // 词的开头是字母、数字或中日韩文字中，前一个字符不属于同一类的位置
+    static List<String> keys(String text) {
+        String lower = normalize(text);
+        List<String> keys = new ArrayList<>();
+        keys.add(lower);
+        int previousType = type(lower.codePointAt(0));
+        for (int i = Character.charCount(lower.codePointAt(0)); i < lower.length() && keys.size() < MAX_KEYS_PER_TEXT; ) {
+            int codePoint = lower.codePointAt(i);
+            int type = type(codePoint);
+            if (type != 0 && type != previousType) {
+                keys.add(lower.substring(i));
+            }
+            previousType = type;
+            i += Character.charCount(codePoint);
+        }
+        return keys;
+    }
+
+    // 0：空白和标点，1：字母和数字，2：中日韩文字
+    private static int type(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        if (script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL) {
+            return 2;
+        }
+        return Character.isLetterOrDigit(codePoint) ? 1 : 0;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String trim(String text) {
+        if (text == null) {
+            return null;
+        }
+        text = text.trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    // 当前保存了提示词典的用户数
+    public int size() {
+        return dictionaries.size();
+    }
+
+    // 统计信息
+    public long getHits() {
+        return dictionaries.getHits();
+    }
+
+    public long getLoads() {
+        return dictionaries.getMisses();
+    }
+}
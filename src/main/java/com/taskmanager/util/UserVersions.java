@@ -0,0 +1,52 @@
+package com.taskmanager.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 按用户的数据版本号：任务或分类写入成功后递增，列表接口据此生成ETag，版本未变时直接返回304
+// 版本号按userId散列到固定数量的槽中，内存占用与用户数无关；两个用户落在同一个槽时，
+// 一方的写入只会让另一方的ETag多失效一次，不会返回过期数据
+// 版本号只在进程内维护，部署多个实例时需要会话粘滞（会话本身也保存在实例内存中）
+public class UserVersions {
+    public static final int DEFAULT_SLOTS = 4096;
+
+    private static final UserVersions INSTANCE = new UserVersions(DEFAULT_SLOTS);
+
+    // 进程启动时随机生成，重启后计数器从0开始，旧的ETag不会被误认为有效
+    private final String nonce;
+    private final AtomicLongArray slots;
+
+    // 构造函数
+    public UserVersions(int slotCount) {
+        if (slotCount <= 0) {
+            throw new IllegalArgumentException("版本号槽数错误");
+        }
+        this.slots = new AtomicLongArray(slotCount);
+        this.nonce = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    }
+
+    // 全局共享的实例
+    public static UserVersions getInstance() {
+        return INSTANCE;
+    }
+
+    // 当前版本号，只增不减
+    public long get(Integer userId) {
+        return slots.get(slot(userId));
+    }
+
+    // 用户的数据发生变化
+    public void bump(Integer userId) {
+        if (userId != null) {
+            slots.incrementAndGet(slot(userId));
+        }
+    }
+
+    public String getNonce() {
+        return nonce;
+    }
+
+    private int slot(Integer userId) {
+        return userId == null ? 0 : Math.floorMod(userId, slots.length());
+    }
+}
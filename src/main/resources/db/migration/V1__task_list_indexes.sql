@@ -0,0 +1,27 @@
+-- 任务查询都以user_id过滤并按 (due_date, priority DESC, task_id) 排序，单列索引只能用于过滤，排序需要filesort
+-- 按实际的查询形状建立组合索引，排序直接沿索引读取；priority DESC需要MySQL 8.0才能按降序建立索引
+
+-- 全部任务、分页、流式读取、日期范围和关键词查询
+CREATE INDEX idx_tasks_user_due ON tasks(user_id, due_date, priority DESC, task_id);
+
+-- 按状态筛选；按状态计数和分组统计只需读取索引
+CREATE INDEX idx_tasks_user_status_due ON tasks(user_id, status, due_date, priority DESC, task_id);
+
+-- 按优先级筛选，以及按优先级降序排列
+CREATE INDEX idx_tasks_user_priority_due ON tasks(user_id, priority DESC, due_date, task_id);
+
+-- 组合查询中按分类筛选
+CREATE INDEX idx_tasks_user_category_due ON tasks(user_id, category_id, due_date, priority DESC, task_id);
+
+-- 查询分类下的任务，同时作为category_id外键的索引
+CREATE INDEX idx_tasks_category_due ON tasks(category_id, due_date, priority DESC, task_id);
+
+-- 按创建时间排序
+CREATE INDEX idx_tasks_user_created ON tasks(user_id, created_date, task_id);
+
+-- 以上索引覆盖了原来的单列索引，删除后减少写入时的索引维护
+DROP INDEX idx_tasks_user_id ON tasks;
+DROP INDEX idx_tasks_category_id ON tasks;
+DROP INDEX idx_tasks_status ON tasks;
+DROP INDEX idx_tasks_priority ON tasks;
+DROP INDEX idx_tasks_due_date ON tasks;
@@ -0,0 +1,4 @@
+-- 任务标题和内容的全文索引，供关键词搜索使用；标题多为中文，使用ngram分词（MySQL 5.7.6+）
+-- 按ngram_token_size（默认2）切分，更短的关键词仍使用LIKE
+-- 默认的英文停用词会使包含停用词的ngram被忽略，建议设置 innodb_ft_enable_stopword=OFF 后再执行
+CREATE FULLTEXT INDEX ft_tasks_title_content ON tasks(title, content) WITH PARSER ngram;
@@ -0,0 +1,16 @@
+-- 按 (用户, 分类, 状态, 优先级) 保存任务数，任务的写入在同一事务中按增量更新，统计接口只需读取该用户的几十行
+-- category_id为0表示没有分类；计数为0的行由对账任务清理
+CREATE TABLE task_counters (
+    user_id INT NOT NULL,
+    category_id INT NOT NULL DEFAULT 0,
+    status TINYINT NOT NULL,
+    priority TINYINT NOT NULL,
+    task_count INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, category_id, status, priority),
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+
+-- 按现有任务初始化计数；迁移期间有写入时产生的偏差由对账任务修正
+INSERT INTO task_counters (user_id, category_id, status, priority, task_count)
+SELECT user_id, COALESCE(category_id, 0), status, priority, COUNT(*)
+FROM tasks GROUP BY user_id, COALESCE(category_id, 0), status, priority;
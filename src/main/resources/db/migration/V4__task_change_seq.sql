@@ -0,0 +1,18 @@
+-- 增量同步的变更序号：users.change_seq是每个用户单调递增的序号，写入任务的事务先将其加1并持有该用户行的锁直到提交，
+-- 同一用户的写入依次取得序号，序号的顺序即提交的顺序；修改的任务和删除标记记录写入时的序号
+-- 已有的数据序号为0，升级前发出的基于时间的同步标记会要求客户端全量加载一次
+ALTER TABLE users ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+-- 已删除任务的记录（增量同步时通知客户端删除），超过保留期的由purgeTombstones按删除时间清理
+CREATE TABLE IF NOT EXISTS task_tombstones (
+    task_id INT PRIMARY KEY,
+    user_id INT NOT NULL,
+    deleted_date DATETIME DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+ALTER TABLE task_tombstones ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_tasks_user_change ON tasks(user_id, change_seq);
+CREATE INDEX idx_task_tombstones_user_change ON task_tombstones(user_id, change_seq);
+CREATE INDEX idx_task_tombstones_deleted ON task_tombstones(deleted_date);
@@ -1,11 +1,26 @@
 // 基本配置
 const BASE_URL = '/taskmanager'; // 应用上下文路径
 const API_URL = {
+    bootstrap: `${BASE_URL}/api/bootstrap`,
     user: `${BASE_URL}/api/user`,
     task: `${BASE_URL}/api/task`,
     category: `${BASE_URL}/api/category`
 };
 
+// 任务列表每页条数
+const TASK_PAGE_SIZE = 50;
+// 下一页的游标，没有更多任务时为null
+let nextTaskCursor = null;
+// 当前选中的分类，null表示全部分类
+let selectedCategoryId = null;
+// 增量同步标记，null表示尚未同步过
+let syncToken = null;
+// 当前列表中显示的任务，增量同步时在此基础上合并
+let shownTasks = [];
+// 输入提示：上一次请求的前缀和尚未完成的请求
+let suggestPrefix = '';
+let suggestController = null;
+
 // DOM元素
 const elements = {
     usernameDisplay: document.getElementById('username-display'),
@@ -13,9 +28,11 @@ const elements = {
     categoryList: document.getElementById('category-list'),
     addCategoryBtn: document.getElementById('add-category-btn'),
     taskList: document.getElementById('task-list'),
+    loadMoreBtn: document.getElementById('load-more-btn'),
     addTaskBtn: document.getElementById('add-task-btn'),
     statusFilter: document.getElementById('status-filter'),
     searchInput: document.getElementById('search-input'),
+    searchSuggestions: document.getElementById('search-suggestions'),
     
     // 任务模态框
     taskModal: document.getElementById('task-modal'),
@@ -109,6 +126,59 @@ async function loadUserInfo() {
     }
 }
 
+// 一次请求加载页面所需的全部数据（用户、分类、任务第一页、状态计数和同步标记），失败时退回逐项加载
+async function loadBootstrap() {
+    try {
+        const response = await fetch(`${API_URL.bootstrap}?pageSize=${TASK_PAGE_SIZE}`, {
+            credentials: 'include'
+        });
+        const data = await response.json();
+
+        if (response.status === 401) {
+            // 未登录，跳转到登录页
+            window.location.href = `${BASE_URL}/login.html`;
+            return;
+        }
+        if (data.success) {
+            elements.usernameDisplay.textContent = data.user.username;
+            renderCategories(data.categories);
+            updateTaskCategorySelect(data.categories);
+            renderTasks(data.tasks);
+            updateLoadMore(data.hasMore ? data.nextCursor : null);
+            updateStatusCounts(data.statusCounts);
+            syncToken = data.syncToken || null;
+            return;
+        }
+    } catch (error) {
+        console.error('加载页面数据失败:', error);
+    }
+
+    await loadUserInfo();
+    await loadCategories();
+    await startTaskSync();
+    await loadTasks();
+}
+
+// 在状态筛选框中显示各状态的任务数
+function updateStatusCounts(counts) {
+    if (!counts) {
+        return;
+    }
+    let total = 0;
+    Array.from(elements.statusFilter.options).forEach(option => {
+        if (!option.dataset.label) {
+            option.dataset.label = option.textContent;
+        }
+        if (option.value !== 'all') {
+            const count = counts[option.value] || 0;
+            total += count;
+            option.textContent = `${option.dataset.label} (${count})`;
+        }
+    });
+    const allOption = elements.statusFilter.querySelector('option[value="all"]');
+    allOption.textContent = `${allOption.dataset.label} (${total})`;
+}
+
 // 加载分类列表
 async function loadCategories() {
     try {
@@ -148,11 +218,15 @@ function renderCategories(categories) {
     document.querySelectorAll('.category-item').forEach(item => {
         item.addEventListener('click', function() {
             const categoryId = this.getAttribute('data-id');
-            loadTasksByCategory(categoryId);
-            
+            // 再次点击已选中的分类时取消分类筛选
+            selectedCategoryId = selectedCategoryId === categoryId ? null : categoryId;
+
             // 更新选中状态
             document.querySelectorAll('.category-item').forEach(i => i.classList.remove('active'));
-            this.classList.add('active');
+            if (selectedCategoryId) {
+                this.classList.add('active');
+            }
+            refreshTaskView();
         });
     });
 }
@@ -171,44 +245,139 @@ function updateTaskCategorySelect(categories) {
     elements.taskCategorySelect.innerHTML = '<option value="">请选择分类</option>' + options;
 }
 
-// 加载用户的所有任务
-async function loadTasks() {
+// 加载用户的任务（游标分页），传入cursor时追加下一页
+async function loadTasks(cursor) {
+    const append = Boolean(cursor);
     try {
-        elements.taskList.innerHTML = '<div class="loading-message">正在加载任务...</div>';
-        
-        const response = await fetch(`${API_URL.task}/list`, {
+        if (!append) {
+            elements.taskList.innerHTML = '<div class="loading-message">正在加载任务...</div>';
+        }
+
+        let url = `${API_URL.task}/list?pageSize=${TASK_PAGE_SIZE}`;
+        if (append) {
+            url += `&cursor=${encodeURIComponent(cursor)}`;
+        }
+        const response = await fetch(url, {
             credentials: 'include'
         });
         const data = await response.json();
         
         if (data.success) {
-            renderTasks(data.tasks);
-        } else {
+            renderTasks(data.tasks, append);
+            updateLoadMore(data.hasMore ? data.nextCursor : null);
+        } else if (!append) {
             elements.taskList.innerHTML = '<div class="empty-message">加载任务失败</div>';
+        } else {
+            showError(data.message || '加载更多任务失败');
         }
     } catch (error) {
         console.error('加载任务失败:', error);
-        elements.taskList.innerHTML = '<div class="empty-message">加载任务失败，请刷新重试</div>';
+        if (append) {
+            showError('加载更多任务失败，请稍后再试');
+        } else {
+            elements.taskList.innerHTML = '<div class="empty-message">加载任务失败，请刷新重试</div>';
+        }
     }
 }
 
-// 加载指定分类的任务
-async function loadTasksByCategory(categoryId) {
+// 更新“加载更多”按钮
+function updateLoadMore(cursor) {
+    nextTaskCursor = cursor;
+    elements.loadMoreBtn.style.display = cursor ? 'block' : 'none';
+}
+
+// 根据当前的筛选和排序条件刷新任务列表
+function refreshTaskView() {
+    const status = elements.statusFilter.value;
+    const priority = elements.priorityFilter.value;
+    const keyword = elements.searchInput.value.trim();
+    const sortBy = elements.sortBy.value;
+
+    const params = new URLSearchParams();
+    if (status !== 'all') {
+        params.append('status', status);
+    }
+    if (priority !== 'all') {
+        params.append('priority', priority);
+    }
+    if (selectedCategoryId) {
+        params.append('categoryId', selectedCategoryId);
+    }
+    if (keyword) {
+        params.append('keyword', keyword);
+    }
+
+    // 没有任何筛选条件且按截止日期排序时，使用分页的任务列表
+    if (!params.toString() && sortBy === 'dueDate') {
+        loadTasks();
+        return;
+    }
+
+    if (sortBy === 'priority') {
+        params.append('sort', 'priority');
+    }
+    queryTasks(params);
+}
+
+// 加载搜索框的输入提示，前缀未变化时不重复请求，新的输入会取消尚未完成的请求
+async function loadSuggestions() {
+    const prefix = elements.searchInput.value.trim();
+    if (prefix === suggestPrefix) {
+        return;
+    }
+    suggestPrefix = prefix;
+    if (suggestController) {
+        suggestController.abort();
+        suggestController = null;
+    }
+    if (!prefix) {
+        elements.searchSuggestions.innerHTML = '';
+        return;
+    }
+
+    const controller = new AbortController();
+    suggestController = controller;
+    try {
+        const response = await fetch(`${API_URL.task}/suggest?prefix=${encodeURIComponent(prefix)}`, {
+            credentials: 'include',
+            signal: controller.signal
+        });
+        const data = await response.json();
+
+        if (data.success) {
+            elements.searchSuggestions.innerHTML = '';
+            data.suggestions.forEach(text => {
+                const option = document.createElement('option');
+                option.value = text;
+                elements.searchSuggestions.appendChild(option);
+            });
+        }
+    } catch (error) {
+        // 被新的输入取消或请求失败时保留原来的提示
+    } finally {
+        if (suggestController === controller) {
+            suggestController = null;
+        }
+    }
+}
+
+// 按组合条件查询任务，所有筛选条件在一次请求中完成
+async function queryTasks(params) {
     try {
         elements.taskList.innerHTML = '<div class="loading-message">正在加载任务...</div>';
-        
-        const response = await fetch(`${API_URL.task}/category?categoryId=${categoryId}`, {
+
+        const response = await fetch(`${API_URL.task}/query?${params.toString()}`, {
             credentials: 'include'
         });
         const data = await response.json();
-        
+
         if (data.success) {
             renderTasks(data.tasks);
         } else {
             elements.taskList.innerHTML = '<div class="empty-message">加载任务失败</div>';
         }
     } catch (error) {
-        console.error('加载分类任务失败:', error);
+        console.error('查询任务失败:', error);
         elements.taskList.innerHTML = '<div class="empty-message">加载任务失败，请刷新重试</div>';
     }
 }
@@ -223,9 +392,15 @@ function getPriorityText(priority) {
     };
     return priorityMap[priority] || '未知';
 }
-function renderTasks(tasks) {
+function renderTasks(tasks, append) {
+    if (!append) {
+        updateLoadMore(null);
+    }
+    shownTasks = append ? shownTasks.concat(tasks || []) : (tasks || []).slice();
     if (!tasks || tasks.length === 0) {
-        elements.taskList.innerHTML = '<div class="empty-message">暂无任务</div>';
+        if (!append) {
+            elements.taskList.innerHTML = '<div class="empty-message">暂无任务</div>';
+        }
         return;
     }
 
@@ -258,28 +433,159 @@ function renderTasks(tasks) {
         </div>`;
     }).join('');
 
-    elements.taskList.innerHTML = html;
-    
-    // 添加任务操作事件
-    document.querySelectorAll('.btn-task-action').forEach(btn => {
-        btn.addEventListener('click', function(e) {
-            e.stopPropagation();
-            const taskId = this.closest('.task-item').getAttribute('data-id');
-            const action = this.getAttribute('data-action');
-            
-            switch (action) {
-                case 'complete':
-                    completeTask(taskId);
-                    break;
-                case 'edit':
-                    openEditTaskModal(taskId);
-                    break;
-                case 'delete':
-                    confirmDeleteTask(taskId);
-                    break;
-            }
+    if (append) {
+        elements.taskList.insertAdjacentHTML('beforeend', html);
+    } else {
+        elements.taskList.innerHTML = html;
+    }
+}
+
+// 增量同步：只获取上次同步之后变化的任务，合并到当前列表中
+async function syncTasks() {
+    try {
+        let url = `${API_URL.task}/changes`;
+        if (syncToken) {
+            url += `?since=${encodeURIComponent(syncToken)}`;
+        }
+        const response = await fetch(url, {
+            credentials: 'include'
         });
+        const data = await response.json();
+
+        if (!data.success) {
+            refreshTaskView();
+            return;
+        }
+        syncToken = data.token;
+        if (data.full) {
+            // 首次同步或标记已过期，无法得到完整的增量
+            refreshTaskView();
+        } else {
+            mergeTaskChanges(data.tasks, data.deletedTaskIds);
+            updateStatusCounts(data.statusCounts);
+        }
+    } catch (error) {
+        console.error('同步任务失败:', error);
+        refreshTaskView();
+    }
+}
+
+// 订阅服务端推送的任务变更（其他标签页或设备上的修改），收到事件后做一次增量同步
+// 短时间内的多个事件合并为一次同步；连接断开后EventSource会自动重连，重连后补做一次同步
+function subscribeTaskEvents() {
+    if (!window.EventSource) {
+        return;
+    }
+    const source = new EventSource(`${API_URL.task}/events`, { withCredentials: true });
+    const scheduleSync = () => {
+        clearTimeout(source.syncTimer);
+        source.syncTimer = setTimeout(syncTasks, 200);
+    };
+    ['created', 'updated', 'deleted', 'status', 'resync'].forEach(type => {
+        source.addEventListener(type, scheduleSync);
+    });
+    source.addEventListener('open', () => {
+        if (source.opened) {
+            scheduleSync();
+        }
+        source.opened = true;
+    });
+}
+
+// 获取初始的同步标记，在加载任务列表之前调用，期间发生的修改会在下次同步时再次返回
+async function startTaskSync() {
+    try {
+        const response = await fetch(`${API_URL.task}/changes`, {
+            credentials: 'include'
+        });
+        const data = await response.json();
+        if (data.success) {
+            syncToken = data.token;
+        }
+    } catch (error) {
+        console.error('获取同步标记失败:', error);
+    }
+}
+
+// 将变化的任务合并到当前列表：删除的移除，修改的按当前筛选条件决定是否显示并重新排序
+function mergeTaskChanges(changedTasks, deletedTaskIds) {
+    if ((!changedTasks || changedTasks.length === 0) && (!deletedTaskIds || deletedTaskIds.length === 0)) {
+        return;
+    }
+    const removed = new Set((deletedTaskIds || []).map(String));
+    (changedTasks || []).forEach(task => removed.add(String(task.taskId)));
+
+    const hasMore = Boolean(nextTaskCursor);
+    const lastShown = shownTasks[shownTasks.length - 1];
+    let merged = shownTasks.filter(task => !removed.has(String(task.taskId)));
+    (changedTasks || []).forEach(task => {
+        // 还有下一页时，排在已加载范围之后的任务留给后续分页加载
+        if (matchesTaskView(task) && !(hasMore && lastShown && compareTasksForView(task, lastShown) > 0)) {
+            merged.push(task);
+        }
     });
+    merged.sort(compareTasksForView);
+
+    const cursor = nextTaskCursor;
+    renderTasks(merged);
+    updateLoadMore(cursor);
+}
+
+// 任务是否符合当前的筛选条件，与/query的过滤规则保持一致
+function matchesTaskView(task) {
+    const status = elements.statusFilter.value;
+    const priority = elements.priorityFilter.value;
+    const keyword = elements.searchInput.value.trim().toLowerCase();
+
+    if (status !== 'all' && String(task.status) !== status) {
+        return false;
+    }
+    if (priority !== 'all' && String(task.priority) !== priority) {
+        return false;
+    }
+    if (selectedCategoryId && String(task.categoryId) !== String(selectedCategoryId)) {
+        return false;
+    }
+    if (keyword) {
+        const text = `${task.title || ''}\n${task.content || ''}`.toLowerCase();
+        if (!text.includes(keyword)) {
+            return false;
+        }
+    }
+    return true;
+}
+
+// 与服务端的排序规则一致：按截止日期（未设置的在前）、优先级降序，或按优先级降序、截止日期，最后按任务ID
+function compareTasksForView(a, b) {
+    const byDueDate = (a.dueDate || '').localeCompare(b.dueDate || '');
+    const byPriority = (b.priority || 0) - (a.priority || 0);
+    const result = elements.sortBy.value === 'priority'
+        ? byPriority || byDueDate
+        : byDueDate || byPriority;
+    return result || a.taskId - b.taskId;
+}
+
+// 任务操作按钮的点击事件（委托到任务列表上，追加的任务同样生效）
+function handleTaskActionClick(e) {
+    const btn = e.target.closest('.btn-task-action');
+    if (!btn) {
+        return;
+    }
+    e.stopPropagation();
+    const taskId = btn.closest('.task-item').getAttribute('data-id');
+    const action = btn.getAttribute('data-action');
+
+    switch (action) {
+        case 'complete':
+            completeTask(taskId);
+            break;
+        case 'edit':
+            openEditTaskModal(taskId);
+            break;
+        case 'delete':
+            confirmDeleteTask(taskId);
+            break;
+    }
 }
 
 // 标记任务完成
@@ -297,8 +603,8 @@ async function completeTask(taskId) {
         const data = await response.json();
         
         if (data.success) {
-            // 重新加载任务列表
-            loadTasks();
+            // 只同步变化的任务，不再重新加载整个列表
+            syncTasks();
         } else {
             showError(data.message || '更新任务状态失败');
         }
@@ -377,8 +683,8 @@ async function deleteTask(taskId) {
         const data = await response.json();
         
         if (data.success) {
-            // 重新加载任务列表
-            loadTasks();
+            // 只同步变化的任务，不再重新加载整个列表
+            syncTasks();
         } else {
             showError(data.message || '删除任务失败');
         }
@@ -453,8 +759,8 @@ async function handleTaskFormSubmit(event) {
         if (data.success) {
             // 关闭模态框
             elements.taskModal.style.display = 'none';
-            // 重新加载任务列表
-            loadTasks();
+            // 只同步变化的任务，不再重新加载整个列表
+            syncTasks();
         } else {
             showError(data.message || '操作失败');
         }
@@ -547,74 +853,20 @@ async function logout() {
     }
 }
 
-// 过滤器变化时重新加载任务
-function handleFilterChange() {
-    const status = elements.statusFilter.value;
-    
-    if (status === 'all') {
-        loadTasks();
-    } else {
-        loadTasksByStatus(status);
-    }
-}
-
-// 按状态加载任务
-async function loadTasksByStatus(status) {
-    try {
-        elements.taskList.innerHTML = '<div class="loading-message">正在加载任务...</div>';
-        
-        const response = await fetch(`${API_URL.task}/status?status=${status}`, {
-            credentials: 'include'
-        });
-        const data = await response.json();
-        
-        if (data.success) {
-            renderTasks(data.tasks);
-        } else {
-            elements.taskList.innerHTML = '<div class="empty-message">加载任务失败</div>';
-        }
-    } catch (error) {
-        console.error('加载状态任务失败:', error);
-        elements.taskList.innerHTML = '<div class="empty-message">加载任务失败，请刷新重试</div>';
-    }
-}
-
-// 搜索任务
-function handleSearch() {
-    const keyword = elements.searchInput.value.trim();
-    
-    if (keyword) {
-        searchTasks(keyword);
-    } else {
-        loadTasks();
-    }
-}
-
-// 搜索任务
-async function searchTasks(keyword) {
-    try {
-        elements.taskList.innerHTML = '<div class="loading-message">正在搜索任务...</div>';
-        
-        const response = await fetch(`${API_URL.task}/search?keyword=${encodeURIComponent(keyword)}`, {
-            credentials: 'include'
-        });
-        const data = await response.json();
-        
-        if (data.success) {
-            renderTasks(data.tasks);
-        } else {
-            elements.taskList.innerHTML = '<div class="empty-message">搜索任务失败</div>';
-        }
-    } catch (error) {
-        console.error('搜索任务失败:', error);
-        elements.taskList.innerHTML = '<div class="empty-message">搜索任务失败，请刷新重试</div>';
-    }
-}
-
 // 事件监听
 function setupEventListeners() {
     // 添加任务按钮
     elements.addTaskBtn.addEventListener('click', openAddTaskModal);
+
+    // 任务操作按钮
+    elements.taskList.addEventListener('click', handleTaskActionClick);
+
+    // 加载更多任务
+    elements.loadMoreBtn.addEventListener('click', () => {
+        if (nextTaskCursor) {
+            loadTasks(nextTaskCursor);
+        }
+    });
     
     // 取消任务按钮
     elements.cancelTaskBtn.addEventListener('click', () => {
@@ -638,21 +890,19 @@ function setupEventListeners() {
     // 退出登录按钮
     elements.logoutBtn.addEventListener('click', logout);
     
-    // 状态过滤器变化
-    elements.statusFilter.addEventListener('change', handleFilterChange);
+    // 状态、优先级筛选和排序方式变化
+    elements.statusFilter.addEventListener('change', refreshTaskView);
+    elements.priorityFilter.addEventListener('change', refreshTaskView);
+    elements.sortBy.addEventListener('change', refreshTaskView);
     
     // 搜索框输入
     elements.searchInput.addEventListener('input', () => {
-        // 使用防抖处理，300ms后执行搜索
+        // 使用防抖处理，300ms后执行搜索，输入提示的等待时间更短
         clearTimeout(elements.searchInput.timer);
-        elements.searchInput.timer = setTimeout(handleSearch, 300);
+        elements.searchInput.timer = setTimeout(refreshTaskView, 300);
+        clearTimeout(elements.searchInput.suggestTimer);
+        elements.searchInput.suggestTimer = setTimeout(loadSuggestions, 150);
     });
-
-    // 优先级筛选器变化
-    elements.priorityFilter.addEventListener('change', handlePriorityFilterChange);
-
-    // 排序方式变化
-    elements.sortBy.addEventListener('change', handleSortChange);
     
     // 点击模态框外部关闭模态框
     window.addEventListener('click', function(e) {
@@ -670,79 +920,11 @@ async function initialize() {
     // 设置事件监听
     setupEventListeners();
     
-    // 加载用户信息
-    await loadUserInfo();
-    
-    // 加载分类列表
-    await loadCategories();
-    
-    // 加载任务列表
-    await loadTasks();
-}
-
-// 按优先级筛选任务
-async function loadTasksByPriority(priority) {
-    try {
-        elements.taskList.innerHTML = '<div class="loading-message">正在加载任务...</div>';
-
-        const response = await fetch(`${API_URL.task}/priority?priority=${priority}`, {
-            credentials: 'include'
-        });
-        const data = await response.json();
-
-        if (data.success) {
-            renderTasks(data.tasks);
-        } else {
-            elements.taskList.innerHTML = '<div class="empty-message">加载任务失败</div>';
-        }
-    } catch (error) {
-        console.error('按优先级加载任务失败:', error);
-        elements.taskList.innerHTML = '<div class="empty-message">加载任务失败，请刷新重试</div>';
-    }
-}
-
-// 按优先级排序任务
-async function loadTasksOrderByPriority() {
-    try {
-        elements.taskList.innerHTML = '<div class="loading-message">正在加载任务...</div>';
-
-        // 默认降序（高优先级在前）
-        const response = await fetch(`${API_URL.task}/orderByPriority`, {
-            credentials: 'include'
-        });
-        const data = await response.json();
+    // 一次请求加载用户信息、分类列表和任务列表
+    await loadBootstrap();
 
-        if (data.success) {
-            renderTasks(data.tasks);
-        } else {
-            elements.taskList.innerHTML = '<div class="empty-message">加载任务失败</div>';
-        }
-    } catch (error) {
-        console.error('按优先级排序任务失败:', error);
-        elements.taskList.innerHTML = '<div class="empty-message">加载任务失败，请刷新重试</div>';
-    }
-}
-
-// 处理排序变化
-function handleSortChange() {
-    const sortBy = elements.sortBy.value;
-
-    if (sortBy === 'dueDate') {
-        loadTasks(); // 默认就是按截止日期排序
-    } else if (sortBy === 'priority') {
-        loadTasksOrderByPriority();
-    }
-}
-
-// 处理优先级筛选变化
-function handlePriorityFilterChange() {
-    const priority = elements.priorityFilter.value;
-
-    if (priority === 'all') {
-        loadTasks();
-    } else {
-        loadTasksByPriority(priority);
-    }
+    // 订阅任务变更推送
+    subscribeTaskEvents();
 }
 
 // 页面加载时执行初始化
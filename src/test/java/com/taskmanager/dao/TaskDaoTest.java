@@ -1,6 +1,10 @@
 package com.taskmanager.dao;
 
 import com.taskmanager.bean.Task;
+import com.taskmanager.bean.TaskStats;
+import com.taskmanager.bean.TaskChanges;
+import com.taskmanager.bean.TaskCursor;
+import com.taskmanager.bean.TaskQuery;
 import com.taskmanager.bean.User;
 import com.taskmanager.bean.Category;
 import com.taskmanager.dao.impl.TaskDaoImpl;
@@ -13,11 +17,15 @@ import org.junit.Test;
 import static org.junit.Assert.*;
 
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 
 public class TaskDaoTest {
@@ -64,7 +72,7 @@ public class TaskDaoTest {
         testTask.setDescription("Test task description");
         testTask.setPriority(1);
         testTask.setStatus(0); // Not completed
-        testTask.setDueDate(new Date()); // Today
+        testTask.setDueDate(LocalDate.now()); // Today
     }
 
     @After
@@ -127,6 +135,26 @@ public class TaskDaoTest {
         assertEquals("Task priority should be updated", updatedPriority, (int)updated.getPriority());
     }
 
+    @Test
+    public void testUpdateKeepsStatusAndChecksOwner() {
+        testTask.setStatus(1);
+        taskDao.insert(testTask);
+
+        // A null status keeps the stored one
+        testTask.setStatus(null);
+        testTask.setTitle("Updated_" + UUID.randomUUID().toString().substring(0, 8));
+        assertEquals(1, taskDao.update(testTask));
+        assertEquals("Status should be preserved", 1, (int) taskDao.findById(testTask.getTaskId()).getStatus());
+
+        // Another user cannot update the task
+        Integer ownerId = testTask.getUserId();
+        testTask.setUserId(ownerId + 100000);
+        testTask.setTitle("Hijacked");
+        assertEquals("Update by another user should affect no rows", 0, taskDao.update(testTask));
+        testTask.setUserId(ownerId);
+        assertNotEquals("Hijacked", taskDao.findById(testTask.getTaskId()).getTitle());
+    }
+
     @Test
     public void testDelete() {
         // First insert the task
@@ -136,14 +164,112 @@ public class TaskDaoTest {
         // Verify it exists
         assertNotNull("Task should exist before deletion", taskDao.findById(taskId));
 
+        // Another user cannot delete the task
+        assertEquals("Deletion by another user should affect no rows",
+                0, taskDao.delete(taskId, testUser.getUserId() + 100000));
+        assertNotNull("Task should still exist", taskDao.findById(taskId));
+
         // Delete the task
-        int result = taskDao.delete(taskId);
+        int result = taskDao.delete(taskId, testUser.getUserId());
         assertTrue("Task deletion should succeed", result > 0);
 
         // Verify deletion
         assertNull("Task should no longer exist after deletion", taskDao.findById(taskId));
     }
 
+    @Test
+    public void testFindChanges() {
+        // Without a starting point only the current sequence and database time are returned
+        TaskChanges start = taskDao.findChanges(testUser.getUserId(), null);
+        assertNotNull("Changes should be returned", start);
+        assertNotNull("Checkpoint should be set", start.getCheckpoint());
+        assertTrue(start.getTasks().isEmpty());
+        long since = start.getSequence();
+
+        taskDao.insert(testTask);
+        Task deleted = new Task();
+        deleted.setUserId(testUser.getUserId());
+        deleted.setTitle("Deleted_" + UUID.randomUUID().toString().substring(0, 8));
+        deleted.setPriority(2);
+        deleted.setStatus(0);
+        deleted.setDueDate(LocalDate.now());
+        taskDao.insert(deleted);
+        assertEquals(1, taskDao.delete(deleted.getTaskId(), testUser.getUserId()));
+
+        TaskChanges changes = taskDao.findChanges(testUser.getUserId(), since);
+        assertEquals("Only the remaining task should be reported as changed", 1, changes.getTasks().size());
+        assertEquals(testTask.getTaskId(), changes.getTasks().get(0).getTaskId());
+        assertEquals("Deleted task should be reported", Arrays.asList(deleted.getTaskId()), changes.getDeletedTaskIds());
+        assertEquals("Each write should take the next sequence", since + 3, changes.getSequence());
+
+        // Nothing changed after the returned sequence
+        TaskChanges none = taskDao.findChanges(testUser.getUserId(), changes.getSequence());
+        assertTrue(none.getTasks().isEmpty());
+        assertTrue(none.getDeletedTaskIds().isEmpty());
+
+        // Another user sees none of these changes
+        TaskChanges other = taskDao.findChanges(testUser.getUserId() + 100000, since);
+        assertTrue(other.getTasks().isEmpty());
+        assertTrue(other.getDeletedTaskIds().isEmpty());
+    }
+
+    @Test
+    public void testFindChangesAfterLateCommit() throws Exception {
+        taskDao.insert(testTask);
+        long since = taskDao.findChanges(testUser.getUserId(), null).getSequence();
+
+        // A write that takes its sequence and a stale modified_date, but commits only after the next sync
+        try (Connection conn = DBUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            try {
+                stmt.executeUpdate("UPDATE users SET change_seq = change_seq + 1 WHERE user_id = " + testUser.getUserId());
+                stmt.executeUpdate("UPDATE tasks SET title = 'Late', modified_date = '2020-01-01 00:00:00', "
+                        + "change_seq = (SELECT change_seq FROM users WHERE user_id = " + testUser.getUserId() + ") "
+                        + "WHERE task_id = " + testTask.getTaskId());
+
+                TaskChanges before = taskDao.findChanges(testUser.getUserId(), since);
+                assertTrue("Uncommitted write should not be visible", before.getTasks().isEmpty());
+                assertEquals("Uncommitted sequence should not be handed out", since, before.getSequence());
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+
+        // The next sync from the returned sequence still sees the write
+        TaskChanges changes = taskDao.findChanges(testUser.getUserId(), since);
+        assertEquals(1, changes.getTasks().size());
+        assertEquals("Late", changes.getTasks().get(0).getTitle());
+    }
+
+    @Test
+    public void testFindChangesAfterCategoryDelete() {
+        taskDao.insert(testTask);
+        long since = taskDao.findChanges(testUser.getUserId(), null).getSequence();
+        assertTrue(taskDao.findChanges(testUser.getUserId(), since).getTasks().isEmpty());
+
+        categoryDao.delete(testCategory.getCategoryId());
+
+        TaskChanges changes = taskDao.findChanges(testUser.getUserId(), since);
+        assertEquals("Task detached from the deleted category should be reported", 1, changes.getTasks().size());
+        assertEquals(0, (int) changes.getTasks().get(0).getCategoryId());
+    }
+
+    @Test
+    public void testPurgeTombstones() {
+        taskDao.insert(testTask);
+        long since = taskDao.findChanges(testUser.getUserId(), null).getSequence();
+        taskDao.delete(testTask.getTaskId(), testUser.getUserId());
+
+        // Tombstones newer than the cutoff are kept
+        taskDao.purgeTombstones(new Date(System.currentTimeMillis() - 60000));
+        assertEquals(1, taskDao.findChanges(testUser.getUserId(), since).getDeletedTaskIds().size());
+
+        taskDao.purgeTombstones(new Date(System.currentTimeMillis() + 60000));
+        assertTrue(taskDao.findChanges(testUser.getUserId(), since).getDeletedTaskIds().isEmpty());
+    }
+
     @Test
     public void testFindById() {
         // First insert the task
@@ -172,7 +298,7 @@ public class TaskDaoTest {
         secondTask.setContent("Second test task");
         secondTask.setPriority(2);
         secondTask.setStatus(0);
-        secondTask.setDueDate(new Date());
+        secondTask.setDueDate(LocalDate.now());
         taskDao.insert(secondTask);
 
         // Find tasks by user ID
@@ -188,6 +314,30 @@ public class TaskDaoTest {
         }
     }
 
+    @Test
+    public void testListReturnsSummary() {
+        // Insert a task with content longer than the preview
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < Task.PREVIEW_LENGTH * 3; i++) {
+            content.append(i % 10);
+        }
+        testTask.setContent(content.toString());
+        taskDao.insert(testTask);
+
+        // List views only carry a truncated preview
+        Task summary = taskDao.findByUserId(testUser.getUserId()).get(0);
+        assertEquals(testTask.getTitle(), summary.getTitle());
+        assertNull("List should not load full content", summary.getContent());
+        assertEquals(content.substring(0, Task.PREVIEW_LENGTH), summary.getDescription());
+        TaskQuery query = new TaskQuery(testUser.getUserId());
+        assertEquals(Task.PREVIEW_LENGTH, taskDao.query(query).get(0).getDescription().length());
+
+        // Detail loads the full body
+        Task detail = taskDao.findById(testTask.getTaskId());
+        assertEquals(content.toString(), detail.getContent());
+        assertEquals(content.toString(), detail.getDescription());
+    }
+
     @Test
     public void testFindByCategoryId() {
         // Insert the test task
@@ -248,13 +398,8 @@ public class TaskDaoTest {
         taskDao.insert(testTask);
 
         // Create date range (yesterday to tomorrow)
-        Calendar cal = Calendar.getInstance();
-        cal.add(Calendar.DAY_OF_MONTH, -1);
-        Date startDate = cal.getTime();
-
-        cal = Calendar.getInstance();
-        cal.add(Calendar.DAY_OF_MONTH, 1);
-        Date endDate = cal.getTime();
+        LocalDate startDate = LocalDate.now().minusDays(1);
+        LocalDate endDate = LocalDate.now().plusDays(1);
 
         // Find tasks by date range
         List<Task> tasks = taskDao.findByDateRange(testUser.getUserId(), startDate, endDate);
@@ -275,9 +420,13 @@ public class TaskDaoTest {
         taskDao.insert(testTask);
 
         // Update status to completed (1)
-        int result = taskDao.updateStatus(testTask.getTaskId(), 1);
+        int result = taskDao.updateStatus(testTask.getTaskId(), testUser.getUserId(), 1);
         assertTrue("Status update should succeed", result > 0);
 
+        // Another user cannot change the status
+        assertEquals("Status update by another user should affect no rows",
+                0, taskDao.updateStatus(testTask.getTaskId(), testUser.getUserId() + 100000, 2));
+
         // Verify update
         Task updated = taskDao.findById(testTask.getTaskId());
         assertEquals("Task status should be updated", 1, (int)updated.getStatus());
@@ -293,7 +442,7 @@ public class TaskDaoTest {
         searchableTask.setContent("This content contains SEARCHKEYWORD for testing");
         searchableTask.setPriority(1);
         searchableTask.setStatus(0);
-        searchableTask.setDueDate(new Date());
+        searchableTask.setDueDate(LocalDate.now());
         taskDao.insert(searchableTask);
 
         // Search for tasks with the keyword
@@ -315,6 +464,27 @@ public class TaskDaoTest {
         assertTrue("Should find task with the search keyword", foundKeyword);
     }
 
+    @Test
+    public void testSearchRanksAndLimits() {
+        // Title matches and content matches, plus more tasks than the search limit
+        List<Task> tasks = new java.util.ArrayList<>();
+        for (int i = 0; i <= TaskDaoImpl.SEARCH_LIMIT; i++) {
+            Task task = new Task(testUser.getUserId(), null, "季度报告 " + i, "周会纪要", 1, LocalDate.now());
+            tasks.add(task);
+        }
+        taskDao.insertBatch(tasks);
+
+        // Search with a two-character keyword and a one-character keyword (LIKE fallback)
+        List<Task> found = taskDao.search(testUser.getUserId(), "报告");
+        List<Task> shortKeyword = taskDao.search(testUser.getUserId(), "纪");
+
+        // Verify
+        assertEquals(TaskDaoImpl.SEARCH_LIMIT, found.size());
+        assertTrue(found.get(0).getTitle().contains("报告"));
+        assertEquals(TaskDaoImpl.SEARCH_LIMIT, shortKeyword.size());
+        assertTrue(taskDao.search(testUser.getUserId(), "不存在的关键词").isEmpty());
+    }
+
     @Test
     public void testCountByStatus() {
         // Insert task with status 0
@@ -328,7 +498,7 @@ public class TaskDaoTest {
         completedTask.setContent("Completed task content");
         completedTask.setPriority(1);
         completedTask.setStatus(1); // Completed
-        completedTask.setDueDate(new Date());
+        completedTask.setDueDate(LocalDate.now());
         taskDao.insert(completedTask);
 
         // Count tasks with status 0 (not completed)
@@ -343,4 +513,279 @@ public class TaskDaoTest {
         // Verify
         assertTrue("Should find at least one task with status 1", count >= 1);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCountGroupByStatus() {
+        // Insert two open tasks and one completed task
+        for (int status : new int[]{0, 0, 2}) {
+            Task task = new Task();
+            task.setUserId(testUser.getUserId());
+            task.setTitle("CountTask_" + status);
+            task.setPriority(1);
+            task.setStatus(status);
+            task.setDueDate(LocalDate.now());
+            taskDao.insert(task);
+        }
+
+        Map<Integer, Integer> counts = taskDao.countGroupByStatus(testUser.getUserId());
+
+        assertEquals(2, counts.size());
+        assertEquals(Integer.valueOf(2), counts.get(0));
+        assertEquals(Integer.valueOf(1), counts.get(2));
+        assertNull("Statuses without tasks are absent", counts.get(1));
+    }
+
+    @Test
+    public void testStats() {
+        // Wednesday; the week ends on Sunday 2024-06-09
+        LocalDate today = LocalDate.of(2024, 6, 5);
+        Object[][] rows = {
+                // status, priority, categorized, due date
+                {0, 1, true, LocalDate.of(2024, 6, 1)},
+                {0, 3, false, today},
+                {1, 3, true, LocalDate.of(2024, 6, 9)},
+                {2, 1, true, LocalDate.of(2024, 6, 1)},
+                {0, 2, false, LocalDate.of(2024, 6, 10)}};
+        for (Object[] row : rows) {
+            Task task = new Task();
+            task.setUserId(testUser.getUserId());
+            task.setCategoryId((Boolean) row[2] ? testCategory.getCategoryId() : null);
+            task.setTitle("StatsTask");
+            task.setStatus((Integer) row[0]);
+            task.setPriority((Integer) row[1]);
+            task.setDueDate((LocalDate) row[3]);
+            taskDao.insert(task);
+        }
+
+        TaskStats stats = taskDao.stats(testUser.getUserId(), today);
+
+        assertEquals(5, stats.getTotal());
+        assertEquals(Integer.valueOf(3), stats.getByStatus().get(0));
+        assertEquals(Integer.valueOf(1), stats.getByStatus().get(1));
+        assertEquals(Integer.valueOf(1), stats.getByStatus().get(2));
+        assertEquals(Integer.valueOf(2), stats.getByPriority().get(1));
+        assertEquals(Integer.valueOf(1), stats.getByPriority().get(2));
+        assertEquals(Integer.valueOf(2), stats.getByPriority().get(3));
+        assertEquals(Integer.valueOf(3), stats.getByCategory().get(testCategory.getCategoryId()));
+        assertEquals(2, stats.getUncategorized());
+        // The completed task is not overdue
+        assertEquals(1, stats.getOverdue());
+        assertEquals(1, stats.getDueToday());
+        assertEquals(2, stats.getDueThisWeek());
+    }
+
+    @Test
+    public void testFindPageByUserId() {
+        // Insert five tasks for the same user
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task();
+            task.setUserId(testUser.getUserId());
+            task.setCategoryId(testCategory.getCategoryId());
+            task.setTitle("PagedTask_" + i);
+            task.setContent("Paged task content");
+            task.setPriority(1 + i % 3);
+            task.setStatus(0);
+            task.setDueDate(LocalDate.now());
+            taskDao.insert(task);
+        }
+
+        // Walk the pages two at a time
+        List<Task> firstPage = taskDao.findPageByUserId(testUser.getUserId(), null, 2);
+        assertEquals("First page should contain 2 tasks", 2, firstPage.size());
+
+        TaskCursor cursor = TaskCursor.after(firstPage.get(1));
+        List<Task> secondPage = taskDao.findPageByUserId(testUser.getUserId(), cursor, 2);
+        assertEquals("Second page should contain 2 tasks", 2, secondPage.size());
+
+        cursor = TaskCursor.after(secondPage.get(1));
+        List<Task> lastPage = taskDao.findPageByUserId(testUser.getUserId(), cursor, 2);
+        assertEquals("Last page should contain the remaining task", 1, lastPage.size());
+
+        // Verify pages do not overlap and follow the full listing order
+        List<Task> all = taskDao.findByUserId(testUser.getUserId());
+        assertEquals(all.get(0).getTaskId(), firstPage.get(0).getTaskId());
+        assertEquals(all.get(2).getTaskId(), secondPage.get(0).getTaskId());
+        assertEquals(all.get(4).getTaskId(), lastPage.get(0).getTaskId());
+    }
+
+    @Test
+    public void testQuery() {
+        // Insert a matching task and one with a different status
+        testTask.setTitle("QueryKeyword Task");
+        testTask.setPriority(3);
+        taskDao.insert(testTask);
+
+        Task otherTask = new Task();
+        otherTask.setUserId(testUser.getUserId());
+        otherTask.setCategoryId(testCategory.getCategoryId());
+        otherTask.setTitle("QueryKeyword Other");
+        otherTask.setContent("Other content");
+        otherTask.setPriority(3);
+        otherTask.setStatus(2);
+        otherTask.setDueDate(LocalDate.now());
+        taskDao.insert(otherTask);
+
+        // Combine status, priority, category and keyword in one query
+        TaskQuery query = new TaskQuery(testUser.getUserId());
+        query.getStatuses().add(0);
+        query.getStatuses().add(1);
+        query.getPriorities().add(3);
+        query.getCategoryIds().add(testCategory.getCategoryId());
+        query.setKeyword("QueryKeyword");
+        query.setLimit(10);
+        List<Task> tasks = taskDao.query(query);
+
+        // Verify only the matching task is returned
+        assertEquals("Should find exactly 1 task", 1, tasks.size());
+        assertEquals(testTask.getTaskId(), tasks.get(0).getTaskId());
+    }
+
+    @Test
+    public void testInsertBatch() {
+        Task second = new Task();
+        second.setUserId(testUser.getUserId());
+        second.setTitle("TestTask_" + UUID.randomUUID().toString().substring(0, 8));
+        second.setContent("Task without category");
+        second.setPriority(2);
+        second.setStatus(0);
+        second.setDueDate(LocalDate.now());
+
+        int result = taskDao.insertBatch(Arrays.asList(testTask, second));
+        assertEquals("Both tasks should be inserted", 2, result);
+        assertNotNull("Generated ID should be set", testTask.getTaskId());
+        assertNotNull("Generated ID should be set", second.getTaskId());
+        assertNotEquals(testTask.getTaskId(), second.getTaskId());
+
+        Task found = taskDao.findById(second.getTaskId());
+        assertEquals(second.getTitle(), found.getTitle());
+        assertEquals("Category should stay empty", 0, (int) found.getCategoryId());
+    }
+
+    @Test
+    public void testUpdateStatusBatch() {
+        Task second = new Task();
+        second.setUserId(testUser.getUserId());
+        second.setCategoryId(testCategory.getCategoryId());
+        second.setTitle("TestTask_" + UUID.randomUUID().toString().substring(0, 8));
+        second.setPriority(1);
+        second.setStatus(0);
+        second.setDueDate(LocalDate.now());
+        taskDao.insertBatch(Arrays.asList(testTask, second));
+
+        Task first = new Task();
+        first.setTaskId(testTask.getTaskId());
+        first.setStatus(2);
+        Task other = new Task();
+        other.setTaskId(second.getTaskId());
+        other.setStatus(1);
+
+        int result = taskDao.updateStatusBatch(testUser.getUserId(), Arrays.asList(first, other));
+        assertEquals("Both statuses should be updated", 2, result);
+        assertEquals(2, (int) taskDao.findById(testTask.getTaskId()).getStatus());
+        assertEquals(1, (int) taskDao.findById(second.getTaskId()).getStatus());
+
+        // Tasks of another user must not be touched
+        first.setStatus(0);
+        result = taskDao.updateStatusBatch(testUser.getUserId() + 100000, Arrays.asList(first));
+        assertEquals("No task should be updated for another user", 0, result);
+        assertEquals(2, (int) taskDao.findById(testTask.getTaskId()).getStatus());
+    }
+
+    @Test
+    public void testCountersFollowWrites() {
+        taskDao.insert(testTask);
+        Task second = new Task();
+        second.setUserId(testUser.getUserId());
+        second.setTitle("CounterTask");
+        second.setPriority(2);
+        second.setStatus(0);
+        second.setDueDate(LocalDate.now());
+        taskDao.insertBatch(Arrays.asList(second));
+        assertCountersMatchTasks();
+
+        // Move the task to another category, priority and status
+        testTask.setCategoryId(null);
+        testTask.setPriority(3);
+        testTask.setStatus(1);
+        taskDao.update(testTask);
+        assertCountersMatchTasks();
+
+        taskDao.updateStatus(second.getTaskId(), testUser.getUserId(), 2);
+        Task first = new Task();
+        first.setTaskId(testTask.getTaskId());
+        first.setStatus(0);
+        Task again = new Task();
+        again.setTaskId(testTask.getTaskId());
+        again.setStatus(2);
+        taskDao.updateStatusBatch(testUser.getUserId(), Arrays.asList(first, again));
+        assertCountersMatchTasks();
+        assertEquals(Integer.valueOf(2), taskDao.countGroupByStatus(testUser.getUserId()).get(2));
+
+        // Writes rejected for another user leave the counters untouched
+        second.setUserId(testUser.getUserId() + 100000);
+        assertEquals(0, taskDao.update(second));
+        assertEquals(0, taskDao.delete(testTask.getTaskId(), testUser.getUserId() + 100000));
+        assertCountersMatchTasks();
+
+        taskDao.delete(testTask.getTaskId(), testUser.getUserId());
+        assertCountersMatchTasks();
+        assertEquals(1, taskDao.countByStatus(testUser.getUserId(), 2));
+    }
+
+    @Test
+    public void testCountersFollowCategoryDelete() {
+        taskDao.insert(testTask);
+        categoryDao.delete(testCategory.getCategoryId());
+
+        assertCountersMatchTasks();
+        TaskStats stats = taskDao.stats(testUser.getUserId(), LocalDate.now());
+        assertTrue(stats.getByCategory().isEmpty());
+        assertEquals(1, stats.getUncategorized());
+    }
+
+    @Test
+    public void testReconcileCounters() throws Exception {
+        taskDao.insert(testTask);
+        assertEquals("Counters maintained by the DAO have no drift", 0, taskDao.reconcileCounters(testUser.getUserId()));
+
+        // Writes that bypass the DAO leave the counters behind
+        try (Connection conn = DBUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT INTO tasks (user_id, title, priority, due_date, status) VALUES ("
+                    + testUser.getUserId() + ", 'Raw', 2, '2024-06-01', 1)");
+            stmt.executeUpdate("UPDATE task_counters SET task_count = task_count + 5 WHERE user_id = "
+                    + testUser.getUserId());
+            stmt.executeUpdate("INSERT INTO task_counters (user_id, category_id, status, priority, task_count) VALUES ("
+                    + testUser.getUserId() + ", 0, 0, 3, 0)");
+        }
+
+        // One row too high, one row missing; the empty row is removed without counting as drift
+        assertEquals(2, taskDao.reconcileCounters(testUser.getUserId()));
+        assertCountersMatchTasks();
+        assertEquals(0, taskDao.reconcileCounters(testUser.getUserId()));
+        assertEquals(2, taskDao.stats(testUser.getUserId(), LocalDate.now()).getTotal());
+    }
+
+    private void assertCountersMatchTasks() {
+        Integer userId = testUser.getUserId();
+        assertEquals("Counters should match the tasks table",
+                queryCounts("SELECT COALESCE(category_id, 0), status, priority, COUNT(*) FROM tasks WHERE user_id = "
+                        + userId + " GROUP BY category_id, status, priority"),
+                queryCounts("SELECT category_id, status, priority, task_count FROM task_counters WHERE user_id = "
+                        + userId + " AND task_count <> 0"));
+    }
+
+    private Map<String, Integer> queryCounts(String sql) {
+        Map<String, Integer> counts = new TreeMap<>();
+        try (Connection conn = DBUtil.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                counts.put(rs.getInt(1) + ":" + rs.getInt(2) + ":" + rs.getInt(3), rs.getInt(4));
+            }
+        } catch (Exception e) {
+            fail("Query failed: " + e.getMessage());
+        }
+        return counts;
+    }
+}
@@ -9,6 +9,9 @@ import static org.junit.Assert.*;
 
 import java.sql.Connection;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 public class UserDaoTest {
@@ -65,6 +68,35 @@ public class UserDaoTest {
         assertEquals("用户名应该匹配", testUser.getUsername(), found.getUsername());
     }
 
+    @Test
+    public void testFindByEmail() {
+        userDao.insert(testUser);
+        User found = userDao.findByEmail(testUser.getEmail());
+        assertNotNull("应该能根据邮箱找到用户", found);
+        assertEquals("用户名应该匹配", testUser.getUsername(), found.getUsername());
+        assertTrue("邮箱应该存在", userDao.existsByEmail(testUser.getEmail()));
+        assertFalse("不存在的邮箱应该返回false", userDao.existsByEmail("missing_" + testUser.getEmail()));
+        assertTrue("用户总数应该大于0", userDao.countAll() > 0);
+    }
+
+    @Test
+    public void testStreamIdentities() {
+        userDao.insert(testUser);
+        List<String> usernames = new ArrayList<>();
+        int count = userDao.streamIdentities((username, email) -> usernames.add(username));
+        assertEquals("应该读取所有用户", userDao.countAll(), count);
+        assertTrue("应该包含新插入的用户", usernames.contains(testUser.getUsername()));
+    }
+
+    @Test
+    public void testFindIdsAfter() {
+        userDao.insert(testUser);
+        Integer userId = testUser.getUserId();
+        assertEquals("应该从指定ID之后开始", Collections.singletonList(userId),
+                userDao.findIdsAfter(userId - 1, 1));
+        assertFalse("不应该包含指定的ID", userDao.findIdsAfter(userId, 10).contains(userId));
+    }
+
     @Test
     public void testUpdate() {
         // 先插入用户
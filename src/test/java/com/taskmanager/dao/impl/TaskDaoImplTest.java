@@ -0,0 +1,24 @@
+package com.taskmanager.dao.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TaskDaoImplTest {
+
+    @Test
+    public void testToPhrase() {
+        assertEquals("\"季度报告\"", TaskDaoImpl.toPhrase(" 季度报告 "));
+        assertEquals("\"report  draft\"", TaskDaoImpl.toPhrase("report \"draft\""));
+        // 双引号不能结束短语，去掉后按空格处理
+        assertEquals("\"a b\"", TaskDaoImpl.toPhrase("a\"b"));
+    }
+
+    @Test
+    public void testToPhraseTooShort() {
+        // 短于ngram_token_size的关键词使用LIKE
+        assertNull(TaskDaoImpl.toPhrase("报"));
+        assertNull(TaskDaoImpl.toPhrase(" \" "));
+        assertNull(TaskDaoImpl.toPhrase(new String(Character.toChars(0x1F4C5))));
+    }
+}
@@ -0,0 +1,186 @@
+package com.taskmanager.dao.impl;
+
+import com.taskmanager.bean.Category;
+import com.taskmanager.bean.Task;
+import com.taskmanager.bean.TaskCursor;
+import com.taskmanager.bean.TaskQuery;
+import com.taskmanager.bean.User;
+import com.taskmanager.util.DBUtil;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+// 用EXPLAIN检查TaskDaoImpl的查询都使用索引且不需要filesort
+// 只在MySQL上执行，H2的执行计划不能反映MySQL的索引选择；多值IN条件和非默认的排序方向不在检查范围内
+public class TaskQueryPlanTest {
+    private static final int TASKS = 500;
+
+    private TaskDaoImpl taskDao;
+    private User testUser;
+    private Category testCategory;
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeTrue("只在MySQL上检查执行计划", DBUtil.isMySQL());
+        taskDao = new TaskDaoImpl();
+
+        testUser = new User();
+        testUser.setUsername("plan_" + UUID.randomUUID().toString().substring(0, 8));
+        testUser.setPassword("testpass");
+        testUser.setStatus(1);
+        new UserDaoImpl().insert(testUser);
+
+        testCategory = new Category(testUser.getUserId(), "plan", null);
+        new CategoryDaoImpl().insert(testCategory);
+
+        // 数据太少时优化器会直接全表扫描，先生成一批任务并更新统计信息
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task(testUser.getUserId(), i % 2 == 0 ? testCategory.getCategoryId() : null,
+                    "任务" + i, "内容" + i, i % 4 + 1, LocalDate.of(2024, 1, 1).plusDays(i % 90));
+            task.setStatus(i % 3);
+            tasks.add(task);
+        }
+        taskDao.insertBatch(tasks);
+        try (Connection conn = DBUtil.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE TABLE tasks");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (testUser == null || testUser.getUserId() == null) {
+            return;
+        }
+        try (Connection conn = DBUtil.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM tasks WHERE user_id = " + testUser.getUserId());
+            stmt.executeUpdate("DELETE FROM categories WHERE user_id = " + testUser.getUserId());
+            stmt.executeUpdate("DELETE FROM users WHERE user_id = " + testUser.getUserId());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // 执行EXPLAIN，检查tasks表的每一步都走索引且没有filesort
+    private void assertIndexed(String sql, Object... params) throws Exception {
+        try (Connection conn = DBUtil.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next());
+                do {
+                    String extra = rs.getString("Extra");
+                    assertNotNull("未使用索引：" + sql, rs.getString("key"));
+                    assertFalse("需要filesort：" + sql, extra != null && extra.contains("Using filesort"));
+                    assertFalse("需要临时表：" + sql, extra != null && extra.contains("Using temporary"));
+                } while (rs.next());
+            }
+        }
+    }
+
+    // 执行EXPLAIN，检查使用了全文索引；按相关度排序需要对匹配的行排序，不检查filesort
+    private void assertFullText(String sql, Object... params) throws Exception {
+        try (Connection conn = DBUtil.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("未使用全文索引：" + sql, "fulltext", rs.getString("type"));
+                assertEquals(TaskDaoImpl.FULL_TEXT_INDEX, rs.getString("key"));
+            }
+        }
+    }
+
+    private TaskQuery query() {
+        return new TaskQuery(testUser.getUserId());
+    }
+
+    @Test
+    public void testFinders() throws Exception {
+        Integer userId = testUser.getUserId();
+        java.sql.Date dueDate = java.sql.Date.valueOf("2024-02-01");
+
+        assertIndexed(TaskDaoImpl.FIND_BY_USER_SQL, userId);
+        assertIndexed(TaskDaoImpl.FIND_BY_CATEGORY_SQL, testCategory.getCategoryId());
+        assertIndexed(TaskDaoImpl.FIND_CHANGES_SQL, userId, 0L, 10L);
+        assertIndexed(TaskDaoImpl.FIND_DELETED_SQL, userId, 0L, 10L);
+        assertIndexed(TaskDaoImpl.COUNT_BY_STATUS_SQL, userId, 1);
+        assertIndexed(TaskDaoImpl.COUNT_GROUP_BY_STATUS_SQL, userId);
+        assertIndexed(TaskDaoImpl.pageSql(null), userId, 20);
+        assertIndexed(TaskDaoImpl.pageSql(new TaskCursor(LocalDate.of(2024, 2, 1), 2, 100)),
+                userId, dueDate, dueDate, dueDate, 2, 2, 100, 20);
+        assertIndexed(TaskDaoImpl.pageSql(new TaskCursor(null, 2, 100)), userId, 2, 2, 100, 20);
+    }
+
+    @Test
+    public void testQueries() throws Exception {
+        Integer userId = testUser.getUserId();
+
+        TaskQuery byStatus = query();
+        byStatus.getStatuses().add(1);
+        assertIndexed(taskDao.compileQuery(byStatus), userId, 1);
+
+        TaskQuery byPriority = query();
+        byPriority.getPriorities().add(3);
+        assertIndexed(taskDao.compileQuery(byPriority), userId, 3);
+
+        TaskQuery byCategory = query();
+        byCategory.getCategoryIds().add(testCategory.getCategoryId());
+        assertIndexed(taskDao.compileQuery(byCategory), userId, testCategory.getCategoryId());
+
+        TaskQuery byDate = query();
+        byDate.setStartDate(LocalDate.of(2024, 1, 10));
+        byDate.setEndDate(LocalDate.of(2024, 1, 20));
+        assertIndexed(taskDao.compileQuery(byDate), userId,
+                java.sql.Date.valueOf("2024-01-10"), java.sql.Date.valueOf("2024-01-20"));
+
+        // 单个字符的关键词使用LIKE，在用户的任务中按索引顺序过滤
+        TaskQuery byKeyword = query();
+        byKeyword.setKeyword("任");
+        assertIndexed(taskDao.compileQuery(byKeyword), userId, "%任%", "%任%");
+
+        TaskQuery byPriorityOrder = query();
+        byPriorityOrder.setSortField(TaskQuery.SortField.PRIORITY);
+        assertIndexed(taskDao.compileQuery(byPriorityOrder), userId);
+
+        TaskQuery byCreated = query();
+        byCreated.setSortField(TaskQuery.SortField.CREATED_DATE);
+        byCreated.setLimit(20);
+        assertIndexed(taskDao.compileQuery(byCreated), userId, 20);
+    }
+
+    @Test
+    public void testFullTextSearch() throws Exception {
+        Assume.assumeTrue("全文索引未建立", TaskDaoImpl.FULL_TEXT);
+        Integer userId = testUser.getUserId();
+        String phrase = TaskDaoImpl.toPhrase("任务");
+
+        TaskQuery byRelevance = query();
+        byRelevance.setKeyword("任务");
+        byRelevance.setSortField(TaskQuery.SortField.RELEVANCE);
+        byRelevance.setLimit(TaskDaoImpl.SEARCH_LIMIT);
+        assertFullText(taskDao.compileQuery(byRelevance), userId, phrase, phrase, TaskDaoImpl.SEARCH_LIMIT);
+
+        TaskQuery byKeyword = query();
+        byKeyword.setKeyword("任务");
+        assertFullText(taskDao.compileQuery(byKeyword), userId, phrase);
+    }
+}
@@ -0,0 +1,230 @@
+package com.taskmanager.filter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class CompressionFilterTest {
+    private CompressionFilter filter;
+    private ByteArrayOutputStream body;
+
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private FilterChain chain;
+
+    // 把写出的字节保存在内存中的输出流
+    private static class CapturingOutputStream extends ServletOutputStream {
+        private final ByteArrayOutputStream bytes;
+
+        CapturingOutputStream(ByteArrayOutputStream bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void write(int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        filter = new CompressionFilter();
+        body = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(new CapturingOutputStream(body));
+        when(response.getContentType()).thenReturn("application/json;charset=UTF-8");
+        when(response.getCharacterEncoding()).thenReturn("UTF-8");
+        when(response.getStatus()).thenReturn(200);
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip, deflate, br");
+    }
+
+    private String json(int tasks) {
+        StringBuilder json = new StringBuilder("{\"success\":true,\"tasks\":[");
+        for (int i = 0; i < tasks; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"taskId\":").append(i).append(",\"title\":\"任务标题\",\"priority\":2}");
+        }
+        return json.append("]}").toString();
+    }
+
+    // 模拟Servlet：通过getWriter写出JSON
+    private void respondWith(String content) throws Exception {
+        doAnswer(invocation -> {
+            PrintWriter out = ((HttpServletResponse) invocation.getArgument(1)).getWriter();
+            out.print(content);
+            out.flush();
+            return null;
+        }).when(chain).doFilter(any(), any());
+    }
+
+    private static String gunzip(byte[] data) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testLargeJsonCompressed() throws Exception {
+        // 准备测试数据
+        String content = json(200);
+        respondWith(content);
+
+        // 执行测试
+        filter.doFilter(request, response, chain);
+
+        // 验证结果
+        verify(response).setHeader("Content-Encoding", "gzip");
+        verify(response).addHeader("Vary", "Accept-Encoding");
+        assertTrue("压缩后应明显变小", body.size() < content.getBytes(StandardCharsets.UTF_8).length / 4);
+        assertEquals(content, gunzip(body.toByteArray()));
+    }
+
+    @Test
+    public void testSmallJsonNotCompressed() throws Exception {
+        // 准备测试数据
+        String content = json(1);
+        respondWith(content);
+
+        // 执行测试
+        filter.doFilter(request, response, chain);
+
+        // 验证结果：原样输出并设置长度
+        verify(response, never()).setHeader(eq("Content-Encoding"), anyString());
+        verify(response).setContentLength(content.getBytes(StandardCharsets.UTF_8).length);
+        assertEquals(content, new String(body.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testGzipNotAccepted() throws Exception {
+        // 准备测试数据
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip;q=0, br");
+
+        // 执行测试
+        filter.doFilter(request, response, chain);
+
+        // 验证结果：不包装响应
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    public void testEventStreamNotWrapped() throws Exception {
+        // 准备测试数据
+        when(request.getHeader("Accept")).thenReturn("text/event-stream");
+
+        // 执行测试
+        filter.doFilter(request, response, chain);
+
+        // 验证结果
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    public void testNonJsonNotBuffered() throws Exception {
+        // 准备测试数据
+        when(response.getContentType()).thenReturn("text/plain;charset=UTF-8");
+        doAnswer(invocation -> {
+            ServletOutputStream out = ((HttpServletResponse) invocation.getArgument(1)).getOutputStream();
+            out.write("data".getBytes(StandardCharsets.UTF_8));
+            // 写入后立即到达底层输出流
+            assertEquals(4, body.size());
+            return null;
+        }).when(chain).doFilter(any(), any());
+
+        // 执行测试
+        filter.doFilter(request, response, chain);
+
+        // 验证结果
+        verify(response, never()).setHeader(eq("Content-Encoding"), anyString());
+        assertEquals("data", new String(body.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testAsyncFinishedByServlet() throws Exception {
+        // 准备测试数据：filter返回时请求仍在异步处理中
+        String content = json(200);
+        HttpServletResponse[] wrapped = new HttpServletResponse[1];
+        doAnswer(invocation -> {
+            wrapped[0] = invocation.getArgument(1);
+            wrapped[0].getWriter().print(content);
+            return null;
+        }).when(chain).doFilter(any(), any());
+        when(request.isAsyncStarted()).thenReturn(true);
+
+        // 执行测试
+        filter.doFilter(request, response, chain);
+        byte[] beforeFinish = body.toByteArray();
+        CompressionFilter.finishResponse(wrapped[0]);
+        CompressionFilter.finishResponse(wrapped[0]);
+
+        // 验证结果：finishResponse之前gzip流尚未结束，之后可以完整解压
+        assertTrue(beforeFinish.length < body.size());
+        assertEquals(content, gunzip(body.toByteArray()));
+    }
+
+    @Test
+    public void testResetDiscardsCompressedOutput() throws Exception {
+        // 准备测试数据：写出大量数据后重置，改为写出错误信息（如AsyncApiServlet返回503）
+        String error = "{\"success\":false,\"message\":\"服务器繁忙，请稍后再试\"}";
+        doAnswer(invocation -> {
+            HttpServletResponse wrapper = invocation.getArgument(1);
+            wrapper.getWriter().print(json(200));
+            wrapper.reset();
+            body.reset();
+            wrapper.getWriter().print(error);
+            return null;
+        }).when(chain).doFilter(any(), any());
+
+        // 执行测试
+        filter.doFilter(request, response, chain);
+
+        // 验证结果
+        assertEquals(error, new String(body.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testAcceptsGzip() {
+        assertTrue(CompressionFilter.acceptsGzip("gzip"));
+        assertTrue(CompressionFilter.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertFalse(CompressionFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(CompressionFilter.acceptsGzip("br, deflate"));
+        assertFalse(CompressionFilter.acceptsGzip(null));
+    }
+}
@@ -3,6 +3,7 @@ package com.taskmanager.service;
 import com.taskmanager.bean.Category;
 import com.taskmanager.dao.CategoryDao;
 import com.taskmanager.service.impl.CategoryServiceImpl;
+import com.taskmanager.util.UserVersions;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -96,16 +97,38 @@ public class CategoryServiceTest {
     public void testDeleteCategory_Success() {
         // 准备测试数据
         Integer categoryId = 1;
+        Category category = new Category();
+        category.setCategoryId(categoryId);
+        category.setUserId(1);
+        UserVersions versions = UserVersions.getInstance();
+        long ownerVersion = versions.get(1);
+        long otherVersion = versions.get(2);
 
         // 模拟DAO层行为
+        when(categoryDao.findById(categoryId)).thenReturn(category);
         when(categoryDao.delete(categoryId)).thenReturn(1);
 
         // 执行测试
         boolean result = categoryService.deleteCategory(categoryId);
 
-        // 验证结果
+        // 验证结果：只有分类所属用户的版本号变化
         assertTrue(result);
         verify(categoryDao).delete(categoryId);
+        assertTrue(versions.get(1) > ownerVersion);
+        assertEquals(otherVersion, versions.get(2));
+    }
+
+    @Test
+    public void testDeleteCategory_NotFound() {
+        // 模拟DAO层行为
+        when(categoryDao.findById(1)).thenReturn(null);
+
+        // 执行测试
+        boolean result = categoryService.deleteCategory(1);
+
+        // 验证结果
+        assertFalse(result);
+        verify(categoryDao, never()).delete(anyInt());
     }
 
     @Test
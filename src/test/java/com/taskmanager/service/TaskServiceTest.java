@@ -1,16 +1,33 @@
 package com.taskmanager.service;
 
+import com.taskmanager.bean.Category;
 import com.taskmanager.bean.Task;
+import com.taskmanager.bean.TaskChanges;
+import com.taskmanager.bean.TaskCursor;
+import com.taskmanager.bean.TaskPage;
+import com.taskmanager.bean.TaskQuery;
+import com.taskmanager.bean.TaskStats;
+import com.taskmanager.dao.CategoryDao;
 import com.taskmanager.dao.TaskDao;
+import com.taskmanager.dao.TaskHandler;
 import com.taskmanager.service.impl.TaskServiceImpl;
+import com.taskmanager.util.TaskCache;
+import com.taskmanager.util.TaskEventBus;
+import com.taskmanager.util.TaskSearchIndex;
+import com.taskmanager.util.TaskSuggester;
+import com.taskmanager.util.UserVersions;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -21,6 +38,15 @@ public class TaskServiceTest {
     @Mock
     private TaskDao taskDao;
 
+    @Mock
+    private CategoryDao categoryDao;
+
+    private TaskCache taskCache;
+
+    private TaskEventBus eventBus;
+
+    private TaskSearchIndex searchIndex;
+
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
@@ -30,6 +56,25 @@ public class TaskServiceTest {
             java.lang.reflect.Field field = TaskServiceImpl.class.getDeclaredField("taskDao");
             field.setAccessible(true);
             field.set(taskService, taskDao);
+            // 每个测试使用独立的缓存，避免测试之间互相影响
+            taskCache = new TaskCache(10, 4, 60000);
+            field = TaskServiceImpl.class.getDeclaredField("taskCache");
+            field.setAccessible(true);
+            field.set(taskService, taskCache);
+            eventBus = new TaskEventBus(16, 4);
+            field = TaskServiceImpl.class.getDeclaredField("eventBus");
+            field.setAccessible(true);
+            field.set(taskService, eventBus);
+            searchIndex = new TaskSearchIndex(10, 1000, 100, 60000, UserVersions.getInstance());
+            field = TaskServiceImpl.class.getDeclaredField("searchIndex");
+            field.setAccessible(true);
+            field.set(taskService, searchIndex);
+            field = TaskServiceImpl.class.getDeclaredField("categoryDao");
+            field.setAccessible(true);
+            field.set(taskService, categoryDao);
+            field = TaskServiceImpl.class.getDeclaredField("suggester");
+            field.setAccessible(true);
+            field.set(taskService, new TaskSuggester(10, 1000, 60000, new UserVersions(16)));
         } catch (Exception e) {
             fail("设置taskDao失败：" + e.getMessage());
         }
@@ -45,7 +90,7 @@ public class TaskServiceTest {
         task.setDescription("测试任务描述");
         task.setPriority(1);
         task.setStatus(0);
-        task.setDueDate(new Date());
+        task.setDueDate(LocalDate.now());
 
         // 模拟DAO层行为
         when(taskDao.insert(any(Task.class))).thenReturn(1);
@@ -67,19 +112,39 @@ public class TaskServiceTest {
         task.setTitle("更新后的任务");
         task.setDescription("更新后的任务描述");
         task.setPriority(1);
-        task.setDueDate(new Date());
+        task.setDueDate(LocalDate.now());
         task.setCategoryId(1);
 
         // 模拟DAO层行为
-        when(taskDao.findById(1)).thenReturn(task);
         when(taskDao.update(any(Task.class))).thenReturn(1);
 
         // 执行测试
         boolean result = taskService.updateTask(task);
 
-        // 验证结果
+        // 验证结果：归属由UPDATE语句校验，不再预先查询
         assertTrue(result);
         verify(taskDao).update(task);
+        verify(taskDao, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testUpdateTask_NotOwned() {
+        // 准备测试数据
+        Task task = new Task();
+        task.setTaskId(1);
+        task.setUserId(2);
+        task.setTitle("更新后的任务");
+        task.setPriority(1);
+        task.setDueDate(LocalDate.now());
+
+        // 模拟DAO层行为：任务不属于该用户，没有行被更新
+        when(taskDao.update(any(Task.class))).thenReturn(0);
+
+        // 执行测试
+        boolean result = taskService.updateTask(task);
+
+        // 验证结果
+        assertFalse(result);
     }
 
     @Test
@@ -88,14 +153,14 @@ public class TaskServiceTest {
         Integer taskId = 1;
 
         // 模拟DAO层行为
-        when(taskDao.delete(taskId)).thenReturn(1);
+        when(taskDao.delete(taskId, 1)).thenReturn(1);
 
         // 执行测试
-        boolean result = taskService.deleteTask(taskId);
+        boolean result = taskService.deleteTask(taskId, 1);
 
         // 验证结果
         assertTrue(result);
-        verify(taskDao).delete(taskId);
+        verify(taskDao).delete(taskId, 1);
     }
 
     @Test
@@ -200,8 +265,8 @@ public class TaskServiceTest {
     public void testGetTasksByDateRange_Success() {
         // 准备测试数据
         Integer userId = 1;
-        Date startDate = new Date();
-        Date endDate = new Date(System.currentTimeMillis() + 86400000); // 明天
+        LocalDate startDate = LocalDate.now();
+        LocalDate endDate = startDate.plusDays(1); // 明天
         List<Task> expectedTasks = new ArrayList<>();
         expectedTasks.add(new Task());
         expectedTasks.add(new Task());
@@ -224,14 +289,14 @@ public class TaskServiceTest {
         Integer status = 1;
 
         // 模拟DAO层行为
-        when(taskDao.updateStatus(taskId, status)).thenReturn(1);
+        when(taskDao.updateStatus(taskId, 1, status)).thenReturn(1);
 
         // 执行测试
-        boolean result = taskService.updateTaskStatus(taskId, status);
+        boolean result = taskService.updateTaskStatus(taskId, 1, status);
 
         // 验证结果
         assertTrue(result);
-        verify(taskDao).updateStatus(taskId, status);
+        verify(taskDao).updateStatus(taskId, 1, status);
     }
 
     @Test
@@ -239,19 +304,129 @@ public class TaskServiceTest {
         // 准备测试数据
         Integer userId = 1;
         String keyword = "测试";
-        List<Task> expectedTasks = new ArrayList<>();
-        expectedTasks.add(new Task());
-        expectedTasks.add(new Task());
+        List<Task> userTasks = new ArrayList<>();
+        userTasks.add(searchableTask(1, userId, "测试任务", "内容"));
+        userTasks.add(searchableTask(2, userId, "其他任务", "需要测试的内容"));
+        userTasks.add(searchableTask(3, userId, "其他任务", "内容"));
 
         // 模拟DAO层行为
-        when(taskDao.search(userId, keyword)).thenReturn(expectedTasks);
+        when(taskDao.findFullByUserId(userId)).thenReturn(userTasks);
 
         // 执行测试
         List<Task> result = taskService.searchTasks(userId, keyword);
 
-        // 验证结果
+        // 验证结果：标题中匹配的任务排在前面，不访问数据库的搜索
         assertNotNull(result);
         assertEquals(2, result.size());
+        assertEquals(Integer.valueOf(1), result.get(0).getTaskId());
+        assertEquals(Integer.valueOf(2), result.get(1).getTaskId());
+        verify(taskDao, never()).search(anyInt(), anyString());
+    }
+
+    @Test
+    public void testSearchTasks_IndexFollowsWrites() {
+        // 准备测试数据
+        Integer userId = 1;
+        List<Task> userTasks = new ArrayList<>();
+        userTasks.add(searchableTask(1, userId, "测试任务", "内容"));
+        when(taskDao.findFullByUserId(userId)).thenReturn(userTasks);
+        assertEquals(1, taskService.searchTasks(userId, "测试").size());
+
+        // 模拟DAO层行为
+        Task created = searchableTask(null, userId, "新的测试", "内容");
+        when(taskDao.insert(created)).thenAnswer(invocation -> {
+            created.setTaskId(2);
+            return 1;
+        });
+        when(taskDao.delete(1, userId)).thenReturn(1);
+
+        // 执行测试
+        taskService.createTask(created);
+        taskService.deleteTask(1, userId);
+        List<Task> result = taskService.searchTasks(userId, "测试");
+
+        // 验证结果：写入增量更新索引，不重新加载
+        assertEquals(1, result.size());
+        assertEquals(Integer.valueOf(2), result.get(0).getTaskId());
+        verify(taskDao, times(1)).findFullByUserId(userId);
+    }
+
+    @Test
+    public void testSearchTasks_FallbackToDatabase() {
+        // 准备测试数据
+        Integer userId = 1;
+        List<Task> expectedTasks = new ArrayList<>();
+        expectedTasks.add(new Task());
+
+        // 模拟DAO层行为：加载失败时改为数据库搜索
+        when(taskDao.findFullByUserId(userId)).thenReturn(null);
+        when(taskDao.search(userId, "测试")).thenReturn(expectedTasks);
+
+        // 执行测试
+        List<Task> result = taskService.searchTasks(userId, "测试");
+
+        // 验证结果
+        assertEquals(1, result.size());
+        verify(taskDao).search(userId, "测试");
+    }
+
+    @Test
+    public void testGetTaskStats_Cached() {
+        // 准备测试数据
+        LocalDate today = LocalDate.of(2024, 6, 5);
+        TaskStats stats = new TaskStats(today);
+        stats.add(0, 1, null, 2, 1, 0, 1);
+
+        // 模拟DAO层行为
+        when(taskDao.stats(1, today)).thenReturn(stats);
+
+        // 执行测试
+        TaskStats first = taskService.getTaskStats(1, today);
+        TaskStats second = taskService.getTaskStats(1, today);
+
+        // 验证结果：第二次读取缓存，写入后失效
+        assertSame(stats, first);
+        assertSame(stats, second);
+        verify(taskDao, times(1)).stats(1, today);
+        when(taskDao.delete(1, 1)).thenReturn(1);
+        taskService.deleteTask(1, 1);
+        taskService.getTaskStats(1, today);
+        verify(taskDao, times(2)).stats(1, today);
+        assertNull(taskService.getTaskStats(null, today));
+    }
+
+    @Test
+    public void testSuggest_Success() {
+        // 准备测试数据
+        Integer userId = 1;
+        Category category = new Category(userId, "周末", null);
+        category.setCategoryId(3);
+        List<Task> userTasks = new ArrayList<>();
+        userTasks.add(searchableTask(1, userId, "周报", "内容"));
+        userTasks.add(searchableTask(2, userId, "买菜", "内容"));
+
+        // 模拟DAO层行为
+        when(taskDao.findByUserId(userId)).thenReturn(userTasks);
+        when(categoryDao.findByUserId(userId)).thenReturn(Arrays.asList(category));
+
+        // 执行测试
+        List<String> result = taskService.suggest(userId, "周");
+
+        // 验证结果
+        assertEquals(Arrays.asList("周报", "周末"), result);
+        assertTrue(taskService.suggest(userId, " ").isEmpty());
+    }
+
+    private Task searchableTask(Integer taskId, Integer userId, String title, String content) {
+        Task task = new Task();
+        task.setTaskId(taskId);
+        task.setUserId(userId);
+        task.setTitle(title);
+        task.setContent(content);
+        task.setPriority(1);
+        task.setDueDate(LocalDate.of(2024, 6, 1));
+        task.setStatus(0);
+        return task;
     }
 
     @Test
@@ -270,6 +445,24 @@ public class TaskServiceTest {
         assertEquals(5, result);
     }
 
+    @Test
+    public void testGetTaskCountsByStatus() {
+        // 准备测试数据
+        Map<Integer, Integer> counts = new HashMap<>();
+        counts.put(0, 3);
+        counts.put(2, 1);
+
+        // 模拟DAO层行为
+        when(taskDao.countGroupByStatus(1)).thenReturn(counts);
+
+        // 执行测试
+        Map<Integer, Integer> result = taskService.getTaskCountsByStatus(1);
+
+        // 验证结果
+        assertEquals(counts, result);
+        assertNull(taskService.getTaskCountsByStatus(null));
+    }
+
     @Test
     public void testIsTaskBelongsToUser_True() {
         // 准备测试数据
@@ -307,4 +500,407 @@ public class TaskServiceTest {
         // 验证结果
         assertFalse(result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetUserTasksPage_HasMore() {
+        // 准备测试数据：返回pageSize+1条，表示还有下一页
+        Integer userId = 1;
+        List<Task> expectedTasks = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Task task = new Task();
+            task.setTaskId(i);
+            task.setPriority(1);
+            task.setDueDate(LocalDate.of(2024, 12, 31));
+            expectedTasks.add(task);
+        }
+
+        // 模拟DAO层行为
+        when(taskDao.findPageByUserId(userId, null, 3)).thenReturn(expectedTasks);
+
+        // 执行测试
+        TaskPage page = taskService.getUserTasksPage(userId, null, 2);
+
+        // 验证结果
+        assertEquals(2, page.getTasks().size());
+        assertTrue(page.isHasMore());
+        TaskCursor cursor = TaskCursor.fromToken(page.getNextCursor());
+        assertEquals(Integer.valueOf(2), cursor.getTaskId());
+        assertEquals("2024-12-31", cursor.getDueDate().toString());
+    }
+
+    @Test
+    public void testGetUserTasksPage_PageSizeCapped() {
+        // 模拟DAO层行为
+        when(taskDao.findPageByUserId(eq(1), any(), anyInt())).thenReturn(new ArrayList<>());
+
+        // 执行测试
+        TaskPage page = taskService.getUserTasksPage(1, null, 10000);
+
+        // 验证结果：页大小被限制在上限内
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verify(taskDao).findPageByUserId(1, null, TaskServiceImpl.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetUserTasksPage_InvalidCursor() {
+        taskService.getUserTasksPage(1, "not-a-cursor", 20);
+    }
+
+    @Test
+    public void testStreamUserTasks_Success() throws Exception {
+        // 准备测试数据
+        List<Task> received = new ArrayList<>();
+        TaskHandler handler = received::add;
+
+        // 模拟DAO层行为
+        when(taskDao.streamByUserId(1, handler)).thenAnswer(invocation -> {
+            handler.handle(new Task());
+            return 1;
+        });
+
+        // 执行测试
+        int count = taskService.streamUserTasks(1, handler);
+
+        // 验证结果
+        assertEquals(1, count);
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    public void testQueryTasks_NormalizesQuery() {
+        // 准备测试数据
+        TaskQuery query = new TaskQuery(1);
+        query.getStatuses().add(0);
+        query.setKeyword("   ");
+        query.setLimit(100000);
+
+        // 模拟DAO层行为
+        when(taskDao.query(query)).thenReturn(new ArrayList<>());
+
+        // 执行测试
+        List<Task> result = taskService.queryTasks(query);
+
+        // 验证结果：空白关键词被忽略，条数被限制在上限以内
+        assertNotNull(result);
+        assertNull(query.getKeyword());
+        assertEquals(Integer.valueOf(TaskServiceImpl.MAX_QUERY_LIMIT), query.getLimit());
+        verify(taskDao).query(query);
+    }
+
+    @Test
+    public void testQueryTasks_NoUser() {
+        assertNull(taskService.queryTasks(new TaskQuery()));
+        verify(taskDao, never()).query(any(TaskQuery.class));
+    }
+
+    @Test
+    public void testGetUserTasks_CacheHit() {
+        // 准备测试数据
+        Integer userId = 1;
+        Task task = new Task();
+        task.setTaskId(10);
+        task.setUserId(userId);
+
+        // 模拟DAO层行为
+        when(taskDao.findByUserId(userId)).thenReturn(new ArrayList<>(Arrays.asList(task)));
+
+        // 执行测试：第二次读取命中缓存
+        taskService.getUserTasks(userId);
+        List<Task> result = taskService.getUserTasks(userId);
+
+        // 验证结果
+        assertEquals(1, result.size());
+        verify(taskDao, times(1)).findByUserId(userId);
+        assertEquals(1, taskCache.getHits());
+        assertEquals(1, taskCache.getMisses());
+    }
+
+    @Test
+    public void testCreateTask_InvalidatesCache() {
+        // 准备测试数据
+        Integer userId = 1;
+        Task cached = new Task();
+        cached.setTaskId(10);
+        cached.setUserId(userId);
+        Task task = new Task();
+        task.setUserId(userId);
+        task.setTitle("新任务");
+        task.setPriority(1);
+        task.setDueDate(LocalDate.now());
+
+        // 模拟DAO层行为
+        when(taskDao.findByUserId(userId)).thenReturn(new ArrayList<>(Arrays.asList(cached)));
+        when(taskDao.insert(any(Task.class))).thenReturn(1);
+
+        // 执行测试：创建任务后重新从数据库读取
+        taskService.getUserTasks(userId);
+        taskService.createTask(task);
+        taskService.getUserTasks(userId);
+
+        // 验证结果
+        verify(taskDao, times(2)).findByUserId(userId);
+    }
+
+    @Test
+    public void testUpdateTaskStatus_InvalidatesOnlyOwner() {
+        // 准备测试数据
+        Task task1 = new Task();
+        task1.setTaskId(10);
+        task1.setUserId(1);
+        Task task2 = new Task();
+        task2.setTaskId(20);
+        task2.setUserId(2);
+
+        // 模拟DAO层行为
+        when(taskDao.findByUserId(1)).thenReturn(new ArrayList<>(Arrays.asList(task1)));
+        when(taskDao.findByUserId(2)).thenReturn(new ArrayList<>(Arrays.asList(task2)));
+        when(taskDao.updateStatus(10, 1, 1)).thenReturn(1);
+
+        // 执行测试
+        taskService.getUserTasks(1);
+        taskService.getUserTasks(2);
+        taskService.updateTaskStatus(10, 1, 1);
+        taskService.getUserTasks(1);
+        taskService.getUserTasks(2);
+
+        // 验证结果：只有任务所属用户的缓存失效，且无需额外查询任务
+        verify(taskDao, times(2)).findByUserId(1);
+        verify(taskDao, times(1)).findByUserId(2);
+        verify(taskDao, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testDeleteTask_NotOwnedKeepsCache() {
+        // 准备测试数据
+        Task task = new Task();
+        task.setTaskId(10);
+        task.setUserId(1);
+
+        // 模拟DAO层行为：任务不属于用户2，没有行被删除
+        when(taskDao.findByUserId(1)).thenReturn(new ArrayList<>(Arrays.asList(task)));
+        when(taskDao.delete(10, 2)).thenReturn(0);
+
+        // 执行测试
+        taskService.getUserTasks(1);
+        boolean result = taskService.deleteTask(10, 2);
+        taskService.getUserTasks(1);
+
+        // 验证结果
+        assertFalse(result);
+        verify(taskDao, times(1)).findByUserId(1);
+    }
+
+    @Test
+    public void testQueryTasks_EmptyResultNotCached() {
+        // 准备测试数据
+        TaskQuery query = new TaskQuery(1);
+
+        // 模拟DAO层行为
+        when(taskDao.query(any(TaskQuery.class))).thenReturn(new ArrayList<>());
+
+        // 执行测试
+        taskService.queryTasks(query);
+        taskService.queryTasks(query);
+
+        // 验证结果
+        verify(taskDao, times(2)).query(any(TaskQuery.class));
+        assertTrue(taskCache.isEmpty());
+    }
+
+    @Test
+    public void testCreateTasks_Success() {
+        // 准备测试数据
+        Task task1 = new Task();
+        task1.setUserId(1);
+        task1.setTitle("任务一");
+        task1.setPriority(1);
+        task1.setDueDate(LocalDate.now());
+        Task task2 = new Task();
+        task2.setUserId(1);
+        task2.setTitle("任务二");
+        task2.setPriority(2);
+        task2.setDueDate(LocalDate.now());
+        List<Task> tasks = Arrays.asList(task1, task2);
+
+        // 模拟DAO层行为
+        when(taskDao.insertBatch(tasks)).thenReturn(2);
+
+        // 执行测试
+        int result = taskService.createTasks(tasks);
+
+        // 验证结果
+        assertEquals(2, result);
+        assertEquals(Integer.valueOf(0), task1.getStatus());
+        verify(taskDao).insertBatch(tasks);
+    }
+
+    @Test
+    public void testCreateTasks_InvalidTaskRejectsBatch() {
+        // 准备测试数据：第二个任务缺少标题
+        Task task1 = new Task();
+        task1.setUserId(1);
+        task1.setTitle("任务一");
+        task1.setPriority(1);
+        task1.setDueDate(LocalDate.now());
+        Task task2 = new Task();
+        task2.setUserId(1);
+        task2.setPriority(1);
+        task2.setDueDate(LocalDate.now());
+
+        // 执行测试
+        int result = taskService.createTasks(Arrays.asList(task1, task2));
+
+        // 验证结果
+        assertEquals(0, result);
+        verify(taskDao, never()).insertBatch(anyList());
+    }
+
+    @Test
+    public void testCreateTasks_TooMany() {
+        // 准备测试数据
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i <= TaskServiceImpl.MAX_BATCH_SIZE; i++) {
+            Task task = new Task();
+            task.setUserId(1);
+            task.setTitle("任务" + i);
+            task.setPriority(1);
+            task.setDueDate(LocalDate.now());
+            tasks.add(task);
+        }
+
+        // 执行测试
+        int result = taskService.createTasks(tasks);
+
+        // 验证结果
+        assertEquals(0, result);
+        verify(taskDao, never()).insertBatch(anyList());
+    }
+
+    @Test
+    public void testUpdateTaskStatuses_Success() {
+        // 准备测试数据
+        Task update = new Task();
+        update.setTaskId(10);
+        update.setStatus(2);
+        List<Task> updates = Arrays.asList(update);
+
+        // 模拟DAO层行为
+        when(taskDao.findByUserId(1)).thenReturn(new ArrayList<>(Arrays.asList(update)));
+        when(taskDao.updateStatusBatch(1, updates)).thenReturn(1);
+
+        // 执行测试：更新后缓存失效，再次读取会查询数据库
+        taskService.getUserTasks(1);
+        int result = taskService.updateTaskStatuses(1, updates);
+        taskService.getUserTasks(1);
+
+        // 验证结果
+        assertEquals(1, result);
+        verify(taskDao, times(2)).findByUserId(1);
+    }
+
+    @Test
+    public void testGetTaskChanges_WithoutToken() {
+        // 准备测试数据
+        TaskChanges changes = new TaskChanges();
+        changes.setSequence(42);
+        changes.setCheckpoint(new Date(1700000000000L));
+
+        // 模拟DAO层行为
+        when(taskDao.findChanges(1, null)).thenReturn(changes);
+
+        // 执行测试
+        TaskChanges result = taskService.getTaskChanges(1, null);
+
+        // 验证结果：首次同步需要全量加载，标记由变更序号和数据库时间组成
+        assertTrue(result.isFull());
+        assertEquals("42-1700000000000", result.getToken());
+    }
+
+    @Test
+    public void testGetTaskChanges_WithToken() {
+        // 准备测试数据
+        String since = "42-" + (System.currentTimeMillis() - 60000);
+        TaskChanges changes = new TaskChanges();
+        changes.setSequence(43);
+        changes.setCheckpoint(new Date());
+        changes.getTasks().add(new Task());
+
+        // 模拟DAO层行为
+        when(taskDao.findChanges(1, 42L)).thenReturn(changes);
+
+        // 执行测试
+        TaskChanges result = taskService.getTaskChanges(1, since);
+
+        // 验证结果
+        assertFalse(result.isFull());
+        assertEquals(1, result.getTasks().size());
+        assertTrue(result.getToken().startsWith("43-"));
+        verify(taskDao).findChanges(1, 42L);
+    }
+
+    @Test
+    public void testGetTaskChanges_ExpiredToken() {
+        // 准备测试数据：标记早于删除标记的保留时间
+        String since = "42-" + (System.currentTimeMillis() - TaskServiceImpl.TOMBSTONE_RETENTION_MILLIS - 60000);
+        TaskChanges changes = new TaskChanges();
+        changes.setCheckpoint(new Date());
+
+        // 模拟DAO层行为
+        when(taskDao.findChanges(1, null)).thenReturn(changes);
+
+        // 执行测试
+        TaskChanges result = taskService.getTaskChanges(1, since);
+
+        // 验证结果
+        assertTrue(result.isFull());
+        verify(taskDao).findChanges(1, null);
+    }
+
+    @Test
+    public void testGetTaskChanges_TimeOnlyToken() {
+        // 准备测试数据：升级前发出的只有时间的标记
+        TaskChanges changes = new TaskChanges();
+        changes.setCheckpoint(new Date());
+
+        // 模拟DAO层行为
+        when(taskDao.findChanges(1, null)).thenReturn(changes);
+
+        // 执行测试
+        TaskChanges result = taskService.getTaskChanges(1, String.valueOf(System.currentTimeMillis()));
+
+        // 验证结果
+        assertTrue(result.isFull());
+        verify(taskDao).findChanges(1, null);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testGetTaskChanges_InvalidToken() {
+        taskService.getTaskChanges(1, "abc");
+    }
+
+    @Test
+    public void testWritesPublishEvents() {
+        // 准备测试数据
+        TaskEventBus.Subscription subscription = eventBus.subscribe(1, () -> { });
+
+        // 模拟DAO层行为
+        when(taskDao.updateStatus(10, 1, 2)).thenReturn(1);
+        when(taskDao.delete(11, 1)).thenReturn(1);
+        when(taskDao.delete(12, 1)).thenReturn(0);
+
+        // 执行测试
+        taskService.updateTaskStatus(10, 1, 2);
+        taskService.deleteTask(11, 1);
+        taskService.deleteTask(12, 1);
+
+        // 验证结果：只有成功的写操作发布事件
+        TaskEventBus.Event event = subscription.poll();
+        assertEquals(TaskEventBus.STATUS, event.getType());
+        assertEquals(Arrays.asList(10), event.getTaskIds());
+        event = subscription.poll();
+        assertEquals(TaskEventBus.DELETED, event.getType());
+        assertEquals(Arrays.asList(11), event.getTaskIds());
+        assertNull(subscription.poll());
+    }
+}
@@ -3,19 +3,24 @@ package com.taskmanager.service;
 import com.taskmanager.bean.User;
 import com.taskmanager.dao.UserDao;
 import com.taskmanager.service.impl.UserServiceImpl;
+import com.taskmanager.util.IdentityFilter;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 public class UserServiceTest {
     private UserService userService;
+    private IdentityFilter identityFilter;
 
     @Mock
     private UserDao userDao;
@@ -29,6 +34,11 @@ public class UserServiceTest {
             java.lang.reflect.Field field = UserServiceImpl.class.getDeclaredField("userDao");
             field.setAccessible(true);
             field.set(userService, userDao);
+            // 每个测试使用独立的过滤器，避免测试之间互相影响
+            identityFilter = new IdentityFilter(60000);
+            field = UserServiceImpl.class.getDeclaredField("identityFilter");
+            field.setAccessible(true);
+            field.set(userService, identityFilter);
         } catch (Exception e) {
             fail("设置userDao失败：" + e.getMessage());
         }
@@ -62,8 +72,10 @@ public class UserServiceTest {
         user.setPassword("password");
         user.setEmail("test@example.com");
 
-        // 模拟DAO层行为
-        when(userDao.findByUsername("testuser")).thenReturn(new User());
+        // 模拟DAO层行为：布隆过滤器从已有用户预热
+        User existing = new User("testuser", "password", "other@example.com");
+        identityFilter.warm(new UserSource(existing));
+        when(userDao.findByUsername("testuser")).thenReturn(existing);
 
         // 执行测试
         boolean result = userService.register(user);
@@ -189,8 +201,10 @@ public class UserServiceTest {
         // 准备测试数据
         String username = "testuser";
 
-        // 模拟DAO层行为
-        when(userDao.findByUsername(username)).thenReturn(new User());
+        // 模拟DAO层行为：布隆过滤器从已有用户预热
+        User existing = new User(username, "password", "test@example.com");
+        identityFilter.warm(new UserSource(existing));
+        when(userDao.findByUsername(username)).thenReturn(existing);
 
         // 执行测试
         boolean result = userService.isUsernameExists(username);
@@ -213,4 +227,96 @@ public class UserServiceTest {
         // 验证结果
         assertFalse(result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIsEmailExists_FilterNegativeSkipsDatabase() {
+        // 模拟DAO层行为：库中只有一个用户
+        identityFilter.warm(new UserSource(new User("alice", "password", "alice@example.com")));
+
+        // 执行测试
+        boolean result = userService.isEmailExists("nobody@example.com");
+
+        // 验证结果：过滤器判定不存在，未查询数据库
+        assertFalse(result);
+        verify(userDao, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    public void testIsEmailExists_UsesIndexedLookup() {
+        // 模拟DAO层行为
+        identityFilter.warm(new UserSource(new User("alice", "password", "alice@example.com")));
+        when(userDao.existsByEmail("Alice@Example.com")).thenReturn(true);
+
+        // 执行测试：大小写不同的邮箱同样命中过滤器
+        boolean result = userService.isEmailExists("Alice@Example.com");
+
+        // 验证结果
+        assertTrue(result);
+        verify(userDao).existsByEmail("Alice@Example.com");
+    }
+
+    @Test
+    public void testIsEmailExists_WarmUpFailureFallsBackToDatabase() {
+        // 模拟DAO层行为：读取用户失败时不启用过滤器
+        UserSource source = new UserSource() {
+            @Override
+            public int forEach(BiConsumer<String, String> handler) {
+                loads.incrementAndGet();
+                return -1;
+            }
+        };
+        assertFalse(identityFilter.warm(source));
+        when(userDao.existsByEmail("alice@example.com")).thenReturn(true);
+
+        // 执行测试
+        boolean first = userService.isEmailExists("alice@example.com");
+        boolean second = userService.isEmailExists("alice@example.com");
+
+        // 验证结果：查询数据库，重试间隔内不再读取全部用户
+        assertTrue(first);
+        assertTrue(second);
+        verify(userDao, times(2)).existsByEmail("alice@example.com");
+        assertEquals(1, source.loads.get());
+    }
+
+    @Test
+    public void testRegister_AddsIdentityToFilter() {
+        // 模拟DAO层行为：空库预热后注册新用户
+        UserSource source = new UserSource();
+        identityFilter.warm(source);
+        when(userDao.insert(any(User.class))).thenReturn(1);
+        when(userDao.existsByEmail("new@example.com")).thenReturn(true);
+
+        // 执行测试
+        assertTrue(userService.register(new User("newuser", "password", "new@example.com")));
+        boolean result = userService.isEmailExists("new@example.com");
+
+        // 验证结果：新注册的邮箱不会被过滤器判定为不存在
+        assertTrue(result);
+        assertEquals(1, source.loads.get());
+    }
+
+    // 预热过滤器的数据来源
+    private static class UserSource implements IdentityFilter.Source {
+        final List<User> users;
+        final AtomicInteger loads = new AtomicInteger();
+
+        UserSource(User... users) {
+            this.users = Arrays.asList(users);
+        }
+
+        @Override
+        public int count() {
+            return users.size();
+        }
+
+        @Override
+        public int forEach(BiConsumer<String, String> handler) {
+            loads.incrementAndGet();
+            for (User user : users) {
+                handler.accept(user.getUsername(), user.getEmail());
+            }
+            return users.size();
+        }
+    }
+}
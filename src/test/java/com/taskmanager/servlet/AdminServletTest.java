@@ -0,0 +1,97 @@
+package com.taskmanager.servlet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AdminServletTest {
+    private AdminServlet adminServlet;
+
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private ServletConfig config;
+
+    private StringWriter stringWriter;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        adminServlet = new AdminServlet();
+        when(config.getInitParameter("allowRemote")).thenReturn("false");
+        adminServlet.init(config);
+
+        stringWriter = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(stringWriter));
+        when(request.getPathInfo()).thenReturn("/metrics");
+    }
+
+    @Test
+    public void testMetrics_Loopback() throws Exception {
+        // 设置请求参数
+        when(request.getRemoteAddr()).thenReturn("127.0.0.1");
+
+        // 执行测试
+        adminServlet.doGet(request, response);
+
+        // 验证结果
+        String output = stringWriter.toString();
+        verify(response).setContentType("text/plain; version=0.0.4; charset=utf-8");
+        assertTrue(output.contains("# TYPE taskmanager_db_pool_active gauge"));
+        assertTrue(output.contains("taskmanager_db_pool_wait_seconds_bucket{le=\"+Inf\"}"));
+        assertTrue(output.contains("taskmanager_db_pool_timeouts_total"));
+        assertTrue(output.contains("taskmanager_task_cache_hits_total"));
+        assertTrue(output.contains("taskmanager_task_events_subscriptions"));
+        assertTrue(output.contains("taskmanager_executor_queue_depth"));
+    }
+
+    @Test
+    public void testMetrics_RemoteForbidden() throws Exception {
+        // 设置请求参数
+        when(request.getRemoteAddr()).thenReturn("10.0.0.8");
+
+        // 执行测试
+        adminServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).sendError(HttpServletResponse.SC_FORBIDDEN);
+        assertEquals("", stringWriter.toString());
+    }
+
+    @Test
+    public void testMetrics_RemoteAllowed() throws Exception {
+        // 设置请求参数
+        when(config.getInitParameter("allowRemote")).thenReturn("true");
+        when(request.getRemoteAddr()).thenReturn("10.0.0.8");
+
+        // 执行测试
+        adminServlet.doGet(request, response);
+
+        // 验证结果
+        assertTrue(stringWriter.toString().contains("taskmanager_db_pool_idle"));
+    }
+
+    @Test
+    public void testUnknownPath() throws Exception {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/unknown");
+
+        // 执行测试
+        adminServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).sendError(HttpServletResponse.SC_NOT_FOUND);
+    }
+}
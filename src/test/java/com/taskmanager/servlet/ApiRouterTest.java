@@ -0,0 +1,287 @@
+package com.taskmanager.servlet;
+
+import com.google.gson.Gson;
+import com.taskmanager.util.UserVersions;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ApiRouterTest {
+    private ApiRouter router;
+    private StringWriter stringWriter;
+    private Integer handledUserId;
+    private int handledCount;
+    private UserVersions userVersions;
+
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private HttpSession session;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        stringWriter = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(stringWriter));
+
+        userVersions = new UserVersions(16);
+        router = new ApiRouter(new Gson(), userVersions)
+                .get("/private", (req, resp, userId, result) -> {
+                    handledUserId = userId;
+                    result.put("success", true);
+                })
+                .publicGet("/public", (req, resp, userId, result) -> {
+                    handledUserId = userId;
+                    result.put("success", true);
+                })
+                .versionedGet("/list", (req, resp, userId, result) -> {
+                    handledCount++;
+                    result.put("success", true);
+                })
+                .post("/fail", (req, resp, userId, result) -> {
+                    throw new IllegalStateException("数据库连接失败");
+                });
+    }
+
+    @Test
+    public void testDispatch_LoggedIn() throws Exception {
+        // 准备测试数据
+        when(request.getPathInfo()).thenReturn("/private");
+        when(request.getSession(false)).thenReturn(session);
+        when(session.getAttribute("userId")).thenReturn(7);
+
+        // 执行测试
+        router.dispatchGet(request, response);
+
+        // 验证结果
+        assertEquals(Integer.valueOf(7), handledUserId);
+        verify(response).setContentType(ApiRouter.CONTENT_TYPE);
+        assertEquals("{\"success\":true}", stringWriter.toString());
+    }
+
+    @Test
+    public void testDispatch_NotLoggedIn() throws Exception {
+        // 准备测试数据：没有会话
+        when(request.getPathInfo()).thenReturn("/private");
+
+        // 执行测试
+        router.dispatchGet(request, response);
+
+        // 验证结果：不调用处理方法，也不创建会话
+        assertNull(handledUserId);
+        verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(request, never()).getSession();
+        assertEquals("{\"success\":false,\"message\":\"未登录\"}", stringWriter.toString());
+    }
+
+    @Test
+    public void testDispatch_PublicRoute() throws Exception {
+        // 准备测试数据
+        when(request.getPathInfo()).thenReturn("/public");
+
+        // 执行测试
+        router.dispatchGet(request, response);
+
+        // 验证结果
+        verify(response, never()).setStatus(anyInt());
+        assertEquals("{\"success\":true}", stringWriter.toString());
+    }
+
+    @Test
+    public void testDispatch_NotFound() throws Exception {
+        // 准备测试数据：只注册了GET的路径用POST访问
+        when(request.getPathInfo()).thenReturn("/public");
+
+        // 执行测试
+        router.dispatchPost(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+        assertTrue(stringWriter.toString().contains("\"message\":\"请求的接口不存在\""));
+    }
+
+    @Test
+    public void testDispatch_NullPathInfo() throws Exception {
+        // 执行测试
+        router.dispatchGet(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+    }
+
+    @Test
+    public void testDispatch_HandlerException() throws Exception {
+        // 准备测试数据
+        when(request.getPathInfo()).thenReturn("/fail");
+        when(request.getSession(false)).thenReturn(session);
+        when(session.getAttribute("userId")).thenReturn(7);
+
+        // 执行测试
+        router.dispatchPost(request, response);
+
+        // 验证结果：异常信息不返回给客户端
+        verify(response).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        String responseContent = stringWriter.toString();
+        assertTrue(responseContent.contains("\"message\":\"服务器内部错误\""));
+        assertFalse(responseContent.contains("数据库连接失败"));
+    }
+
+    // 执行一次/list请求，返回响应的ETag
+    private String getList(String ifNoneMatch) throws Exception {
+        HttpServletRequest listRequest = mock(HttpServletRequest.class);
+        HttpServletResponse listResponse = mock(HttpServletResponse.class);
+        when(listRequest.getPathInfo()).thenReturn("/list");
+        when(listRequest.getSession(false)).thenReturn(session);
+        when(listRequest.getHeader("If-None-Match")).thenReturn(ifNoneMatch);
+        when(listResponse.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+        when(listResponse.getStatus()).thenReturn(HttpServletResponse.SC_OK);
+
+        router.dispatchGet(listRequest, listResponse);
+
+        ArgumentCaptor<String> etag = ArgumentCaptor.forClass(String.class);
+        verify(listResponse).setHeader(eq("ETag"), etag.capture());
+        verify(listResponse).setHeader("Cache-Control", ApiRouter.CACHE_CONTROL);
+        return etag.getValue();
+    }
+
+    @Test
+    public void testVersioned_NotModified() throws Exception {
+        // 准备测试数据
+        when(session.getAttribute("userId")).thenReturn(7);
+        String etag = getList(null);
+        assertEquals(1, handledCount);
+
+        when(request.getPathInfo()).thenReturn("/list");
+        when(request.getSession(false)).thenReturn(session);
+        when(request.getHeader("If-None-Match")).thenReturn(etag);
+
+        // 执行测试
+        router.dispatchGet(request, response);
+
+        // 验证结果：返回304，不调用处理方法，也不写出响应体
+        assertEquals(1, handledCount);
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(response).setHeader("ETag", etag);
+        verify(response, never()).getWriter();
+    }
+
+    @Test
+    public void testVersioned_ChangedAfterBump() throws Exception {
+        // 准备测试数据
+        when(session.getAttribute("userId")).thenReturn(7);
+        String etag = getList(null);
+
+        // 执行测试：其他用户的写入不影响，当前用户写入后ETag变化
+        userVersions.bump(8);
+        String unchanged = getList(null);
+        userVersions.bump(7);
+        String changed = getList(etag);
+
+        // 验证结果
+        assertEquals(etag, unchanged);
+        assertNotEquals(etag, changed);
+        assertEquals(3, handledCount);
+    }
+
+    @Test
+    public void testVersioned_FailureHasNoETag() throws Exception {
+        // 准备测试数据：处理方法返回业务失败
+        router.versionedGet("/list", (req, resp, userId, result) -> result.put("success", false));
+        when(request.getPathInfo()).thenReturn("/list");
+        when(request.getSession(false)).thenReturn(session);
+        when(session.getAttribute("userId")).thenReturn(7);
+        when(response.getStatus()).thenReturn(HttpServletResponse.SC_OK);
+
+        // 执行测试
+        router.dispatchGet(request, response);
+
+        // 验证结果
+        verify(response, never()).setHeader(eq("ETag"), anyString());
+    }
+
+    @Test
+    public void testStream_SharesLoginAndETag() throws Exception {
+        // 准备测试数据：流式处理方法记录调用次数，输出完整
+        int[] streamed = new int[1];
+        router.versionedGet("/list", (req, resp, userId, result) -> handledCount++,
+                (req, resp, userId) -> {
+                    streamed[0]++;
+                    resp.getWriter().print("[]");
+                    return true;
+                });
+        when(session.getAttribute("userId")).thenReturn(7);
+        String etag = getList(null);
+
+        // 未登录：不创建会话，不调用流式处理方法
+        HttpServletRequest anonymous = mock(HttpServletRequest.class);
+        when(anonymous.getPathInfo()).thenReturn("/list");
+        when(anonymous.getParameter("stream")).thenReturn("true");
+        router.dispatchGet(anonymous, response);
+        verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(anonymous, never()).getSession();
+
+        // ETag未变化时返回304
+        when(request.getPathInfo()).thenReturn("/list");
+        when(request.getParameter("stream")).thenReturn("true");
+        when(request.getSession(false)).thenReturn(session);
+        when(request.getHeader("If-None-Match")).thenReturn(etag);
+        HttpServletResponse notModified = mock(HttpServletResponse.class);
+        router.dispatchGet(request, notModified);
+        verify(notModified).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        assertEquals(0, streamed[0]);
+
+        // 流式输出与普通模式使用相同的ETag，由流式处理方法写出响应体
+        when(request.getHeader("If-None-Match")).thenReturn(null);
+        StringWriter body = new StringWriter();
+        HttpServletResponse streamResponse = mock(HttpServletResponse.class);
+        when(streamResponse.getWriter()).thenReturn(new PrintWriter(body));
+        router.dispatchGet(request, streamResponse);
+        assertEquals(1, streamed[0]);
+        assertEquals(1, handledCount);
+        verify(streamResponse).setHeader("ETag", etag);
+        assertEquals("[]", body.toString());
+    }
+
+    @Test
+    public void testStream_IncompleteInvalidatesETag() throws Exception {
+        // 准备测试数据：流式输出中途失败
+        router.versionedGet("/list", (req, resp, userId, result) -> result.put("success", true),
+                (req, resp, userId) -> false);
+        when(session.getAttribute("userId")).thenReturn(7);
+        String etag = getList(null);
+        when(request.getPathInfo()).thenReturn("/list");
+        when(request.getParameter("stream")).thenReturn("true");
+        when(request.getSession(false)).thenReturn(session);
+
+        // 执行测试
+        router.dispatchGet(request, response);
+
+        // 验证结果：已发出的ETag不再被确认
+        verify(response).setHeader("ETag", etag);
+        assertNotEquals(etag, getList(etag));
+    }
+
+    @Test
+    public void testETagMatches() {
+        String etag = "W/\"abc-7-3\"";
+        assertTrue(ApiRouter.etagMatches(etag, etag));
+        assertTrue(ApiRouter.etagMatches("\"abc-7-3\"", etag));
+        assertTrue(ApiRouter.etagMatches("W/\"abc-7-2\", W/\"abc-7-3\"", etag));
+        assertTrue(ApiRouter.etagMatches("*", etag));
+        assertFalse(ApiRouter.etagMatches("W/\"abc-7-2\"", etag));
+        assertFalse(ApiRouter.etagMatches(null, etag));
+    }
+}
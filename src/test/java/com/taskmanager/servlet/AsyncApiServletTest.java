@@ -0,0 +1,153 @@
+package com.taskmanager.servlet;
+
+import com.taskmanager.util.DbExecutor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AsyncApiServletTest {
+    private DbExecutor executor;
+    private TestServlet servlet;
+
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private AsyncContext asyncContext;
+
+    private StringWriter stringWriter;
+
+    // 记录处理线程的测试Servlet，release之前一直阻塞
+    private static class TestServlet extends AsyncApiServlet {
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile Thread handledBy;
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            handledBy = Thread.currentThread();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.getWriter().print("ok");
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        servlet = new TestServlet();
+        // 使用反射注入只有一个线程、队列长度为1的线程池
+        executor = new DbExecutor(1, 1, 5000);
+        java.lang.reflect.Field field = AsyncApiServlet.class.getDeclaredField("executor");
+        field.setAccessible(true);
+        field.set(servlet, executor);
+
+        stringWriter = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(stringWriter));
+        when(request.getMethod()).thenReturn("GET");
+        when(request.isAsyncSupported()).thenReturn(true);
+        when(request.startAsync()).thenReturn(asyncContext);
+    }
+
+    @After
+    public void tearDown() {
+        servlet.release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testHandledOnExecutor() throws Exception {
+        servlet.release.countDown();
+
+        // 执行测试
+        servlet.service(request, response);
+
+        // 验证结果：在线程池中处理，完成后结束异步请求
+        verify(asyncContext, timeout(5000)).complete();
+        assertNotSame(Thread.currentThread(), servlet.handledBy);
+        assertTrue(servlet.handledBy.getName().startsWith("db-worker-"));
+        assertEquals("ok", stringWriter.toString());
+    }
+
+    @Test
+    public void testRejectedWhenSaturated() throws Exception {
+        // 第一个请求占用线程，第二个请求占满队列
+        HttpServletResponse busy = mock(HttpServletResponse.class);
+        when(busy.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+        servlet.service(request, busy);
+        servlet.service(request, busy);
+
+        // 执行测试
+        servlet.service(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(response).setHeader("Retry-After", "1");
+        assertTrue(stringWriter.toString().contains("\"message\":\"服务器繁忙，请稍后再试\""));
+        verify(asyncContext, atLeastOnce()).complete();
+        assertEquals(1, executor.getRejected());
+    }
+
+    @Test
+    public void testTimeoutWhileHandling() throws Exception {
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+
+        // 执行测试：处理线程阻塞期间请求超时
+        servlet.service(request, response);
+        verify(asyncContext).setTimeout(longThat(timeout -> timeout > 0));
+        verify(asyncContext).addListener(listener.capture());
+        while (servlet.handledBy == null) {
+            Thread.sleep(1);
+        }
+        listener.getValue().onTimeout(new AsyncEvent(asyncContext));
+
+        // 验证结果：超时时返回503并结束请求
+        verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        assertTrue(stringWriter.toString().contains("\"message\":\"请求处理超时，请稍后再试\""));
+        verify(asyncContext).complete();
+
+        // 处理线程之后的输出被丢弃，也不会再次结束请求
+        String timedOut = stringWriter.toString();
+        servlet.release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getCompleted() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, executor.getCompleted());
+        assertEquals(timedOut, stringWriter.toString());
+        verify(asyncContext, times(1)).complete();
+    }
+
+    @Test
+    public void testSynchronousWithoutAsyncSupport() throws Exception {
+        when(request.isAsyncSupported()).thenReturn(false);
+        servlet.release.countDown();
+
+        // 执行测试
+        servlet.service(request, response);
+
+        // 验证结果
+        verify(request, never()).startAsync();
+        assertSame(Thread.currentThread(), servlet.handledBy);
+    }
+}
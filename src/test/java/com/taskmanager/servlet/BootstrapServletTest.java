@@ -0,0 +1,150 @@
+package com.taskmanager.servlet;
+
+import com.taskmanager.bean.Category;
+import com.taskmanager.bean.Task;
+import com.taskmanager.bean.TaskChanges;
+import com.taskmanager.bean.TaskPage;
+import com.taskmanager.bean.User;
+import com.taskmanager.service.CategoryService;
+import com.taskmanager.service.TaskService;
+import com.taskmanager.service.UserService;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class BootstrapServletTest {
+    private BootstrapServlet bootstrapServlet;
+
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private HttpSession session;
+    @Mock
+    private UserService userService;
+    @Mock
+    private CategoryService categoryService;
+    @Mock
+    private TaskService taskService;
+
+    private StringWriter stringWriter;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        bootstrapServlet = new BootstrapServlet();
+        // 使用反射注入模拟的Service
+        inject("userService", userService);
+        inject("categoryService", categoryService);
+        inject("taskService", taskService);
+
+        stringWriter = new StringWriter();
+        when(request.getSession(false)).thenReturn(session);
+        when(response.getWriter()).thenReturn(new PrintWriter(stringWriter));
+        when(session.getAttribute("userId")).thenReturn(1);
+    }
+
+    private void inject(String name, Object value) throws Exception {
+        java.lang.reflect.Field field = BootstrapServlet.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(bootstrapServlet, value);
+    }
+
+    @Test
+    public void testBootstrap_Success() throws Exception {
+        // 准备测试数据
+        User user = new User("testuser", "secret-hash", "test@example.com");
+        user.setUserId(1);
+        Category category = new Category();
+        category.setCategoryId(5);
+        category.setCategoryName("工作");
+        Task task = new Task();
+        task.setTaskId(10);
+        task.setTitle("第一个任务");
+        TaskChanges sync = new TaskChanges();
+        sync.setToken("1700000000000");
+
+        when(request.getParameter("pageSize")).thenReturn("50");
+        when(userService.getUserById(1)).thenReturn(user);
+        when(categoryService.getUserCategories(1)).thenReturn(Arrays.asList(category));
+        when(taskService.getTaskChanges(1, null)).thenReturn(sync);
+        when(taskService.getUserTasksPage(1, null, 50)).thenReturn(new TaskPage(Arrays.asList(task), "next", true));
+        when(taskService.getTaskCountsByStatus(1)).thenReturn(Collections.singletonMap(0, 1));
+
+        // 执行测试
+        bootstrapServlet.doGet(request, response);
+
+        // 验证结果
+        String output = stringWriter.toString();
+        verify(response).setContentType("application/json;charset=UTF-8");
+        assertTrue(output.contains("\"success\":true"));
+        assertTrue(output.contains("\"username\":\"testuser\""));
+        assertFalse("不应返回密码", output.contains("secret-hash"));
+        assertTrue(output.contains("\"categoryName\":\"工作\""));
+        assertTrue(output.contains("\"title\":\"第一个任务\""));
+        assertTrue(output.contains("\"hasMore\":true"));
+        assertTrue(output.contains("\"nextCursor\":\"next\""));
+        assertTrue(output.contains("\"statusCounts\":{\"0\":1}"));
+        assertTrue(output.contains("\"syncToken\":\"1700000000000\""));
+
+        // 同步标记在读取任务之前获取
+        InOrder inOrder = inOrder(taskService);
+        inOrder.verify(taskService).getTaskChanges(1, null);
+        inOrder.verify(taskService).getUserTasksPage(1, null, 50);
+    }
+
+    @Test
+    public void testBootstrap_NotLoggedIn() throws Exception {
+        when(session.getAttribute("userId")).thenReturn(null);
+
+        // 执行测试
+        bootstrapServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        assertTrue(stringWriter.toString().contains("\"message\":\"未登录\""));
+        verifyNoInteractions(categoryService, taskService);
+    }
+
+    @Test
+    public void testBootstrap_NoSession() throws Exception {
+        when(request.getSession(false)).thenReturn(null);
+
+        // 执行测试
+        bootstrapServlet.doGet(request, response);
+
+        // 验证结果：匿名请求不创建会话
+        verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(request, never()).getSession();
+        verify(request, never()).getSession(true);
+        verifyNoInteractions(userService, categoryService, taskService);
+    }
+
+    @Test
+    public void testBootstrap_InvalidPageSize() throws Exception {
+        User user = new User("testuser", "secret-hash", "test@example.com");
+        when(userService.getUserById(1)).thenReturn(user);
+        when(request.getParameter("pageSize")).thenReturn("abc");
+
+        // 执行测试
+        bootstrapServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        assertTrue(stringWriter.toString().contains("\"message\":\"分页参数格式错误\""));
+    }
+}
@@ -50,6 +50,7 @@ public class CategoryServletTest {
 
         // 设置基本的mock行为
         when(request.getSession()).thenReturn(session);
+        when(request.getSession(false)).thenReturn(session);
         when(response.getWriter()).thenReturn(writer);
         when(session.getAttribute("userId")).thenReturn(1);
     }
@@ -0,0 +1,36 @@
+package com.taskmanager.servlet;
+
+import org.junit.Test;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class DetachableResponseTest {
+
+    @Test
+    public void testWriteListenerDelegatesUntilDetached() throws Exception {
+        // 准备测试数据
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        ServletOutputStream target = mock(ServletOutputStream.class);
+        when(response.getOutputStream()).thenReturn(target);
+        WriteListener first = mock(WriteListener.class);
+        WriteListener second = mock(WriteListener.class);
+        DetachableResponse detachable = new DetachableResponse(response);
+
+        // 执行测试
+        ServletOutputStream stream = detachable.getOutputStream();
+        stream.setWriteListener(first);
+        assertFalse(stream.isReady());
+        detachable.detach();
+        stream.setWriteListener(second);
+
+        // 验证结果：断开之前交给底层响应，断开之后丢弃
+        verify(target).setWriteListener(first);
+        verify(target, never()).setWriteListener(second);
+        assertTrue(stream.isReady());
+    }
+}
@@ -0,0 +1,153 @@
+package com.taskmanager.servlet;
+
+import com.taskmanager.util.TaskEventBus;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class TaskEventServletTest {
+    private TaskEventServlet eventServlet;
+    private TaskEventBus eventBus;
+
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private HttpSession session;
+    @Mock
+    private AsyncContext asyncContext;
+
+    private StringWriter stringWriter;
+    private TestOutputStream outputStream;
+
+    // 记录写出内容的输出流，ready控制是否可写
+    private static class TestOutputStream extends ServletOutputStream {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        boolean ready = true;
+        WriteListener listener;
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.listener = writeListener;
+        }
+
+        @Override
+        public void write(int b) {
+            bytes.write(b);
+        }
+
+        String content() {
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        eventServlet = new TaskEventServlet();
+        // 使用反射注入独立的事件总线
+        eventBus = new TaskEventBus(4, 1);
+        java.lang.reflect.Field field = TaskEventServlet.class.getDeclaredField("eventBus");
+        field.setAccessible(true);
+        field.set(eventServlet, eventBus);
+
+        stringWriter = new StringWriter();
+        outputStream = new TestOutputStream();
+        when(response.getWriter()).thenReturn(new PrintWriter(stringWriter));
+        when(response.getOutputStream()).thenReturn(outputStream);
+        when(request.getSession(false)).thenReturn(session);
+        when(session.getAttribute("userId")).thenReturn(1);
+        when(request.isAsyncSupported()).thenReturn(true);
+        when(request.startAsync()).thenReturn(asyncContext);
+    }
+
+    @Test
+    public void testEvents_NotLoggedIn() throws Exception {
+        // 设置请求参数
+        when(request.getSession(false)).thenReturn(null);
+
+        // 执行测试
+        eventServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        verify(request, never()).startAsync();
+        assertTrue(stringWriter.toString().contains("\"message\":\"未登录\""));
+    }
+
+    @Test
+    public void testEvents_TooManyConnections() throws Exception {
+        // 该用户的订阅数已达上限
+        eventBus.subscribe(1, () -> { });
+
+        // 执行测试
+        eventServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).setStatus(429);
+        verify(request, never()).startAsync();
+    }
+
+    @Test
+    public void testEvents_StreamsPublishedEvents() throws Exception {
+        // 执行测试
+        eventServlet.doGet(request, response);
+
+        // 验证结果：开启异步模式并在可写时写出重连间隔
+        verify(response).setContentType("text/event-stream;charset=UTF-8");
+        verify(asyncContext).setTimeout(TaskEventServlet.CONNECTION_TIMEOUT_MILLIS);
+        assertNotNull(outputStream.listener);
+        outputStream.listener.onWritePossible();
+        assertEquals("retry: " + TaskEventServlet.RETRY_MILLIS + "\n\n", outputStream.content());
+
+        // 发布事件后立即写出
+        eventBus.publish(1, TaskEventBus.STATUS, 10);
+        assertTrue(outputStream.content().endsWith("event: status\ndata: {\"type\":\"status\",\"taskIds\":[10]}\n\n"));
+
+        // 不可写时事件留在缓冲区，可写后再写出
+        outputStream.ready = false;
+        eventBus.publish(1, TaskEventBus.DELETED, 11);
+        assertFalse(outputStream.content().contains("event: deleted"));
+        outputStream.ready = true;
+        outputStream.listener.onWritePossible();
+        assertTrue(outputStream.content().contains("event: deleted"));
+    }
+
+    @Test
+    public void testEvents_TimeoutReleasesSubscription() throws Exception {
+        // 执行测试
+        eventServlet.doGet(request, response);
+        ArgumentCaptor<AsyncListener> captor = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(captor.capture());
+        assertEquals(1, eventBus.getSubscriptionCount());
+
+        captor.getValue().onTimeout(null);
+
+        // 验证结果
+        verify(asyncContext).complete();
+        assertEquals(0, eventBus.getSubscriptionCount());
+    }
+}
@@ -1,9 +1,15 @@
 package com.taskmanager.servlet;
 
 import com.taskmanager.bean.Task;
+import com.taskmanager.bean.TaskChanges;
+import com.taskmanager.bean.TaskPage;
+import com.taskmanager.bean.TaskQuery;
+import com.taskmanager.bean.TaskStats;
+import com.taskmanager.dao.TaskHandler;
 import com.taskmanager.service.TaskService;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -11,10 +17,16 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringReader;
 import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -50,6 +62,7 @@ public class TaskServletTest {
 
         // 设置基本的mock行为
         when(request.getSession()).thenReturn(session);
+        when(request.getSession(false)).thenReturn(session);
         when(response.getWriter()).thenReturn(writer);
         when(session.getAttribute("userId")).thenReturn(1);
     }
@@ -126,11 +139,34 @@ public class TaskServletTest {
         // 执行测试
         taskServlet.doPost(request, response);
 
-        // 验证结果
+        // 验证结果：不再预先查询任务，状态交给UPDATE语句保留
         verify(response).setContentType("application/json;charset=UTF-8");
         String responseContent = stringWriter.toString();
         assertTrue("响应应包含success:true", responseContent.contains("\"success\":true"));
         assertTrue("响应应包含成功消息", responseContent.contains("\"message\":\"更新任务成功\""));
+        ArgumentCaptor<Task> captor = ArgumentCaptor.forClass(Task.class);
+        verify(taskService).updateTask(captor.capture());
+        assertEquals(Integer.valueOf(1), captor.getValue().getUserId());
+        assertNull(captor.getValue().getStatus());
+        verify(taskService, never()).getTaskById(anyInt());
+    }
+
+    @Test
+    public void testHandleUpdateTask_NotOwned() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/update");
+        when(request.getParameter("taskId")).thenReturn("1");
+        when(request.getParameter("taskName")).thenReturn("更新后的任务");
+        when(request.getParameter("categoryId")).thenReturn("2");
+        when(request.getParameter("dueDate")).thenReturn("2024-12-31");
+        when(taskService.updateTask(any(Task.class))).thenReturn(false);
+
+        // 执行测试
+        taskServlet.doPost(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+        assertTrue(stringWriter.toString().contains("\"message\":\"任务不存在或无权限修改\""));
     }
 
     @Test
@@ -155,7 +191,7 @@ public class TaskServletTest {
         // 设置请求参数
         when(request.getPathInfo()).thenReturn("/delete");
         when(request.getParameter("taskId")).thenReturn("1");
-        when(taskService.deleteTask(1)).thenReturn(true);
+        when(taskService.deleteTask(1, 1)).thenReturn(true);
 
         // 执行测试
         taskServlet.doPost(request, response);
@@ -172,7 +208,7 @@ public class TaskServletTest {
         // 设置请求参数
         when(request.getPathInfo()).thenReturn("/delete");
         when(request.getParameter("taskId")).thenReturn("1");
-        when(taskService.deleteTask(1)).thenReturn(false);
+        when(taskService.deleteTask(1, 1)).thenReturn(false);
 
         // 执行测试
         taskServlet.doPost(request, response);
@@ -203,6 +239,80 @@ public class TaskServletTest {
         assertTrue("响应应包含任务列表", responseContent.contains("\"tasks\""));
     }
 
+    @Test
+    public void testHandleGetUserTasks_Paged() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/list");
+        when(request.getParameter("pageSize")).thenReturn("2");
+        TaskPage page = new TaskPage(Arrays.asList(createTask(1, "任务1"), createTask(2, "任务2")), "next-token", true);
+        when(taskService.getUserTasksPage(1, null, 2)).thenReturn(page);
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果
+        String responseContent = stringWriter.toString();
+        assertTrue("响应应包含success:true", responseContent.contains("\"success\":true"));
+        assertTrue("响应应包含下一页游标", responseContent.contains("\"nextCursor\":\"next-token\""));
+        assertTrue("响应应包含hasMore", responseContent.contains("\"hasMore\":true"));
+        verify(taskService, never()).getUserTasks(anyInt());
+    }
+
+    @Test
+    public void testHandleGetUserTasks_InvalidCursor() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/list");
+        when(request.getParameter("cursor")).thenReturn("bad");
+        when(taskService.getUserTasksPage(1, "bad", null)).thenThrow(new IllegalArgumentException("无效的分页游标"));
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        String responseContent = stringWriter.toString();
+        assertTrue("响应应包含错误消息", responseContent.contains("\"message\":\"分页参数格式错误\""));
+    }
+
+    @Test
+    public void testHandleStreamUserTasks_Success() throws Exception {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/list");
+        when(request.getParameter("stream")).thenReturn("true");
+        when(taskService.streamUserTasks(eq(1), any(TaskHandler.class))).thenAnswer(invocation -> {
+            TaskHandler handler = invocation.getArgument(1);
+            handler.handle(createTask(1, "任务1"));
+            handler.handle(createTask(2, "任务2"));
+            return 2;
+        });
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果：输出为完整的JSON对象，且未调用全量列表接口
+        String responseContent = stringWriter.toString();
+        assertTrue("响应应以success:true开头", responseContent.startsWith("{\"success\":true,\"tasks\":[{"));
+        assertTrue("响应应包含第二个任务", responseContent.contains("\"title\":\"任务2\""));
+        assertTrue("响应应标记列表完整", responseContent.endsWith("],\"complete\":true}"));
+        verify(taskService, never()).getUserTasks(anyInt());
+    }
+
+    @Test
+    public void testHandleStreamUserTasks_DatabaseError() throws Exception {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/list");
+        when(request.getParameter("stream")).thenReturn("true");
+        when(taskService.streamUserTasks(eq(1), any(TaskHandler.class))).thenReturn(-1);
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        String responseContent = stringWriter.toString();
+        assertTrue("响应应标记列表不完整", responseContent.contains("\"complete\":false"));
+    }
+
     @Test
     public void testHandleGetUserTasks_NotLoggedIn() throws ServletException, IOException {
         // 设置请求参数
@@ -241,7 +351,7 @@ public class TaskServletTest {
         when(request.getPathInfo()).thenReturn("/updateStatus");
         when(request.getParameter("taskId")).thenReturn("1");
         when(request.getParameter("status")).thenReturn("1");
-        when(taskService.updateTaskStatus(1, 1)).thenReturn(true);
+        when(taskService.updateTaskStatus(1, 1, 1)).thenReturn(true);
 
         // 执行测试
         taskServlet.doPost(request, response);
@@ -270,6 +380,194 @@ public class TaskServletTest {
         assertTrue("响应应包含错误消息", responseContent.contains("\"message\":\"无效的任务状态\""));
     }
 
+    @Test
+    public void testHandleQueryTasks_Success() throws ServletException, IOException {
+        // 设置请求参数：多值状态、单个优先级、关键词和排序
+        when(request.getPathInfo()).thenReturn("/query");
+        when(request.getParameterValues("status")).thenReturn(new String[]{"0,1"});
+        when(request.getParameterValues("priority")).thenReturn(new String[]{"3"});
+        when(request.getParameter("keyword")).thenReturn("报告");
+        when(request.getParameter("sort")).thenReturn("priority");
+        when(taskService.queryTasks(any(TaskQuery.class))).thenAnswer(invocation -> {
+            TaskQuery query = invocation.getArgument(0);
+            query.setLimit(500);
+            return Arrays.asList(createTask(1, "任务1"));
+        });
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果
+        ArgumentCaptor<TaskQuery> captor = ArgumentCaptor.forClass(TaskQuery.class);
+        verify(taskService).queryTasks(captor.capture());
+        TaskQuery query = captor.getValue();
+        assertEquals(Integer.valueOf(1), query.getUserId());
+        assertEquals(new HashSet<>(Arrays.asList(0, 1)), query.getStatuses());
+        assertEquals(new HashSet<>(Arrays.asList(3)), query.getPriorities());
+        assertTrue(query.getCategoryIds().isEmpty());
+        assertEquals(TaskQuery.SortField.PRIORITY, query.getSortField());
+        assertTrue(query.isDescendingOrder());
+        String responseContent = stringWriter.toString();
+        assertTrue("响应应包含success:true", responseContent.contains("\"success\":true"));
+        assertTrue("响应应包含任务列表", responseContent.contains("\"tasks\""));
+    }
+
+    @Test
+    public void testHandleQueryTasks_InvalidStatus() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/query");
+        when(request.getParameterValues("status")).thenReturn(new String[]{"abc"});
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        verify(taskService, never()).queryTasks(any(TaskQuery.class));
+        String responseContent = stringWriter.toString();
+        assertTrue("响应应包含错误消息", responseContent.contains("\"message\":\"参数格式错误\""));
+    }
+
+    @Test
+    public void testHandleQueryTasks_InvalidDate() throws ServletException, IOException {
+        // 设置请求参数：不存在的日期
+        when(request.getPathInfo()).thenReturn("/query");
+        when(request.getParameter("startDate")).thenReturn("2024-02-30");
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        verify(taskService, never()).queryTasks(any(TaskQuery.class));
+        assertTrue(stringWriter.toString().contains("\"message\":\"日期格式错误\""));
+    }
+
+    @Test
+    public void testHandleSuggest_Success() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/suggest");
+        when(request.getParameter("prefix")).thenReturn("周");
+        when(taskService.suggest(1, "周")).thenReturn(Arrays.asList("周报", "周末采购"));
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果
+        String responseContent = stringWriter.toString();
+        assertTrue("响应应包含success:true", responseContent.contains("\"success\":true"));
+        assertTrue("响应应包含提示列表", responseContent.contains("\"suggestions\":[\"周报\",\"周末采购\"]"));
+    }
+
+    @Test
+    public void testHandleSuggest_MissingPrefix() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/suggest");
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        verify(taskService, never()).suggest(anyInt(), anyString());
+    }
+
+    @Test
+    public void testHandleGetTaskStats_Success() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/stats");
+        when(request.getParameter("today")).thenReturn("2024-06-05");
+        TaskStats stats = new TaskStats(LocalDate.of(2024, 6, 5));
+        stats.add(0, 3, 2, 4, 1, 1, 2);
+        when(taskService.getTaskStats(1, LocalDate.of(2024, 6, 5))).thenReturn(stats);
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果
+        String responseContent = stringWriter.toString();
+        assertTrue("响应应包含success:true", responseContent.contains("\"success\":true"));
+        assertTrue("响应应包含分组统计", responseContent.contains("\"byPriority\":{\"3\":4}"));
+        assertTrue("响应应包含逾期数", responseContent.contains("\"overdue\":1"));
+        assertTrue("响应应包含统计日期", responseContent.contains("\"today\":\"2024-06-05\""));
+    }
+
+    @Test
+    public void testHandleGetTaskStats_InvalidDate() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/stats");
+        when(request.getParameter("today")).thenReturn("2024/06/05");
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        verify(taskService, never()).getTaskStats(anyInt(), any());
+    }
+
+    @Test
+    public void testHandleGetTasksByDateRange_Success() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/dateRange");
+        when(request.getParameter("startDate")).thenReturn("2024-06-01");
+        when(request.getParameter("endDate")).thenReturn("2024-06-30");
+        Task task = createTask(1, "任务1");
+        task.setDueDate(LocalDate.of(2024, 6, 15));
+        task.setCreatedDate(LocalDateTime.of(2024, 6, 1, 9, 30));
+        when(taskService.getTasksByDateRange(1, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30)))
+                .thenReturn(Arrays.asList(task));
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果：截止日期仍按yyyy-MM-dd输出
+        String responseContent = stringWriter.toString();
+        assertTrue("响应应包含success:true", responseContent.contains("\"success\":true"));
+        assertTrue(responseContent.contains("\"dueDate\":\"2024-06-15\""));
+        assertTrue(responseContent.contains("\"createdDate\":\"2024-06-01 09:30:00\""));
+    }
+
+    @Test
+    public void testHandleGetTaskChanges_Success() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/changes");
+        when(request.getParameter("since")).thenReturn("1700000000000");
+        TaskChanges changes = new TaskChanges();
+        changes.getTasks().add(createTask(1, "修改的任务"));
+        changes.getDeletedTaskIds().add(2);
+        changes.setToken("1700000060000");
+        when(taskService.getTaskChanges(1, "1700000000000")).thenReturn(changes);
+        when(taskService.getTaskCountsByStatus(1)).thenReturn(Collections.singletonMap(0, 3));
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果
+        String responseContent = stringWriter.toString();
+        assertTrue("响应应包含success:true", responseContent.contains("\"success\":true"));
+        assertTrue("响应应包含下次同步的标记", responseContent.contains("\"token\":\"1700000060000\""));
+        assertTrue("响应应包含删除的任务", responseContent.contains("\"deletedTaskIds\":[2]"));
+        assertTrue("响应应包含full:false", responseContent.contains("\"full\":false"));
+        assertTrue("响应应包含修改的任务", responseContent.contains("修改的任务"));
+        assertTrue("有变化时应包含状态计数", responseContent.contains("\"statusCounts\":{\"0\":3}"));
+    }
+
+    @Test
+    public void testHandleGetTaskChanges_InvalidToken() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/changes");
+        when(request.getParameter("since")).thenReturn("abc");
+        when(taskService.getTaskChanges(1, "abc")).thenThrow(new NumberFormatException());
+
+        // 执行测试
+        taskServlet.doGet(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        assertTrue(stringWriter.toString().contains("\"message\":\"同步标记格式错误\""));
+    }
+
     @Test
     public void testInvalidPath() throws ServletException, IOException {
         // 设置请求参数
@@ -292,4 +590,82 @@ public class TaskServletTest {
         task.setUserId(1);
         return task;
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testHandleBatchCreateTasks_Success() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/batchCreate");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader(
+                "[{\"title\":\"任务一\",\"description\":\"描述\",\"priority\":2,\"dueDate\":\"2024-06-30\"},"
+                        + "{\"title\":\"任务二\",\"dueDate\":\"2024-07-01\"}]")));
+        when(taskService.createTasks(anyList())).thenAnswer(invocation -> {
+            List<Task> tasks = invocation.getArgument(0);
+            tasks.get(0).setTaskId(11);
+            tasks.get(1).setTaskId(12);
+            return 2;
+        });
+
+        // 执行测试
+        taskServlet.doPost(request, response);
+
+        // 验证结果
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(taskService).createTasks(captor.capture());
+        Task first = (Task) captor.getValue().get(0);
+        Task second = (Task) captor.getValue().get(1);
+        assertEquals(Integer.valueOf(1), first.getUserId());
+        assertEquals("描述", first.getContent());
+        assertEquals(Integer.valueOf(1), second.getPriority());
+        String responseContent = stringWriter.toString();
+        assertTrue("响应应包含success:true", responseContent.contains("\"success\":true"));
+        assertTrue("响应应包含任务ID", responseContent.contains("\"taskIds\":[11,12]"));
+    }
+
+    @Test
+    public void testHandleBatchCreateTasks_InvalidJson() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/batchCreate");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader("{not json")));
+
+        // 执行测试
+        taskServlet.doPost(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        assertTrue(stringWriter.toString().contains("\"message\":\"请求数据格式错误\""));
+        verify(taskService, never()).createTasks(anyList());
+    }
+
+    @Test
+    public void testHandleBatchUpdateTaskStatus_Success() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/batchUpdateStatus");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader(
+                "[{\"taskId\":1,\"status\":2},{\"taskId\":2,\"status\":2}]")));
+        when(taskService.updateTaskStatuses(eq(1), anyList())).thenReturn(2);
+
+        // 执行测试
+        taskServlet.doPost(request, response);
+
+        // 验证结果
+        String responseContent = stringWriter.toString();
+        assertTrue("响应应包含success:true", responseContent.contains("\"success\":true"));
+        assertTrue("响应应包含更新数量", responseContent.contains("\"updated\":2"));
+    }
+
+    @Test
+    public void testHandleBatchUpdateTaskStatus_InvalidStatus() throws ServletException, IOException {
+        // 设置请求参数
+        when(request.getPathInfo()).thenReturn("/batchUpdateStatus");
+        when(request.getReader()).thenReturn(new BufferedReader(new StringReader(
+                "[{\"taskId\":1,\"status\":9}]")));
+
+        // 执行测试
+        taskServlet.doPost(request, response);
+
+        // 验证结果
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        assertTrue(stringWriter.toString().contains("\"message\":\"无效的任务状态\""));
+        verify(taskService, never()).updateTaskStatuses(anyInt(), anyList());
+    }
+}
@@ -48,6 +48,7 @@ public class UserServletTest {
 
         // 设置基本的mock行为
         when(request.getSession()).thenReturn(session);
+        when(request.getSession(false)).thenReturn(session);
         when(response.getWriter()).thenReturn(writer);
     }
 
@@ -0,0 +1,45 @@
+package com.taskmanager.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue("已插入的元素必须判定为可能存在", filter.mightContain("user" + i + "@example.com"));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("user" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("误判率应接近1%，实际误判数：" + falsePositives, falsePositives < 300);
+    }
+
+    @Test
+    public void testSaturation() {
+        BloomFilter filter = new BloomFilter(2, 0.01);
+        filter.put("a");
+        filter.put("b");
+        assertFalse(filter.isSaturated());
+        filter.put("c");
+        assertTrue(filter.isSaturated());
+        assertEquals(3, filter.getInsertions());
+    }
+}
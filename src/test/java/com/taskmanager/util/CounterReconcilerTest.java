@@ -0,0 +1,118 @@
+package com.taskmanager.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CounterReconcilerTest {
+
+    // 用户1到5，用户2和4的计数有偏差
+    private static class FakeSource implements CounterReconciler.Source {
+        final List<Integer> userIds = Arrays.asList(1, 2, 3, 4, 5);
+        final List<Integer> reconciled = new ArrayList<>();
+
+        @Override
+        public List<Integer> userIdsAfter(int afterUserId, int limit) {
+            List<Integer> result = new ArrayList<>();
+            for (Integer userId : userIds) {
+                if (userId > afterUserId && result.size() < limit) {
+                    result.add(userId);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public int reconcile(int userId) {
+            reconciled.add(userId);
+            return userId % 2 == 0 ? userId : 0;
+        }
+    }
+
+    @Test
+    public void testBatchesWalkAllUsers() {
+        CounterReconciler reconciler = new CounterReconciler(2, 60000);
+        FakeSource source = new FakeSource();
+
+        assertEquals(2, reconciler.runBatch(source));
+        assertEquals(4, reconciler.runBatch(source));
+        assertEquals(0, reconciler.runBatch(source));
+        // 一轮结束后从头开始
+        reconciler.runBatch(source);
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 1, 2), source.reconciled);
+        assertEquals(1, reconciler.getPasses());
+        assertEquals(7, reconciler.getUsers());
+        assertEquals(3, reconciler.getDriftedUsers());
+        assertEquals(8, reconciler.getRepairedRows());
+    }
+
+    @Test
+    public void testFailures() {
+        CounterReconciler reconciler = new CounterReconciler(10, 60000);
+        CounterReconciler.Source source = new FakeSource() {
+            @Override
+            public int reconcile(int userId) {
+                return userId == 3 ? -1 : 0;
+            }
+        };
+
+        assertEquals(0, reconciler.runBatch(source));
+        assertEquals(1, reconciler.getFailures());
+        assertEquals(5, reconciler.getUsers());
+    }
+
+    @Test
+    public void testRunsInBackgroundAfterFailure() throws Exception {
+        CounterReconciler reconciler = new CounterReconciler(10, 10);
+        CountDownLatch done = new CountDownLatch(5);
+        AtomicInteger calls = new AtomicInteger();
+        List<String> threads = new CopyOnWriteArrayList<>();
+        FakeSource source = new FakeSource() {
+            @Override
+            public List<Integer> userIdsAfter(int afterUserId, int limit) {
+                threads.add(Thread.currentThread().getName());
+                // 第一批出现异常，之后的批次仍按间隔执行
+                if (calls.incrementAndGet() == 1) {
+                    throw new IllegalStateException("数据库不可用");
+                }
+                return super.userIdsAfter(afterUserId, limit);
+            }
+
+            @Override
+            public int reconcile(int userId) {
+                done.countDown();
+                return 0;
+            }
+        };
+
+        reconciler.start(source);
+        reconciler.start(source);
+        try {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            reconciler.stop(5000);
+        }
+        assertFalse(reconciler.isRunning());
+        assertTrue(reconciler.getFailures() >= 1);
+        // 在独立的对账线程上执行，重复启动不会创建第二个线程
+        assertTrue(threads.stream().allMatch("counter-reconciler"::equals));
+
+        int stoppedAt = calls.get();
+        Thread.sleep(50);
+        assertEquals(stoppedAt, calls.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidArguments() {
+        new CounterReconciler(0, 60000);
+    }
+}
@@ -0,0 +1,55 @@
+package com.taskmanager.util;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.taskmanager.bean.Task;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.Assert.*;
+
+public class DateUtilTest {
+    private final Gson gson = DateUtil.gsonBuilder().create();
+
+    @Test
+    public void testParseDate() {
+        assertEquals(LocalDate.of(2024, 2, 29), DateUtil.parseDate("2024-02-29"));
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testParseDate_InvalidDay() {
+        // 严格校验，不会像SimpleDateFormat那样顺延到3月1日
+        DateUtil.parseDate("2023-02-29");
+    }
+
+    @Test(expected = DateTimeParseException.class)
+    public void testParseDate_TrailingText() {
+        DateUtil.parseDate("2024-06-30abc");
+    }
+
+    @Test
+    public void testTaskJsonRoundTrip() {
+        Task task = new Task();
+        task.setTitle("任务");
+        task.setDueDate(LocalDate.of(2024, 6, 30));
+        task.setCreatedDate(LocalDateTime.of(2024, 6, 1, 9, 30, 5));
+
+        String json = gson.toJson(task);
+        assertTrue(json.contains("\"dueDate\":\"2024-06-30\""));
+        assertTrue(json.contains("\"createdDate\":\"2024-06-01 09:30:05\""));
+        assertFalse("空字段不输出", json.contains("modifiedDate"));
+
+        Task parsed = gson.fromJson(json, Task.class);
+        assertEquals(task.getDueDate(), parsed.getDueDate());
+        assertEquals(task.getCreatedDate(), parsed.getCreatedDate());
+        assertNull(parsed.getModifiedDate());
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void testTaskJson_InvalidDate() {
+        gson.fromJson("{\"title\":\"任务\",\"dueDate\":\"2024/06/30\"}", Task.class);
+    }
+}
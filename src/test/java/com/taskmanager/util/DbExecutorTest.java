@@ -0,0 +1,88 @@
+package com.taskmanager.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class DbExecutorTest {
+    private DbExecutor executor;
+
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        executor = new DbExecutor(2, 4, 5000);
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(done::countDown, () -> fail("不应超时"));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, executor.getThreads());
+        assertEquals(4, executor.getQueueCapacity());
+    }
+
+    @Test
+    public void testRejectWhenQueueFull() throws Exception {
+        executor = new DbExecutor(1, 1, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // 占满唯一的线程，再占满队列
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        }, () -> { });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> { }, () -> { });
+        assertEquals(1, executor.getQueueDepth());
+
+        try {
+            executor.execute(() -> { }, () -> { });
+            fail("队列已满时应拒绝");
+        } catch (RejectedExecutionException e) {
+            assertEquals(1, executor.getRejected());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testExpiredWhileQueued() throws Exception {
+        executor = new DbExecutor(1, 4, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        }, () -> { });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicBoolean ran = new AtomicBoolean();
+        CountDownLatch expired = new CountDownLatch(1);
+        executor.execute(() -> ran.set(true), expired::countDown);
+        // 排队超过超时时间后才释放线程
+        Thread.sleep(100);
+        release.countDown();
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+        assertFalse("排队超时的任务不应执行", ran.get());
+        assertEquals(1, executor.getExpired());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.taskmanager.util;
+
+import org.junit.Test;
+
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.*;
+
+public class DeflaterPoolTest {
+
+    @Test
+    public void testReuse() {
+        DeflaterPool pool = new DeflaterPool(6, 2);
+        Deflater first = pool.borrow();
+        first.setInput(new byte[]{1, 2, 3});
+        pool.release(first);
+
+        // 归还的Deflater已重置，可以直接复用
+        Deflater second = pool.borrow();
+        assertSame(first, second);
+        assertEquals(0, second.getBytesRead());
+        assertEquals(1, pool.getCreated());
+    }
+
+    @Test
+    public void testMaxIdle() {
+        DeflaterPool pool = new DeflaterPool(6, 1);
+        Deflater first = pool.borrow();
+        Deflater second = pool.borrow();
+        pool.release(first);
+        pool.release(second);
+
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(2, pool.getCreated());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLevel() {
+        new DeflaterPool(10, 1);
+    }
+}
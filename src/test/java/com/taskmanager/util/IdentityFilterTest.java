@@ -0,0 +1,97 @@
+package com.taskmanager.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.*;
+
+public class IdentityFilterTest {
+
+    // 固定返回一个用户，记录读取次数
+    private static class FakeSource implements IdentityFilter.Source {
+        final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public int count() {
+            return 1;
+        }
+
+        @Override
+        public int forEach(BiConsumer<String, String> handler) {
+            loads.incrementAndGet();
+            handler.accept("Alice", "alice@example.com");
+            return 1;
+        }
+    }
+
+    @Test
+    public void testNormalizedLookup() {
+        IdentityFilter filter = new IdentityFilter(60000);
+        // 没有预热时一律视为可能存在
+        assertTrue(filter.mightContainUsername("bob"));
+
+        assertTrue(filter.warm(new FakeSource()));
+        assertTrue(filter.mightContainUsername(" alice "));
+        assertTrue(filter.mightContainEmail("ALICE@example.com"));
+        assertFalse(filter.mightContainEmail("bob@example.com"));
+
+        filter.add("bob", "bob@example.com");
+        assertTrue(filter.mightContainEmail("bob@example.com"));
+    }
+
+    @Test
+    public void testAddDuringRebuild() {
+        IdentityFilter filter = new IdentityFilter(60000);
+        FakeSource source = new FakeSource() {
+            @Override
+            public int forEach(BiConsumer<String, String> handler) {
+                // 读取期间注册的用户不在读取结果中
+                filter.add("bob", "bob@example.com");
+                return super.forEach(handler);
+            }
+        };
+
+        assertTrue(filter.warm(source));
+        assertTrue(filter.mightContainUsername("bob"));
+        assertEquals(1, filter.getRebuilds());
+    }
+
+    @Test
+    public void testRebuildWhenSaturated() {
+        IdentityFilter filter = new IdentityFilter(60000);
+        FakeSource source = new FakeSource();
+        filter.warm(source);
+        for (int i = 0; i < IdentityFilter.MIN_CAPACITY; i++) {
+            filter.add("user" + i, null);
+        }
+
+        // 插入数超过容量后下一次检查时重建
+        filter.mightContainUsername("alice");
+        assertEquals(2, source.loads.get());
+        assertEquals(2, filter.getRebuilds());
+    }
+
+    @Test
+    public void testRetryAfterFailure() throws Exception {
+        IdentityFilter filter = new IdentityFilter(20);
+        AtomicInteger calls = new AtomicInteger();
+        FakeSource source = new FakeSource() {
+            @Override
+            public int count() {
+                return calls.incrementAndGet() == 1 ? -1 : 1;
+            }
+        };
+
+        // 失败后在重试间隔内不再读取数据库
+        assertFalse(filter.warm(source));
+        assertTrue(filter.mightContainEmail("bob@example.com"));
+        assertEquals(1, calls.get());
+
+        Thread.sleep(50);
+        assertFalse(filter.mightContainEmail("bob@example.com"));
+        assertTrue(filter.isWarm());
+        assertEquals(1, filter.getFailures());
+    }
+}
@@ -0,0 +1,82 @@
+package com.taskmanager.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PerUserCacheTest {
+
+    @Test
+    public void testGetMatchesVersion() {
+        UserVersions versions = new UserVersions(16);
+        PerUserCache<String> cache = new PerUserCache<>(10, 60000, versions);
+
+        long version = cache.version(1);
+        assertNull(cache.get(1, version));
+        assertTrue(cache.put(1, "a", version));
+        assertEquals("a", cache.get(1, version));
+
+        // 版本号变化后不再命中
+        versions.bump(1);
+        assertNull(cache.get(1, cache.version(1)));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testPutAfterWriteIsDropped() {
+        UserVersions versions = new UserVersions(16);
+        PerUserCache<String> cache = new PerUserCache<>(10, 60000, versions);
+
+        // 读取数据期间发生写入，建立的结果不保存
+        long version = cache.version(1);
+        versions.bump(1);
+        assertFalse(cache.put(1, "a", version));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testWrittenKeepsEntry() {
+        UserVersions versions = new UserVersions(16);
+        PerUserCache<StringBuilder> cache = new PerUserCache<>(10, 60000, versions);
+        cache.put(1, new StringBuilder("a"), cache.version(1));
+
+        // 写入在递增版本号之后同步到已保存的值上
+        versions.bump(1);
+        cache.written(1).append("b");
+        assertEquals("ab", cache.get(1, cache.version(1)).toString());
+        assertNull(cache.written(2));
+    }
+
+    @Test
+    public void testEvictByUsersAndWeight() {
+        UserVersions versions = new UserVersions(16);
+        PerUserCache<String> cache = new PerUserCache<>(2, 5, 60000, versions);
+        cache.put(1, "a", 2, cache.version(1));
+        cache.put(2, "b", 2, cache.version(2));
+        cache.get(1, cache.version(1));
+
+        // 总权重超出上限，淘汰最久未访问的用户2
+        cache.put(3, "c", 2, cache.version(3));
+        assertEquals(2, cache.size());
+        assertEquals(4, cache.getWeight());
+        assertNull(cache.get(2, cache.version(2)));
+
+        cache.invalidate(1);
+        assertEquals(2, cache.getWeight());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        PerUserCache<String> cache = new PerUserCache<>(10, 1, new UserVersions(16));
+        cache.put(1, "a", cache.version(1));
+        Thread.sleep(5);
+        assertNull(cache.get(1, cache.version(1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidArguments() {
+        new PerUserCache<String>(0, 60000, new UserVersions(16));
+    }
+}
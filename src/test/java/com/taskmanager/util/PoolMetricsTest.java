@@ -0,0 +1,73 @@
+package com.taskmanager.util;
+
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PoolMetricsTest {
+
+    private Connection fakeConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> null);
+    }
+
+    @Test
+    public void testWaitHistogram() {
+        PoolMetrics metrics = new PoolMetrics(0);
+        metrics.borrowed(fakeConnection(), TimeUnit.MICROSECONDS.toNanos(500));
+        metrics.borrowed(fakeConnection(), TimeUnit.MILLISECONDS.toNanos(20));
+        metrics.borrowed(fakeConnection(), TimeUnit.SECONDS.toNanos(60));
+
+        long[] counts = metrics.getWaitBucketCounts();
+        assertEquals(PoolMetrics.WAIT_BUCKETS.length + 1, counts.length);
+        assertEquals(1, counts[0]);                   // <= 1ms
+        assertEquals(2, counts[3]);                   // <= 25ms
+        assertEquals(2, counts[counts.length - 2]);   // <= 30s
+        assertEquals(3, counts[counts.length - 1]);   // +Inf
+        assertEquals(3, metrics.getBorrows());
+        assertEquals(60.0205, metrics.getWaitSeconds(), 1e-9);
+    }
+
+    @Test
+    public void testTimeoutsAndFailures() {
+        PoolMetrics metrics = new PoolMetrics(0);
+        metrics.failed(new SQLException("timeout", new NoSuchElementException()), 100);
+        metrics.failed(new SQLException("refused"), 100);
+
+        assertEquals(1, metrics.getTimeouts());
+        assertEquals(1, metrics.getFailures());
+    }
+
+    @Test
+    public void testLeakDetection() throws Exception {
+        PoolMetrics metrics = new PoolMetrics(1);
+        Connection leaked = metrics.borrowed(fakeConnection(), 0);
+        Connection returned = metrics.borrowed(fakeConnection(), 0);
+        returned.close();
+        Thread.sleep(5);
+
+        // 跳过检查间隔，直接检查
+        metrics.checkLeaks(System.nanoTime() + TimeUnit.SECONDS.toNanos(2));
+        assertEquals(1, metrics.getLeaks());
+        assertEquals(1, metrics.getSuspectedLeaks());
+
+        // 同一个泄漏只报告一次，归还后不再计入
+        metrics.checkLeaks(System.nanoTime() + TimeUnit.SECONDS.toNanos(4));
+        assertEquals(1, metrics.getLeaks());
+        leaked.close();
+        assertEquals(0, metrics.getSuspectedLeaks());
+    }
+
+    @Test
+    public void testLeakDetectionDisabled() {
+        PoolMetrics metrics = new PoolMetrics(0);
+        Connection conn = fakeConnection();
+        assertSame(conn, metrics.borrowed(conn, 0));
+    }
+}
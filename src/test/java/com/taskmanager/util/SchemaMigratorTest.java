@@ -0,0 +1,61 @@
+package com.taskmanager.util;
+
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SchemaMigratorTest {
+
+    @Test
+    public void testList() throws Exception {
+        List<SchemaMigrator.Migration> migrations = SchemaMigrator.list();
+
+        assertFalse(migrations.isEmpty());
+        assertEquals(1, migrations.get(0).version);
+        assertEquals("task_list_indexes", migrations.get(0).description);
+        assertEquals(SchemaMigrator.MIGRATION_DIR + "V1__task_list_indexes.sql", migrations.get(0).resource);
+        assertNull(migrations.get(0).database);
+        assertEquals("mysql", migrations.get(1).database);
+    }
+
+    @Test
+    public void testMigrateOnStartup() throws Exception {
+        // DBUtil初始化时已执行全部迁移，只属于其他数据库的迁移被跳过，再次执行不做任何事
+        try (Connection conn = DBUtil.getConnection()) {
+            Set<Integer> applied = SchemaMigrator.appliedVersions(conn);
+            String database = conn.getMetaData().getDatabaseProductName();
+            for (SchemaMigrator.Migration migration : SchemaMigrator.list()) {
+                boolean applicable = migration.database == null || migration.database.equalsIgnoreCase(database);
+                assertEquals(migration.resource, applicable, applied.contains(migration.version));
+            }
+            assertEquals(0, SchemaMigrator.migrate(conn));
+        }
+    }
+
+    @Test
+    public void testTaskIndexes() throws Exception {
+        // 准备测试数据
+        Set<String> indexes = new HashSet<>();
+        try (Connection conn = DBUtil.getConnection();
+                ResultSet rs = conn.getMetaData().getIndexInfo(null, null, "tasks", false, false)) {
+            while (rs.next()) {
+                if (rs.getString("INDEX_NAME") != null) {
+                    indexes.add(rs.getString("INDEX_NAME").toLowerCase());
+                }
+            }
+        }
+
+        // 验证结果：组合索引已建立，被覆盖的单列索引已删除
+        assertTrue(indexes.contains("idx_tasks_user_due"));
+        assertTrue(indexes.contains("idx_tasks_user_status_due"));
+        assertTrue(indexes.contains("idx_tasks_category_due"));
+        assertFalse(indexes.contains("idx_tasks_status"));
+        assertFalse(indexes.contains("idx_tasks_due_date"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.taskmanager.util;
+
+import com.taskmanager.bean.Task;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TaskCacheTest {
+
+    private List<Task> tasks(Integer userId, Integer... taskIds) {
+        Task[] result = new Task[taskIds.length];
+        for (int i = 0; i < taskIds.length; i++) {
+            result[i] = new Task();
+            result[i].setTaskId(taskIds[i]);
+            result[i].setUserId(userId);
+        }
+        return Arrays.asList(result);
+    }
+
+    @Test
+    public void testGetAndPut() {
+        TaskCache cache = new TaskCache(10, 4, 60000);
+        List<Task> tasks = tasks(1, 100, 101);
+        cache.put(1, "all", tasks, cache.begin());
+
+        assertSame(tasks, cache.get(1, "all"));
+        assertNull(cache.get(1, "other"));
+        assertNull(cache.get(2, "all"));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testStalePutRejected() {
+        TaskCache cache = new TaskCache(10, 4, 60000);
+        // 读取开始后发生写操作，读到的旧数据不能进入缓存
+        long stamp = cache.begin();
+        cache.invalidate(1);
+        List<Task> tasks = tasks(1, 100);
+        cache.put(1, "all", tasks, stamp);
+        assertNull(cache.get(1, "all"));
+
+        // 失效之后开始的读取可以正常写入
+        cache.put(1, "all", tasks, cache.begin());
+        assertNotNull(cache.get(1, "all"));
+    }
+
+    @Test
+    public void testInvalidate() {
+        TaskCache cache = new TaskCache(10, 4, 60000);
+        cache.put(1, "all", tasks(1, 100), cache.begin());
+        cache.put(2, "all", tasks(2, 200), cache.begin());
+
+        cache.invalidate(1);
+
+        assertNull(cache.get(1, "all"));
+        assertNotNull(cache.get(2, "all"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        TaskCache cache = new TaskCache(2, 2, 60000);
+        cache.put(1, "a", "1a", cache.begin());
+        cache.put(1, "b", "1b", cache.begin());
+        cache.get(1, "a");
+        // 每个用户最多2个视图，淘汰最久未访问的b
+        cache.put(1, "c", "1c", cache.begin());
+        assertNull(cache.get(1, "b"));
+        assertNotNull(cache.get(1, "a"));
+
+        // 最多2个用户，淘汰最久未访问的用户2
+        cache.put(2, "a", "2a", cache.begin());
+        cache.get(1, "a");
+        cache.put(3, "a", "3a", cache.begin());
+        assertNull(cache.get(2, "a"));
+        assertNotNull(cache.get(1, "a"));
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    public void testExpire() throws Exception {
+        TaskCache cache = new TaskCache(10, 4, 1);
+        cache.put(1, "all", "value", cache.begin());
+        Thread.sleep(10);
+        assertNull(cache.get(1, "all"));
+        assertEquals(1, cache.getExpirations());
+        assertTrue(cache.isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+package com.taskmanager.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TaskEventBusTest {
+
+    @Test
+    public void testPublishToUserSubscriptions() {
+        TaskEventBus bus = new TaskEventBus(8, 4);
+        AtomicInteger signals = new AtomicInteger();
+        TaskEventBus.Subscription first = bus.subscribe(1, signals::incrementAndGet);
+        TaskEventBus.Subscription second = bus.subscribe(1, signals::incrementAndGet);
+        TaskEventBus.Subscription other = bus.subscribe(2, signals::incrementAndGet);
+
+        bus.publish(1, TaskEventBus.CREATED, 100);
+
+        // 同一用户的每个订阅都收到事件，其他用户收不到
+        assertEquals(2, signals.get());
+        TaskEventBus.Event event = first.poll();
+        assertEquals(TaskEventBus.CREATED, event.getType());
+        assertEquals(Arrays.asList(100), event.getTaskIds());
+        assertNull(first.poll());
+        assertEquals(TaskEventBus.CREATED, second.poll().getType());
+        assertNull(other.poll());
+        assertEquals(1, bus.getPublished());
+        assertEquals(2, bus.getDelivered());
+    }
+
+    @Test
+    public void testOverflowCollapsesToResync() {
+        TaskEventBus bus = new TaskEventBus(2, 4);
+        TaskEventBus.Subscription subscription = bus.subscribe(1, () -> { });
+
+        for (int i = 0; i < 5; i++) {
+            bus.publish(1, TaskEventBus.STATUS, i);
+        }
+
+        // 缓冲区满后积压的事件被丢弃，只剩一条resync
+        assertEquals(TaskEventBus.RESYNC, subscription.poll().getType());
+        assertNull(subscription.poll());
+        assertEquals(1, bus.getOverflows());
+
+        // resync取出后恢复正常投递
+        bus.publish(1, TaskEventBus.DELETED, 9);
+        assertEquals(TaskEventBus.DELETED, subscription.poll().getType());
+    }
+
+    @Test
+    public void testSubscriptionLimit() {
+        TaskEventBus bus = new TaskEventBus(8, 2);
+        TaskEventBus.Subscription first = bus.subscribe(1, () -> { });
+        assertNotNull(bus.subscribe(1, () -> { }));
+        assertNull("超过每个用户的订阅上限", bus.subscribe(1, () -> { }));
+        assertNotNull("其他用户不受影响", bus.subscribe(2, () -> { }));
+        assertEquals(3, bus.getSubscriptionCount());
+
+        // 关闭后释放名额，重复关闭没有影响
+        first.close();
+        first.close();
+        assertTrue(first.isClosed());
+        assertEquals(2, bus.getSubscriptionCount());
+        assertNotNull(bus.subscribe(1, () -> { }));
+    }
+
+    @Test
+    public void testClosedSubscriptionReceivesNothing() {
+        TaskEventBus bus = new TaskEventBus(8, 4);
+        AtomicInteger signals = new AtomicInteger();
+        TaskEventBus.Subscription subscription = bus.subscribe(1, signals::incrementAndGet);
+        subscription.close();
+
+        bus.publish(1, TaskEventBus.UPDATED, 100);
+
+        assertEquals(0, signals.get());
+        assertNull(subscription.poll());
+        assertEquals("没有订阅者时不计入发布数", 0, bus.getPublished());
+    }
+}
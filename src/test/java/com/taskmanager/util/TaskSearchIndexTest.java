@@ -0,0 +1,171 @@
+package com.taskmanager.util;
+
+import com.taskmanager.bean.Task;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TaskSearchIndexTest {
+
+    @Test
+    public void testTerms() {
+        // 中文按单字和相邻两字，字母数字按单词并转为小写
+        assertEquals(Arrays.asList("测", "试", "测试", "report", "v2"), TaskSearchIndex.terms("测试 Report-V2"));
+        assertEquals(Arrays.asList("ab", "中", "c"), TaskSearchIndex.terms("ab中c"));
+        assertTrue(TaskSearchIndex.terms(null).isEmpty());
+    }
+
+    @Test
+    public void testParse() {
+        TaskSearchIndex.Query query = TaskSearchIndex.parse("周报 Rep");
+        assertEquals(Collections.singleton("周报"), query.exact);
+        assertEquals(Collections.singleton("rep"), query.prefixes);
+
+        // 只有一个字时按单字匹配
+        assertEquals(Collections.singleton("周"), TaskSearchIndex.parse("周").exact);
+        assertTrue(TaskSearchIndex.parse(" ,. ").isEmpty());
+    }
+
+    @Test
+    public void testSearchRanksTitleFirst() {
+        TaskSearchIndex index = new TaskSearchIndex(10, 1000, 100, 60000, new UserVersions(16));
+        List<Task> tasks = Arrays.asList(
+                task(1, "整理文档", "季度周报"),
+                task(2, "提交周报", "内容"),
+                task(3, "其他", "内容"));
+
+        List<Task> result = index.search(1, "周报", 10, () -> tasks);
+
+        assertEquals(2, result.size());
+        assertEquals(Integer.valueOf(2), result.get(0).getTaskId());
+        assertEquals(Integer.valueOf(1), result.get(1).getTaskId());
+        // 返回的是摘要，内容只保留预览
+        assertNull(result.get(0).getContent());
+        assertEquals("内容", result.get(0).getDescription());
+    }
+
+    @Test
+    public void testPrefixAndAnd() {
+        TaskSearchIndex index = new TaskSearchIndex(10, 1000, 100, 60000, new UserVersions(16));
+        List<Task> tasks = Arrays.asList(
+                task(1, "Weekly report", "周报"),
+                task(2, "Report draft", "草稿"),
+                task(3, "Reply email", "周报"));
+
+        assertEquals(3, index.search(1, "re", 10, () -> tasks).size());
+        List<Task> result = index.search(1, "rep 周报", 10, () -> tasks);
+        assertEquals(2, result.size());
+        assertTrue(index.search(1, "rep 不存在", 10, () -> tasks).isEmpty());
+        assertEquals(1, index.search(1, "re", 1, () -> tasks).size());
+        assertEquals(1, index.getLoads());
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        TaskSearchIndex index = new TaskSearchIndex(10, 1000, 100, 60000, new UserVersions(16));
+        List<Task> tasks = new ArrayList<>(Collections.singletonList(task(1, "买菜", "")));
+        assertEquals(1, index.search(1, "买菜", 10, () -> tasks).size());
+
+        index.put(task(2, "买菜做饭", ""));
+        index.put(task(1, "打扫", ""));
+        index.updateStatus(1, 2, 2);
+        List<Task> result = index.search(1, "买菜", 10, () -> tasks);
+        assertEquals(1, result.size());
+        assertEquals(Integer.valueOf(2), result.get(0).getTaskId());
+        assertEquals(Integer.valueOf(2), result.get(0).getStatus());
+
+        index.remove(1, 2);
+        assertTrue(index.search(1, "买菜", 10, () -> tasks).isEmpty());
+        assertEquals(1, index.search(1, "打扫", 10, () -> tasks).size());
+        assertEquals(1, index.getLoads());
+    }
+
+    @Test
+    public void testWriteDuringLoad() {
+        UserVersions versions = new UserVersions(16);
+        TaskSearchIndex index = new TaskSearchIndex(10, 1000, 100, 60000, versions);
+        AtomicInteger loads = new AtomicInteger();
+
+        // 加载期间发生写入，加载的结果可能已过期，不保存
+        List<Task> result = index.search(1, "任务", 10, () -> {
+            loads.incrementAndGet();
+            versions.bump(1);
+            index.remove(1, 1);
+            return Collections.singletonList(task(1, "任务", ""));
+        });
+        assertEquals(1, result.size());
+        assertEquals(0, index.size());
+
+        index.search(1, "任务", 10, () -> {
+            loads.incrementAndGet();
+            return Collections.emptyList();
+        });
+        assertEquals(2, loads.get());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testFallback() {
+        TaskSearchIndex index = new TaskSearchIndex(10, 100, 2, 60000, new UserVersions(16));
+        List<Task> tasks = Arrays.asList(task(1, "任务", ""), task(2, "任务", ""), task(3, "任务", ""));
+
+        // 任务数超过上限或加载失败时返回null，由调用方查询数据库
+        assertNull(index.search(1, "任务", 10, () -> tasks));
+        assertNull(index.search(1, "任务", 10, () -> tasks));
+        assertEquals(1, index.getLoads());
+        assertNull(index.search(2, "任务", 10, () -> null));
+        assertEquals(3, index.getFallbacks());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        TaskSearchIndex index = new TaskSearchIndex(2, 1000, 100, 60000, new UserVersions(16));
+        List<Task> tasks = Collections.singletonList(task(1, "任务", ""));
+        index.search(1, "任务", 10, () -> tasks);
+        index.search(2, "任务", 10, () -> tasks);
+        index.search(1, "任务", 10, () -> tasks);
+        index.search(3, "任务", 10, () -> tasks);
+
+        assertEquals(2, index.size());
+        index.search(1, "任务", 10, () -> tasks);
+        assertEquals(3, index.getLoads());
+    }
+
+    @Test
+    public void testEvictByTaskCount() {
+        TaskSearchIndex index = new TaskSearchIndex(10, 3, 2, 60000, new UserVersions(16));
+        List<Task> tasks = Arrays.asList(task(1, "任务", ""), task(2, "任务", ""));
+        index.search(1, "任务", 10, () -> tasks);
+        index.search(2, "任务", 10, () -> tasks);
+
+        // 总任务数超出上限，淘汰最久未访问的用户1
+        assertEquals(1, index.size());
+        assertEquals(2, index.getIndexedTasks());
+        index.invalidate(2);
+        assertEquals(0, index.getIndexedTasks());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidArguments() {
+        new TaskSearchIndex(0, 1000, 100, 60000, new UserVersions(16));
+    }
+
+    private Task task(int taskId, String title, String content) {
+        Task task = new Task();
+        task.setTaskId(taskId);
+        task.setUserId(1);
+        task.setTitle(title);
+        task.setContent(content);
+        task.setPriority(1);
+        task.setDueDate(LocalDate.of(2024, 6, 1));
+        task.setStatus(0);
+        return task;
+    }
+}
@@ -0,0 +1,98 @@
+package com.taskmanager.util;
+
+import com.taskmanager.bean.Category;
+import com.taskmanager.bean.Task;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TaskSuggesterTest {
+
+    @Test
+    public void testKeys() {
+        // 全文和每个词的开头，中文与字母的交界也算作词的开头
+        assertEquals(Arrays.asList("提交 weekly report", "weekly report", "report"),
+                TaskSuggester.keys("提交 Weekly Report"));
+        assertEquals(Arrays.asList("买菜v2", "v2"), TaskSuggester.keys("买菜v2"));
+    }
+
+    @Test
+    public void testLookupRanksByUsage() {
+        List<Category> categories = Collections.singletonList(category(1, "周末"));
+        List<Task> tasks = Arrays.asList(
+                task("周报", 1), task("周报", null), task("提交周报", null), task("周会纪要", 1), task("Weekly review", null));
+        TaskSuggester.Dictionary dictionary = TaskSuggester.build(tasks, categories, 1000);
+
+        // 分类“周末”下有2个任务，“周报”有2个同名任务，较短的在前
+        assertEquals(Arrays.asList("周末", "周报", "周会纪要"), dictionary.lookup("周", 10));
+        assertEquals(Arrays.asList("周末", "周报"), dictionary.lookup("周", 2));
+        // 标题中间的词按词的开头匹配，大小写不敏感
+        assertEquals(Collections.singletonList("Weekly review"), dictionary.lookup("rev", 10));
+        assertTrue(dictionary.lookup("报", 10).isEmpty());
+    }
+
+    @Test
+    public void testMemoryBudget() {
+        List<Task> tasks = Arrays.asList(task("abc", null), task("abd", null), task("abd", null));
+
+        // 超出字符数上限时优先保留使用次数多的标题
+        TaskSuggester.Dictionary dictionary = TaskSuggester.build(tasks, null, 4);
+        assertEquals(Collections.singletonList("abd"), dictionary.lookup("ab", 10));
+    }
+
+    @Test
+    public void testRebuildAfterWrite() {
+        UserVersions versions = new UserVersions(16);
+        TaskSuggester suggester = new TaskSuggester(10, 1000, 60000, versions);
+        AtomicInteger loads = new AtomicInteger();
+        List<Task> tasks = Collections.singletonList(task("周报", null));
+
+        assertEquals(Collections.singletonList("周报"), suggester.suggest(1, "周", 10, () -> {
+            loads.incrementAndGet();
+            return tasks;
+        }, Collections::emptyList));
+        suggester.suggest(1, "周报", 10, () -> {
+            loads.incrementAndGet();
+            return tasks;
+        }, Collections::emptyList);
+        assertEquals(1, loads.get());
+
+        // 用户的数据版本号变化后重新建立
+        versions.bump(1);
+        assertEquals(Collections.singletonList("周会"), suggester.suggest(1, "周", 10,
+                () -> Collections.singletonList(task("周会", null)), Collections::emptyList));
+        assertEquals(2, suggester.getLoads());
+        assertEquals(1, suggester.getHits());
+    }
+
+    @Test
+    public void testInvalidPrefix() {
+        TaskSuggester suggester = new TaskSuggester(10, 1000, 60000, new UserVersions(16));
+        char[] longPrefix = new char[TaskSuggester.MAX_PREFIX_LENGTH + 1];
+        Arrays.fill(longPrefix, 'a');
+
+        assertTrue(suggester.suggest(1, "  ", 10, Collections::emptyList, Collections::emptyList).isEmpty());
+        assertTrue(suggester.suggest(1, new String(longPrefix), 10,
+                Collections::emptyList, Collections::emptyList).isEmpty());
+        assertEquals(0, suggester.getLoads());
+    }
+
+    private Task task(String title, Integer categoryId) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setCategoryId(categoryId);
+        return task;
+    }
+
+    private Category category(int categoryId, String name) {
+        Category category = new Category();
+        category.setCategoryId(categoryId);
+        category.setCategoryName(name);
+        return category;
+    }
+}